@@ -0,0 +1,142 @@
+package br.com.libraryapi.loadtest;
+
+import static io.gatling.javaapi.core.CoreDsl.StringBody;
+import static io.gatling.javaapi.core.CoreDsl.bodyString;
+import static io.gatling.javaapi.core.CoreDsl.constantUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.exec;
+import static io.gatling.javaapi.core.CoreDsl.global;
+import static io.gatling.javaapi.core.CoreDsl.group;
+import static io.gatling.javaapi.core.CoreDsl.jsonPath;
+import static io.gatling.javaapi.core.CoreDsl.pause;
+import static io.gatling.javaapi.core.CoreDsl.rampUsersPerSec;
+import static io.gatling.javaapi.core.CoreDsl.scenario;
+import static io.gatling.javaapi.http.HttpDsl.http;
+import static io.gatling.javaapi.http.HttpDsl.status;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import io.gatling.javaapi.core.OpenInjectionStep;
+import io.gatling.javaapi.core.ScenarioBuilder;
+import io.gatling.javaapi.core.Simulation;
+import io.gatling.javaapi.http.HttpProtocolBuilder;
+
+/**
+ * Trafego de uma biblioteca sobre o catalogo do perfil loadtest: consultas ao
+ * acervo, historico de emprestimos de um livro e retiradas seguidas de
+ * devolucao, com a popularidade dos livros do {@link SyntheticCatalog}. Cada
+ * cenario e um grupo no relatorio HTML (target/gatling), com vazao e
+ * percentis proprios. Propriedades: baseUrl, books, seed, usersPerSec,
+ * rampSeconds e durationSeconds.
+ */
+public class LibraryTrafficSimulation extends Simulation {
+
+	private static final String BASE_URL = System.getProperty("baseUrl", "http://localhost:8080");
+	private static final int BOOKS = Integer.getInteger("books", 20_000);
+	private static final long SEED = Long.getLong("seed", 42);
+	private static final double USERS_PER_SEC = Double.parseDouble(System.getProperty("usersPerSec", "20"));
+	private static final Duration RAMP = Duration.ofSeconds(Long.getLong("rampSeconds", 30));
+	private static final Duration DURATION = Duration.ofSeconds(Long.getLong("durationSeconds", 120));
+
+	// Fracao dos usuarios que chega em cada cenario
+	private static final double BROWSING = 0.7;
+	private static final double HISTORY = 0.2;
+	private static final double CHECKOUT = 0.1;
+
+	private final SyntheticCatalog catalog = new SyntheticCatalog(BOOKS, SEED);
+
+	private final Iterator<Map<String, Object>> patrons = Stream.generate((Supplier<Map<String, Object>>) () -> {
+		Random random = ThreadLocalRandom.current();
+		int book = catalog.popularBook(random);
+		String customer = catalog.customer(random);
+		Map<String, Object> patron = new HashMap<>();
+		patron.put("isbn", catalog.isbn(book));
+		patron.put("titleWord", catalog.titleWord(random));
+		patron.put("category", catalog.category(random));
+		patron.put("page", random.nextInt(10) < 7 ? 0 : 1 + random.nextInt(4));
+		patron.put("customer", customer);
+		patron.put("email", SyntheticCatalog.email(customer));
+		return patron;
+	}).iterator();
+
+	private final HttpProtocolBuilder protocol = http
+			.baseUrl(BASE_URL)
+			.acceptHeader("application/json")
+			.acceptEncodingHeader("gzip")
+			.contentTypeHeader("application/json");
+
+	private final ScenarioBuilder browsing = scenario("Catalog browsing")
+			.feed(patrons)
+			.exec(group("Catalog browsing").on(
+					exec(http("search by title")
+							.get("/api/books")
+							.queryParam("title", "#{titleWord}")
+							.queryParam("page", "#{page}")
+							.queryParam("size", 20)
+							.check(status().is(200), jsonPath("$.content[0].id").optional().saveAs("bookId")))
+					.pause(1, 3)
+					.exec(http("search by category")
+							.get("/api/books")
+							.queryParam("category", "#{category}")
+							.queryParam("page", "#{page}")
+							.queryParam("size", 20)
+							.check(status().is(200)))
+					.pause(1, 3)
+					.doIf(session -> session.contains("bookId")).then(
+							exec(http("book details")
+									.get("/api/books/#{bookId}")
+									.check(status().is(200))))));
+
+	private final ScenarioBuilder history = scenario("Loan history")
+			.feed(patrons)
+			.exec(group("Loan history").on(
+					exec(http("search by isbn")
+							.get("/api/books")
+							.queryParam("isbn", "#{isbn}")
+							.check(status().is(200), jsonPath("$.content[0].id").saveAs("bookId")))
+					.pause(1)
+					.exec(http("loans of book")
+							.get("/api/books/#{bookId}/loans")
+							.queryParam("page", 0)
+							.queryParam("size", 10)
+							.check(status().is(200)))));
+
+	// Livros populares costumam estar emprestados: 400 "Book already loaned" faz parte do trafego
+	private final ScenarioBuilder checkout = scenario("Checkout and return")
+			.feed(patrons)
+			.exec(group("Checkout and return").on(
+					exec(http("checkout")
+							.post("/api/loans")
+							.body(StringBody("{\"isbn\":\"#{isbn}\",\"customer\":\"#{customer}\",\"email\":\"#{email}\"}"))
+							.check(status().in(201, 400), status().saveAs("checkoutStatus"), bodyString().saveAs("loanId")))
+					.doIf(session -> session.getInt("checkoutStatus") == 201).then(
+							pause(2, 5)
+							.exec(http("return")
+									.patch("/api/loans/#{loanId}")
+									.body(StringBody("{\"returned\":true}"))
+									.check(status().is(200))))));
+
+	{
+		setUp(
+				browsing.injectOpen(arrivals(BROWSING)),
+				history.injectOpen(arrivals(HISTORY)),
+				checkout.injectOpen(arrivals(CHECKOUT)))
+			.protocols(protocol)
+			.assertions(global().failedRequests().percent().lt(1.0));
+	}
+
+	private static OpenInjectionStep[] arrivals(double share) {
+		double rate = USERS_PER_SEC * share;
+		return new OpenInjectionStep[] {
+				rampUsersPerSec(0.1).to(rate).during(RAMP),
+				constantUsersPerSec(rate).during(DURATION)
+		};
+	}
+
+}
@@ -0,0 +1,13 @@
+package br.com.libraryapi.api;
+
+import org.springframework.http.MediaType;
+
+public final class ApiMediaType {
+
+	public static final String COMPACT_JSON_VALUE = "application/vnd.libraryapi.compact+json";
+	public static final MediaType COMPACT_JSON = MediaType.valueOf(COMPACT_JSON_VALUE);
+
+	private ApiMediaType() {
+	}
+
+}
@@ -1,7 +1,11 @@
 package br.com.libraryapi.api;
 
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.TransactionTimedOutException;
 import org.springframework.validation.BindingResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
@@ -10,6 +14,8 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.server.ResponseStatusException;
 
 import br.com.libraryapi.api.exception.ApiErrors;
+import br.com.libraryapi.change.ResyncRequiredException;
+import br.com.libraryapi.deadline.RequestDeadlineFilter;
 import br.com.libraryapi.exception.BusinessException;
 
 @RestControllerAdvice
@@ -33,5 +39,19 @@ public class ApplicationControllerAdvice {
 	public ResponseEntity handleResponseStatusException(ResponseStatusException ex) {
 		return new ResponseEntity(new ApiErrors(ex), ex.getStatus());
 	}
+	
+	@ExceptionHandler(ResyncRequiredException.class)
+	@ResponseStatus(HttpStatus.GONE)
+	public ApiErrors handleResyncRequired(ResyncRequiredException ex) {
+		return new ApiErrors(ex.getMessage());
+	}
+	
+	@ExceptionHandler({ QueryTimeoutException.class, TransactionTimedOutException.class })
+	@ResponseStatus(HttpStatus.GATEWAY_TIMEOUT)
+	public ApiErrors handleDeadlineExceeded(RuntimeException ex, HttpServletRequest request) {
+		request.setAttribute(RequestDeadlineFilter.EXCEEDED_ATTRIBUTE,
+				ex instanceof QueryTimeoutException ? "query-cancelled" : "transaction-timeout");
+		return new ApiErrors("Request deadline exceeded");
+	}
 
 }
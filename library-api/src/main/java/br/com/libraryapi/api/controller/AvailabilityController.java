@@ -0,0 +1,84 @@
+package br.com.libraryapi.api.controller;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.libraryapi.api.dto.AvailabilityDTO;
+import br.com.libraryapi.event.AvailabilityFeed;
+import br.com.libraryapi.index.AvailabilityIndex;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.service.BookService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/books")
+@RequiredArgsConstructor
+@Api("Availability API")
+public class AvailabilityController {
+
+	private static final int MAX_IDS = 1000;
+
+	private final AvailabilityFeed feed;
+	private final AvailabilityIndex availabilityIndex;
+	private final BookService bookService;
+
+	@GetMapping("/{id}/availability")
+	@ApiOperation("Obtain the availability of a Book by id")
+	public AvailabilityDTO availability(@PathVariable Long id) {
+		if (bookService.getExistingIds(Collections.singletonList(id)).isEmpty()) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		return new AvailabilityDTO(id, availabilityIndex.isAvailable(id));
+	}
+
+	@GetMapping("/availability")
+	@ApiOperation("Obtain the availability of several Books by id, omitting unknown or deleted ones")
+	public List<AvailabilityDTO> availability(@RequestParam("ids") List<Long> ids) {
+		if (ids.size() > MAX_IDS) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "At most " + MAX_IDS + " ids per request");
+		}
+		List<Long> distinct = ids.stream().distinct().collect(Collectors.toList());
+		Set<Long> existing = new HashSet<>(bookService.getExistingIds(distinct));
+		return distinct.stream()
+					   .filter(existing::contains)
+					   .map(id -> new AvailabilityDTO(id, availabilityIndex.isAvailable(id)))
+					   .collect(Collectors.toList());
+	}
+
+	@GetMapping(value = "/availability/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+	@ApiOperation("Stream loan and return events, optionally filtered by book id or ISBN")
+	public SseEmitter stream(@RequestParam(name = "bookId", required = false) List<Long> bookIds,
+			@RequestParam(name = "isbn", required = false) List<String> isbns) {
+
+		Set<Long> ids = new HashSet<>();
+		if (bookIds != null) {
+			ids.addAll(bookIds);
+		}
+		if (isbns != null) {
+			isbns.forEach(isbn -> ids.add(bookService
+											.getBookByIsbn(isbn)
+											.map(Book::getId)
+											.orElseThrow(() ->
+												new ResponseStatusException(
+														HttpStatus.BAD_REQUEST,
+														"Book not found for passed ISBN"))));
+		}
+		return feed.subscribe(ids);
+	}
+
+}
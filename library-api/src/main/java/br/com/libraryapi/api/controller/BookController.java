@@ -1,5 +1,6 @@
 package br.com.libraryapi.api.controller;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -21,7 +22,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import br.com.libraryapi.api.ApiMediaType;
 import br.com.libraryapi.api.dto.BookDTO;
+import br.com.libraryapi.api.dto.CompactPageDTO;
 import br.com.libraryapi.api.dto.LoanDTO;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
@@ -80,12 +83,12 @@ public class BookController {
 	@ApiOperation("Update a book")
 	public BookDTO update(@PathVariable Long id, @RequestBody @Valid BookDTO dto) {
 		log.info("updating book of id: {}", id);
-		return service.getById(id).map(book -> {
-			book.setAuthor(dto.getAuthor());
-			book.setTitle(dto.getTitle());
-			book = service.update(book);
-			return modelMapper.map(book, BookDTO.class);
-		}).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+		if (!service.updateTitleAuthor(id, dto.getTitle(), dto.getAuthor(), dto.getCategory())) {
+			throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+		}
+		return service.getById(id)
+					  .map(book -> modelMapper.map(book, BookDTO.class))
+					  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
 
 	}
 
@@ -99,6 +102,16 @@ public class BookController {
 		return new PageImpl<BookDTO>(list, pageRequest, result.getTotalElements());
 	}
 
+	@GetMapping(produces = ApiMediaType.COMPACT_JSON_VALUE)
+	@ApiOperation("Find Books by params (compact page)")
+	public CompactPageDTO<BookDTO> findCompact(BookDTO dto, Pageable pageRequest) {
+		Book filter = modelMapper.map(dto, Book.class);
+		Page<Book> result = service.find(filter, pageRequest);
+		List<BookDTO> list = result.getContent().stream().map(entity -> modelMapper.map(entity, BookDTO.class))
+				.collect(Collectors.toList());
+		return CompactPageDTO.of(result, list);
+	}
+
 	@GetMapping("/{id}/loans")
 	@ApiOperation("Find Loans By a Book id")
 	public Page<LoanDTO> loansByBook(@PathVariable Long id, Pageable pageable) {
@@ -126,4 +139,30 @@ public class BookController {
 
 	}
 
+	@GetMapping(value = "/{id}/loans", produces = ApiMediaType.COMPACT_JSON_VALUE)
+	@ApiOperation("Find Loans By a Book id (compact page, book sent once)")
+	public CompactPageDTO<LoanDTO> loansByBookCompact(@PathVariable Long id, Pageable pageable) {
+
+		Book book = service.getById(id).orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+		Page<Loan> result = loanService.getLoansByBook(book, pageable);
+		List<LoanDTO> list = 
+					result
+						.getContent()
+						.stream()
+						.map(loan -> {
+							LoanDTO loanDTO = 
+									modelMapper
+									.map(loan, LoanDTO.class);
+						 loanDTO.setIsbn(book.getIsbn());
+						 loanDTO.setBook(null);
+						 return loanDTO;
+				}).collect(Collectors.toList());
+
+		CompactPageDTO<LoanDTO> page = CompactPageDTO.of(result, list);
+		page.setBooks(Collections.singletonList(modelMapper.map(book, BookDTO.class)));
+		return page;
+
+	}
+
 }
@@ -0,0 +1,65 @@
+package br.com.libraryapi.api.controller;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.com.libraryapi.api.dto.BookDTO;
+import br.com.libraryapi.api.dto.ChangeFeedDTO;
+import br.com.libraryapi.api.dto.LoanDTO;
+import br.com.libraryapi.change.ChangeFeed;
+import br.com.libraryapi.service.ChangeService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/changes")
+@RequiredArgsConstructor
+@Api("Change feed API")
+public class ChangeController {
+
+	private static final int MAX_SIZE = 1000;
+
+	private final ChangeService service;
+	private final ModelMapper modelMapper;
+
+	@GetMapping
+	@ApiOperation("Obtain the Books and Loans changed after a sequence, with deleted Books as tombstones")
+	public ChangeFeedDTO changes(@RequestParam(name = "since", defaultValue = "0") long since,
+			@RequestParam(name = "size", defaultValue = "500") int size) {
+		if (since < 0 || size < 1 || size > MAX_SIZE) {
+			throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+					"since must not be negative and size must be between 1 and " + MAX_SIZE);
+		}
+		ChangeFeed feed = service.getChangesSince(since, size);
+		List<BookDTO> books = feed.getBooks()
+								  .stream()
+								  .map(book -> modelMapper.map(book, BookDTO.class))
+								  .collect(Collectors.toList());
+		List<LoanDTO> loans = feed.getLoans()
+								  .stream()
+								  .map(loan -> {
+									  LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
+									  loanDTO.setIsbn(loan.getBook().getIsbn());
+									  loanDTO.setBook(null);
+									  return loanDTO;
+								  })
+								  .collect(Collectors.toList());
+		return ChangeFeedDTO.builder()
+							.sequence(feed.getSequence())
+							.more(feed.isMore())
+							.books(books)
+							.deletedBooks(feed.getDeletedBookIds())
+							.loans(loans)
+							.build();
+	}
+
+}
@@ -1,7 +1,10 @@
 package br.com.libraryapi.api.controller;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 import org.modelmapper.ModelMapper;
@@ -19,7 +22,9 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
 
+import br.com.libraryapi.api.ApiMediaType;
 import br.com.libraryapi.api.dto.BookDTO;
+import br.com.libraryapi.api.dto.CompactPageDTO;
 import br.com.libraryapi.api.dto.LoanDTO;
 import br.com.libraryapi.api.dto.LoanFilterDTO;
 import br.com.libraryapi.api.dto.ReturnedLoanDTO;
@@ -62,6 +67,12 @@ public class LoanController {
 	public void returnedBook(@PathVariable Long id,
 							@RequestBody ReturnedLoanDTO dto) {
 	
+		if (Boolean.TRUE.equals(dto.getReturned())) {
+			if (!service.markReturned(id)) {
+				throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+			}
+			return;
+		}
 		Loan loan = service.getById(id)
 						   .orElseThrow(() -> 
 						   		new ResponseStatusException(
@@ -71,6 +82,20 @@ public class LoanController {
 		service.update(loan);
 	}
 
+	@PostMapping("{id}/renewals")
+	public LoanDTO renew(@PathVariable Long id) {
+		
+		Loan loan = service.getById(id)
+						   .orElseThrow(() -> 
+						   		new ResponseStatusException(
+						   				HttpStatus.NOT_FOUND));
+		loan = service.renew(loan);
+		
+		LoanDTO loanDTO = modelMapper.map(loan, LoanDTO.class);
+		loanDTO.setBook(modelMapper.map(loan.getBook(), BookDTO.class));
+		return loanDTO;
+	}
+
 	@GetMapping
 	public Page<LoanDTO> find(LoanFilterDTO dto, 
 							Pageable pageRequest){
@@ -90,6 +115,29 @@ public class LoanController {
 		return new PageImpl<LoanDTO>(loans, pageRequest, result.getTotalElements());
 	}
 
+	@GetMapping(produces = ApiMediaType.COMPACT_JSON_VALUE)
+	public CompactPageDTO<LoanDTO> findCompact(LoanFilterDTO dto, 
+							Pageable pageRequest){
+		
+		Page<Loan> result = service.find(dto, pageRequest);
+		Map<Long, BookDTO> books = new LinkedHashMap<>();
+		List<LoanDTO> loans = result.getContent()
+			  .stream()
+			  .map( entity-> {
+				  
+				  Book book = entity.getBook();
+				  books.computeIfAbsent(book.getId(), id -> modelMapper.map(book, BookDTO.class));
+				  LoanDTO loanDTO = modelMapper.map(entity, LoanDTO.class);
+				  loanDTO.setIsbn(book.getIsbn());
+				  loanDTO.setBook(null);
+				  return loanDTO;
+				  
+			  } ).collect(Collectors.toList());
+		CompactPageDTO<LoanDTO> page = CompactPageDTO.of(result, loans);
+		page.setBooks(new ArrayList<>(books.values()));
+		return page;
+	}
+
 
 
 
@@ -0,0 +1,47 @@
+package br.com.libraryapi.api.controller;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.validation.Valid;
+
+import org.modelmapper.ModelMapper;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import br.com.libraryapi.api.dto.LoanPolicyDTO;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.service.LoanPolicyService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/loan-policies")
+@RequiredArgsConstructor
+@Api("Loan Policy API")
+public class LoanPolicyController {
+
+	private final LoanPolicyService service;
+	private final ModelMapper modelMapper;
+
+	@GetMapping
+	@ApiOperation("List the loan policies by book category")
+	public List<LoanPolicyDTO> list() {
+		return service.getAll()
+					  .stream()
+					  .map(policy -> modelMapper.map(policy, LoanPolicyDTO.class))
+					  .collect(Collectors.toList());
+	}
+
+	@PutMapping
+	@ApiOperation("Create or replace the loan policy of a book category")
+	public LoanPolicyDTO save(@RequestBody @Valid LoanPolicyDTO dto) {
+		LoanPolicy policy = service.save(modelMapper.map(dto, LoanPolicy.class));
+		return modelMapper.map(policy, LoanPolicyDTO.class);
+	}
+
+}
@@ -0,0 +1,82 @@
+package br.com.libraryapi.api.controller;
+
+import javax.validation.Valid;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import br.com.libraryapi.api.dto.ReservationDTO;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.ReservationService;
+import io.swagger.annotations.Api;
+import io.swagger.annotations.ApiOperation;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/reservations")
+@RequiredArgsConstructor
+@Api("Reservation API")
+public class ReservationController {
+
+	private final ReservationService service;
+	private final BookService bookService;
+
+	@PostMapping
+	@ResponseStatus(HttpStatus.CREATED)
+	@ApiOperation("Join the reservation queue of a loaned Book")
+	public Long create(@RequestBody @Valid ReservationDTO dto) {
+
+		Book book = bookService
+						.getBookByIsbn(dto.getIsbn())
+						.orElseThrow(() ->
+							new ResponseStatusException(
+									HttpStatus.BAD_REQUEST,
+									"Book not found for passed ISBN"));
+		Reservation entity = Reservation.builder()
+										.book(book)
+										.customer(dto.getCustomer())
+										.email(dto.getEmail())
+										.build();
+
+		return service.save(entity).getId();
+	}
+
+	@GetMapping("{id}")
+	@ApiOperation("Obtain a Reservation by id")
+	public ReservationDTO get(@PathVariable Long id) {
+		return service.getById(id)
+					  .map(this::toDTO)
+					  .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+	}
+
+	@DeleteMapping("{id}")
+	@ResponseStatus(HttpStatus.NO_CONTENT)
+	@ApiOperation("Leave the reservation queue")
+	public void cancel(@PathVariable Long id) {
+		Reservation reservation = service.getById(id)
+										 .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+		service.cancel(reservation);
+	}
+
+	private ReservationDTO toDTO(Reservation reservation) {
+		return ReservationDTO.builder()
+							 .id(reservation.getId())
+							 .isbn(reservation.getBook().getIsbn())
+							 .customer(reservation.getCustomer())
+							 .email(reservation.getEmail())
+							 .status(reservation.getStatus().name())
+							 .loanId(reservation.getLoanId())
+							 .build();
+	}
+
+}
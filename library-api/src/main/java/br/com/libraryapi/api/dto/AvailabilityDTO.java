@@ -0,0 +1,17 @@
+package br.com.libraryapi.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AvailabilityDTO {
+
+	private Long bookId;
+	private boolean available;
+
+}
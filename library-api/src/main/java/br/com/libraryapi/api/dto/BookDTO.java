@@ -21,5 +21,7 @@ public class BookDTO {
 	
 	@NotEmpty
 	private String isbn;
+	
+	private String category;
 
 }
@@ -0,0 +1,22 @@
+package br.com.libraryapi.api.dto;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeedDTO {
+
+	private long sequence;
+	private boolean more;
+	private List<BookDTO> books;
+	private List<Long> deletedBooks;
+	private List<LoanDTO> loans;
+
+}
@@ -0,0 +1,28 @@
+package br.com.libraryapi.api.dto;
+
+import java.util.List;
+
+import org.springframework.data.domain.Page;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompactPageDTO<T> {
+
+	private int page;
+	private int size;
+	private long totalElements;
+	private int totalPages;
+	private List<T> content;
+	private List<BookDTO> books;
+
+	public static <T> CompactPageDTO<T> of(Page<?> page, List<T> content) {
+		return new CompactPageDTO<>(page.getNumber(), page.getSize(), page.getTotalElements(),
+				page.getTotalPages(), content, null);
+	}
+
+}
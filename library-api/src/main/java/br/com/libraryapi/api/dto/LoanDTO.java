@@ -1,5 +1,7 @@
 package br.com.libraryapi.api.dto;
 
+import java.time.LocalDate;
+
 import javax.validation.constraints.NotEmpty;
 
 import lombok.AllArgsConstructor;
@@ -21,5 +23,8 @@ public class LoanDTO {
 	@NotEmpty
 	private String email;
 	private BookDTO book;
+	private LocalDate dueDate;
+	private Integer renewals;
+	private Boolean returned;
 	
 }
@@ -0,0 +1,29 @@
+package br.com.libraryapi.api.dto;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LoanPolicyDTO {
+
+	@NotEmpty
+	private String category;
+
+	@Min(1)
+	private int loanDays;
+
+	@Min(0)
+	private int maxRenewals;
+
+	@Min(1)
+	private int renewalDays;
+
+}
@@ -0,0 +1,25 @@
+package br.com.libraryapi.api.dto;
+
+import javax.validation.constraints.NotEmpty;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReservationDTO {
+
+	private Long id;
+	@NotEmpty
+	private String isbn;
+	@NotEmpty
+	private String customer;
+	private String email;
+	private String status;
+	private Long loanId;
+
+}
@@ -0,0 +1,169 @@
+package br.com.libraryapi.cache;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import br.com.libraryapi.deadline.RequestDeadline;
+import br.com.libraryapi.invalidation.Invalidation;
+import br.com.libraryapi.invalidation.InvalidationBatch;
+import br.com.libraryapi.model.entity.Book;
+
+/**
+ * Cache das paginas de busca de livros. A chave inclui a geracao do catalogo:
+ * cada alteracao de livro incrementa a geracao e as entradas antigas deixam de
+ * ser alcancadas, saindo por tamanho ou TTL.
+ */
+@Component
+public class BookSearchCache {
+
+	private final AsyncCache<Key, Page<Book>> cache;
+	private final AtomicLong generation = new AtomicLong();
+
+	public BookSearchCache(@Value("${application.book-search-cache.maximum-size:10000}") long maximumSize,
+			@Value("${application.book-search-cache.ttl:PT5M}") Duration ttl) {
+		this.cache = Caffeine.newBuilder()
+							 .maximumSize(maximumSize)
+							 .expireAfterWrite(ttl)
+							 .buildAsync();
+	}
+
+	/**
+	 * Retorna a pagina em cache ou executa a busca na thread chamadora. Buscas
+	 * identicas simultaneas aguardam a mesma execucao, cada uma ate o seu
+	 * proprio {@link RequestDeadline}. Se a execucao compartilhada falhar pelo
+	 * prazo da requisicao que a iniciou, quem aguardava busca de novo com o seu.
+	 */
+	public Page<Book> get(Book filter, Pageable pageable, Supplier<Page<Book>> search) {
+		Key key = Key.of(filter, pageable, generation.get());
+		while (true) {
+			CompletableFuture<Page<Book>> loading = new CompletableFuture<>();
+			CompletableFuture<Page<Book>> cached = cache.asMap().putIfAbsent(key, loading);
+			if (cached == null) {
+				return load(key, loading, search);
+			}
+			try {
+				return await(cached);
+			} catch (ExecutionException e) {
+				Throwable cause = e.getCause();
+				if (!(cause instanceof QueryTimeoutException || cause instanceof TransactionTimedOutException)) {
+					throw cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+				}
+				cache.asMap().remove(key, cached);
+			}
+		}
+	}
+
+	/**
+	 * Invalida as buscas apos o commit da alteracao, para que uma busca na nova
+	 * geracao nao leia dados ainda nao confirmados.
+	 */
+	public void invalidate() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					generation.incrementAndGet();
+				}
+
+			});
+		} else {
+			generation.incrementAndGet();
+		}
+	}
+
+	/**
+	 * Livro alterado em outra instancia: a alteracao ja foi confirmada.
+	 */
+	@EventListener
+	public void onRemoteInvalidation(InvalidationBatch batch) {
+		if (batch.contains(Invalidation.Type.BOOK)) {
+			generation.incrementAndGet();
+		}
+	}
+
+	public long generation() {
+		return generation.get();
+	}
+
+	public long size() {
+		return cache.synchronous().estimatedSize();
+	}
+
+	private Page<Book> load(Key key, CompletableFuture<Page<Book>> loading, Supplier<Page<Book>> search) {
+		try {
+			Page<Book> page = search.get();
+			loading.complete(page);
+			return page;
+		} catch (RuntimeException e) {
+			cache.asMap().remove(key, loading);
+			loading.completeExceptionally(e);
+			throw e;
+		}
+	}
+
+	/**
+	 * Aguarda a busca de outra requisicao; a falha dela chega como
+	 * ExecutionException, o estouro do proprio prazo como QueryTimeoutException.
+	 */
+	private static Page<Book> await(CompletableFuture<Page<Book>> future) throws ExecutionException {
+		Optional<RequestDeadline> deadline = RequestDeadline.current();
+		try {
+			if (!deadline.isPresent()) {
+				return future.get();
+			}
+			return future.get(Math.max(0, deadline.get().remaining().toNanos()), TimeUnit.NANOSECONDS);
+		} catch (TimeoutException e) {
+			throw new QueryTimeoutException("Request deadline exceeded while waiting for an identical search");
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new QueryTimeoutException("Interrupted while waiting for an identical search");
+		}
+	}
+
+	// Mesmos campos considerados pelo Example de BookServiceImpl.find (textos sem caixa)
+	@lombok.Value
+	static class Key {
+
+		Long id;
+		String title;
+		String author;
+		String isbn;
+		String category;
+		Long isbnNumber;
+		Pageable pageable;
+		long generation;
+
+		static Key of(Book filter, Pageable pageable, long generation) {
+			return new Key(filter.getId(), lower(filter.getTitle()), lower(filter.getAuthor()),
+					lower(filter.getIsbn()), lower(filter.getCategory()), filter.getIsbnNumber(), pageable,
+					generation);
+		}
+
+		private static String lower(String value) {
+			return value == null ? null : value.toLowerCase(Locale.ROOT);
+		}
+
+	}
+
+}
@@ -0,0 +1,25 @@
+package br.com.libraryapi.change;
+
+import java.util.List;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * Estado atual dos livros e emprestimos alterados depois de uma sequencia. Os
+ * livros excluidos vem apenas pelo id; seus emprestimos deixam de existir junto.
+ * O cliente continua da sequencia retornada, repetindo enquanto houver mais.
+ */
+@Getter
+@AllArgsConstructor
+public class ChangeFeed {
+
+	private final List<Book> books;
+	private final List<Long> deletedBookIds;
+	private final List<Loan> loans;
+	private final long sequence;
+	private final boolean more;
+
+}
@@ -0,0 +1,145 @@
+package br.com.libraryapi.change;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.function.LongFunction;
+
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.libraryapi.model.entity.ChangeWatermark;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Sequencia de alteracoes gravada em change_seq de livros e emprestimos, tirada
+ * da sequencia change_seq do banco e portanto unica entre instancias. Uma
+ * sequencia fica em andamento ate o fim da transacao que a gravou.
+ * <p>
+ * Cada instancia publica em change_watermark, a cada intervalo, a maior
+ * sequencia abaixo da qual as suas escritas ja terminaram: a maior confirmada,
+ * lida antes, limitada pela menor das suas em andamento. Como o que for
+ * reservado depois sai da sequencia acima da maior confirmada,
+ * {@link #stableSequence()} e o menor entre o valor local e os publicados
+ * pelas outras instancias. O feed fica ate um intervalo atras das escritas de
+ * outras instancias; uma instancia sem publicar ha mais de watermarkTimeout e
+ * dada como parada (as transacoes dela ja foram desfeitas pelo banco).
+ */
+@Slf4j
+public class ChangeSequence {
+
+	private final BookRepository bookRepository;
+	private final LoanRepository loanRepository;
+	private final ChangeWatermarkRepository repository;
+	private final String node;
+	private final Duration watermarkTimeout;
+	private final Clock clock;
+	private final NavigableSet<Long> inFlight = new TreeSet<>();
+
+	public ChangeSequence(BookRepository bookRepository, LoanRepository loanRepository,
+			ChangeWatermarkRepository repository, String node, Duration watermarkTimeout, Clock clock) {
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+		this.repository = repository;
+		this.node = node;
+		this.watermarkTimeout = watermarkTimeout;
+		this.clock = clock;
+		repository.createSequence();
+		publish();
+	}
+
+	/**
+	 * Executa a escrita com uma nova sequencia.
+	 */
+	public <T> T track(LongFunction<T> write) {
+		return track(1, sequences -> write.apply(sequences[0]));
+	}
+
+	/**
+	 * Reserva count sequencias (crescentes, nao necessariamente consecutivas) e
+	 * executa a escrita com elas. Dentro de uma transacao elas ficam em andamento
+	 * ate o commit ou rollback; fora dela, ate a escrita retornar.
+	 */
+	public <T> T track(int count, Function<long[], T> write) {
+		long[] sequences = reserve(count);
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+				@Override
+				public void afterCompletion(int status) {
+					release(sequences[0]);
+				}
+
+			});
+			return write.apply(sequences);
+		}
+		try {
+			return write.apply(sequences);
+		} finally {
+			release(sequences[0]);
+		}
+	}
+
+	/**
+	 * Maior sequencia abaixo da qual todas as alteracoes, de todas as instancias,
+	 * ja terminaram.
+	 */
+	public long stableSequence() {
+		long stable = localStableSequence();
+		Long others = repository.findMinStableSeq(node, clock.instant().minus(watermarkTimeout));
+		return others == null ? stable : Math.min(stable, others);
+	}
+
+	@Scheduled(fixedDelayString = "${application.change-sequence.publish-interval:PT1S}")
+	public void publish() {
+		Instant now = clock.instant();
+		repository.save(ChangeWatermark.builder()
+									   .node(node)
+									   .stableSeq(localStableSequence())
+									   .updatedAt(now)
+									   .build());
+		repository.deleteExpired(now.minus(watermarkTimeout));
+	}
+
+	/**
+	 * Chamado ao desligar: as outras instancias deixam de esperar por esta. Se
+	 * falhar, a linha expira depois de watermarkTimeout.
+	 */
+	public void close() {
+		try {
+			repository.deleteNode(node);
+		} catch (DataAccessException e) {
+			log.debug("Change watermark of node {} not removed: {}", node, e.getMessage());
+		}
+	}
+
+	/**
+	 * A maior confirmada e lida antes de olhar as em andamento; a reserva e o
+	 * registro como em andamento acontecem juntos, sob o mesmo lock.
+	 */
+	private long localStableSequence() {
+		long committed = Math.max(bookRepository.findMaxChangeSeq(), loanRepository.findMaxChangeSeq());
+		synchronized (this) {
+			return inFlight.isEmpty() ? committed : Math.min(committed, inFlight.first() - 1);
+		}
+	}
+
+	private synchronized long[] reserve(int count) {
+		long[] sequences = repository.nextValues(count).stream().mapToLong(Long::longValue).sorted().toArray();
+		inFlight.add(sequences[0]);
+		return sequences;
+	}
+
+	private synchronized void release(long first) {
+		inFlight.remove(first);
+	}
+
+}
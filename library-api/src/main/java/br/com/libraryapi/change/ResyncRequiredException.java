@@ -0,0 +1,15 @@
+package br.com.libraryapi.change;
+
+/**
+ * O feed nao tem mais as exclusoes desde a sequencia pedida: os tombstones ja
+ * foram removidos e o espelho precisa recomecar da sequencia zero.
+ */
+public class ResyncRequiredException extends RuntimeException {
+
+	private static final long serialVersionUID = 4309517624128310756L;
+
+	public ResyncRequiredException(String message) {
+		super(message);
+	}
+
+}
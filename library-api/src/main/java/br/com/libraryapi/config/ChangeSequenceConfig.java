@@ -0,0 +1,27 @@
+package br.com.libraryapi.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+@Configuration
+public class ChangeSequenceConfig {
+
+	@Bean
+	public ChangeSequence changeSequence(BookRepository bookRepository, LoanRepository loanRepository,
+			ChangeWatermarkRepository repository,
+			@Value("${application.change-sequence.node:${random.uuid}}") String node,
+			@Value("${application.change-sequence.watermark-timeout:PT1M}") Duration watermarkTimeout) {
+		return new ChangeSequence(bookRepository, loanRepository, repository, node, watermarkTimeout,
+				Clock.systemUTC());
+	}
+
+}
@@ -0,0 +1,47 @@
+package br.com.libraryapi.config;
+
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Configuration
+@ConditionalOnProperty(name = "application.datasource.pool-size-from-cores", havingValue = "true")
+@Slf4j
+public class DataSourcePoolConfig {
+
+	static final String MAXIMUM_POOL_SIZE = "spring.datasource.hikari.maximum-pool-size";
+
+	/**
+	 * Pool fixo de (nucleos * 2) + 1 conexoes, a formula sugerida pelo HikariCP.
+	 * Um tamanho informado em spring.datasource.hikari.maximum-pool-size prevalece.
+	 */
+	@Bean
+	public static BeanPostProcessor hikariPoolSizer(Environment environment) {
+		return new BeanPostProcessor() {
+
+			@Override
+			public Object postProcessAfterInitialization(Object bean, String beanName) {
+				if (bean instanceof HikariDataSource && !environment.containsProperty(MAXIMUM_POOL_SIZE)) {
+					int size = poolSize(Runtime.getRuntime().availableProcessors());
+					HikariDataSource dataSource = (HikariDataSource) bean;
+					dataSource.setMaximumPoolSize(size);
+					dataSource.setMinimumIdle(size);
+					log.info("hikari pool sized to {} connections", size);
+				}
+				return bean;
+			}
+
+		};
+	}
+
+	static int poolSize(int cores) {
+		return cores * 2 + 1;
+	}
+
+}
@@ -0,0 +1,49 @@
+package br.com.libraryapi.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.idempotency.DatabaseIdempotencyStore;
+import br.com.libraryapi.idempotency.IdempotencyFilter;
+import br.com.libraryapi.idempotency.IdempotencyStore;
+import br.com.libraryapi.idempotency.InMemoryIdempotencyStore;
+import br.com.libraryapi.model.repository.IdempotencyRecordRepository;
+
+@Configuration
+public class IdempotencyConfig {
+
+	@Bean
+	public FilterRegistrationBean<IdempotencyFilter> idempotencyFilter(IdempotencyStore store,
+			ObjectMapper objectMapper) {
+		FilterRegistrationBean<IdempotencyFilter> registration =
+				new FilterRegistrationBean<>(new IdempotencyFilter(store, objectMapper));
+		registration.addUrlPatterns("/api/loans", "/api/books");
+		return registration;
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "application.idempotency.store", havingValue = "memory", matchIfMissing = true)
+	public IdempotencyStore inMemoryIdempotencyStore(
+			@Value("${application.idempotency.max-entries:10000}") int maxEntries,
+			@Value("${application.idempotency.ttl:PT24H}") Duration ttl,
+			@Value("${application.idempotency.in-flight-timeout:PT30S}") Duration inFlightTimeout) {
+		return new InMemoryIdempotencyStore(maxEntries, ttl, inFlightTimeout, Clock.systemUTC());
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "application.idempotency.store", havingValue = "database")
+	public IdempotencyStore databaseIdempotencyStore(IdempotencyRecordRepository repository,
+			@Value("${application.idempotency.ttl:PT24H}") Duration ttl,
+			@Value("${application.idempotency.in-flight-timeout:PT30S}") Duration inFlightTimeout) {
+		return new DatabaseIdempotencyStore(repository, ttl, inFlightTimeout, Clock.systemUTC());
+	}
+
+}
@@ -0,0 +1,29 @@
+package br.com.libraryapi.config;
+
+import java.nio.file.Paths;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.index.AvailabilityIndex;
+import br.com.libraryapi.index.IndexSnapshot;
+import br.com.libraryapi.index.IsbnIndex;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+@Configuration
+public class IndexSnapshotConfig {
+
+	@Bean
+	@ConditionalOnProperty(name = "application.index-snapshot.enabled", havingValue = "true")
+	public IndexSnapshot indexSnapshot(@Value("${application.index-snapshot.file}") String file,
+			IsbnIndex isbnIndex, AvailabilityIndex availabilityIndex, BookRepository bookRepository,
+			LoanRepository loanRepository, ChangeSequence changes) {
+		return new IndexSnapshot(Paths.get(file), isbnIndex, availabilityIndex, bookRepository, loanRepository,
+				changes);
+	}
+
+}
@@ -0,0 +1,56 @@
+package br.com.libraryapi.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
+
+import br.com.libraryapi.invalidation.BatchingInvalidationBus;
+import br.com.libraryapi.invalidation.InProcessInvalidationTransport;
+import br.com.libraryapi.invalidation.InvalidationBus;
+import br.com.libraryapi.invalidation.JdbcInvalidationTransport;
+import br.com.libraryapi.model.repository.InvalidationRecordRepository;
+
+@Configuration
+public class InvalidationBusConfig {
+
+	@Bean
+	@ConditionalOnProperty(name = "application.invalidation-bus.transport", havingValue = "none", matchIfMissing = true)
+	public InvalidationBus disabledInvalidationBus() {
+		return InvalidationBus.disabled();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "application.invalidation-bus.transport", havingValue = "jdbc")
+	public JdbcInvalidationTransport jdbcInvalidationTransport(InvalidationRecordRepository repository,
+			@Value("${application.invalidation-bus.retention:PT10M}") Duration retention) {
+		return new JdbcInvalidationTransport(repository, retention, Clock.systemUTC());
+	}
+
+	@Bean
+	@Lazy(false)
+	@ConditionalOnProperty(name = "application.invalidation-bus.transport", havingValue = "jdbc")
+	public BatchingInvalidationBus jdbcInvalidationBus(JdbcInvalidationTransport transport,
+			ApplicationEventPublisher eventPublisher,
+			@Value("${application.invalidation-bus.node:${random.uuid}}") String node,
+			@Value("${application.invalidation-bus.max-batch-size:100}") int maxBatchSize) {
+		return new BatchingInvalidationBus(node, transport, eventPublisher, maxBatchSize);
+	}
+
+	@Bean
+	@Lazy(false)
+	@ConditionalOnProperty(name = "application.invalidation-bus.transport", havingValue = "in-process")
+	public BatchingInvalidationBus inProcessInvalidationBus(ApplicationEventPublisher eventPublisher,
+			@Value("${application.invalidation-bus.node:${random.uuid}}") String node,
+			@Value("${application.invalidation-bus.max-batch-size:100}") int maxBatchSize) {
+		return new BatchingInvalidationBus(node,
+				new InProcessInvalidationTransport(InProcessInvalidationTransport.sharedHub()), eventPublisher,
+				maxBatchSize);
+	}
+
+}
@@ -0,0 +1,43 @@
+package br.com.libraryapi.config;
+
+import java.util.Collections;
+import java.util.List;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.json.MappingJackson2HttpMessageConverter;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+import br.com.libraryapi.api.ApiMediaType;
+
+@Configuration
+public class JsonConfig implements WebMvcConfigurer {
+
+	private final ObjectMapper objectMapper;
+
+	public JsonConfig(ObjectMapper objectMapper) {
+		this.objectMapper = objectMapper;
+	}
+
+	// Troca a reflexao dos getters/setters por bytecode gerado
+	@Bean
+	public static Module afterburnerModule() {
+		return new AfterburnerModule();
+	}
+
+	// Representacao compacta: mesmo ObjectMapper, sem campos nulos
+	@Override
+	public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+		MappingJackson2HttpMessageConverter compact = new MappingJackson2HttpMessageConverter(
+				objectMapper.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL));
+		compact.setSupportedMediaTypes(Collections.singletonList(ApiMediaType.COMPACT_JSON));
+		converters.add(0, compact);
+	}
+
+}
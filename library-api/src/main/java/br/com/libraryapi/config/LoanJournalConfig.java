@@ -0,0 +1,44 @@
+package br.com.libraryapi.config;
+
+import java.io.IOException;
+import java.nio.file.Paths;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.util.unit.DataSize;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.journal.LoanJournal;
+import br.com.libraryapi.journal.LoanProjection;
+import br.com.libraryapi.journal.MappedLoanJournal;
+
+@Configuration
+public class LoanJournalConfig {
+
+	@Bean(destroyMethod = "close")
+	@ConditionalOnProperty(name = "application.loan-journal.enabled", havingValue = "true")
+	public MappedLoanJournal loanJournal(@Value("${application.loan-journal.directory}") String directory,
+			@Value("${application.loan-journal.segment-size:64MB}") DataSize segmentSize) throws IOException {
+		return new MappedLoanJournal(Paths.get(directory), Math.toIntExact(segmentSize.toBytes()));
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "application.loan-journal.enabled", havingValue = "false", matchIfMissing = true)
+	public LoanJournal disabledLoanJournal() {
+		return LoanJournal.disabled();
+	}
+
+	@Bean
+	@ConditionalOnProperty(name = "application.loan-journal.enabled", havingValue = "true")
+	public LoanProjection loanProjection(LoanJournal journal, DataSource dataSource,
+			PlatformTransactionManager transactionManager, ChangeSequence changes,
+			@Value("${application.loan-journal.rebuild-on-startup:false}") boolean rebuildOnStartup) {
+		return new LoanProjection(journal, dataSource, transactionManager, changes, rebuildOnStartup);
+	}
+
+}
@@ -0,0 +1,46 @@
+package br.com.libraryapi.config;
+
+import java.time.Duration;
+import java.util.List;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.transaction.TransactionManagerCustomizers;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.deadline.RequestDeadlineFilter;
+import br.com.libraryapi.deadline.RequestDeadlineTransactionManager;
+import io.micrometer.core.instrument.MeterRegistry;
+
+@Configuration
+public class RequestDeadlineConfig {
+
+	@Bean
+	public FilterRegistrationBean<RequestDeadlineFilter> requestDeadlineFilter(
+			@Value("${application.request-deadline.default-timeout:PT30S}") Duration defaultTimeout,
+			@Value("${application.request-deadline.endpoints:}") List<String> endpoints, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry) {
+		FilterRegistrationBean<RequestDeadlineFilter> registration = new FilterRegistrationBean<>(
+				new RequestDeadlineFilter(defaultTimeout, endpoints, objectMapper, meterRegistry));
+		registration.addUrlPatterns("/api/*");
+		return registration;
+	}
+
+	/**
+	 * Substitui o JpaTransactionManager do Spring Boot, mantendo os
+	 * customizers (spring.transaction.*).
+	 */
+	@Bean
+	public PlatformTransactionManager transactionManager(
+			ObjectProvider<TransactionManagerCustomizers> transactionManagerCustomizers) {
+		RequestDeadlineTransactionManager transactionManager = new RequestDeadlineTransactionManager();
+		transactionManagerCustomizers.ifAvailable(customizers -> customizers.customize(transactionManager));
+		return transactionManager;
+	}
+
+}
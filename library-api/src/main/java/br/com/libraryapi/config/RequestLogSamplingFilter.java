@@ -0,0 +1,39 @@
+package br.com.libraryapi.config;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Marker;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class RequestLogSamplingFilter extends TurboFilter {
+
+	private final ConcurrentMap<String, AtomicLong> counters = new ConcurrentHashMap<>();
+
+	private String loggerPrefix = "br.com.libraryapi.api";
+	private int rate = 1;
+
+	@Override
+	public FilterReply decide(Marker marker, Logger logger, Level level, String format, Object[] params,
+			Throwable t) {
+		if (rate <= 1 || format == null || level != Level.INFO || !logger.getName().startsWith(loggerPrefix)) {
+			return FilterReply.NEUTRAL;
+		}
+		long count = counters.computeIfAbsent(format, key -> new AtomicLong()).getAndIncrement();
+		return count % rate == 0 ? FilterReply.NEUTRAL : FilterReply.DENY;
+	}
+
+	public void setLoggerPrefix(String loggerPrefix) {
+		this.loggerPrefix = loggerPrefix;
+	}
+
+	public void setRate(int rate) {
+		this.rate = rate;
+	}
+
+}
@@ -0,0 +1,30 @@
+package br.com.libraryapi.config;
+
+import java.time.Clock;
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import br.com.libraryapi.model.repository.JobLeaseRepository;
+import br.com.libraryapi.model.repository.JobPartitionRepository;
+import br.com.libraryapi.schedule.JobLeases;
+import br.com.libraryapi.schedule.PartitionedJobs;
+
+@Configuration
+public class ScheduleConfig {
+
+	@Bean
+	public JobLeases jobLeases(JobLeaseRepository repository,
+			@Value("${application.schedule.node:${random.uuid}}") String node) {
+		return new JobLeases(repository, node, Clock.systemUTC());
+	}
+
+	@Bean
+	public PartitionedJobs partitionedJobs(JobPartitionRepository repository, JobLeases leases,
+			@Value("${application.schedule.lease-duration:PT5M}") Duration leaseDuration) {
+		return new PartitionedJobs(repository, leases, leaseDuration, Clock.systemUTC());
+	}
+
+}
@@ -0,0 +1,76 @@
+package br.com.libraryapi.config;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "application.startup.report.enabled", havingValue = "true")
+public class StartupReport extends OncePerRequestFilter {
+
+	private final ApplicationContext context;
+	private final boolean exitAfterReady;
+	private final AtomicBoolean awaitingFirstRequest = new AtomicBoolean(true);
+
+	public StartupReport(ApplicationContext context,
+			@Value("${application.startup.exit-after-ready:false}") boolean exitAfterReady) {
+		this.context = context;
+		this.exitAfterReady = exitAfterReady;
+	}
+
+	@EventListener(ApplicationReadyEvent.class)
+	public void applicationReady() {
+		log.info("Application ready {} ms after JVM start, RSS {} kB", uptime(), residentSetKb());
+		if (exitAfterReady) {
+			System.exit(SpringApplication.exit(context));
+		}
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+			throws ServletException, IOException {
+		chain.doFilter(request, response);
+		if (awaitingFirstRequest.get() && awaitingFirstRequest.compareAndSet(true, false)) {
+			log.info("First request ({} {}) served {} ms after JVM start, RSS {} kB",
+					request.getMethod(), request.getRequestURI(), uptime(), residentSetKb());
+		}
+	}
+
+	private static long uptime() {
+		return ManagementFactory.getRuntimeMXBean().getUptime();
+	}
+
+	private static long residentSetKb() {
+		try {
+			return Files.readAllLines(Paths.get("/proc/self/status"))
+						.stream()
+						.filter(line -> line.startsWith("VmRSS:"))
+						.map(line -> line.replaceAll("\\D", ""))
+						.mapToLong(Long::parseLong)
+						.findFirst()
+						.orElse(-1);
+		} catch (IOException | RuntimeException e) {
+			return -1;
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package br.com.libraryapi.config;
 
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,6 +15,7 @@ import springfox.documentation.swagger2.annotations.EnableSwagger2;
 
 @EnableSwagger2
 @Configuration
+@ConditionalOnProperty(name = "application.swagger.enabled", havingValue = "true", matchIfMissing = true)
 public class SwaggerConfig {
 	
 	@Bean
@@ -0,0 +1,20 @@
+package br.com.libraryapi.deadline;
+
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+
+import com.zaxxer.hikari.SQLExceptionOverride;
+
+/**
+ * O HikariCP descarta a conexao em qualquer SQLTimeoutException, mas um
+ * statement cancelado pelo timeout deixa a conexao utilizavel: sem isso o
+ * rollback da transacao cancelada falha e a conexao e recriada.
+ */
+public class QueryTimeoutExceptionOverride implements SQLExceptionOverride {
+
+	@java.lang.Override
+	public Override adjudicate(SQLException exception) {
+		return exception instanceof SQLTimeoutException ? Override.DO_NOT_EVICT : Override.CONTINUE_EVICT;
+	}
+
+}
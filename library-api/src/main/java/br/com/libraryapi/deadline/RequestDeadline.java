@@ -0,0 +1,44 @@
+package br.com.libraryapi.deadline;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Prazo da requisicao HTTP em andamento na thread atual. E definido pelo
+ * {@link RequestDeadlineFilter} e lido pelo
+ * {@link RequestDeadlineTransactionManager} ao abrir cada transacao e pelo
+ * cache de buscas ao aguardar a busca de outra requisicao.
+ */
+public final class RequestDeadline {
+
+	private static final ThreadLocal<RequestDeadline> CURRENT = new ThreadLocal<>();
+
+	private final long expiresAtNanos;
+
+	private RequestDeadline(long expiresAtNanos) {
+		this.expiresAtNanos = expiresAtNanos;
+	}
+
+	public static Optional<RequestDeadline> current() {
+		return Optional.ofNullable(CURRENT.get());
+	}
+
+	static RequestDeadline start(Duration timeout) {
+		RequestDeadline deadline = new RequestDeadline(System.nanoTime() + timeout.toNanos());
+		CURRENT.set(deadline);
+		return deadline;
+	}
+
+	static void clear() {
+		CURRENT.remove();
+	}
+
+	public Duration remaining() {
+		return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+	}
+
+	public boolean isExpired() {
+		return expiresAtNanos - System.nanoTime() <= 0;
+	}
+
+}
@@ -0,0 +1,123 @@
+package br.com.libraryapi.deadline;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.api.exception.ApiErrors;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Define o prazo de cada requisicao: o configurado para o endpoint (ou o
+ * padrao), encurtado pelo header X-Request-Timeout em milissegundos quando o
+ * cliente desiste antes. As requisicoes que estouram o prazo sao medidas em
+ * library.request.deadline.exceeded, com o tempo gasto ate o cancelamento.
+ */
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+	public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+	public static final String EXCEEDED_ATTRIBUTE = RequestDeadlineFilter.class.getName() + ".EXCEEDED";
+	static final String EXCEEDED_METRIC = "library.request.deadline.exceeded";
+	private static final String DEFAULT_ENDPOINT = "default";
+
+	private final AntPathMatcher pathMatcher = new AntPathMatcher();
+	private final Duration defaultTimeout;
+	private final Map<String, Duration> endpointTimeouts;
+	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+
+	/**
+	 * @param endpoints entradas "[METODO ]padrao=duracao", por exemplo
+	 *                  "GET /api/books=PT2S"; vale a primeira que casar
+	 */
+	public RequestDeadlineFilter(Duration defaultTimeout, List<String> endpoints, ObjectMapper objectMapper,
+			MeterRegistry meterRegistry) {
+		this.defaultTimeout = defaultTimeout;
+		this.endpointTimeouts = new LinkedHashMap<>();
+		for (String endpoint : endpoints) {
+			int separator = endpoint.lastIndexOf('=');
+			if (separator < 0) {
+				throw new IllegalArgumentException("Invalid request deadline endpoint: " + endpoint);
+			}
+			endpointTimeouts.put(endpoint.substring(0, separator).trim(),
+					Duration.parse(endpoint.substring(separator + 1).trim()));
+		}
+		this.objectMapper = objectMapper;
+		this.meterRegistry = meterRegistry;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String endpoint = endpoint(request);
+		Duration timeout = endpointTimeouts.getOrDefault(endpoint, defaultTimeout);
+		String header = request.getHeader(TIMEOUT_HEADER);
+		if (header != null) {
+			long requested = parseMillis(header);
+			if (requested <= 0) {
+				writeError(response, HttpStatus.BAD_REQUEST, "Invalid " + TIMEOUT_HEADER + " header");
+				return;
+			}
+			if (requested < timeout.toMillis()) {
+				timeout = Duration.ofMillis(requested);
+			}
+		}
+
+		long started = System.nanoTime();
+		RequestDeadline.start(timeout);
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			RequestDeadline.clear();
+			Object cause = request.getAttribute(EXCEEDED_ATTRIBUTE);
+			if (cause != null) {
+				meterRegistry.timer(EXCEEDED_METRIC, "endpoint", endpoint, "cause", cause.toString())
+							 .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+			}
+		}
+	}
+
+	private String endpoint(HttpServletRequest request) {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		for (String endpoint : endpointTimeouts.keySet()) {
+			int space = endpoint.indexOf(' ');
+			String pattern = space < 0 ? endpoint : endpoint.substring(space + 1).trim();
+			if ((space < 0 || endpoint.substring(0, space).equalsIgnoreCase(request.getMethod()))
+					&& pathMatcher.match(pattern, path)) {
+				return endpoint;
+			}
+		}
+		return DEFAULT_ENDPOINT;
+	}
+
+	private static long parseMillis(String header) {
+		try {
+			return Long.parseLong(header.trim());
+		} catch (NumberFormatException e) {
+			return -1;
+		}
+	}
+
+	private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), new ApiErrors(message));
+	}
+
+}
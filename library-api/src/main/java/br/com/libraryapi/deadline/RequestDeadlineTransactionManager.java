@@ -0,0 +1,39 @@
+package br.com.libraryapi.deadline;
+
+import java.util.Optional;
+
+import org.springframework.orm.jpa.JpaTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+
+/**
+ * Limita o timeout de cada transacao aberta durante uma requisicao ao que
+ * resta do seu prazo. O Hibernate repassa o timeout da transacao para cada
+ * statement (setQueryTimeout) e o banco cancela a consulta em andamento quando
+ * ele passa, devolvendo a conexao ao pool.
+ * <p>
+ * O timeout do JDBC e em segundos inteiros e o Hibernate recusa novos
+ * statements no ultimo segundo da transacao, por isso o timeout e o prazo
+ * arredondado para cima mais um segundo: nenhum statement comeca depois do
+ * prazo e um statement lento e cancelado ate um segundo depois dele.
+ */
+public class RequestDeadlineTransactionManager extends JpaTransactionManager {
+
+	private static final long serialVersionUID = 1L;
+
+	@Override
+	protected int determineTimeout(TransactionDefinition definition) {
+		int timeout = super.determineTimeout(definition);
+		Optional<RequestDeadline> deadline = RequestDeadline.current();
+		if (!deadline.isPresent()) {
+			return timeout;
+		}
+		long remainingMillis = deadline.get().remaining().toMillis();
+		if (remainingMillis <= 0) {
+			throw new TransactionTimedOutException("Request deadline exceeded before the transaction began");
+		}
+		int remainingSeconds = (int) Math.min(Integer.MAX_VALUE - 1, (remainingMillis + 999) / 1000) + 1;
+		return timeout == TransactionDefinition.TIMEOUT_DEFAULT ? remainingSeconds : Math.min(timeout, remainingSeconds);
+	}
+
+}
@@ -0,0 +1,142 @@
+package br.com.libraryapi.event;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class AvailabilityFeed {
+
+	private final Set<Subscriber> subscribers = new CopyOnWriteArraySet<>();
+	private final int bufferSize;
+	private final Duration timeout;
+	private final ExecutorService executor;
+
+	public AvailabilityFeed(@Value("${application.availability-feed.buffer-size:256}") int bufferSize,
+			@Value("${application.availability-feed.threads:4}") int threads,
+			@Value("${application.availability-feed.timeout:PT30M}") Duration timeout) {
+		this.bufferSize = bufferSize;
+		this.timeout = timeout;
+		this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("availability-feed-"));
+	}
+
+	public SseEmitter subscribe(Set<Long> bookIds) {
+		return subscribe(bookIds, new SseEmitter(timeout.toMillis()));
+	}
+
+	SseEmitter subscribe(Set<Long> bookIds, SseEmitter emitter) {
+		Subscriber subscriber = new Subscriber(bookIds, emitter);
+		emitter.onCompletion(() -> subscribers.remove(subscriber));
+		emitter.onTimeout(() -> subscribers.remove(subscriber));
+		emitter.onError(error -> subscribers.remove(subscriber));
+		subscribers.add(subscriber);
+		return emitter;
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLoanEvent(LoanEvent event) {
+		if (event.getBookId() == null) {
+			return;
+		}
+		for (Subscriber subscriber : subscribers) {
+			if (subscriber.accepts(event.getBookId())) {
+				subscriber.offer(() -> SseEmitter.event()
+												 .name(event.getType().name().toLowerCase())
+												 .data(event, MediaType.APPLICATION_JSON));
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${application.availability-feed.heartbeat-interval:PT15S}")
+	public void heartbeat() {
+		subscribers.forEach(subscriber -> subscriber.offer(() -> SseEmitter.event().comment("heartbeat")));
+	}
+
+	public int subscriberCount() {
+		return subscribers.size();
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		subscribers.forEach(Subscriber::close);
+		executor.shutdownNow();
+	}
+
+	private class Subscriber {
+
+		private final Set<Long> bookIds;
+		private final SseEmitter emitter;
+		private final BlockingQueue<Supplier<SseEventBuilder>> queue = new ArrayBlockingQueue<>(bufferSize);
+		private final AtomicBoolean draining = new AtomicBoolean();
+		private volatile boolean closed;
+
+		Subscriber(Set<Long> bookIds, SseEmitter emitter) {
+			this.bookIds = bookIds;
+			this.emitter = emitter;
+		}
+
+		boolean accepts(long bookId) {
+			return bookIds.isEmpty() || bookIds.contains(bookId);
+		}
+
+		void offer(Supplier<SseEventBuilder> event) {
+			if (closed) {
+				return;
+			}
+			if (!queue.offer(event)) {
+				log.warn("Dropping slow availability subscriber with {} pending events", queue.size());
+				close();
+				return;
+			}
+			if (draining.compareAndSet(false, true)) {
+				executor.execute(this::drain);
+			}
+		}
+
+		private void drain() {
+			try {
+				Supplier<SseEventBuilder> event;
+				while (!closed && (event = queue.poll()) != null) {
+					emitter.send(event.get());
+				}
+			} catch (IOException | IllegalStateException e) {
+				close();
+			} finally {
+				draining.set(false);
+			}
+			if (!closed && !queue.isEmpty() && draining.compareAndSet(false, true)) {
+				executor.execute(this::drain);
+			}
+		}
+
+		void close() {
+			closed = true;
+			subscribers.remove(this);
+			queue.clear();
+			emitter.complete();
+		}
+
+	}
+
+}
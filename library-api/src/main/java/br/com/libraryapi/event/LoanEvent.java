@@ -0,0 +1,38 @@
+package br.com.libraryapi.event;
+
+import java.time.Instant;
+
+import br.com.libraryapi.model.entity.Loan;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class LoanEvent {
+
+	public enum Type {
+		LOANED, RETURNED
+	}
+
+	private final Type type;
+	private final long loanId;
+	private final Long bookId;
+	private final Instant occurredAt;
+
+	public static LoanEvent of(Loan loan) {
+		Type type = Boolean.TRUE.equals(loan.getReturned()) ? Type.RETURNED : Type.LOANED;
+		Long bookId = loan.getBook() == null ? null : loan.getBook().getId();
+		return new LoanEvent(type, loan.getId(), bookId, Instant.now());
+	}
+
+	public static LoanEvent returned(long loanId, Long bookId) {
+		return new LoanEvent(Type.RETURNED, loanId, bookId, Instant.now());
+	}
+
+	public boolean isAvailable() {
+		return type == Type.RETURNED;
+	}
+
+}
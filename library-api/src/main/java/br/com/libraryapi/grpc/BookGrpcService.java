@@ -0,0 +1,145 @@
+package br.com.libraryapi.grpc;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+
+import org.springframework.util.StringUtils;
+
+import br.com.libraryapi.grpc.proto.BookMessage;
+import br.com.libraryapi.grpc.proto.BooksGrpc;
+import br.com.libraryapi.grpc.proto.FindBooksRequest;
+import br.com.libraryapi.grpc.proto.GetBookByIsbnRequest;
+import br.com.libraryapi.grpc.proto.GetBookRequest;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.service.BookService;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+@GrpcService
+@RequiredArgsConstructor
+public class BookGrpcService extends BooksGrpc.BooksImplBase {
+
+	static final int DEFAULT_PAGE_SIZE = 100;
+	static final int MAX_PAGE_SIZE = 1000;
+
+	private final BookService service;
+
+	@Override
+	public void getBook(GetBookRequest request, StreamObserver<BookMessage> responseObserver) {
+		Book book = service.getById(request.getId())
+						   .orElseThrow(() -> Status.NOT_FOUND.asRuntimeException());
+		responseObserver.onNext(toMessage(book));
+		responseObserver.onCompleted();
+	}
+
+	@Override
+	public void getBookByIsbn(GetBookByIsbnRequest request, StreamObserver<BookMessage> responseObserver) {
+		Book book = service.getBookByIsbn(request.getIsbn())
+						   .orElseThrow(() -> Status.NOT_FOUND.asRuntimeException());
+		responseObserver.onNext(toMessage(book));
+		responseObserver.onCompleted();
+	}
+
+	@Override
+	public void createBook(BookMessage request, StreamObserver<BookMessage> responseObserver) {
+		if (request.getTitle().isEmpty() || request.getAuthor().isEmpty() || request.getIsbn().isEmpty()) {
+			throw Status.INVALID_ARGUMENT.withDescription("title, author and isbn are required").asRuntimeException();
+		}
+		Book entity = Book.builder()
+						  .title(request.getTitle())
+						  .author(request.getAuthor())
+						  .isbn(request.getIsbn())
+						  .category(emptyToNull(request.getCategory()))
+						  .build();
+		responseObserver.onNext(toMessage(service.save(entity)));
+		responseObserver.onCompleted();
+	}
+
+	@Override
+	public void findBooks(FindBooksRequest request, StreamObserver<BookMessage> responseObserver) {
+		Book filter = Book.builder()
+						  .title(emptyToNull(request.getTitle()))
+						  .author(emptyToNull(request.getAuthor()))
+						  .build();
+		int pageSize = request.getPageSize() > 0 ? Math.min(request.getPageSize(), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+		ServerCallStreamObserver<BookMessage> call = (ServerCallStreamObserver<BookMessage>) responseObserver;
+
+		BookStream stream = new BookStream(call, filter, pageSize);
+		call.setOnCancelHandler(() -> { });
+		call.setOnReadyHandler(stream);
+		// O onReady inicial pode ter chegado antes do handler ser registrado
+		stream.run();
+	}
+
+	/**
+	 * Envia os livros por chave (id maior que o ultimo enviado) somente
+	 * enquanto o cliente estiver pronto para receber; quando o buffer do
+	 * transporte enche, para e continua no proximo onReady. Assim um cliente
+	 * lento nao faz o servidor acumular o resultado inteiro em memoria.
+	 */
+	private final class BookStream implements Runnable {
+
+		private final ServerCallStreamObserver<BookMessage> call;
+		private final Book filter;
+		private final int pageSize;
+		private final Deque<Book> page = new ArrayDeque<>();
+		private long lastId;
+		private boolean lastPage;
+		private boolean done;
+
+		BookStream(ServerCallStreamObserver<BookMessage> call, Book filter, int pageSize) {
+			this.call = call;
+			this.filter = filter;
+			this.pageSize = pageSize;
+		}
+
+		@Override
+		public synchronized void run() {
+			while (!done && call.isReady()) {
+				if (call.isCancelled()) {
+					done = true;
+					return;
+				}
+				if (page.isEmpty() && !lastPage) {
+					List<Book> books = service.findAfter(filter, lastId, pageSize);
+					lastPage = books.size() < pageSize;
+					page.addAll(books);
+				}
+				Book book = page.poll();
+				if (book == null) {
+					done = true;
+					call.onCompleted();
+					return;
+				}
+				lastId = book.getId();
+				call.onNext(toMessage(book));
+			}
+		}
+
+	}
+
+	static BookMessage toMessage(Book book) {
+		BookMessage.Builder message = BookMessage.newBuilder()
+												 .setId(book.getId())
+												 .setTitle(nullToEmpty(book.getTitle()))
+												 .setAuthor(nullToEmpty(book.getAuthor()))
+												 .setIsbn(nullToEmpty(book.getIsbn()));
+		if (book.getCategory() != null) {
+			message.setCategory(book.getCategory());
+		}
+		return message.build();
+	}
+
+	static String emptyToNull(String value) {
+		return StringUtils.hasText(value) ? value : null;
+	}
+
+	static String nullToEmpty(String value) {
+		return value == null ? "" : value;
+	}
+
+}
@@ -0,0 +1,22 @@
+package br.com.libraryapi.grpc;
+
+import br.com.libraryapi.exception.BusinessException;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import net.devh.boot.grpc.server.advice.GrpcAdvice;
+import net.devh.boot.grpc.server.advice.GrpcExceptionHandler;
+
+@GrpcAdvice
+public class GrpcExceptionAdvice {
+
+	@GrpcExceptionHandler(BusinessException.class)
+	public Status handleBusinessException(BusinessException ex) {
+		return Status.FAILED_PRECONDITION.withDescription(ex.getMessage());
+	}
+
+	@GrpcExceptionHandler(StatusRuntimeException.class)
+	public Status handleStatusException(StatusRuntimeException ex) {
+		return ex.getStatus();
+	}
+
+}
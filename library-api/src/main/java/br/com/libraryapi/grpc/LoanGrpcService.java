@@ -0,0 +1,115 @@
+package br.com.libraryapi.grpc;
+
+import static br.com.libraryapi.grpc.BookGrpcService.emptyToNull;
+import static br.com.libraryapi.grpc.BookGrpcService.nullToEmpty;
+
+import java.time.LocalDate;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.grpc.proto.CheckoutFailure;
+import br.com.libraryapi.grpc.proto.CheckoutSummary;
+import br.com.libraryapi.grpc.proto.CreateLoanRequest;
+import br.com.libraryapi.grpc.proto.LoanMessage;
+import br.com.libraryapi.grpc.proto.LoansGrpc;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.StreamObserver;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.server.service.GrpcService;
+
+@GrpcService
+@RequiredArgsConstructor
+@Slf4j
+public class LoanGrpcService extends LoansGrpc.LoansImplBase {
+
+	private final LoanService service;
+	private final BookService bookService;
+
+	@Override
+	public void createLoan(CreateLoanRequest request, StreamObserver<LoanMessage> responseObserver) {
+		responseObserver.onNext(toMessage(checkout(request)));
+		responseObserver.onCompleted();
+	}
+
+	/**
+	 * Cada emprestimo do stream e feito na sua propria transacao: as falhas vao
+	 * para o resumo e nao desfazem os emprestimos anteriores.
+	 */
+	@Override
+	public StreamObserver<CreateLoanRequest> bulkCheckout(StreamObserver<CheckoutSummary> responseObserver) {
+		CheckoutSummary.Builder summary = CheckoutSummary.newBuilder();
+		return new StreamObserver<CreateLoanRequest>() {
+
+			private int index;
+
+			@Override
+			public void onNext(CreateLoanRequest request) {
+				int position = index++;
+				try {
+					summary.addLoanIds(checkout(request).getId());
+				} catch (BusinessException e) {
+					summary.addFailures(failure(position, request, e.getMessage()));
+				} catch (StatusRuntimeException e) {
+					summary.addFailures(failure(position, request, e.getStatus().getDescription()));
+				}
+			}
+
+			@Override
+			public void onError(Throwable t) {
+				log.warn("bulk checkout cancelled after {} requests: {}", index, Status.fromThrowable(t));
+			}
+
+			@Override
+			public void onCompleted() {
+				responseObserver.onNext(summary.build());
+				responseObserver.onCompleted();
+			}
+
+		};
+	}
+
+	private Loan checkout(CreateLoanRequest request) {
+		Book book = bookService
+						.getBookByIsbn(request.getIsbn())
+						.orElseThrow(() ->
+							Status.INVALID_ARGUMENT
+								  .withDescription("Book not found for passed ISBN")
+								  .asRuntimeException());
+		Loan entity = Loan.builder()
+						  .book(book)
+						  .customer(request.getCustomer())
+						  .email(emptyToNull(request.getEmail()))
+						  .loanDate(LocalDate.now())
+						  .build();
+		return service.save(entity);
+	}
+
+	private static CheckoutFailure failure(int index, CreateLoanRequest request, String message) {
+		return CheckoutFailure.newBuilder()
+							  .setIndex(index)
+							  .setIsbn(request.getIsbn())
+							  .setMessage(nullToEmpty(message))
+							  .build();
+	}
+
+	private static LoanMessage toMessage(Loan loan) {
+		LoanMessage.Builder message = LoanMessage.newBuilder()
+												 .setId(loan.getId())
+												 .setIsbn(nullToEmpty(loan.getBook().getIsbn()))
+												 .setCustomer(nullToEmpty(loan.getCustomer()))
+												 .setEmail(nullToEmpty(loan.getEmail()));
+		if (loan.getLoanDate() != null) {
+			message.setLoanDate(loan.getLoanDate().toString());
+		}
+		if (loan.getDueDate() != null) {
+			message.setDueDate(loan.getDueDate().toString());
+		}
+		return message.build();
+	}
+
+}
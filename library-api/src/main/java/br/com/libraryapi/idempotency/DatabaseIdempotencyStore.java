@@ -0,0 +1,89 @@
+package br.com.libraryapi.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.EmptyResultDataAccessException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import br.com.libraryapi.model.entity.IdempotencyRecord;
+import br.com.libraryapi.model.repository.IdempotencyRecordRepository;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class DatabaseIdempotencyStore implements IdempotencyStore {
+
+	private final IdempotencyRecordRepository repository;
+	private final Duration ttl;
+	private final Duration inFlightTimeout;
+	private final Clock clock;
+
+	@Override
+	public Optional<IdempotentResponse> reserve(String key, String fingerprint) {
+		Instant now = clock.instant();
+		Optional<IdempotencyRecord> existing = repository.findById(key);
+		if (existing.isPresent()) {
+			IdempotentResponse response = toResponse(existing.get());
+			if (!response.isExpired(now, ttl, inFlightTimeout)) {
+				return Optional.of(response);
+			}
+			try {
+				repository.delete(existing.get());
+			} catch (OptimisticLockingFailureException e) {
+				return current(key, fingerprint, now);
+			}
+		}
+		try {
+			repository.saveAndFlush(IdempotencyRecord.builder()
+													 .key(key)
+													 .fingerprint(fingerprint)
+													 .createdAt(now)
+													 .build());
+			return Optional.empty();
+		} catch (DataIntegrityViolationException e) {
+			return current(key, fingerprint, now);
+		}
+	}
+
+	@Override
+	public void complete(String key, int status, String contentType, byte[] body) {
+		repository.findById(key).ifPresent(record -> {
+			record.setStatus(status);
+			record.setContentType(contentType);
+			record.setBody(body);
+			repository.save(record);
+		});
+	}
+
+	@Override
+	public void release(String key) {
+		try {
+			repository.deleteById(key);
+		} catch (EmptyResultDataAccessException e) {
+			// ja removida pela limpeza periodica
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${application.idempotency.purge-interval:PT5M}")
+	public void purgeExpired() {
+		repository.deleteByCreatedAtBefore(clock.instant().minus(ttl));
+	}
+
+	private Optional<IdempotentResponse> current(String key, String fingerprint, Instant now) {
+		IdempotentResponse response = repository.findById(key)
+												.map(this::toResponse)
+												.orElseGet(() -> IdempotentResponse.inFlight(fingerprint, now));
+		return Optional.of(response);
+	}
+
+	private IdempotentResponse toResponse(IdempotencyRecord record) {
+		int status = record.getStatus() == null ? 0 : record.getStatus();
+		return new IdempotentResponse(record.getFingerprint(), status, record.getContentType(), record.getBody(),
+				record.getCreatedAt());
+	}
+
+}
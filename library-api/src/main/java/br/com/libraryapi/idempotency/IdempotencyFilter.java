@@ -0,0 +1,172 @@
+package br.com.libraryapi.idempotency;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ReadListener;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.api.exception.ApiErrors;
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class IdempotencyFilter extends OncePerRequestFilter {
+
+	public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+	private static final int MAX_KEY_LENGTH = 100;
+
+	private final IdempotencyStore store;
+	private final ObjectMapper objectMapper;
+
+	@Override
+	protected boolean shouldNotFilter(HttpServletRequest request) {
+		return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(IDEMPOTENCY_KEY_HEADER) == null;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		String key = request.getHeader(IDEMPOTENCY_KEY_HEADER).trim();
+		if (key.isEmpty() || key.length() > MAX_KEY_LENGTH) {
+			writeError(response, HttpStatus.BAD_REQUEST, "Invalid Idempotency-Key header");
+			return;
+		}
+
+		CachedBodyRequest cachedRequest = new CachedBodyRequest(request);
+		String fingerprint = fingerprint(cachedRequest);
+
+		IdempotentResponse existing;
+		try {
+			existing = store.reserve(key, fingerprint).orElse(null);
+		} catch (IdempotencyStoreFullException e) {
+			response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+			writeError(response, HttpStatus.SERVICE_UNAVAILABLE,
+					"Too many requests with an Idempotency-Key in progress");
+			return;
+		}
+		if (existing != null) {
+			replay(existing, fingerprint, response);
+			return;
+		}
+
+		ContentCachingResponseWrapper cachedResponse = new ContentCachingResponseWrapper(response);
+		boolean completed = false;
+		try {
+			filterChain.doFilter(cachedRequest, cachedResponse);
+			if (cachedResponse.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+				store.complete(key, cachedResponse.getStatus(), cachedResponse.getContentType(),
+						cachedResponse.getContentAsByteArray());
+				completed = true;
+			}
+		} finally {
+			if (!completed) {
+				store.release(key);
+			}
+		}
+		cachedResponse.copyBodyToResponse();
+	}
+
+	private void replay(IdempotentResponse stored, String fingerprint, HttpServletResponse response)
+			throws IOException {
+		if (!stored.getFingerprint().equals(fingerprint)) {
+			writeError(response, HttpStatus.UNPROCESSABLE_ENTITY,
+					"Idempotency-Key already used for a different request");
+		} else if (stored.isInFlight()) {
+			writeError(response, HttpStatus.CONFLICT, "A request with this Idempotency-Key is still being processed");
+		} else {
+			response.setStatus(stored.getStatus());
+			response.setHeader(REPLAYED_HEADER, "true");
+			if (stored.getContentType() != null) {
+				response.setContentType(stored.getContentType());
+			}
+			response.setContentLength(stored.getBody().length);
+			response.getOutputStream().write(stored.getBody());
+		}
+	}
+
+	private void writeError(HttpServletResponse response, HttpStatus status, String message) throws IOException {
+		response.setStatus(status.value());
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		objectMapper.writeValue(response.getOutputStream(), new ApiErrors(message));
+	}
+
+	private static String fingerprint(CachedBodyRequest request) {
+		byte[] target = (request.getMethod() + " " + request.getRequestURI() + "\n").getBytes(StandardCharsets.UTF_8);
+		byte[] content = new byte[target.length + request.body.length];
+		System.arraycopy(target, 0, content, 0, target.length);
+		System.arraycopy(request.body, 0, content, target.length, request.body.length);
+		return DigestUtils.md5DigestAsHex(content);
+	}
+
+	private static class CachedBodyRequest extends HttpServletRequestWrapper {
+
+		private final byte[] body;
+
+		CachedBodyRequest(HttpServletRequest request) throws IOException {
+			super(request);
+			this.body = StreamUtils.copyToByteArray(request.getInputStream());
+		}
+
+		@Override
+		public ServletInputStream getInputStream() {
+			ByteArrayInputStream input = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+
+				@Override
+				public int read() {
+					return input.read();
+				}
+
+				@Override
+				public int read(byte[] b, int off, int len) {
+					return input.read(b, off, len);
+				}
+
+				@Override
+				public boolean isFinished() {
+					return input.available() == 0;
+				}
+
+				@Override
+				public boolean isReady() {
+					return true;
+				}
+
+				@Override
+				public void setReadListener(ReadListener listener) {
+					throw new UnsupportedOperationException();
+				}
+
+			};
+		}
+
+		@Override
+		public BufferedReader getReader() throws IOException {
+			String encoding = getCharacterEncoding() == null ? StandardCharsets.UTF_8.name() : getCharacterEncoding();
+			return new BufferedReader(new InputStreamReader(getInputStream(), encoding));
+		}
+
+	}
+
+}
@@ -0,0 +1,19 @@
+package br.com.libraryapi.idempotency;
+
+import java.util.Optional;
+
+public interface IdempotencyStore {
+
+	/**
+	 * Reserva a chave para a requisicao atual. Retorna vazio quando a reserva foi
+	 * feita, ou a entrada existente (em andamento ou concluida) quando a chave ja
+	 * estiver em uso. Lanca IdempotencyStoreFullException quando nao houver
+	 * espaco para uma nova reserva.
+	 */
+	Optional<IdempotentResponse> reserve(String key, String fingerprint);
+
+	void complete(String key, int status, String contentType, byte[] body);
+
+	void release(String key);
+
+}
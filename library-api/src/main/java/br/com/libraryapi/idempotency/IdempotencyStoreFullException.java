@@ -0,0 +1,15 @@
+package br.com.libraryapi.idempotency;
+
+/**
+ * Todas as entradas do armazenamento estao em andamento: nao ha o que descartar
+ * para reservar uma nova chave.
+ */
+public class IdempotencyStoreFullException extends RuntimeException {
+
+	private static final long serialVersionUID = 2873105486402267519L;
+
+	public IdempotencyStoreFullException(String message) {
+		super(message);
+	}
+
+}
@@ -0,0 +1,35 @@
+package br.com.libraryapi.idempotency;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class IdempotentResponse {
+
+	private final String fingerprint;
+	private final int status;
+	private final String contentType;
+	private final byte[] body;
+	private final Instant createdAt;
+
+	public static IdempotentResponse inFlight(String fingerprint, Instant createdAt) {
+		return new IdempotentResponse(fingerprint, 0, null, null, createdAt);
+	}
+
+	public IdempotentResponse complete(int status, String contentType, byte[] body) {
+		return new IdempotentResponse(fingerprint, status, contentType, body, createdAt);
+	}
+
+	public boolean isInFlight() {
+		return status == 0;
+	}
+
+	public boolean isExpired(Instant now, Duration ttl, Duration inFlightTimeout) {
+		return createdAt.plus(isInFlight() ? inFlightTimeout : ttl).isBefore(now);
+	}
+
+}
@@ -0,0 +1,82 @@
+package br.com.libraryapi.idempotency;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Guarda ate maxEntries chaves. Ao atingir o limite descarta a entrada concluida
+ * (ou a reserva abandonada) mais antiga; uma reserva em andamento nunca e
+ * descartada, senao a repeticao da requisicao executaria de novo. Com todas em
+ * andamento, a nova chave e recusada.
+ */
+public class InMemoryIdempotencyStore implements IdempotencyStore {
+
+	private final int maxEntries;
+	private final Duration ttl;
+	private final Duration inFlightTimeout;
+	private final Clock clock;
+	private final Map<String, IdempotentResponse> entries;
+
+	public InMemoryIdempotencyStore(int maxEntries, Duration ttl, Duration inFlightTimeout, Clock clock) {
+		this.maxEntries = maxEntries;
+		this.ttl = ttl;
+		this.inFlightTimeout = inFlightTimeout;
+		this.clock = clock;
+		this.entries = new LinkedHashMap<>();
+	}
+
+	@Override
+	public synchronized Optional<IdempotentResponse> reserve(String key, String fingerprint) {
+		Instant now = clock.instant();
+		evictExpired(now);
+		IdempotentResponse existing = entries.get(key);
+		if (existing != null && !existing.isExpired(now, ttl, inFlightTimeout)) {
+			return Optional.of(existing);
+		}
+		entries.remove(key);
+		if (entries.size() >= maxEntries && !evictEldestSettled(now)) {
+			throw new IdempotencyStoreFullException("All " + maxEntries + " idempotency entries are in flight");
+		}
+		entries.put(key, IdempotentResponse.inFlight(fingerprint, now));
+		return Optional.empty();
+	}
+
+	@Override
+	public synchronized void complete(String key, int status, String contentType, byte[] body) {
+		entries.computeIfPresent(key, (k, entry) -> entry.complete(status, contentType, body));
+	}
+
+	@Override
+	public synchronized void release(String key) {
+		entries.remove(key);
+	}
+
+	synchronized int size() {
+		return entries.size();
+	}
+
+	private void evictExpired(Instant now) {
+		Iterator<IdempotentResponse> iterator = entries.values().iterator();
+		while (iterator.hasNext() && iterator.next().getCreatedAt().plus(ttl).isBefore(now)) {
+			iterator.remove();
+		}
+	}
+
+	private boolean evictEldestSettled(Instant now) {
+		Iterator<IdempotentResponse> iterator = entries.values().iterator();
+		while (iterator.hasNext()) {
+			IdempotentResponse entry = iterator.next();
+			if (!entry.isInFlight() || entry.isExpired(now, ttl, inFlightTimeout)) {
+				iterator.remove();
+				return true;
+			}
+		}
+		return false;
+	}
+
+}
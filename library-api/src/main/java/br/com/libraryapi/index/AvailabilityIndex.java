@@ -0,0 +1,165 @@
+package br.com.libraryapi.index;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import br.com.libraryapi.event.LoanEvent;
+import br.com.libraryapi.invalidation.Invalidation;
+import br.com.libraryapi.invalidation.InvalidationBatch;
+import br.com.libraryapi.model.repository.LoanRepository;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class AvailabilityIndex {
+
+	private static final int BOOK_LOCKS = 64;
+
+	private final LoanRepository repository;
+	private final Object rebuildLock = new Object();
+	private final Object[] bookLocks = new Object[BOOK_LOCKS];
+
+	private volatile ConcurrentBitSet loaned = new ConcurrentBitSet();
+	private volatile boolean ready;
+	private List<LoanEvent> pending;
+
+	public AvailabilityIndex(LoanRepository repository) {
+		this.repository = repository;
+		for (int i = 0; i < BOOK_LOCKS; i++) {
+			bookLocks[i] = new Object();
+		}
+	}
+
+	public boolean isAvailable(long bookId) {
+		if (!ready) {
+			return !repository.existsByBookIdAndNotReturned(bookId);
+		}
+		return !loaned.get(bookId);
+	}
+
+	public boolean isReady() {
+		return ready;
+	}
+
+	public ConcurrentBitSet getLoaned() {
+		return loaned;
+	}
+
+	/**
+	 * Ordenado antes da liberacao da sequencia de alteracoes da mesma transacao,
+	 * para que um snapshot tirado na sequencia estavel ja contenha o evento.
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	@Order(Ordered.LOWEST_PRECEDENCE - 1)
+	public void onLoanEvent(LoanEvent event) {
+		if (event.getBookId() != null) {
+			refresh(event.getBookId());
+		}
+	}
+
+	/**
+	 * Emprestimos abertos ou devolvidos em outras instancias, relidos do banco
+	 * porque o lote so traz os livros.
+	 */
+	@EventListener
+	public void onRemoteInvalidation(InvalidationBatch batch) {
+		for (long bookId : batch.bookIds(Invalidation.Type.AVAILABILITY)) {
+			refresh(bookId);
+		}
+	}
+
+	/**
+	 * Os eventos chegam depois do commit, ja sem o lock do livro, e duas
+	 * transacoes seguidas do mesmo livro podem chegar invertidas. Por isso o
+	 * estado e relido do banco dentro de um lock do livro: a ultima leitura e
+	 * sempre posterior aos commits ja notificados. Livros diferentes sao
+	 * relidos em paralelo; o lock do indice so cobre a aplicacao no bit set.
+	 */
+	private void refresh(long bookId) {
+		synchronized (bookLocks[Long.hashCode(bookId) & (BOOK_LOCKS - 1)]) {
+			LoanEvent.Type type = repository.existsByBookIdAndNotReturned(bookId) ? LoanEvent.Type.LOANED
+					: LoanEvent.Type.RETURNED;
+			LoanEvent current = new LoanEvent(type, 0, bookId, Instant.now());
+			synchronized (this) {
+				if (pending != null) {
+					pending.add(current);
+				}
+				apply(loaned, current);
+			}
+		}
+	}
+
+	/**
+	 * Reconstrucao completa ao subir, a menos que um snapshot ja tenha sido
+	 * restaurado.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void warmUp() {
+		if (!ready) {
+			rebuild();
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public void rebuild() {
+		long start = System.nanoTime();
+		ConcurrentBitSet rebuilt = new ConcurrentBitSet();
+		install(rebuilt, bitSet -> {
+			try (Stream<Long> bookIds = repository.streamLoanedBookIds()) {
+				bookIds.forEach(bitSet::set);
+			}
+		});
+		log.info("Availability index rebuilt with {} loaned books in {} ms using {} bytes",
+				rebuilt.cardinality(), (System.nanoTime() - start) / 1_000_000, rebuilt.memoryBytes());
+	}
+
+	/**
+	 * Instala um bit set carregado de um snapshot depois de atualiza-lo com o
+	 * callback reconcile. Os eventos recebidos enquanto isso sao reaplicados por
+	 * cima.
+	 */
+	public void restore(ConcurrentBitSet restored, Consumer<ConcurrentBitSet> reconcile) {
+		install(restored, reconcile);
+	}
+
+	private void install(ConcurrentBitSet loaded, Consumer<ConcurrentBitSet> loader) {
+		synchronized (rebuildLock) {
+			synchronized (this) {
+				pending = new ArrayList<>();
+			}
+			try {
+				loader.accept(loaded);
+				synchronized (this) {
+					pending.forEach(event -> apply(loaded, event));
+					loaned = loaded;
+					ready = true;
+				}
+			} finally {
+				synchronized (this) {
+					pending = null;
+				}
+			}
+		}
+	}
+
+	private static void apply(ConcurrentBitSet bitSet, LoanEvent event) {
+		if (event.isAvailable()) {
+			bitSet.clear(event.getBookId());
+		} else {
+			bitSet.set(event.getBookId());
+		}
+	}
+
+}
@@ -0,0 +1,158 @@
+package br.com.libraryapi.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+public class ConcurrentBitSet {
+
+	private static final int CHUNK_BITS = 16;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int WORDS_PER_CHUNK = CHUNK_SIZE / Long.SIZE;
+	private static final int CHUNKS = 1 << (Integer.SIZE - 1 - CHUNK_BITS);
+
+	private final AtomicReferenceArray<AtomicLongArray> chunks = new AtomicReferenceArray<>(CHUNKS);
+	private final Set<Long> overflow = ConcurrentHashMap.newKeySet();
+
+	public boolean get(long index) {
+		if (!inRange(index)) {
+			return overflow.contains(index);
+		}
+		AtomicLongArray chunk = chunks.get(chunkOf(index));
+		return chunk != null && (chunk.get(wordOf(index)) & maskOf(index)) != 0;
+	}
+
+	public void set(long index) {
+		if (!inRange(index)) {
+			overflow.add(index);
+			return;
+		}
+		AtomicLongArray chunk = chunkFor(index);
+		int word = wordOf(index);
+		long mask = maskOf(index);
+		long current;
+		do {
+			current = chunk.get(word);
+		} while ((current & mask) == 0 && !chunk.compareAndSet(word, current, current | mask));
+	}
+
+	public void clear(long index) {
+		if (!inRange(index)) {
+			overflow.remove(index);
+			return;
+		}
+		AtomicLongArray chunk = chunks.get(chunkOf(index));
+		if (chunk == null) {
+			return;
+		}
+		int word = wordOf(index);
+		long mask = maskOf(index);
+		long current;
+		do {
+			current = chunk.get(word);
+		} while ((current & mask) != 0 && !chunk.compareAndSet(word, current, current & ~mask));
+	}
+
+	public long cardinality() {
+		long count = overflow.size();
+		for (int i = 0; i < CHUNKS; i++) {
+			AtomicLongArray chunk = chunks.get(i);
+			if (chunk != null) {
+				for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+					count += Long.bitCount(chunk.get(w));
+				}
+			}
+		}
+		return count;
+	}
+
+	public long memoryBytes() {
+		long bytes = (long) CHUNKS * Integer.BYTES;
+		for (int i = 0; i < CHUNKS; i++) {
+			if (chunks.get(i) != null) {
+				bytes += (long) WORDS_PER_CHUNK * Long.BYTES;
+			}
+		}
+		return bytes;
+	}
+
+	/**
+	 * Grava os blocos alocados e as entradas de overflow. Bits alterados durante
+	 * a gravacao podem ou nao ser incluidos.
+	 */
+	public void writeTo(DataOutput out) throws IOException {
+		List<Integer> allocated = new ArrayList<>();
+		for (int i = 0; i < CHUNKS; i++) {
+			if (chunks.get(i) != null) {
+				allocated.add(i);
+			}
+		}
+		out.writeInt(allocated.size());
+		for (int position : allocated) {
+			AtomicLongArray chunk = chunks.get(position);
+			out.writeInt(position);
+			for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+				out.writeLong(chunk.get(w));
+			}
+		}
+		Long[] overflowed = overflow.toArray(new Long[0]);
+		out.writeInt(overflowed.length);
+		for (Long index : overflowed) {
+			out.writeLong(index);
+		}
+	}
+
+	public static ConcurrentBitSet readFrom(ByteBuffer in) {
+		ConcurrentBitSet bitSet = new ConcurrentBitSet();
+		int allocated = in.getInt();
+		for (int c = 0; c < allocated; c++) {
+			int position = in.getInt();
+			if (position < 0 || position >= CHUNKS) {
+				throw new IllegalArgumentException("Invalid chunk index: " + position);
+			}
+			AtomicLongArray chunk = new AtomicLongArray(WORDS_PER_CHUNK);
+			for (int w = 0; w < WORDS_PER_CHUNK; w++) {
+				chunk.set(w, in.getLong());
+			}
+			bitSet.chunks.set(position, chunk);
+		}
+		int overflowed = in.getInt();
+		for (int i = 0; i < overflowed; i++) {
+			bitSet.overflow.add(in.getLong());
+		}
+		return bitSet;
+	}
+
+	private AtomicLongArray chunkFor(long index) {
+		int position = chunkOf(index);
+		AtomicLongArray chunk = chunks.get(position);
+		if (chunk == null) {
+			chunks.compareAndSet(position, null, new AtomicLongArray(WORDS_PER_CHUNK));
+			chunk = chunks.get(position);
+		}
+		return chunk;
+	}
+
+	private static boolean inRange(long index) {
+		return index >= 0 && index <= Integer.MAX_VALUE;
+	}
+
+	private static int chunkOf(long index) {
+		return (int) (index >>> CHUNK_BITS);
+	}
+
+	private static int wordOf(long index) {
+		return (int) (index & (CHUNK_SIZE - 1)) >>> 6;
+	}
+
+	private static long maskOf(long index) {
+		return 1L << (index & 63);
+	}
+
+}
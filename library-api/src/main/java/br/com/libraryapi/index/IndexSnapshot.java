@@ -0,0 +1,245 @@
+package br.com.libraryapi.index;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.zip.CRC32;
+
+import javax.annotation.PreDestroy;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Snapshot dos indices de ISBN e de disponibilidade em um arquivo binario,
+ * marcado com a sequencia estavel de alteracoes em que foi tirado. Ao subir, o
+ * arquivo e mapeado em memoria e os indices sao atualizados com os livros e
+ * emprestimos alterados depois dessa sequencia, em vez de reconstruidos
+ * varrendo as tabelas. Gravado a cada intervalo e ao desligar, em um arquivo
+ * temporario movido sobre o anterior.
+ */
+@Slf4j
+public class IndexSnapshot {
+
+	private static final int MAGIC = 0x4c495853;
+	private static final int VERSION = 1;
+	private static final int CRC_OFFSET = 16;
+	private static final int HEADER_SIZE = 20;
+	private static final int RECONCILE_BATCH = 500;
+
+	private final Path file;
+	private final IsbnIndex isbnIndex;
+	private final AvailabilityIndex availabilityIndex;
+	private final BookRepository bookRepository;
+	private final LoanRepository loanRepository;
+	private final ChangeSequence changes;
+
+	public IndexSnapshot(Path file, IsbnIndex isbnIndex, AvailabilityIndex availabilityIndex,
+			BookRepository bookRepository, LoanRepository loanRepository, ChangeSequence changes) {
+		this.file = file;
+		this.isbnIndex = isbnIndex;
+		this.availabilityIndex = availabilityIndex;
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+		this.changes = changes;
+	}
+
+	/**
+	 * Roda antes dos listeners de carga dos indices, que deixam de reconstruir
+	 * os indices restaurados aqui.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Order(Ordered.HIGHEST_PRECEDENCE)
+	public void restore() {
+		if (!Files.exists(file)) {
+			log.info("No index snapshot at {}, indexes will be rebuilt", file);
+			return;
+		}
+		long start = System.nanoTime();
+		Contents contents;
+		try {
+			contents = read(file);
+		} catch (IOException | RuntimeException e) {
+			log.warn("Ignoring unreadable index snapshot {}: {}", file, e.toString());
+			return;
+		}
+		long sequence = contents.getSequence();
+		if (sequence > changes.stableSequence()) {
+			log.warn("Ignoring index snapshot {} at sequence {}, ahead of the database at {}", file, sequence,
+					changes.stableSequence());
+			return;
+		}
+		if (!isbnIndex.restore(contents.getFilter(), filter -> reconcileIsbns(sequence, filter))) {
+			log.info("ISBN index snapshot was sized for other settings and will be rebuilt");
+		}
+		availabilityIndex.restore(contents.getLoaned(), loaned -> reconcileAvailability(sequence, loaned));
+		log.info("Indexes restored from snapshot {} at sequence {} in {} ms", file, sequence,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	@Scheduled(fixedDelayString = "${application.index-snapshot.interval:PT5M}",
+			initialDelayString = "${application.index-snapshot.interval:PT5M}")
+	public void writePeriodically() {
+		try {
+			write();
+		} catch (IOException e) {
+			log.warn("Could not write index snapshot {}", file, e);
+		}
+	}
+
+	@PreDestroy
+	public void writeOnShutdown() {
+		writePeriodically();
+	}
+
+	/**
+	 * Retorna false, sem gravar nada, enquanto algum indice estiver carregando.
+	 */
+	public synchronized boolean write() throws IOException {
+		IsbnBloomFilter filter = isbnIndex.getFilter();
+		if (filter == null || !availabilityIndex.isReady()) {
+			return false;
+		}
+		long start = System.nanoTime();
+		// lida antes da copia: alteracoes posteriores podem ou nao estar nela e sao reaplicadas ao restaurar
+		long sequence = changes.stableSequence();
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream((int) Math.min(Integer.MAX_VALUE - 8,
+				HEADER_SIZE + 16 + filter.memoryBytes()));
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(MAGIC);
+		out.writeInt(VERSION);
+		out.writeLong(sequence);
+		out.writeInt(0);
+		filter.writeTo(out);
+		availabilityIndex.getLoaned().writeTo(out);
+		out.flush();
+		byte[] contents = bytes.toByteArray();
+		CRC32 crc = new CRC32();
+		crc.update(contents, HEADER_SIZE, contents.length - HEADER_SIZE);
+		ByteBuffer.wrap(contents).putInt(CRC_OFFSET, (int) crc.getValue());
+
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporary = directory.resolve(file.getFileName() + ".tmp");
+		try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+				StandardOpenOption.TRUNCATE_EXISTING)) {
+			ByteBuffer buffer = ByteBuffer.wrap(contents);
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			channel.force(true);
+		}
+		Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		log.info("Index snapshot written to {} at sequence {} ({} bytes) in {} ms", file, sequence, contents.length,
+				(System.nanoTime() - start) / 1_000_000);
+		return true;
+	}
+
+	static Contents read(Path file) throws IOException {
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+				throw new IOException("Not an index snapshot");
+			}
+			long sequence = buffer.getLong();
+			int checksum = buffer.getInt();
+			CRC32 crc = new CRC32();
+			crc.update(buffer.duplicate());
+			if ((int) crc.getValue() != checksum) {
+				throw new IOException("Index snapshot checksum mismatch");
+			}
+			IsbnBloomFilter filter = IsbnBloomFilter.readFrom(buffer);
+			ConcurrentBitSet loaned = ConcurrentBitSet.readFrom(buffer);
+			return new Contents(sequence, filter, loaned);
+		}
+	}
+
+	private void reconcileIsbns(long since, IsbnBloomFilter filter) {
+		forEachChanged(since, bookRepository::findChanged, Book::getChangeSeq, book -> {
+			if (book.getIsbnNumber() != null) {
+				filter.put(book.getIsbnNumber());
+			}
+		});
+	}
+
+	/**
+	 * Emprestimos na ordem da sequencia, para que a ultima alteracao de um livro
+	 * prevaleca; livros excluidos depois do snapshot saem do indice junto com os
+	 * seus emprestimos.
+	 */
+	private void reconcileAvailability(long since, ConcurrentBitSet loaned) {
+		forEachChanged(since, loanRepository::findChanged, Loan::getChangeSeq, loan -> {
+			if (loan.getBook() == null) {
+				return;
+			}
+			if (Boolean.TRUE.equals(loan.getReturned())) {
+				loaned.clear(loan.getBook().getId());
+			} else {
+				loaned.set(loan.getBook().getId());
+			}
+		});
+		forEachChanged(since, bookRepository::findChanged, Book::getChangeSeq, book -> {
+			if (book.getDeletedAt() != null) {
+				loaned.clear(book.getId());
+			}
+		});
+	}
+
+	/**
+	 * Pagina as alteracoes ate a sequencia estavel lida na chamada: a essa altura
+	 * o indice ja recebe as atualizacoes em andamento.
+	 */
+	private <T> void forEachChanged(long since, ChangeFinder<T> finder, ToLongFunction<T> changeSeq,
+			Consumer<T> action) {
+		long until = changes.stableSequence();
+		List<T> page;
+		do {
+			page = finder.find(since, until, PageRequest.of(0, RECONCILE_BATCH));
+			page.forEach(action);
+			if (!page.isEmpty()) {
+				since = changeSeq.applyAsLong(page.get(page.size() - 1));
+			}
+		} while (page.size() == RECONCILE_BATCH);
+	}
+
+	private interface ChangeFinder<T> {
+
+		List<T> find(long since, long until, Pageable pageable);
+
+	}
+
+	@Getter
+	@AllArgsConstructor
+	static class Contents {
+
+		private final long sequence;
+		private final IsbnBloomFilter filter;
+		private final ConcurrentBitSet loaned;
+
+	}
+
+}
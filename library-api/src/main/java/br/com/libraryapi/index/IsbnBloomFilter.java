@@ -0,0 +1,139 @@
+package br.com.libraryapi.index;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+/**
+ * Bloom filter over ISBN-13 numbers. The bit array lives in a direct buffer,
+ * outside the Java heap. Writes are serialised; the volatile insertion count
+ * publishes them to lock-free readers.
+ */
+public class IsbnBloomFilter {
+
+	private final LongBuffer bits;
+	private final long bitSize;
+	private final int hashFunctions;
+	private volatile long insertions;
+
+	public IsbnBloomFilter(long expectedInsertions, double falsePositiveRate) {
+		if (expectedInsertions <= 0) {
+			throw new IllegalArgumentException("Expected insertions must be positive");
+		}
+		if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+			throw new IllegalArgumentException("False positive rate must be between 0 and 1");
+		}
+		int words = optimalWords(expectedInsertions, falsePositiveRate);
+		this.bitSize = words * 64L;
+		this.hashFunctions = optimalHashFunctions(bitSize, expectedInsertions);
+		this.bits = ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	private IsbnBloomFilter(int words, int hashFunctions) {
+		this.bitSize = words * 64L;
+		this.hashFunctions = hashFunctions;
+		this.bits = ByteBuffer.allocateDirect(words * Long.BYTES).order(ByteOrder.nativeOrder()).asLongBuffer();
+	}
+
+	/**
+	 * Grava o layout, o numero de insercoes e o array de bits.
+	 */
+	public synchronized void writeTo(DataOutput out) throws IOException {
+		int words = (int) (bitSize / 64);
+		out.writeInt(words);
+		out.writeInt(hashFunctions);
+		out.writeLong(insertions);
+		for (int i = 0; i < words; i++) {
+			out.writeLong(bits.get(i));
+		}
+	}
+
+	public static IsbnBloomFilter readFrom(ByteBuffer in) {
+		int words = in.getInt();
+		int hashFunctions = in.getInt();
+		if (words <= 0 || hashFunctions <= 0) {
+			throw new IllegalArgumentException("Invalid Bloom filter layout");
+		}
+		IsbnBloomFilter filter = new IsbnBloomFilter(words, hashFunctions);
+		long insertions = in.getLong();
+		for (int i = 0; i < words; i++) {
+			filter.bits.put(i, in.getLong());
+		}
+		filter.insertions = insertions;
+		return filter;
+	}
+
+	/**
+	 * Se este filtro foi dimensionado para as configuracoes informadas e pode
+	 * substituir um recem-construido.
+	 */
+	public boolean hasLayout(long expectedInsertions, double falsePositiveRate) {
+		return bitSize == optimalWords(expectedInsertions, falsePositiveRate) * 64L
+				&& hashFunctions == optimalHashFunctions(bitSize, expectedInsertions);
+	}
+
+	public synchronized void put(long isbn) {
+		long hash = mix(isbn);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long bit = index(h1 + i * h2);
+			int word = (int) (bit >>> 6);
+			bits.put(word, bits.get(word) | (1L << bit));
+		}
+		insertions++;
+	}
+
+	public boolean mightContain(long isbn) {
+		if (insertions == 0) {
+			return false;
+		}
+		long hash = mix(isbn);
+		int h1 = (int) hash;
+		int h2 = (int) (hash >>> 32);
+		for (int i = 1; i <= hashFunctions; i++) {
+			long bit = index(h1 + i * h2);
+			if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	public long insertions() {
+		return insertions;
+	}
+
+	public long memoryBytes() {
+		return bitSize / 8;
+	}
+
+	public int hashFunctions() {
+		return hashFunctions;
+	}
+
+	private static int optimalWords(long expectedInsertions, double falsePositiveRate) {
+		long optimalBits = (long) Math.ceil(-expectedInsertions * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+		return (int) Math.max(1, (optimalBits + 63) / 64);
+	}
+
+	private static int optimalHashFunctions(long bitSize, long expectedInsertions) {
+		return Math.max(1, (int) Math.round((double) bitSize / expectedInsertions * Math.log(2)));
+	}
+
+	private long index(int combinedHash) {
+		return (combinedHash & Integer.MAX_VALUE) % bitSize;
+	}
+
+	private static long mix(long key) {
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		key *= 0xc4ceb9fe1a85ec53L;
+		key ^= key >>> 33;
+		return key;
+	}
+
+}
@@ -0,0 +1,130 @@
+package br.com.libraryapi.index;
+
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.invalidation.Invalidation;
+import br.com.libraryapi.invalidation.InvalidationBatch;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class IsbnIndex {
+
+	private final BookRepository repository;
+	private final long expectedInsertions;
+	private final double falsePositiveRate;
+
+	private volatile IsbnBloomFilter filter;
+	private volatile IsbnBloomFilter building;
+
+	public IsbnIndex(BookRepository repository,
+			@Value("${application.isbn-index.expected-insertions:1000000}") long expectedInsertions,
+			@Value("${application.isbn-index.false-positive-rate:0.01}") double falsePositiveRate) {
+		this.repository = repository;
+		this.expectedInsertions = expectedInsertions;
+		this.falsePositiveRate = falsePositiveRate;
+	}
+
+	public boolean mightContain(long isbnNumber) {
+		IsbnBloomFilter current = filter;
+		return current == null || current.mightContain(isbnNumber);
+	}
+
+	public void add(long isbnNumber) {
+		IsbnBloomFilter pending = building;
+		if (pending != null) {
+			pending.put(isbnNumber);
+		}
+		IsbnBloomFilter current = filter;
+		if (current != null) {
+			current.put(isbnNumber);
+		}
+	}
+
+	/**
+	 * Livros salvos em outras instancias. ISBNs excluidos nao saem de um Bloom
+	 * filter e ficam como falsos positivos ate a proxima reconstrucao.
+	 */
+	@EventListener
+	public void onRemoteInvalidation(InvalidationBatch batch) {
+		Set<Long> bookIds = batch.bookIds(Invalidation.Type.BOOK);
+		if (bookIds.isEmpty()) {
+			return;
+		}
+		for (Book book : repository.findAllById(bookIds)) {
+			if (book.getIsbnNumber() != null) {
+				add(book.getIsbnNumber());
+			}
+		}
+	}
+
+	public boolean isReady() {
+		return filter != null;
+	}
+
+	/**
+	 * Filtro atual, ou null antes da primeira reconstrucao ou restauracao.
+	 */
+	public IsbnBloomFilter getFilter() {
+		return filter;
+	}
+
+	/**
+	 * Reconstrucao completa ao subir, a menos que um snapshot ja tenha sido
+	 * restaurado.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	@Transactional(readOnly = true)
+	public void warmUp() {
+		if (!isReady()) {
+			rebuild();
+		}
+	}
+
+	@Transactional(readOnly = true)
+	public synchronized void rebuild() {
+		long start = System.nanoTime();
+		IsbnBloomFilter rebuilt = new IsbnBloomFilter(expectedInsertions, falsePositiveRate);
+		install(rebuilt, filter -> {
+			try (Stream<Long> isbnNumbers = repository.streamAllIsbnNumbers()) {
+				isbnNumbers.forEach(filter::put);
+			}
+		});
+		log.info("ISBN index rebuilt with {} entries in {} ms using {} bytes off-heap",
+				rebuilt.insertions(), (System.nanoTime() - start) / 1_000_000, rebuilt.memoryBytes());
+	}
+
+	/**
+	 * Instala um filtro carregado de um snapshot depois de atualiza-lo com o
+	 * callback reconcile. Retorna false, sem alterar o indice, quando o snapshot
+	 * foi dimensionado para outras configuracoes.
+	 */
+	public synchronized boolean restore(IsbnBloomFilter restored, Consumer<IsbnBloomFilter> reconcile) {
+		if (!restored.hasLayout(expectedInsertions, falsePositiveRate)) {
+			return false;
+		}
+		install(restored, reconcile);
+		return true;
+	}
+
+	private void install(IsbnBloomFilter loaded, Consumer<IsbnBloomFilter> loader) {
+		building = loaded;
+		try {
+			loader.accept(loaded);
+			filter = loaded;
+		} finally {
+			building = null;
+		}
+	}
+
+}
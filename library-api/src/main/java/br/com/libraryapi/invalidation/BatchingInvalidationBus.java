@@ -0,0 +1,109 @@
+package br.com.libraryapi.invalidation;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import br.com.libraryapi.event.LoanEvent;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Junta as invalidacoes confirmadas ate o proximo flush, sem repeticoes, e as
+ * envia em lotes de ate maxBatchSize. Os lotes de outras instancias viram um
+ * evento {@link InvalidationBatch} da aplicacao; os da propria sao ignorados.
+ */
+@Slf4j
+public class BatchingInvalidationBus implements InvalidationBus {
+
+	private final String node;
+	private final InvalidationTransport transport;
+	private final ApplicationEventPublisher eventPublisher;
+	private final int maxBatchSize;
+	private Set<Invalidation> pending = new LinkedHashSet<>();
+
+	public BatchingInvalidationBus(String node, InvalidationTransport transport,
+			ApplicationEventPublisher eventPublisher, int maxBatchSize) {
+		this.node = node;
+		this.transport = transport;
+		this.eventPublisher = eventPublisher;
+		this.maxBatchSize = maxBatchSize;
+		transport.start(this::receive);
+	}
+
+	@Override
+	public void publish(Invalidation invalidation) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			enqueue(invalidation);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			@Override
+			public void afterCommit() {
+				enqueue(invalidation);
+			}
+
+		});
+	}
+
+	@TransactionalEventListener(fallbackExecution = true)
+	public void onLoanEvent(LoanEvent event) {
+		if (event.getBookId() != null) {
+			enqueue(Invalidation.availability(event.getBookId()));
+		}
+	}
+
+	/**
+	 * Envia o que estiver pendente. Um lote que falhar volta para a fila e segue
+	 * no proximo flush.
+	 */
+	@Scheduled(fixedDelayString = "${application.invalidation-bus.flush-interval:PT0.2S}")
+	public void flush() {
+		List<Invalidation> drained;
+		synchronized (this) {
+			if (pending.isEmpty()) {
+				return;
+			}
+			drained = new ArrayList<>(pending);
+			pending = new LinkedHashSet<>();
+		}
+		for (int from = 0; from < drained.size(); from += maxBatchSize) {
+			List<Invalidation> batch = drained.subList(from, Math.min(from + maxBatchSize, drained.size()));
+			try {
+				transport.send(new InvalidationBatch(node, new ArrayList<>(batch)));
+			} catch (RuntimeException e) {
+				log.warn("Could not send {} cache invalidations, retrying on the next flush", batch.size(), e);
+				synchronized (this) {
+					pending.addAll(drained.subList(from, drained.size()));
+				}
+				return;
+			}
+		}
+	}
+
+	public String getNode() {
+		return node;
+	}
+
+	synchronized int pendingCount() {
+		return pending.size();
+	}
+
+	private synchronized void enqueue(Invalidation invalidation) {
+		pending.add(invalidation);
+	}
+
+	private void receive(InvalidationBatch batch) {
+		if (!node.equals(batch.getNode())) {
+			eventPublisher.publishEvent(batch);
+		}
+	}
+
+}
@@ -0,0 +1,45 @@
+package br.com.libraryapi.invalidation;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Transporte entre instancias na mesma JVM, para testes: os lotes sao entregues
+ * na hora a todos os receptores ligados ao mesmo hub.
+ */
+public class InProcessInvalidationTransport implements InvalidationTransport {
+
+	private static final Hub SHARED = new Hub();
+
+	private final Hub hub;
+
+	public InProcessInvalidationTransport(Hub hub) {
+		this.hub = hub;
+	}
+
+	/**
+	 * Hub unico da JVM, usado pelos contextos configurados com o transporte
+	 * in-process.
+	 */
+	public static Hub sharedHub() {
+		return SHARED;
+	}
+
+	@Override
+	public void send(InvalidationBatch batch) {
+		hub.receivers.forEach(receiver -> receiver.accept(batch));
+	}
+
+	@Override
+	public void start(Consumer<InvalidationBatch> receiver) {
+		hub.receivers.add(receiver);
+	}
+
+	public static class Hub {
+
+		private final List<Consumer<InvalidationBatch>> receivers = new CopyOnWriteArrayList<>();
+
+	}
+
+}
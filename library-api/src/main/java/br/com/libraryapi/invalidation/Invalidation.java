@@ -0,0 +1,26 @@
+package br.com.libraryapi.invalidation;
+
+/**
+ * Dado alterado em outra instancia: o livro (cadastro, edicao ou exclusao) ou a
+ * disponibilidade do livro (emprestimo ou devolucao). Iguais se referem ao mesmo
+ * dado, o que permite juntar as repeticoes num lote.
+ */
+@lombok.Value
+public class Invalidation {
+
+	public enum Type {
+		BOOK, AVAILABILITY
+	}
+
+	Type type;
+	long bookId;
+
+	public static Invalidation book(long bookId) {
+		return new Invalidation(Type.BOOK, bookId);
+	}
+
+	public static Invalidation availability(long bookId) {
+		return new Invalidation(Type.AVAILABILITY, bookId);
+	}
+
+}
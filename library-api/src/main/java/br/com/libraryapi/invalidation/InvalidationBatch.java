@@ -0,0 +1,34 @@
+package br.com.libraryapi.invalidation;
+
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Lote de invalidacoes enviado por uma instancia. Os lotes recebidos de outras
+ * instancias sao publicados como evento da aplicacao para os caches locais.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class InvalidationBatch {
+
+	private final String node;
+	private final List<Invalidation> invalidations;
+
+	public Set<Long> bookIds(Invalidation.Type type) {
+		return invalidations.stream()
+							.filter(invalidation -> invalidation.getType() == type)
+							.map(Invalidation::getBookId)
+							.collect(Collectors.toSet());
+	}
+
+	public boolean contains(Invalidation.Type type) {
+		return invalidations.stream().anyMatch(invalidation -> invalidation.getType() == type);
+	}
+
+}
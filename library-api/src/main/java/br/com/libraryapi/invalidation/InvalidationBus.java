@@ -0,0 +1,19 @@
+package br.com.libraryapi.invalidation;
+
+/**
+ * Avisa as outras instancias de que um dado em cache mudou. A publicacao dentro
+ * de uma transacao so vale apos o commit.
+ */
+public interface InvalidationBus {
+
+	void publish(Invalidation invalidation);
+
+	/**
+	 * Barramento de uma instancia so, sem envio.
+	 */
+	static InvalidationBus disabled() {
+		return invalidation -> {
+		};
+	}
+
+}
@@ -0,0 +1,15 @@
+package br.com.libraryapi.invalidation;
+
+import java.util.function.Consumer;
+
+/**
+ * Meio de entrega dos lotes entre as instancias. O receptor recebe todos os
+ * lotes, inclusive os enviados pela propria instancia.
+ */
+public interface InvalidationTransport {
+
+	void send(InvalidationBatch batch);
+
+	void start(Consumer<InvalidationBatch> receiver);
+
+}
@@ -0,0 +1,119 @@
+package br.com.libraryapi.invalidation;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import br.com.libraryapi.model.entity.InvalidationRecord;
+import br.com.libraryapi.model.repository.InvalidationRecordRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Transporte por uma tabela compartilhada: cada lote vira uma linha e cada
+ * instancia le periodicamente as linhas novas. Um id pulado pode ser de uma
+ * insercao ainda nao confirmada; ele e procurado de novo nas proximas leituras
+ * ate ser dado como perdido (rollback ou salto da identidade).
+ */
+@Slf4j
+public class JdbcInvalidationTransport implements InvalidationTransport {
+
+	private static final int POLL_BATCH = 500;
+	private static final int GAP_POLLS = 10;
+	private static final int MAX_GAPS = 1000;
+
+	private final InvalidationRecordRepository repository;
+	private final Duration retention;
+	private final Clock clock;
+	private final Map<Long, Integer> gaps = new HashMap<>();
+	private Consumer<InvalidationBatch> receiver;
+	private long lastId;
+
+	public JdbcInvalidationTransport(InvalidationRecordRepository repository, Duration retention, Clock clock) {
+		this.repository = repository;
+		this.retention = retention;
+		this.clock = clock;
+	}
+
+	@Override
+	public void send(InvalidationBatch batch) {
+		repository.save(InvalidationRecord.builder()
+										  .node(batch.getNode())
+										  .payload(encode(batch.getInvalidations()))
+										  .createdAt(clock.instant())
+										  .build());
+	}
+
+	/**
+	 * Comeca depois das linhas ja existentes: uma instancia nova nao tem cache a
+	 * invalidar.
+	 */
+	@Override
+	public synchronized void start(Consumer<InvalidationBatch> receiver) {
+		this.lastId = repository.findMaxId();
+		this.receiver = receiver;
+	}
+
+	@Scheduled(fixedDelayString = "${application.invalidation-bus.poll-interval:PT1S}")
+	public synchronized void poll() {
+		if (receiver == null) {
+			return;
+		}
+		if (!gaps.isEmpty()) {
+			for (InvalidationRecord record : repository.findAllById(new ArrayList<>(gaps.keySet()))) {
+				gaps.remove(record.getId());
+				deliver(record);
+			}
+			gaps.replaceAll((id, polls) -> polls - 1);
+			gaps.values().removeIf(polls -> polls <= 0);
+		}
+		List<InvalidationRecord> records;
+		do {
+			records = repository.findByIdGreaterThanOrderByIdAsc(lastId, PageRequest.of(0, POLL_BATCH));
+			for (InvalidationRecord record : records) {
+				for (long missing = Math.max(lastId + 1, record.getId() - MAX_GAPS); missing < record.getId(); missing++) {
+					gaps.put(missing, GAP_POLLS);
+				}
+				lastId = record.getId();
+				deliver(record);
+			}
+		} while (records.size() == POLL_BATCH);
+	}
+
+	@Scheduled(fixedDelayString = "${application.invalidation-bus.purge-interval:PT1M}")
+	public void purge() {
+		repository.deleteByCreatedAtBefore(clock.instant().minus(retention));
+	}
+
+	private void deliver(InvalidationRecord record) {
+		try {
+			receiver.accept(new InvalidationBatch(record.getNode(), decode(record.getPayload())));
+		} catch (RuntimeException e) {
+			log.warn("Could not apply cache invalidation record {}", record.getId(), e);
+		}
+	}
+
+	static String encode(List<Invalidation> invalidations) {
+		return invalidations.stream()
+							.map(invalidation -> invalidation.getType().ordinal() + ":" + invalidation.getBookId())
+							.collect(Collectors.joining(","));
+	}
+
+	static List<Invalidation> decode(String payload) {
+		List<Invalidation> invalidations = new ArrayList<>();
+		for (String item : payload.split(",")) {
+			int separator = item.indexOf(':');
+			Invalidation.Type type = Invalidation.Type.values()[Integer.parseInt(item.substring(0, separator))];
+			invalidations.add(new Invalidation(type, Long.parseLong(item.substring(separator + 1))));
+		}
+		return invalidations;
+	}
+
+}
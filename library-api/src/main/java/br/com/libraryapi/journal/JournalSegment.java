@@ -0,0 +1,119 @@
+package br.com.libraryapi.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * Arquivo do diario mapeado em memoria. Cada registro e [tamanho][crc32][dados];
+ * o arquivo e criado com o tamanho final, entao um tamanho zero marca o fim dos
+ * registros. Um registro com crc invalido (escrita interrompida) tambem encerra
+ * a leitura e e sobrescrito pela proxima escrita.
+ */
+class JournalSegment implements Closeable {
+
+	static final int HEADER_SIZE = 8;
+
+	private final Path path;
+	private final long firstSequence;
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+
+	private JournalSegment(Path path, long firstSequence, FileChannel channel, MappedByteBuffer buffer) {
+		this.path = path;
+		this.firstSequence = firstSequence;
+		this.channel = channel;
+		this.buffer = buffer;
+	}
+
+	static JournalSegment open(Path path, long firstSequence, int size) throws IOException {
+		FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		long length = channel.size() > 0 ? channel.size() : size;
+		MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+		JournalSegment segment = new JournalSegment(path, firstSequence, channel, buffer);
+		int end = scan(buffer.duplicate(), record -> {
+		});
+		buffer.position(end);
+		if (end + HEADER_SIZE <= buffer.limit() && buffer.getInt(end) != 0) {
+			buffer.putInt(end, 0);
+			buffer.force();
+		}
+		return segment;
+	}
+
+	Path getPath() {
+		return path;
+	}
+
+	long getFirstSequence() {
+		return firstSequence;
+	}
+
+	/**
+	 * Copia o registro para o arquivo; retorna false quando nao houver espaco.
+	 */
+	boolean append(byte[] record) {
+		int position = buffer.position();
+		if (position + HEADER_SIZE + record.length > buffer.limit()) {
+			return false;
+		}
+		CRC32 crc = new CRC32();
+		crc.update(record);
+		buffer.position(position + 4);
+		buffer.putInt((int) crc.getValue());
+		buffer.put(record);
+		int end = buffer.position();
+		if (end + 4 <= buffer.limit()) {
+			buffer.putInt(end, 0);
+		}
+		// o tamanho por ultimo: o registro so fica visivel para a leitura quando completo
+		buffer.putInt(position, record.length);
+		return true;
+	}
+
+	boolean isEmpty() {
+		return buffer.position() == 0;
+	}
+
+	void force() {
+		buffer.force();
+	}
+
+	void read(Consumer<ByteBuffer> consumer) {
+		scan(buffer.duplicate(), consumer);
+	}
+
+	private static int scan(ByteBuffer view, Consumer<ByteBuffer> consumer) {
+		int position = 0;
+		CRC32 crc = new CRC32();
+		while (position + HEADER_SIZE <= view.limit()) {
+			int length = view.getInt(position);
+			if (length <= 0 || position + HEADER_SIZE + length > view.limit()) {
+				break;
+			}
+			ByteBuffer record = view.duplicate();
+			record.position(position + HEADER_SIZE).limit(position + HEADER_SIZE + length);
+			crc.reset();
+			crc.update(record.duplicate());
+			if ((int) crc.getValue() != view.getInt(position + 4)) {
+				break;
+			}
+			consumer.accept(record.slice());
+			position += HEADER_SIZE + length;
+		}
+		return position;
+	}
+
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+}
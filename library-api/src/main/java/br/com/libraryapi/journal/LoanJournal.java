@@ -0,0 +1,33 @@
+package br.com.libraryapi.journal;
+
+import java.util.function.Consumer;
+
+public interface LoanJournal {
+
+	/**
+	 * Anexa a entrada ao diario. Dentro de uma transacao a escrita acontece antes
+	 * do commit, na ordem das chamadas, e so retorna depois de duravel; se o
+	 * commit falhar depois dela, uma entrada ROLLED_BACK a cancela.
+	 */
+	void append(LoanJournalEntry entry);
+
+	/**
+	 * Entrega, em ordem, as entradas com sequencia maior ou igual a fromSequence.
+	 */
+	void replay(long fromSequence, Consumer<LoanJournalEntry> consumer);
+
+	static LoanJournal disabled() {
+		return new LoanJournal() {
+
+			@Override
+			public void append(LoanJournalEntry entry) {
+			}
+
+			@Override
+			public void replay(long fromSequence, Consumer<LoanJournalEntry> consumer) {
+			}
+
+		};
+	}
+
+}
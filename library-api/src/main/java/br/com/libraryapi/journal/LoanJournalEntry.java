@@ -0,0 +1,86 @@
+package br.com.libraryapi.journal;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import br.com.libraryapi.model.entity.Loan;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@Builder
+@ToString
+public class LoanJournalEntry {
+
+	/**
+	 * Tipos gravados pelo ordinal no diario: novos tipos apenas no final.
+	 */
+	public enum Type {
+		CREATED, RENEWED, RETURNED, REOPENED, OVERDUE_NOTIFIED, ROLLED_BACK
+	}
+
+	private final long sequence;
+	private final Type type;
+	private final long loanId;
+	private final Long bookId;
+	private final String customer;
+	private final String email;
+	private final LocalDate loanDate;
+	private final LocalDate dueDate;
+	private final Integer renewals;
+	private final Instant occurredAt;
+	/**
+	 * Em ROLLED_BACK, a sequencia da entrada cancelada.
+	 */
+	private final Long rolledBackSequence;
+
+	public static LoanJournalEntry created(Loan loan) {
+		return snapshot(Type.CREATED, loan);
+	}
+
+	public static LoanJournalEntry renewed(Loan loan) {
+		return snapshot(Type.RENEWED, loan);
+	}
+
+	public static LoanJournalEntry returned(long loanId, Long bookId) {
+		return LoanJournalEntry.builder()
+							   .type(Type.RETURNED)
+							   .loanId(loanId)
+							   .bookId(bookId)
+							   .occurredAt(Instant.now())
+							   .build();
+	}
+
+	public static LoanJournalEntry reopened(Loan loan) {
+		return snapshot(Type.REOPENED, loan);
+	}
+
+	public static LoanJournalEntry overdueNotified(Loan loan) {
+		return snapshot(Type.OVERDUE_NOTIFIED, loan);
+	}
+
+	public static LoanJournalEntry rolledBack(long sequence, long loanId) {
+		return LoanJournalEntry.builder()
+							   .type(Type.ROLLED_BACK)
+							   .loanId(loanId)
+							   .occurredAt(Instant.now())
+							   .rolledBackSequence(sequence)
+							   .build();
+	}
+
+	private static LoanJournalEntry snapshot(Type type, Loan loan) {
+		return LoanJournalEntry.builder()
+							   .type(type)
+							   .loanId(loan.getId())
+							   .bookId(loan.getBook() == null ? null : loan.getBook().getId())
+							   .customer(loan.getCustomer())
+							   .email(loan.getEmail())
+							   .loanDate(loan.getLoanDate())
+							   .dueDate(loan.getDueDate())
+							   .renewals(loan.getRenewals())
+							   .occurredAt(Instant.now())
+							   .build();
+	}
+
+}
@@ -0,0 +1,178 @@
+package br.com.libraryapi.journal;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.libraryapi.change.ChangeSequence;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reconstroi a tabela loan a partir do diario: apaga as linhas e reaplica as
+ * entradas em ordem, agrupando as consecutivas do mesmo tipo em lotes JDBC. As
+ * entradas canceladas por uma ROLLED_BACK (lidas numa primeira passada) sao
+ * puladas. No fim, cada emprestimo recebe uma nova change_seq, para que o feed
+ * de alteracoes entregue de novo a tabela reconstruida. So reproduz o estado
+ * atual se o diario estiver ativo desde a criacao dos emprestimos: antes de
+ * apagar, a reconstrucao e recusada se a tabela tiver emprestimos sem entrada
+ * CREATED no diario. Emprestimos de livros ja removidos sao ignorados.
+ */
+@Slf4j
+public class LoanProjection implements ApplicationRunner {
+
+	private static final int BATCH_SIZE = 500;
+
+	private static final String INSERT = "insert into loan (id, id_book, customer, email, loan_date, due_date, "
+			+ "renewals, returned) select ?, ?, ?, ?, ?, ?, ?, false from book where id = ?";
+	private static final String RENEW = "update loan set due_date = ?, renewals = ? where id = ?";
+	private static final String RETURN = "update loan set returned = true where id = ?";
+	private static final String REOPEN = "update loan set returned = false where id = ?";
+	private static final String STAMP = "update loan set change_seq = ? where id = ?";
+
+	private final LoanJournal journal;
+	private final JdbcTemplate jdbcTemplate;
+	private final TransactionTemplate transactionTemplate;
+	private final ChangeSequence changes;
+	private final boolean rebuildOnStartup;
+
+	public LoanProjection(LoanJournal journal, DataSource dataSource, PlatformTransactionManager transactionManager,
+			ChangeSequence changes, boolean rebuildOnStartup) {
+		this.journal = journal;
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.changes = changes;
+		this.rebuildOnStartup = rebuildOnStartup;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		if (rebuildOnStartup) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Retorna o numero de entradas reaplicadas.
+	 */
+	public long rebuild() {
+		long entries = transactionTemplate.execute(status -> {
+			Set<Long> rolledBack = new HashSet<>();
+			Map<Long, Long> created = new HashMap<>();
+			journal.replay(1, entry -> {
+				if (entry.getType() == LoanJournalEntry.Type.ROLLED_BACK) {
+					rolledBack.add(entry.getRolledBackSequence());
+				} else if (entry.getType() == LoanJournalEntry.Type.CREATED) {
+					created.put(entry.getSequence(), entry.getLoanId());
+				}
+			});
+			rolledBack.forEach(created::remove);
+			checkCoverage(new HashSet<>(created.values()));
+			jdbcTemplate.update("delete from loan");
+			Batch batch = new Batch();
+			journal.replay(1, entry -> {
+				if (entry.getType() != LoanJournalEntry.Type.ROLLED_BACK && !rolledBack.contains(entry.getSequence())) {
+					batch.add(entry);
+				}
+			});
+			batch.flush();
+			stampChanges();
+			return batch.entries;
+		});
+		log.info("Rebuilt loan table from {} journal entries", entries);
+		return entries;
+	}
+
+	/**
+	 * Emprestimos gravados antes de o diario ser ligado (ou com ele desligado)
+	 * seriam perdidos pela reconstrucao.
+	 */
+	private void checkCoverage(Set<Long> journaled) {
+		long[] outside = new long[1];
+		jdbcTemplate.query("select id from loan", (RowCallbackHandler) row -> {
+			if (!journaled.contains(row.getLong(1))) {
+				outside[0]++;
+			}
+		});
+		if (outside[0] > 0) {
+			throw new IllegalStateException("Refusing to rebuild the loan table: " + outside[0]
+					+ " loans are not in the journal");
+		}
+	}
+
+	private void stampChanges() {
+		List<Long> ids = jdbcTemplate.queryForList("select id from loan order by id", Long.class);
+		for (int from = 0; from < ids.size(); from += BATCH_SIZE) {
+			List<Long> chunk = ids.subList(from, Math.min(from + BATCH_SIZE, ids.size()));
+			changes.track(chunk.size(), sequences -> {
+				List<Object[]> args = new ArrayList<>();
+				for (int i = 0; i < chunk.size(); i++) {
+					args.add(new Object[] { sequences[i], chunk.get(i) });
+				}
+				return jdbcTemplate.batchUpdate(STAMP, args);
+			});
+		}
+	}
+
+	private class Batch {
+
+		private String sql;
+		private final List<Object[]> args = new ArrayList<>();
+		private long entries;
+
+		void add(LoanJournalEntry entry) {
+			entries++;
+			switch (entry.getType()) {
+			case CREATED:
+				add(INSERT, entry.getLoanId(), entry.getBookId(), entry.getCustomer(), entry.getEmail(),
+						date(entry.getLoanDate()), date(entry.getDueDate()), entry.getRenewals(), entry.getBookId());
+				break;
+			case RENEWED:
+				add(RENEW, date(entry.getDueDate()), entry.getRenewals(), entry.getLoanId());
+				break;
+			case RETURNED:
+				add(RETURN, entry.getLoanId());
+				break;
+			case REOPENED:
+				add(REOPEN, entry.getLoanId());
+				break;
+			default:
+				// OVERDUE_NOTIFIED: apenas historico, nao altera a tabela
+			}
+		}
+
+		private void add(String statement, Object... values) {
+			if (!statement.equals(sql) || args.size() == BATCH_SIZE) {
+				flush();
+				sql = statement;
+			}
+			args.add(values);
+		}
+
+		void flush() {
+			if (!args.isEmpty()) {
+				jdbcTemplate.batchUpdate(sql, args);
+				args.clear();
+			}
+		}
+
+		private Date date(LocalDate value) {
+			return value == null ? null : Date.valueOf(value);
+		}
+
+	}
+
+}
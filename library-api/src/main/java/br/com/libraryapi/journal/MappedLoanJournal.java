@@ -0,0 +1,324 @@
+package br.com.libraryapi.journal;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Diario append-only em arquivos mapeados em memoria (segmentos de tamanho fixo
+ * nomeados pela primeira sequencia). As escritas sao copias sequenciais para o
+ * mapeamento; uma thread de flush faz o force() de todas as entradas pendentes de
+ * uma vez (group commit) e libera os escritores que esperavam por elas.
+ * <p>
+ * Dentro de uma transacao a entrada fica duravel antes do commit do banco; se
+ * o commit falhar, a compensacao (ROLLED_BACK) e gravada depois do rollback. Se
+ * o processo cair entre os dois, a entrada fica sem compensacao e o diario
+ * registra uma alteracao que o banco nao tem.
+ */
+@Slf4j
+public class MappedLoanJournal implements LoanJournal, Closeable {
+
+	private static final String SUFFIX = ".journal";
+
+	private final Path directory;
+	private final int segmentSize;
+	private final List<JournalSegment> segments = new ArrayList<>();
+	private final ReentrantLock lock = new ReentrantLock();
+	private final Condition pending = lock.newCondition();
+	private final Condition durable = lock.newCondition();
+	private final Thread flusher;
+	private long lastSequence;
+	private long durableSequence;
+	private long forceCount;
+	private boolean closed;
+
+	public MappedLoanJournal(Path directory, int segmentSize) throws IOException {
+		this.directory = directory;
+		this.segmentSize = segmentSize;
+		Files.createDirectories(directory);
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				long firstSequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+				segments.add(JournalSegment.open(file, firstSequence, segmentSize));
+			}
+		}
+		segments.sort((a, b) -> Long.compare(a.getFirstSequence(), b.getFirstSequence()));
+		if (segments.isEmpty()) {
+			segments.add(openSegment(1));
+		}
+		lastSequence = active().getFirstSequence() - 1;
+		active().read(record -> lastSequence = record.getLong(0));
+		durableSequence = lastSequence;
+		log.info("Loan journal at {} with {} segments, last sequence {}", directory, segments.size(), lastSequence);
+		flusher = new Thread(this::flushLoop, "loan-journal-flusher");
+		flusher.setDaemon(true);
+		flusher.start();
+	}
+
+	@Override
+	public void append(LoanJournalEntry entry) {
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			write(entry);
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+
+			private long sequence;
+
+			@Override
+			public void beforeCommit(boolean readOnly) {
+				sequence = write(entry);
+			}
+
+			@Override
+			public void afterCompletion(int status) {
+				if (sequence > 0 && status == STATUS_ROLLED_BACK) {
+					write(LoanJournalEntry.rolledBack(sequence, entry.getLoanId()));
+				}
+			}
+
+		});
+	}
+
+	/**
+	 * Grava a entrada e espera o force() que a torna duravel.
+	 */
+	long write(LoanJournalEntry entry) {
+		lock.lock();
+		try {
+			if (closed) {
+				throw new IllegalStateException("Loan journal closed");
+			}
+			long sequence = lastSequence + 1;
+			byte[] record = encode(sequence, entry);
+			if (!active().append(record)) {
+				roll(sequence);
+				if (!active().append(record)) {
+					throw new IllegalArgumentException("Journal entry larger than a segment: " + record.length);
+				}
+			}
+			lastSequence = sequence;
+			pending.signal();
+			while (durableSequence < sequence) {
+				durable.awaitUninterruptibly();
+			}
+			return sequence;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	public void replay(long fromSequence, Consumer<LoanJournalEntry> consumer) {
+		List<JournalSegment> snapshot;
+		long last;
+		lock.lock();
+		try {
+			snapshot = new ArrayList<>(segments);
+			last = lastSequence;
+		} finally {
+			lock.unlock();
+		}
+		for (int i = 0; i < snapshot.size(); i++) {
+			boolean hasLater = i + 1 < snapshot.size();
+			if (hasLater && snapshot.get(i + 1).getFirstSequence() <= fromSequence) {
+				continue;
+			}
+			snapshot.get(i).read(record -> {
+				long sequence = record.getLong(0);
+				if (sequence >= fromSequence && sequence <= last) {
+					consumer.accept(decode(record));
+				}
+			});
+		}
+	}
+
+	public long getLastSequence() {
+		lock.lock();
+		try {
+			return lastSequence;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	long getForceCount() {
+		lock.lock();
+		try {
+			return forceCount;
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	int getSegmentCount() {
+		lock.lock();
+		try {
+			return segments.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	private void flushLoop() {
+		while (true) {
+			JournalSegment segment;
+			long target;
+			lock.lock();
+			try {
+				while (!closed && durableSequence == lastSequence) {
+					pending.awaitUninterruptibly();
+				}
+				if (durableSequence == lastSequence) {
+					return;
+				}
+				segment = active();
+				target = lastSequence;
+			} finally {
+				lock.unlock();
+			}
+			// fora do lock: os escritores seguem copiando para o mapeamento durante o force
+			segment.force();
+			lock.lock();
+			try {
+				forceCount++;
+				if (target > durableSequence) {
+					durableSequence = target;
+				}
+				durable.signalAll();
+			} finally {
+				lock.unlock();
+			}
+		}
+	}
+
+	private void roll(long firstSequence) {
+		JournalSegment current = active();
+		current.force();
+		forceCount++;
+		durableSequence = lastSequence;
+		durable.signalAll();
+		try {
+			segments.add(openSegment(firstSequence));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	private JournalSegment openSegment(long firstSequence) throws IOException {
+		Path file = directory.resolve(String.format("%020d%s", firstSequence, SUFFIX));
+		return JournalSegment.open(file, firstSequence, segmentSize);
+	}
+
+	private JournalSegment active() {
+		return segments.get(segments.size() - 1);
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.lock();
+		try {
+			closed = true;
+			pending.signal();
+		} finally {
+			lock.unlock();
+		}
+		try {
+			flusher.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (JournalSegment segment : segments) {
+			segment.close();
+		}
+	}
+
+	static byte[] encode(long sequence, LoanJournalEntry entry) {
+		byte[] customer = bytes(entry.getCustomer());
+		byte[] email = bytes(entry.getEmail());
+		boolean rolledBack = entry.getType() == LoanJournalEntry.Type.ROLLED_BACK;
+		ByteBuffer buffer = ByteBuffer.allocate(61 + length(customer) + length(email) + (rolledBack ? 8 : 0));
+		buffer.putLong(sequence)
+			  .put((byte) entry.getType().ordinal())
+			  .putLong(entry.getLoanId())
+			  .putLong(entry.getBookId() == null ? -1 : entry.getBookId())
+			  .putLong(entry.getOccurredAt().toEpochMilli())
+			  .putLong(entry.getLoanDate() == null ? Long.MIN_VALUE : entry.getLoanDate().toEpochDay())
+			  .putLong(entry.getDueDate() == null ? Long.MIN_VALUE : entry.getDueDate().toEpochDay())
+			  .putInt(entry.getRenewals() == null ? -1 : entry.getRenewals());
+		putString(buffer, customer);
+		putString(buffer, email);
+		if (rolledBack) {
+			buffer.putLong(entry.getRolledBackSequence());
+		}
+		return buffer.array();
+	}
+
+	static LoanJournalEntry decode(ByteBuffer buffer) {
+		long sequence = buffer.getLong();
+		LoanJournalEntry.Type type = LoanJournalEntry.Type.values()[buffer.get()];
+		long loanId = buffer.getLong();
+		long bookId = buffer.getLong();
+		Instant occurredAt = Instant.ofEpochMilli(buffer.getLong());
+		long loanDate = buffer.getLong();
+		long dueDate = buffer.getLong();
+		int renewals = buffer.getInt();
+		return LoanJournalEntry.builder()
+							   .sequence(sequence)
+							   .type(type)
+							   .loanId(loanId)
+							   .bookId(bookId < 0 ? null : bookId)
+							   .occurredAt(occurredAt)
+							   .loanDate(loanDate == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(loanDate))
+							   .dueDate(dueDate == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(dueDate))
+							   .renewals(renewals < 0 ? null : renewals)
+							   .customer(getString(buffer))
+							   .email(getString(buffer))
+							   .rolledBackSequence(type == LoanJournalEntry.Type.ROLLED_BACK ? buffer.getLong() : null)
+							   .build();
+	}
+
+	private static byte[] bytes(String value) {
+		return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+	}
+
+	private static int length(byte[] value) {
+		return value == null ? 0 : value.length;
+	}
+
+	private static void putString(ByteBuffer buffer, byte[] value) {
+		buffer.putInt(value == null ? -1 : value.length);
+		if (value != null) {
+			buffer.put(value);
+		}
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		int length = buffer.getInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] value = new byte[length];
+		buffer.get(value);
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+}
@@ -0,0 +1,159 @@
+package br.com.libraryapi.loadtest;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import javax.persistence.EntityManager;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Popula o banco com o {@link SyntheticCatalog} antes do ApplicationReadyEvent,
+ * para que os indices em memoria sejam reconstruidos ja com os dados.
+ */
+@Slf4j
+@Component
+@Profile("loadtest")
+public class LoadTestDataSeeder implements ApplicationRunner {
+
+	private static final int CHUNK = 1000;
+	private static final int HISTORY_DAYS = 365;
+	private static final int LOAN_DAYS = 4;
+	private static final int OPEN_LOAN_DAYS = 10;
+
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+	private final ChangeSequence changes;
+	private final SyntheticCatalog catalog;
+	private final int loansPerBook;
+	private final double openLoanRate;
+	private final long seed;
+
+	public LoadTestDataSeeder(EntityManager entityManager, PlatformTransactionManager transactionManager,
+			ChangeSequence changes,
+			@Value("${application.loadtest.books:20000}") int books,
+			@Value("${application.loadtest.loans-per-book:5}") int loansPerBook,
+			@Value("${application.loadtest.open-loan-rate:0.1}") double openLoanRate,
+			@Value("${application.loadtest.seed:42}") long seed) {
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.changes = changes;
+		this.catalog = new SyntheticCatalog(books, seed);
+		this.loansPerBook = loansPerBook;
+		this.openLoanRate = openLoanRate;
+		this.seed = seed;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		long start = System.nanoTime();
+		long[] bookIds = seedBooks();
+		int[] loansByBook = loanCounts();
+		long open = seedLoans(bookIds, loansByBook);
+		log.info("Load test data seeded: {} books, {} loans ({} open) in {} ms",
+				bookIds.length, (long) catalog.books() * loansPerBook, open,
+				(System.nanoTime() - start) / 1_000_000);
+	}
+
+	private long[] seedBooks() {
+		long[] bookIds = new long[catalog.books()];
+		for (int from = 0; from < bookIds.length; from += CHUNK) {
+			int first = from;
+			int last = Math.min(from + CHUNK, bookIds.length);
+			transactionTemplate.executeWithoutResult(status -> changes.track(last - first, sequences -> {
+				for (int i = first; i < last; i++) {
+					Book book = Book.builder()
+									.title(catalog.title(i))
+									.author(catalog.author(i))
+									.category(catalog.category(i))
+									.isbn(catalog.isbn(i))
+									.changeSeq(sequences[i - first])
+									.build();
+					entityManager.persist(book);
+					bookIds[i] = book.getId();
+				}
+				entityManager.flush();
+				entityManager.clear();
+				return null;
+			}));
+		}
+		return bookIds;
+	}
+
+	/** Distribui o total de emprestimos entre os livros pela popularidade. */
+	private int[] loanCounts() {
+		Random random = new Random(seed);
+		int[] loansByBook = new int[catalog.books()];
+		long total = (long) catalog.books() * loansPerBook;
+		for (long i = 0; i < total; i++) {
+			loansByBook[catalog.popularBook(random)]++;
+		}
+		return loansByBook;
+	}
+
+	/**
+	 * Cria o historico de cada livro em ordem cronologica, todos devolvidos
+	 * exceto, para uma fracao dos livros, o mais recente. Emprestimos abertos
+	 * comecam nos ultimos 10 dias, entao parte deles ja esta atrasada.
+	 */
+	private long seedLoans(long[] bookIds, int[] loansByBook) {
+		Random random = new Random(seed + 1);
+		LocalDate today = LocalDate.now();
+		long open = 0;
+		int book = 0;
+		while (book < bookIds.length) {
+			int first = book;
+			int chunkLoans = 0;
+			while (book < bookIds.length && chunkLoans < CHUNK) {
+				chunkLoans += loansByBook[book++];
+			}
+			int last = book;
+			int loans = chunkLoans;
+			open += transactionTemplate.execute(status -> changes.track(Math.max(loans, 1), sequences -> {
+				long opened = 0;
+				int next = 0;
+				for (int i = first; i < last; i++) {
+					Book reference = entityManager.getReference(Book.class, bookIds[i]);
+					int count = loansByBook[i];
+					boolean lastOpen = count > 0 && random.nextDouble() < openLoanRate;
+					int gap = Math.max((HISTORY_DAYS - OPEN_LOAN_DAYS) / Math.max(count, 1), 1);
+					LocalDate loanDate = today.minusDays(HISTORY_DAYS);
+					for (int j = 0; j < count; j++) {
+						boolean returned = !(lastOpen && j == count - 1);
+						loanDate = returned
+								? loanDate.plusDays(random.nextInt(gap))
+								: today.minusDays(random.nextInt(OPEN_LOAN_DAYS));
+						String customer = catalog.customer(random);
+						entityManager.persist(Loan.builder()
+												  .book(reference)
+												  .customer(customer)
+												  .email(SyntheticCatalog.email(customer))
+												  .loanDate(loanDate)
+												  .dueDate(loanDate.plusDays(LOAN_DAYS))
+												  .renewals(0)
+												  .returned(returned)
+												  .changeSeq(sequences[next++])
+												  .build());
+						opened += returned ? 0 : 1;
+					}
+				}
+				entityManager.flush();
+				entityManager.clear();
+				return opened;
+			}));
+		}
+		return open;
+	}
+
+}
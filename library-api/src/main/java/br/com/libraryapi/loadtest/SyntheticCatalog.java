@@ -0,0 +1,135 @@
+package br.com.libraryapi.loadtest;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Catalogo sintetico deterministico: o livro de indice i tem sempre o mesmo
+ * titulo, autor, categoria e ISBN. Usado pelo seeder do perfil loadtest e pelas
+ * simulacoes do modulo library-api-loadtest, que assim conhecem os ISBNs sem
+ * consultar a API. Popularidade de livros, autores, categorias e clientes segue
+ * uma distribuicao de Zipf (poucos itens concentram a maior parte do uso).
+ */
+public final class SyntheticCatalog {
+
+	private static final String[] CATEGORIES = {
+			"Romance", "Fantasia", "Tecnologia", "Historia", "Infantil", "Biografia",
+			"Ficcao Cientifica", "Autoajuda", "Poesia", "Ciencias", "Negocios", "Culinaria"
+	};
+
+	private static final String[] TITLE_WORDS = {
+			"Sombra", "Cidade", "Mar", "Tempo", "Jardim", "Noite", "Caminho", "Segredo",
+			"Vento", "Memoria", "Fogo", "Rio", "Silencio", "Estrela", "Casa", "Guerra",
+			"Viagem", "Codigo", "Reino", "Ilha", "Luz", "Destino", "Montanha", "Espelho",
+			"Algoritmo", "Imperio", "Floresta", "Carta", "Ponte", "Labirinto", "Sol", "Deserto"
+	};
+
+	private static final double SKEW = 1.0;
+
+	private final int books;
+	private final long seed;
+	private final ZipfDistribution bookPopularity;
+	private final ZipfDistribution authorPopularity;
+	private final ZipfDistribution categoryPopularity;
+	private final ZipfDistribution wordPopularity;
+	private final ZipfDistribution customerActivity;
+
+	public SyntheticCatalog(int books, long seed) {
+		if (books <= 0) {
+			throw new IllegalArgumentException("books must be positive");
+		}
+		this.books = books;
+		this.seed = seed;
+		this.bookPopularity = new ZipfDistribution(books, SKEW);
+		this.authorPopularity = new ZipfDistribution(Math.max(books / 8, 1), SKEW);
+		this.categoryPopularity = new ZipfDistribution(CATEGORIES.length, SKEW);
+		this.wordPopularity = new ZipfDistribution(TITLE_WORDS.length, SKEW);
+		this.customerActivity = new ZipfDistribution(Math.max(books / 2, 1), SKEW);
+	}
+
+	public int books() {
+		return books;
+	}
+
+	public String isbn(int index) {
+		String body = String.format("978%09d", index);
+		int sum = 0;
+		for (int i = 0; i < 12; i++) {
+			int digit = body.charAt(i) - '0';
+			sum += (i % 2 == 0) ? digit : digit * 3;
+		}
+		return body + (10 - sum % 10) % 10;
+	}
+
+	public String title(int index) {
+		Random random = randomFor(index);
+		int words = 2 + random.nextInt(3);
+		StringBuilder title = new StringBuilder();
+		for (int i = 0; i < words; i++) {
+			if (i > 0) {
+				title.append(i == 1 ? " do " : " e ");
+			}
+			title.append(TITLE_WORDS[wordPopularity.sample(random)]);
+		}
+		return title.toString();
+	}
+
+	public String author(int index) {
+		return "Autor " + authorPopularity.sample(randomFor(index + (long) books));
+	}
+
+	public String category(int index) {
+		return CATEGORIES[categoryPopularity.sample(randomFor(index + 2L * books))];
+	}
+
+	/** Indice de livro sorteado pela popularidade: o livro 0 e o mais procurado. */
+	public int popularBook(Random random) {
+		return bookPopularity.sample(random);
+	}
+
+	/** Palavra de titulo sorteada pela frequencia com que aparece nos titulos. */
+	public String titleWord(Random random) {
+		return TITLE_WORDS[wordPopularity.sample(random)];
+	}
+
+	public String category(Random random) {
+		return CATEGORIES[categoryPopularity.sample(random)];
+	}
+
+	public String customer(Random random) {
+		return "cliente-" + customerActivity.sample(random);
+	}
+
+	public static String email(String customer) {
+		return customer + "@library-api.com";
+	}
+
+	private Random randomFor(long index) {
+		return new Random(seed * 31 + index);
+	}
+
+	static final class ZipfDistribution {
+
+		private final double[] cumulative;
+
+		ZipfDistribution(int size, double skew) {
+			cumulative = new double[size];
+			double total = 0;
+			for (int rank = 0; rank < size; rank++) {
+				total += 1 / Math.pow(rank + 1, skew);
+				cumulative[rank] = total;
+			}
+			for (int rank = 0; rank < size; rank++) {
+				cumulative[rank] /= total;
+			}
+		}
+
+		int sample(Random random) {
+			int index = Arrays.binarySearch(cumulative, random.nextDouble());
+			index = index >= 0 ? index : -index - 1;
+			return Math.min(index, cumulative.length - 1);
+		}
+
+	}
+
+}
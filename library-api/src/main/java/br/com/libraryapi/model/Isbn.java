@@ -0,0 +1,87 @@
+package br.com.libraryapi.model;
+
+import java.util.OptionalLong;
+
+public final class Isbn {
+
+	private static final String EAN_BOOKLAND_PREFIX = "978";
+	private static final String EAN_BOOKLAND_979_PREFIX = "979";
+	private static final String EAN_MUSIC_PREFIX = "9790";
+
+	private Isbn() {
+	}
+
+	/**
+	 * Validates an ISBN-10 or ISBN-13, hyphenated or not, and returns its
+	 * canonical 13-digit form encoded as a long. Returns empty when the value
+	 * is not a valid ISBN.
+	 */
+	public static OptionalLong toNumber(String isbn) {
+		if (isbn == null) {
+			return OptionalLong.empty();
+		}
+		String digits = stripSeparators(isbn);
+		if (digits.length() == 10 && isValidIsbn10(digits)) {
+			String body = EAN_BOOKLAND_PREFIX + digits.substring(0, 9);
+			return OptionalLong.of(Long.parseLong(body + ean13CheckDigit(body)));
+		}
+		if (digits.length() == 13 && isValidIsbn13(digits)) {
+			return OptionalLong.of(Long.parseLong(digits));
+		}
+		return OptionalLong.empty();
+	}
+
+	public static boolean isValid(String isbn) {
+		return toNumber(isbn).isPresent();
+	}
+
+	static boolean isValidIsbn10(String digits) {
+		int sum = 0;
+		for (int i = 0; i < 10; i++) {
+			char c = digits.charAt(i);
+			int value;
+			if (c >= '0' && c <= '9') {
+				value = c - '0';
+			} else if (c == 'X' && i == 9) {
+				value = 10;
+			} else {
+				return false;
+			}
+			sum += (10 - i) * value;
+		}
+		return sum % 11 == 0;
+	}
+
+	static boolean isValidIsbn13(String digits) {
+		if (!digits.chars().allMatch(Character::isDigit)) {
+			return false;
+		}
+		boolean bookland = digits.startsWith(EAN_BOOKLAND_PREFIX)
+				|| (digits.startsWith(EAN_BOOKLAND_979_PREFIX) && !digits.startsWith(EAN_MUSIC_PREFIX));
+		if (!bookland) {
+			return false;
+		}
+		return ean13CheckDigit(digits) == digits.charAt(12) - '0';
+	}
+
+	static String stripSeparators(String isbn) {
+		StringBuilder digits = new StringBuilder(13);
+		for (int i = 0; i < isbn.length(); i++) {
+			char c = isbn.charAt(i);
+			if (c != '-' && c != ' ') {
+				digits.append(Character.toUpperCase(c));
+			}
+		}
+		return digits.toString();
+	}
+
+	static int ean13CheckDigit(String first12Digits) {
+		int sum = 0;
+		for (int i = 0; i < 12; i++) {
+			int digit = first12Digits.charAt(i) - '0';
+			sum += (i % 2 == 0) ? digit : digit * 3;
+		}
+		return (10 - (sum % 10)) % 10;
+	}
+
+}
@@ -0,0 +1,33 @@
+package br.com.libraryapi.model;
+
+import java.util.Properties;
+
+import org.hibernate.MappingException;
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+import org.hibernate.internal.util.config.ConfigurationHelper;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+/**
+ * Sequencia com otimizador pooled-lo: cada chamada a sequencia reserva um bloco
+ * de ids [valor, valor + tamanho - 1] atribuidos em memoria, o que permite
+ * agrupar os INSERTs em lotes JDBC. O tamanho do bloco vem de
+ * spring.jpa.properties.library.id.allocation_size (padrao 50) e deve ser o
+ * mesmo INCREMENT BY da sequencia no banco.
+ */
+public class PooledSequenceGenerator extends SequenceStyleGenerator {
+
+	public static final String ALLOCATION_SIZE = "library.id.allocation_size";
+	public static final int DEFAULT_ALLOCATION_SIZE = 50;
+
+	@Override
+	public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) throws MappingException {
+		int allocationSize = ConfigurationHelper.getInt(ALLOCATION_SIZE,
+				serviceRegistry.getService(ConfigurationService.class).getSettings(), DEFAULT_ALLOCATION_SIZE);
+		params.putIfAbsent(INCREMENT_PARAM, String.valueOf(allocationSize));
+		params.putIfAbsent(OPT_PARAM, "pooled-lo");
+		super.configure(type, params, serviceRegistry);
+	}
+
+}
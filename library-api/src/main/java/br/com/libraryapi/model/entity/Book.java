@@ -1,6 +1,8 @@
 package br.com.libraryapi.model.entity;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.OptionalLong;
 
 import javax.persistence.Access;
 import javax.persistence.AccessType;
@@ -8,11 +10,20 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.OneToMany;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
 import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
 
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.annotations.Where;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
+
+import br.com.libraryapi.model.Isbn;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,12 +34,19 @@ import lombok.NoArgsConstructor;
 @AllArgsConstructor
 @NoArgsConstructor
 @Entity
-@Table
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_book_isbn_number", columnNames = "isbn_number"),
+		indexes = {
+				@Index(name = "idx_book_deleted_at", columnList = "deleted_at"),
+				@Index(name = "idx_book_change_seq", columnList = "change_seq")
+		})
 @Access(AccessType.FIELD)
+@Where(clause = "deleted_at is null")
 public class Book {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "book_seq")
+	@GenericGenerator(name = "book_seq", strategy = "br.com.libraryapi.model.PooledSequenceGenerator",
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "book_seq"))
 	private Long id;
 	
 	@Column
@@ -40,7 +58,26 @@ public class Book {
 	@Column
 	private String isbn;
 
+	@Column(length = 50)
+	private String category;
+
+	@Column(name = "isbn_number")
+	private Long isbnNumber;
+
+	@Column(name = "deleted_at")
+	private Instant deletedAt;
+
+	@Column(name = "change_seq")
+	private Long changeSeq;
+
 	@OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
 	private List<Loan> loans;
+
+	@PrePersist
+	@PreUpdate
+	void syncIsbnNumber() {
+		OptionalLong number = Isbn.toNumber(isbn);
+		isbnNumber = number.isPresent() ? number.getAsLong() : null;
+	}
 	
 }
@@ -0,0 +1,33 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "change_watermark")
+public class ChangeWatermark {
+
+	@Id
+	@Column(length = 36)
+	private String node;
+
+	@Column(name = "stable_seq")
+	private long stableSeq;
+
+	@Column(name = "updated_at")
+	private Instant updatedAt;
+
+}
@@ -0,0 +1,49 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Lob;
+import javax.persistence.Table;
+import javax.persistence.Version;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_idempotency_record_created_at", columnList = "created_at"))
+public class IdempotencyRecord {
+
+	@Id
+	@Column(name = "idempotency_key", length = 100)
+	private String key;
+
+	@Column(length = 32)
+	private String fingerprint;
+
+	@Column
+	private Integer status;
+
+	@Column(length = 100)
+	private String contentType;
+
+	@Lob
+	@Column
+	private byte[] body;
+
+	@Column(name = "created_at")
+	private Instant createdAt;
+
+	@Version
+	private Long version;
+
+}
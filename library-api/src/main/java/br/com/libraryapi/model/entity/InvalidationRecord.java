@@ -0,0 +1,40 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "cache_invalidation",
+		indexes = @Index(name = "idx_cache_invalidation_created_at", columnList = "created_at"))
+public class InvalidationRecord {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(length = 36)
+	private String node;
+
+	@Column(length = 4000)
+	private String payload;
+
+	@Column(name = "created_at")
+	private Instant createdAt;
+
+}
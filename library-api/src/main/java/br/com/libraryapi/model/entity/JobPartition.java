@@ -0,0 +1,59 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "job_partition", uniqueConstraints = @UniqueConstraint(name = "uk_job_partition_run",
+		columnNames = { "job", "run_date", "partition_index" }))
+public class JobPartition {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(length = 100)
+	private String job;
+
+	@Column(name = "run_date")
+	private LocalDate runDate;
+
+	@Column(name = "partition_index")
+	private int partitionIndex;
+
+	@Column(name = "after_id")
+	private long afterId;
+
+	@Column(name = "up_to_id")
+	private long upToId;
+
+	@Column
+	private long checkpoint;
+
+	@Column(length = 36)
+	private String owner;
+
+	@Column(name = "lease_expires_at")
+	private Instant leaseExpiresAt;
+
+	@Column
+	private boolean completed;
+
+}
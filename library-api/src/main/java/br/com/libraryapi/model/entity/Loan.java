@@ -6,10 +6,15 @@ import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
-import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Index;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
+import org.hibernate.id.enhanced.SequenceStyleGenerator;
 
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -21,10 +26,18 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+		@Index(name = "idx_loan_customer", columnList = "customer"),
+		@Index(name = "idx_loan_book", columnList = "id_book"),
+		@Index(name = "idx_loan_due_date", columnList = "due_date"),
+		@Index(name = "idx_loan_change_seq", columnList = "change_seq")
+})
 public class Loan {
 
 	@Id
-	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	@GeneratedValue(generator = "loan_seq")
+	@GenericGenerator(name = "loan_seq", strategy = "br.com.libraryapi.model.PooledSequenceGenerator",
+			parameters = @Parameter(name = SequenceStyleGenerator.SEQUENCE_PARAM, value = "loan_seq"))
 	private long id;
 	
 	@Column(length = 100)
@@ -36,9 +49,18 @@ public class Loan {
 	@Column
 	private LocalDate loanDate;
 	
+	@Column(name = "due_date")
+	private LocalDate dueDate;
+	
+	@Column
+	private Integer renewals;
+	
 	@Column
 	private Boolean returned;
 	
+	@Column(name = "change_seq")
+	private Long changeSeq;
+	
 	@JoinColumn(name = "id_book")
 	@ManyToOne(fetch = FetchType.LAZY)
 	private Book book;
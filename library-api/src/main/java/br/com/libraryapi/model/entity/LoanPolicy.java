@@ -0,0 +1,54 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.LocalDate;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(name = "uk_loan_policy_category", columnNames = "category"))
+public class LoanPolicy {
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(length = 50)
+	private String category;
+
+	@Column
+	private int loanDays;
+
+	@Column
+	private int maxRenewals;
+
+	@Column
+	private int renewalDays;
+
+	public LocalDate dueDate(LocalDate loanDate) {
+		return loanDate.plusDays(loanDays);
+	}
+
+	public boolean canRenew(int renewals) {
+		return renewals < maxRenewals;
+	}
+
+	public LocalDate renewedDueDate(LocalDate dueDate) {
+		return dueDate.plusDays(renewalDays);
+	}
+
+}
@@ -0,0 +1,34 @@
+package br.com.libraryapi.model.entity;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Maior change_seq de tombstone ja removido pelo BookPurgeService. Um espelho
+ * sincronizado ate uma sequencia menor pode ter perdido exclusoes.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "purge_watermark")
+public class PurgeWatermark {
+
+	public static final String BOOKS = "book";
+
+	@Id
+	@Column(length = 100)
+	private String name;
+
+	@Column(name = "purged_seq")
+	private long purgedSeq;
+
+}
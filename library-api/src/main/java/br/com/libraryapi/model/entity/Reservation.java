@@ -0,0 +1,59 @@
+package br.com.libraryapi.model.entity;
+
+import java.time.Instant;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.FetchType;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.Table;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(indexes = @Index(name = "idx_reservation_queue", columnList = "id_book, status, id"))
+public class Reservation {
+
+	public enum Status {
+		WAITING, FULFILLED, CANCELLED
+	}
+
+	@Id
+	@GeneratedValue(strategy = GenerationType.IDENTITY)
+	private Long id;
+
+	@Column(length = 100)
+	private String customer;
+
+	@Column
+	private String email;
+
+	@Column
+	private Instant createdAt;
+
+	@Enumerated(EnumType.STRING)
+	@Column(length = 20)
+	private Status status;
+
+	@Column(name = "id_loan")
+	private Long loanId;
+
+	@JoinColumn(name = "id_book")
+	@ManyToOne(fetch = FetchType.LAZY)
+	private Book book;
+
+}
@@ -1,15 +1,96 @@
 package br.com.libraryapi.model.repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import javax.persistence.LockModeType;
+
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.libraryapi.model.entity.Book;
 
 public interface BookRepository extends JpaRepository<Book, Long> {
 
-	boolean existsByIsbn(String isbn);
+	boolean existsByIsbnNumber(Long isbnNumber);
+
+	Optional<Book> findByIsbnNumber(Long isbnNumber);
+
+	@Query("select b.id from Book b where b.id in :ids")
+	List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+	@Query("select b.isbnNumber from Book b where b.isbnNumber is not null")
+	Stream<Long> streamAllIsbnNumbers();
+
+	/**
+	 * Pagina por chave os livros com id maior que {@code after}, filtrando por
+	 * titulo e autor quando informados (padroes de like ja em minusculas).
+	 */
+	@Query("select b from Book b where b.id > :after "
+			+ "and (:title is null or lower(b.title) like :title escape '\\') "
+			+ "and (:author is null or lower(b.author) like :author escape '\\') order by b.id")
+	List<Book> findAfter(@Param("after") long after, @Param("title") String title, @Param("author") String author,
+			Pageable pageable);
+
+	@Query("select b from Book b where b.isbnNumber is null and b.id > :after order by b.id")
+	List<Book> findWithoutIsbnNumber(@Param("after") long after, Pageable pageable);
+
+	@Transactional
+	@Modifying
+	@Query("update Book b set b.isbnNumber = :isbnNumber where b.id = :id and b.isbnNumber is null")
+	int updateIsbnNumber(@Param("id") Long id, @Param("isbnNumber") long isbnNumber);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select b from Book b where b.id = :id")
+	Optional<Book> findByIdForUpdate(@Param("id") Long id);
+
+	@Lock(LockModeType.PESSIMISTIC_WRITE)
+	@Query("select b from Book b where b.id = (select l.book.id from Loan l where l.id = :loanId)")
+	Optional<Book> findByLoanIdForUpdate(@Param("loanId") Long loanId);
+
+	@Transactional
+	@Modifying
+	@Query("update Book b set b.title = :title, b.author = :author, b.category = :category, "
+			+ "b.changeSeq = :changeSeq where b.id = :id and b.deletedAt is null")
+	int updateTitleAuthor(@Param("id") Long id, @Param("title") String title, @Param("author") String author,
+			@Param("category") String category, @Param("changeSeq") long changeSeq);
+
+	/**
+	 * Marca o livro como excluido e libera o ISBN para um novo cadastro. A
+	 * linha fica como tombstone do feed de alteracoes e e removida com os
+	 * emprestimos depois pelo BookPurgeService.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update Book b set b.deletedAt = :deletedAt, b.isbnNumber = null, b.changeSeq = :changeSeq "
+			+ "where b.id = :id and b.deletedAt is null")
+	int softDelete(@Param("id") Long id, @Param("deletedAt") Instant deletedAt, @Param("changeSeq") long changeSeq);
+
+	// Consultas nativas: o @Where de Book esconde os livros excluidos das consultas JPQL
+	@Query(value = "select id from book where deleted_at < :deletedBefore order by deleted_at", nativeQuery = true)
+	List<Long> findDeletedIds(@Param("deletedBefore") Instant deletedBefore, Pageable pageable);
+
+	@Query(value = "select * from book where change_seq > :since and change_seq <= :until order by change_seq",
+			nativeQuery = true)
+	List<Book> findChanged(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+	@Query(value = "select coalesce(max(change_seq), 0) from book", nativeQuery = true)
+	long findMaxChangeSeq();
+
+	@Query(value = "select change_seq from book where id = :id and deleted_at is not null", nativeQuery = true)
+	Optional<Long> findDeletedChangeSeq(@Param("id") Long id);
 
-	Optional<Book> findByIsbn(String isbn);
+	@Transactional
+	@Modifying
+	@Query(value = "delete from book where id = :id and deleted_at is not null", nativeQuery = true)
+	int purgeDeleted(@Param("id") Long id);
 	
 }
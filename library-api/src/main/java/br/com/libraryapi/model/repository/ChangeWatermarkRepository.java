@@ -0,0 +1,43 @@
+package br.com.libraryapi.model.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.ChangeWatermark;
+
+public interface ChangeWatermarkRepository extends JpaRepository<ChangeWatermark, String> {
+
+	/**
+	 * Cria a sequencia change_seq continuando do maior change_seq gravado (bancos
+	 * novos; os existentes usam db/change-seq.sql).
+	 */
+	@Transactional
+	@Modifying
+	@Query(value = "create sequence if not exists change_seq start with (select coalesce(max(s), 0) + 1 from "
+			+ "(select max(change_seq) s from book union all select max(change_seq) s from loan))",
+			nativeQuery = true)
+	int createSequence();
+
+	@Query(value = "select next value for change_seq from system_range(1, :count)", nativeQuery = true)
+	List<Long> nextValues(@Param("count") int count);
+
+	@Query("select min(w.stableSeq) from ChangeWatermark w where w.node <> :node and w.updatedAt > :since")
+	Long findMinStableSeq(@Param("node") String node, @Param("since") Instant since);
+
+	@Transactional
+	@Modifying
+	@Query("delete from ChangeWatermark w where w.node = :node")
+	int deleteNode(@Param("node") String node);
+
+	@Transactional
+	@Modifying
+	@Query("delete from ChangeWatermark w where w.updatedAt < :before")
+	int deleteExpired(@Param("before") Instant before);
+
+}
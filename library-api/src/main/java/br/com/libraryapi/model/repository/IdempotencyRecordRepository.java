@@ -0,0 +1,20 @@
+package br.com.libraryapi.model.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+	@Transactional
+	@Modifying
+	@Query("delete from IdempotencyRecord r where r.createdAt < :createdAt")
+	int deleteByCreatedAtBefore(@Param("createdAt") Instant createdAt);
+
+}
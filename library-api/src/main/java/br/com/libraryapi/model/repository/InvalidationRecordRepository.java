@@ -0,0 +1,27 @@
+package br.com.libraryapi.model.repository;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.InvalidationRecord;
+
+public interface InvalidationRecordRepository extends JpaRepository<InvalidationRecord, Long> {
+
+	List<InvalidationRecord> findByIdGreaterThanOrderByIdAsc(Long id, Pageable pageable);
+
+	@Query("select coalesce(max(r.id), 0) from InvalidationRecord r")
+	long findMaxId();
+
+	@Transactional
+	@Modifying
+	@Query("delete from InvalidationRecord r where r.createdAt < :createdAt")
+	int deleteByCreatedAtBefore(@Param("createdAt") Instant createdAt);
+
+}
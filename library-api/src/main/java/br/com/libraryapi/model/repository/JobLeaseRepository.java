@@ -0,0 +1,33 @@
+package br.com.libraryapi.model.repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.JobLease;
+
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+	@Transactional
+	@Modifying
+	@Query("update JobLease l set l.owner = :owner, l.expiresAt = :expiresAt "
+			+ "where l.name = :name and ( l.owner = :owner or l.expiresAt < :now )")
+	int acquire(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now,
+			@Param("expiresAt") Instant expiresAt);
+
+	@Transactional
+	@Modifying
+	@Query(value = "insert into job_lease (name, owner, expires_at) values (:name, :owner, :expiresAt)",
+			nativeQuery = true)
+	int insert(@Param("name") String name, @Param("owner") String owner, @Param("expiresAt") Instant expiresAt);
+
+	@Transactional
+	@Modifying
+	@Query("update JobLease l set l.expiresAt = :now where l.name = :name and l.owner = :owner")
+	int release(@Param("name") String name, @Param("owner") String owner, @Param("now") Instant now);
+
+}
@@ -0,0 +1,46 @@
+package br.com.libraryapi.model.repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.JobPartition;
+
+public interface JobPartitionRepository extends JpaRepository<JobPartition, Long> {
+
+	boolean existsByJobAndRunDate(String job, LocalDate runDate);
+
+	List<JobPartition> findByJobAndCompletedFalseOrderByRunDateAscPartitionIndexAsc(String job);
+
+	@Transactional
+	@Modifying
+	@Query("update JobPartition p set p.owner = :owner, p.leaseExpiresAt = :expiresAt "
+			+ "where p.id = :id and p.completed = false and ( p.owner is null or p.leaseExpiresAt < :now )")
+	int claim(@Param("id") Long id, @Param("owner") String owner, @Param("now") Instant now,
+			@Param("expiresAt") Instant expiresAt);
+
+	@Transactional
+	@Modifying
+	@Query("update JobPartition p set p.checkpoint = :checkpoint, p.leaseExpiresAt = :expiresAt "
+			+ "where p.id = :id and p.owner = :owner")
+	int checkpoint(@Param("id") Long id, @Param("owner") String owner, @Param("checkpoint") long checkpoint,
+			@Param("expiresAt") Instant expiresAt);
+
+	@Transactional
+	@Modifying
+	@Query("update JobPartition p set p.completed = true, p.owner = null, p.leaseExpiresAt = null "
+			+ "where p.id = :id and p.owner = :owner")
+	int complete(@Param("id") Long id, @Param("owner") String owner);
+
+	@Transactional
+	@Modifying
+	@Query("delete from JobPartition p where p.job = :job and p.runDate < :runDate")
+	int deleteByJobAndRunDateBefore(@Param("job") String job, @Param("runDate") LocalDate runDate);
+
+}
@@ -0,0 +1,13 @@
+package br.com.libraryapi.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import br.com.libraryapi.model.entity.LoanPolicy;
+
+public interface LoanPolicyRepository extends JpaRepository<LoanPolicy, Long> {
+
+	Optional<LoanPolicy> findByCategory(String category);
+
+}
@@ -1,36 +1,110 @@
 package br.com.libraryapi.model.repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.schedule.IdRange;
 
-public interface LoanRepository extends JpaRepository<Loan, Long>{
+public interface LoanRepository extends JpaRepository<Loan, Long>, JpaSpecificationExecutor<Loan> {
+
+	@Override
+	@EntityGraph(attributePaths = "book")
+	Optional<Loan> findById(Long id);
+
+	@Override
+	@EntityGraph(attributePaths = "book")
+	Page<Loan> findAll(Specification<Loan> spec, Pageable pageable);
 
 	@Query(value = "select case when ( count(l.id) > 0  ) then"
 			+ " true else false end from Loan l where l.book = :book"
 			+ " and ( l.returned is null or l.returned is false ) ")
 	boolean existsByBookAndNotReturned(@Param("book") Book book);
 
-	@Query(value = " select l from Loan as l join l.book as b "
-			+ "where b.isbn = :isbn or l.customer = :customer ")
-	Page<Loan> findByBookIsbnOrCustomer(
-							@Param("isbn") String isbn, 
-							@Param("customer") String customer, 
-							Pageable pageable);
+	@Query(value = "select case when ( count(l.id) > 0  ) then"
+			+ " true else false end from Loan l where l.book.id = :bookId"
+			+ " and ( l.returned is null or l.returned is false ) ")
+	boolean existsByBookIdAndNotReturned(@Param("bookId") Long bookId);
 
+	@Query(value = "select case when ( count(l.id) > 0  ) then"
+			+ " true else false end from Loan l where l.book.id = :bookId and l.id <> :loanId"
+			+ " and ( l.returned is null or l.returned is false ) ")
+	boolean existsOtherByBookIdAndNotReturned(@Param("bookId") Long bookId, @Param("loanId") long loanId);
+
+	@Query("select l.book.id from Loan l where l.returned is null or l.returned is false")
+	Stream<Long> streamLoanedBookIds();
+
+	@EntityGraph(attributePaths = "book")
 	Page<Loan> findByBook(Book book, Pageable pageable);
 
 	@Query(value = "select l from Loan l "
-				 + "where l.loanDate <= :threeDaysAgo "
+				 + "where l.dueDate <= :today "
 				 + "and ( l.returned is null or l.returned is false )")
-	List<Loan> findByLoansDateLessThanAndNotReturned(@Param("threeDaysAgo") LocalDate threeDaysAgo);
+	List<Loan> findByDueDateUpToAndNotReturned(@Param("today") LocalDate today);
+
+	@Query("select new br.com.libraryapi.schedule.IdRange(coalesce(min(l.id) - 1, 0L), coalesce(max(l.id), 0L)) "
+			+ "from Loan l where l.dueDate <= :today and ( l.returned is null or l.returned is false )")
+	IdRange findLateIdRange(@Param("today") LocalDate today);
+
+	@Query("select l from Loan l left join fetch l.book "
+			+ "where l.dueDate <= :today and ( l.returned is null or l.returned is false ) "
+			+ "and l.id > :after and l.id <= :upTo order by l.id")
+	List<Loan> findLateInRange(@Param("today") LocalDate today, @Param("after") long after,
+			@Param("upTo") long upTo, Pageable pageable);
+
+	@Transactional
+	@Modifying
+	@Query("update Loan l set l.returned = true, l.changeSeq = :changeSeq "
+			+ "where l.id = :id and ( l.returned is null or l.returned is false )")
+	int markReturned(@Param("id") Long id, @Param("changeSeq") long changeSeq);
+
+	@Query("select l.id from Loan l where l.book.id = :bookId")
+	List<Long> findIdsByBookId(@Param("bookId") Long bookId, Pageable pageable);
+
+	/**
+	 * Pagina, por id, dos emprestimos do customer ou do livro do ISBN. Cada
+	 * ramo do UNION segue o seu indice e le no maximo limit ids (offset mais o
+	 * tamanho da pagina), em vez do OR que varre a tabela.
+	 */
+	@Query(value = "select * from loan where id in ( "
+			+ "select id from ( select id from loan where customer = :customer order by id limit :limit ) c "
+			+ "union select id from ( select id from loan where id_book in "
+			+ "( select id from book where isbn_number = :isbnNumber ) order by id limit :limit ) b ) "
+			+ "order by id limit :size offset :offset", nativeQuery = true)
+	List<Loan> findPageByCustomerOrIsbnNumber(@Param("customer") String customer,
+			@Param("isbnNumber") long isbnNumber, @Param("limit") long limit, @Param("size") int size,
+			@Param("offset") long offset);
+
+	@Query(value = "select count(*) from ( select id from loan where customer = :customer "
+			+ "union select id from loan where id_book in "
+			+ "( select id from book where isbn_number = :isbnNumber ) ) m", nativeQuery = true)
+	long countByCustomerOrIsbnNumber(@Param("customer") String customer, @Param("isbnNumber") long isbnNumber);
+
+	@Query("select l from Loan l left join fetch l.book "
+			+ "where l.changeSeq > :since and l.changeSeq <= :until order by l.changeSeq")
+	List<Loan> findChanged(@Param("since") long since, @Param("until") long until, Pageable pageable);
+
+	@Query("select coalesce(max(l.changeSeq), 0) from Loan l")
+	long findMaxChangeSeq();
+
+	@Transactional
+	@Modifying
+	@Query("delete from Loan l where l.id in :ids")
+	int deleteByIdIn(@Param("ids") Collection<Long> ids);
 
 }
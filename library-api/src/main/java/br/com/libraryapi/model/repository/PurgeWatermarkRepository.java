@@ -0,0 +1,31 @@
+package br.com.libraryapi.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.PurgeWatermark;
+
+public interface PurgeWatermarkRepository extends JpaRepository<PurgeWatermark, String> {
+
+	@Query("select w.purgedSeq from PurgeWatermark w where w.name = :name")
+	Optional<Long> findPurgedSeq(@Param("name") String name);
+
+	@Transactional
+	@Modifying
+	@Query(value = "insert into purge_watermark (name, purged_seq) values (:name, 0)", nativeQuery = true)
+	int insert(@Param("name") String name);
+
+	/**
+	 * Sobe a marca ate purgedSeq; nunca desce, com mais de uma instancia removendo.
+	 */
+	@Transactional
+	@Modifying
+	@Query("update PurgeWatermark w set w.purgedSeq = :purgedSeq where w.name = :name and w.purgedSeq < :purgedSeq")
+	int raise(@Param("name") String name, @Param("purgedSeq") long purgedSeq);
+
+}
@@ -0,0 +1,29 @@
+package br.com.libraryapi.model.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.Reservation;
+
+public interface ReservationRepository extends JpaRepository<Reservation, Long> {
+
+	@Override
+	@EntityGraph(attributePaths = "book")
+	Optional<Reservation> findById(Long id);
+
+	Optional<Reservation> findFirstByBookIdAndStatusOrderByIdAsc(Long bookId, Reservation.Status status);
+
+	boolean existsByBookIdAndStatus(Long bookId, Reservation.Status status);
+
+	@Transactional
+	@Modifying
+	@Query("delete from Reservation r where r.book.id = :bookId")
+	int deleteByBookId(@Param("bookId") Long bookId);
+
+}
@@ -0,0 +1,58 @@
+package br.com.libraryapi.model.repository.specification;
+
+import java.util.OptionalLong;
+
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
+
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.util.StringUtils;
+
+import br.com.libraryapi.model.Isbn;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+
+public final class LoanSpecification {
+
+	private LoanSpecification() {
+	}
+
+	/**
+	 * Filtro por isbn ou por customer. Com os dois informados o OR nao usa
+	 * indice; o servico pagina esse caso com
+	 * LoanRepository.findPageByCustomerOrIsbnNumber.
+	 */
+	public static Specification<Loan> byIsbnOrCustomer(String isbn, String customer) {
+		boolean hasIsbn = StringUtils.hasText(isbn);
+		boolean hasCustomer = StringUtils.hasText(customer);
+
+		if (hasIsbn && hasCustomer) {
+			return Specification.where(bookIsbn(isbn)).or(customer(customer));
+		}
+		if (hasIsbn) {
+			return Specification.where(bookIsbn(isbn));
+		}
+		if (hasCustomer) {
+			return Specification.where(customer(customer));
+		}
+		return Specification.where(null);
+	}
+
+	public static Specification<Loan> customer(String customer) {
+		return (root, query, builder) -> builder.equal(root.get("customer"), customer);
+	}
+
+	public static Specification<Loan> bookIsbn(String isbn) {
+		OptionalLong isbnNumber = Isbn.toNumber(isbn);
+		if (!isbnNumber.isPresent()) {
+			return (root, query, builder) -> builder.disjunction();
+		}
+		return (root, query, builder) -> {
+			Subquery<Long> books = query.subquery(Long.class);
+			Root<Book> book = books.from(Book.class);
+			books.select(book.get("id")).where(builder.equal(book.get("isbnNumber"), isbnNumber.getAsLong()));
+			return root.get("book").get("id").in(books);
+		};
+	}
+
+}
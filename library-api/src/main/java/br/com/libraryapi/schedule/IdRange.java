@@ -0,0 +1,37 @@
+package br.com.libraryapi.schedule;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Value;
+
+/**
+ * Faixa de ids (after, upTo]: after fica de fora, upTo entra.
+ */
+@Value
+public class IdRange {
+
+	long after;
+	long upTo;
+
+	public boolean isEmpty() {
+		return upTo <= after;
+	}
+
+	/**
+	 * Divide a faixa em ate parts faixas contiguas de tamanhos proximos.
+	 */
+	public List<IdRange> split(int parts) {
+		List<IdRange> ranges = new ArrayList<>();
+		if (isEmpty()) {
+			return ranges;
+		}
+		long span = upTo - after;
+		int count = (int) Math.min(Math.max(parts, 1), span);
+		for (int i = 0; i < count; i++) {
+			ranges.add(new IdRange(after + span * i / count, after + span * (i + 1) / count));
+		}
+		return ranges;
+	}
+
+}
@@ -0,0 +1,48 @@
+package br.com.libraryapi.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.springframework.dao.DataIntegrityViolationException;
+
+import br.com.libraryapi.model.repository.JobLeaseRepository;
+
+/**
+ * Leases nomeadas na tabela job_lease: uma instancia por vez fica com a lease
+ * ate liberar ou ate ela expirar, quando outra pode assumir.
+ */
+public class JobLeases {
+
+	private final JobLeaseRepository repository;
+	private final String node;
+	private final Clock clock;
+
+	public JobLeases(JobLeaseRepository repository, String node, Clock clock) {
+		this.repository = repository;
+		this.node = node;
+		this.clock = clock;
+	}
+
+	public boolean tryAcquire(String name, Duration duration) {
+		Instant now = clock.instant();
+		if (repository.acquire(name, node, now, now.plus(duration)) > 0) {
+			return true;
+		}
+		try {
+			return repository.insert(name, node, now.plus(duration)) > 0;
+		} catch (DataIntegrityViolationException e) {
+			// a lease ja existe e esta com outra instancia
+			return false;
+		}
+	}
+
+	public void release(String name) {
+		repository.release(name, node, clock.instant());
+	}
+
+	public String getNode() {
+		return node;
+	}
+
+}
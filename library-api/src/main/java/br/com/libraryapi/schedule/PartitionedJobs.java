@@ -0,0 +1,122 @@
+package br.com.libraryapi.schedule;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import br.com.libraryapi.model.entity.JobPartition;
+import br.com.libraryapi.model.repository.JobPartitionRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Execucao de um job dividido em faixas de ids entre as instancias. Quem obtem
+ * a lease do job planeja as particoes do dia uma unica vez; depois cada
+ * instancia assume as particoes livres ou com a lease expirada e grava um
+ * checkpoint a cada bloco processado. A particao de uma instancia que caiu
+ * volta a ficar livre quando a lease expira e continua do ultimo checkpoint.
+ */
+@Slf4j
+public class PartitionedJobs {
+
+	private static final int HISTORY_DAYS = 30;
+
+	private final JobPartitionRepository repository;
+	private final JobLeases leases;
+	private final Duration leaseDuration;
+	private final Clock clock;
+
+	public PartitionedJobs(JobPartitionRepository repository, JobLeases leases, Duration leaseDuration,
+			Clock clock) {
+		this.repository = repository;
+		this.leases = leases;
+		this.leaseDuration = leaseDuration;
+		this.clock = clock;
+	}
+
+	/**
+	 * Cria as particoes de runDate se ainda nao existirem. Devolve false quando
+	 * outra instancia esta planejando ou ja planejou.
+	 */
+	public boolean plan(String job, LocalDate runDate, int partitions, Supplier<IdRange> range) {
+		if (!leases.tryAcquire(job, leaseDuration)) {
+			return false;
+		}
+		try {
+			if (repository.existsByJobAndRunDate(job, runDate)) {
+				return false;
+			}
+			repository.deleteByJobAndRunDateBefore(job, runDate.minusDays(HISTORY_DAYS));
+			List<IdRange> ranges = range.get().split(partitions);
+			if (ranges.isEmpty()) {
+				// particao vazia so para marcar a execucao do dia como planejada
+				ranges.add(new IdRange(0, 0));
+			}
+			List<JobPartition> planned = IntStream.range(0, ranges.size())
+												  .mapToObj(index -> JobPartition.builder()
+																		.job(job)
+																		.runDate(runDate)
+																		.partitionIndex(index)
+																		.afterId(ranges.get(index).getAfter())
+																		.upToId(ranges.get(index).getUpTo())
+																		.checkpoint(ranges.get(index).getAfter())
+																		.build())
+												  .collect(Collectors.toList());
+			repository.saveAll(planned);
+			log.info("Planned {} partitions of {} for {}", planned.size(), job, runDate);
+			return true;
+		} finally {
+			leases.release(job);
+		}
+	}
+
+	/**
+	 * Processa as particoes pendentes de job que estiverem livres. Devolve
+	 * quantas foram concluidas por esta instancia.
+	 */
+	public int runPending(String job, Worker worker) {
+		int completed = 0;
+		for (JobPartition partition : repository.findByJobAndCompletedFalseOrderByRunDateAscPartitionIndexAsc(job)) {
+			Instant now = clock.instant();
+			if (repository.claim(partition.getId(), leases.getNode(), now, now.plus(leaseDuration)) == 0) {
+				continue;
+			}
+			if (process(partition, worker)) {
+				completed++;
+			}
+		}
+		return completed;
+	}
+
+	private boolean process(JobPartition partition, Worker worker) {
+		long checkpoint = partition.getCheckpoint();
+		while (true) {
+			long processed = worker.process(partition.getRunDate(), new IdRange(checkpoint, partition.getUpToId()));
+			if (processed <= checkpoint) {
+				return repository.complete(partition.getId(), leases.getNode()) > 0;
+			}
+			checkpoint = processed;
+			Instant expiresAt = clock.instant().plus(leaseDuration);
+			if (repository.checkpoint(partition.getId(), leases.getNode(), checkpoint, expiresAt) == 0) {
+				log.warn("Lost the lease of partition {} of {} at id {}", partition.getPartitionIndex(),
+						partition.getJob(), checkpoint);
+				return false;
+			}
+		}
+	}
+
+	public interface Worker {
+
+		/**
+		 * Processa o proximo bloco de ids dentro de range e devolve o ultimo id
+		 * processado, ou range.getAfter() quando nao houver mais nada.
+		 */
+		long process(LocalDate runDate, IdRange range);
+
+	}
+
+}
@@ -0,0 +1,104 @@
+package br.com.libraryapi.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.libraryapi.model.entity.PurgeWatermark;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.PurgeWatermarkRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Remove os livros excluidos (ver BookRepository.softDelete) junto com os seus
+ * emprestimos e reservas, em lotes de batch-size emprestimos por transacao.
+ * Os livros ficam como tombstones do feed de alteracoes por tombstone-retention
+ * antes de serem removidos; a maior sequencia removida fica em purge_watermark
+ * para o feed avisar os espelhos que ficaram para tras.
+ */
+@Slf4j
+@Service
+@Lazy(false)
+public class BookPurgeService {
+
+	private static final int BOOKS_PER_RUN = 100;
+
+	private final BookRepository bookRepository;
+	private final LoanRepository loanRepository;
+	private final ReservationRepository reservationRepository;
+	private final PurgeWatermarkRepository purgeWatermarkRepository;
+	private final TransactionTemplate transactionTemplate;
+	private final int batchSize;
+	private final Duration tombstoneRetention;
+
+	public BookPurgeService(BookRepository bookRepository, LoanRepository loanRepository,
+			ReservationRepository reservationRepository, PurgeWatermarkRepository purgeWatermarkRepository,
+			PlatformTransactionManager transactionManager,
+			@Value("${application.book-purge.batch-size:500}") int batchSize,
+			@Value("${application.book-purge.tombstone-retention:P7D}") Duration tombstoneRetention) {
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+		this.reservationRepository = reservationRepository;
+		this.purgeWatermarkRepository = purgeWatermarkRepository;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+		this.batchSize = batchSize;
+		this.tombstoneRetention = tombstoneRetention;
+		if (!purgeWatermarkRepository.existsById(PurgeWatermark.BOOKS)) {
+			try {
+				purgeWatermarkRepository.insert(PurgeWatermark.BOOKS);
+			} catch (DataIntegrityViolationException e) {
+				// criada por outra instancia subindo ao mesmo tempo
+			}
+		}
+	}
+
+	@Scheduled(fixedDelayString = "${application.book-purge.interval:PT30S}")
+	public long purgeDeletedBooks() {
+		List<Long> bookIds = bookRepository.findDeletedIds(Instant.now().minus(tombstoneRetention),
+				PageRequest.of(0, BOOKS_PER_RUN));
+		long loans = 0;
+		for (Long bookId : bookIds) {
+			loans += purge(bookId);
+		}
+		if (!bookIds.isEmpty()) {
+			log.info("Purged {} deleted books and {} loans", bookIds.size(), loans);
+		}
+		return loans;
+	}
+
+	private long purge(Long bookId) {
+		long loans = 0;
+		List<Long> loanIds;
+		do {
+			loanIds = loanRepository.findIdsByBookId(bookId, PageRequest.of(0, batchSize));
+			if (!loanIds.isEmpty()) {
+				loans += loanRepository.deleteByIdIn(loanIds);
+			}
+		} while (loanIds.size() == batchSize);
+		try {
+			transactionTemplate.executeWithoutResult(status -> {
+				reservationRepository.deleteByBookId(bookId);
+				// a marca sobe na mesma transacao que remove o tombstone
+				bookRepository.findDeletedChangeSeq(bookId)
+							  .ifPresent(changeSeq -> purgeWatermarkRepository.raise(PurgeWatermark.BOOKS, changeSeq));
+				bookRepository.purgeDeleted(bookId);
+			});
+		} catch (DataIntegrityViolationException e) {
+			// emprestimo criado por uma entrega de reserva em andamento; fica para a proxima execucao
+			log.warn("Deleted book {} still referenced, retrying on next run", bookId);
+		}
+		return loans;
+	}
+
+}
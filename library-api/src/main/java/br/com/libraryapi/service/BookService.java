@@ -1,5 +1,7 @@
 package br.com.libraryapi.service;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -13,12 +15,26 @@ public interface BookService {
 
 	Optional<Book> getById(Long id);
 
+	/**
+	 * Ids, dentre os informados, de livros cadastrados e nao excluidos.
+	 */
+	List<Long> getExistingIds(Collection<Long> ids);
+
 	void delete(Book book);
 
 	Book update(Book book);
 
+	boolean updateTitleAuthor(Long id, String title, String author, String category);
+
 	Page<Book> find(Book filter, Pageable pageRequest);
 
+	/**
+	 * Proximos livros com id maior que {@code afterId}, em ordem de id, com o
+	 * mesmo filtro de titulo e autor do find. Nao conta nem passa pelo cache de
+	 * pesquisas: serve para percorrer o catalogo inteiro por chave.
+	 */
+	List<Book> findAfter(Book filter, long afterId, int limit);
+
 	Optional<Book> getBookByIsbn(String isbn);
 
 }
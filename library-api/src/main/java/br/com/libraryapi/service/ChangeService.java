@@ -0,0 +1,14 @@
+package br.com.libraryapi.service;
+
+import br.com.libraryapi.change.ChangeFeed;
+
+public interface ChangeService {
+
+	/**
+	 * Alteracoes com sequencia maior que since, ate size itens em ordem de
+	 * sequencia. Lanca ResyncRequiredException quando exclusoes depois de since
+	 * ja foram removidas.
+	 */
+	ChangeFeed getChangesSince(long since, int size);
+
+}
@@ -0,0 +1,82 @@
+package br.com.libraryapi.service;
+
+import java.util.List;
+import java.util.OptionalLong;
+
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import br.com.libraryapi.model.Isbn;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.repository.BookRepository;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Preenche ao subir o isbn_number dos livros gravados antes da coluna existir
+ * (ver db/isbn-number.sql), antes de os indices de ISBN serem carregados. Ficam
+ * sem numero, com um aviso no log, os livros cujo ISBN nao passa na validacao
+ * de Isbn (tamanho, digito verificador ou prefixo 978/979) e os que repetem o
+ * ISBN canonico de um livro anterior: continuam acessiveis pelo id, mas nao
+ * sao encontrados pelo ISBN nem contam como duplicados ate o ISBN ser corrigido.
+ */
+@Slf4j
+@Service
+public class IsbnNumberBackfillService implements ApplicationRunner {
+
+	private static final int BATCH_SIZE = 500;
+
+	private final BookRepository bookRepository;
+
+	public IsbnNumberBackfillService(BookRepository bookRepository) {
+		this.bookRepository = bookRepository;
+	}
+
+	@Override
+	public void run(ApplicationArguments args) {
+		backfill();
+	}
+
+	/**
+	 * Retorna o numero de livros preenchidos.
+	 */
+	public long backfill() {
+		long filled = 0;
+		long rejected = 0;
+		long after = 0;
+		List<Book> books;
+		do {
+			books = bookRepository.findWithoutIsbnNumber(after, PageRequest.of(0, BATCH_SIZE));
+			for (Book book : books) {
+				after = book.getId();
+				if (fill(book)) {
+					filled++;
+				} else {
+					rejected++;
+				}
+			}
+		} while (books.size() == BATCH_SIZE);
+		if (filled + rejected > 0) {
+			log.info("Backfilled the ISBN number of {} books, {} left without one", filled, rejected);
+		}
+		return filled;
+	}
+
+	private boolean fill(Book book) {
+		OptionalLong number = Isbn.toNumber(book.getIsbn());
+		if (!number.isPresent()) {
+			log.warn("Book {} has an invalid ISBN '{}', left without ISBN number", book.getId(), book.getIsbn());
+			return false;
+		}
+		try {
+			return bookRepository.updateIsbnNumber(book.getId(), number.getAsLong()) > 0;
+		} catch (DataIntegrityViolationException e) {
+			log.warn("Book {} repeats ISBN {} of another book, left without ISBN number", book.getId(),
+					number.getAsLong());
+			return false;
+		}
+	}
+
+}
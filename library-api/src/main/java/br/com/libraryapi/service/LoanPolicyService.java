@@ -0,0 +1,18 @@
+package br.com.libraryapi.service;
+
+import java.util.List;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.LoanPolicy;
+
+public interface LoanPolicyService {
+
+	LoanPolicy getPolicy(Book book);
+
+	List<LoanPolicy> getAll();
+
+	LoanPolicy save(LoanPolicy policy);
+
+	void reload();
+
+}
@@ -1,5 +1,6 @@
 package br.com.libraryapi.service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -9,6 +10,7 @@ import org.springframework.data.domain.Pageable;
 import br.com.libraryapi.api.dto.LoanFilterDTO;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.schedule.IdRange;
 
 public interface LoanService {
 
@@ -18,10 +20,18 @@ public interface LoanService {
 
 	Loan update(Loan loan);
 
+	boolean markReturned(Long id);
+
+	Loan renew(Loan loan);
+
 	Page<Loan> find(LoanFilterDTO filterDTO, Pageable pageable);
 
 	Page<Loan> getLoansByBook(Book book, Pageable pageable);
 	
 	List<Loan> getAllLateLoans();
 
+	IdRange getLateLoanIdRange(LocalDate today);
+
+	List<Loan> getLateLoans(LocalDate today, IdRange range, int limit);
+
 }
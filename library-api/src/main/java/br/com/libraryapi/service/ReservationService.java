@@ -0,0 +1,15 @@
+package br.com.libraryapi.service;
+
+import java.util.Optional;
+
+import br.com.libraryapi.model.entity.Reservation;
+
+public interface ReservationService {
+
+	Reservation save(Reservation reservation);
+
+	Optional<Reservation> getById(Long id);
+
+	Reservation cancel(Reservation reservation);
+
+}
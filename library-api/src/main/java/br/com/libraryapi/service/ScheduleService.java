@@ -1,34 +1,72 @@
 package br.com.libraryapi.service;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import br.com.libraryapi.journal.LoanJournal;
+import br.com.libraryapi.journal.LoanJournalEntry;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.schedule.IdRange;
+import br.com.libraryapi.schedule.PartitionedJobs;
 import lombok.RequiredArgsConstructor;
 
+/**
+ * O cron dispara em todas as instancias, mas o envio e coordenado pelo banco
+ * (ver PartitionedJobs): cada emprestimo atrasado cai numa unica particao,
+ * processada por uma unica instancia.
+ */
 @Service
+@Lazy(false)
 @RequiredArgsConstructor
 public class ScheduleService {
 
 	public static final String CRON_LATE_LOANS = "0 0 0 1/1 * ?";
+	public static final String JOB_LATE_LOANS = "late-loans";
 	@Value("${application.mail.lateloans.message}")
 	private String message;
+	@Value("${application.late-loans.partitions:4}")
+	private int partitions;
+	@Value("${application.late-loans.chunk-size:200}")
+	private int chunkSize;
 	private final LoanService loanService;
 	private final EmailService emailService;
+	private final LoanJournal journal;
+	private final PartitionedJobs jobs;
 	
 	@Scheduled(cron = CRON_LATE_LOANS)
 	public void sendMailToLateLoans() {
-		List<Loan> allLateLoans = loanService.getAllLateLoans();
-		List<String> mailsList = allLateLoans.stream()
+		LocalDate today = LocalDate.now();
+		jobs.plan(JOB_LATE_LOANS, today, partitions, () -> loanService.getLateLoanIdRange(today));
+		jobs.runPending(JOB_LATE_LOANS, this::sendMailToLateLoans);
+	}
+
+	/**
+	 * Assume as particoes que ficaram sem dono (instancia que caiu ou que ainda
+	 * nao tinham sido planejadas quando o cron disparou).
+	 */
+	@Scheduled(fixedDelayString = "${application.late-loans.resume-interval:PT1M}")
+	public void resumeLateLoans() {
+		jobs.runPending(JOB_LATE_LOANS, this::sendMailToLateLoans);
+	}
+
+	private long sendMailToLateLoans(LocalDate runDate, IdRange range) {
+		List<Loan> lateLoans = loanService.getLateLoans(runDate, range, chunkSize);
+		if (lateLoans.isEmpty()) {
+			return range.getAfter();
+		}
+		List<String> mailsList = lateLoans.stream()
 					.map( loan -> loan.getEmail() )
 					.collect(Collectors.toList());
 		
 		emailService.sendMails(message, mailsList);
-		
+		lateLoans.forEach(loan -> journal.append(LoanJournalEntry.overdueNotified(loan)));
+		return lateLoans.get(lateLoans.size() - 1).getId();
 	}
 	
 }
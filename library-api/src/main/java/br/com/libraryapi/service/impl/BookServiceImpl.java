@@ -1,33 +1,77 @@
 package br.com.libraryapi.service.impl;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.ExampleMatcher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.query.EscapeCharacter;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import br.com.libraryapi.cache.BookSearchCache;
+import br.com.libraryapi.change.ChangeSequence;
 import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.index.IsbnIndex;
+import br.com.libraryapi.invalidation.Invalidation;
+import br.com.libraryapi.invalidation.InvalidationBus;
+import br.com.libraryapi.model.Isbn;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
 import br.com.libraryapi.service.BookService;
 
 @Service
 public class BookServiceImpl implements BookService {
 
 	private BookRepository repository;
+	private IsbnIndex isbnIndex;
+	private BookSearchCache searchCache;
+	private ChangeSequence changes;
+	private InvalidationBus invalidations;
+	private LoanRepository loanRepository;
 
-	public BookServiceImpl(BookRepository repository) {
+	public BookServiceImpl(BookRepository repository, IsbnIndex isbnIndex, BookSearchCache searchCache,
+			ChangeSequence changes, InvalidationBus invalidations, LoanRepository loanRepository) {
 		this.repository = repository;
+		this.loanRepository = loanRepository;
+		this.isbnIndex = isbnIndex;
+		this.searchCache = searchCache;
+		this.changes = changes;
+		this.invalidations = invalidations;
 	}
 
 	@Override
 	public Book save(Book book) {
-		if (repository.existsByIsbn(book.getIsbn())) {
+		long isbnNumber = Isbn.toNumber(book.getIsbn())
+							  .orElseThrow(() -> new BusinessException("ISBN inválido."));
+		if (isbnIndex.mightContain(isbnNumber) && repository.existsByIsbnNumber(isbnNumber)) {
 			throw new BusinessException("ISBN já cadastrado.");
 		}
-		return repository.save(book);
+		book.setIsbnNumber(isbnNumber);
+		Book saved;
+		try {
+			saved = changes.track(sequence -> {
+				book.setChangeSeq(sequence);
+				Book stored = repository.save(book);
+				// antes de liberar a sequencia: o snapshot dos indices marcado com ela ja inclui o ISBN
+				isbnIndex.add(isbnNumber);
+				return stored;
+			});
+		} catch (DataIntegrityViolationException e) {
+			throw new BusinessException("ISBN já cadastrado.", e);
+		}
+		searchCache.invalidate();
+		invalidations.publish(Invalidation.book(saved.getId()));
+		return saved;
 	}
 
 	@Override
@@ -36,11 +80,24 @@ public class BookServiceImpl implements BookService {
 	}
 
 	@Override
+	public List<Long> getExistingIds(Collection<Long> ids) {
+		return ids.isEmpty() ? Collections.emptyList() : this.repository.findExistingIds(ids);
+	}
+
+	@Override
+	@Transactional
 	public void delete(Book book) {
 		if (book == null || book.getId() == null) {
 			throw new IllegalArgumentException("Book id cannot be null");
 		}
-		this.repository.delete(book);
+		// mesmo lock do emprestimo: um livro excluido some das consultas e o emprestimo aberto nao seria devolvido
+		repository.findByIdForUpdate(book.getId());
+		if (loanRepository.existsByBookIdAndNotReturned(book.getId())) {
+			throw new BusinessException("Book has an open loan");
+		}
+		changes.track(sequence -> this.repository.softDelete(book.getId(), Instant.now(), sequence));
+		searchCache.invalidate();
+		invalidations.publish(Invalidation.book(book.getId()));
 	}
 
 	@Override
@@ -48,7 +105,27 @@ public class BookServiceImpl implements BookService {
 		if (book == null || book.getId() == null) {
 			throw new IllegalArgumentException("Book id cannot be null");
 		}
-		return this.repository.saveAndFlush(book);
+		Book updated = changes.track(sequence -> {
+			book.setChangeSeq(sequence);
+			return this.repository.saveAndFlush(book);
+		});
+		searchCache.invalidate();
+		invalidations.publish(Invalidation.book(updated.getId()));
+		return updated;
+	}
+
+	@Override
+	public boolean updateTitleAuthor(Long id, String title, String author, String category) {
+		if (id == null) {
+			throw new IllegalArgumentException("Book id cannot be null");
+		}
+		boolean updated = changes.track(sequence -> repository.updateTitleAuthor(id, title, author, category,
+				sequence)) > 0;
+		if (updated) {
+			searchCache.invalidate();
+			invalidations.publish(Invalidation.book(id));
+		}
+		return updated;
 	}
 
 	@Override
@@ -62,12 +139,26 @@ public class BookServiceImpl implements BookService {
 												ExampleMatcher
 													.StringMatcher
 													.CONTAINING));
-		return repository.findAll(example, pageRequest);
+		return searchCache.get(filter, pageRequest, () -> repository.findAll(example, pageRequest));
+	}
+
+	@Override
+	public List<Book> findAfter(Book filter, long afterId, int limit) {
+		return repository.findAfter(afterId, containing(filter.getTitle()), containing(filter.getAuthor()),
+				PageRequest.of(0, limit));
 	}
 
 	@Override
 	public Optional<Book> getBookByIsbn(String isbn) {
-		return repository.findByIsbn(isbn);
+		OptionalLong isbnNumber = Isbn.toNumber(isbn);
+		if (!isbnNumber.isPresent() || !isbnIndex.mightContain(isbnNumber.getAsLong())) {
+			return Optional.empty();
+		}
+		return repository.findByIsbnNumber(isbnNumber.getAsLong());
+	}
+
+	private static String containing(String value) {
+		return value == null ? null : "%" + EscapeCharacter.DEFAULT.escape(value.toLowerCase()) + "%";
 	}
 
 }
@@ -0,0 +1,87 @@
+package br.com.libraryapi.service.impl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.change.ChangeFeed;
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.change.ResyncRequiredException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.PurgeWatermark;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.PurgeWatermarkRepository;
+import br.com.libraryapi.service.ChangeService;
+
+@Service
+public class ChangeServiceImpl implements ChangeService {
+
+	private BookRepository bookRepository;
+	private LoanRepository loanRepository;
+	private PurgeWatermarkRepository purgeWatermarkRepository;
+	private ChangeSequence changes;
+
+	public ChangeServiceImpl(BookRepository bookRepository, LoanRepository loanRepository,
+			PurgeWatermarkRepository purgeWatermarkRepository, ChangeSequence changes) {
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+		this.purgeWatermarkRepository = purgeWatermarkRepository;
+		this.changes = changes;
+	}
+
+	/**
+	 * Le ate size livros e size emprestimos e intercala pela sequencia, cortando
+	 * em size itens. Sem corte, o feed chega ate a sequencia estavel.
+	 * <p>
+	 * A marca de remocao e lida depois das alteracoes: um tombstone que ja nao
+	 * apareceu na leitura foi removido numa transacao que tambem subiu a marca.
+	 */
+	@Override
+	@Transactional(readOnly = true)
+	public ChangeFeed getChangesSince(long since, int size) {
+		long until = changes.stableSequence();
+		PageRequest page = PageRequest.of(0, size);
+		List<Book> changedBooks = since < until ? bookRepository.findChanged(since, until, page) : new ArrayList<>();
+		List<Loan> changedLoans = since < until ? loanRepository.findChanged(since, until, page) : new ArrayList<>();
+
+		List<Book> books = new ArrayList<>();
+		List<Long> deletedBookIds = new ArrayList<>();
+		List<Loan> loans = new ArrayList<>();
+		int b = 0;
+		int l = 0;
+		long sequence = since;
+		while (b + l < size && (b < changedBooks.size() || l < changedLoans.size())) {
+			if (l == changedLoans.size() || (b < changedBooks.size()
+					&& changedBooks.get(b).getChangeSeq() < changedLoans.get(l).getChangeSeq())) {
+				Book book = changedBooks.get(b++);
+				if (book.getDeletedAt() == null) {
+					books.add(book);
+				} else {
+					deletedBookIds.add(book.getId());
+				}
+				sequence = book.getChangeSeq();
+			} else {
+				Loan loan = changedLoans.get(l++);
+				loans.add(loan);
+				sequence = loan.getChangeSeq();
+			}
+		}
+		long purgedSeq = purgeWatermarkRepository.findPurgedSeq(PurgeWatermark.BOOKS).orElse(0l);
+		if (since > 0 && since < purgedSeq) {
+			throw new ResyncRequiredException("Deleted books after sequence " + since
+					+ " were already purged; start over from sequence 0");
+		}
+		boolean more = b < changedBooks.size() || l < changedLoans.size()
+				|| changedBooks.size() == size || changedLoans.size() == size;
+		if (!more) {
+			sequence = Math.max(since, until);
+		}
+		return new ChangeFeed(books, deletedBookIds, loans, sequence, more);
+	}
+
+}
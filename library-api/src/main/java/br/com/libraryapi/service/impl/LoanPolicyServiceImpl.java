@@ -0,0 +1,87 @@
+package br.com.libraryapi.service.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.model.repository.LoanPolicyRepository;
+import br.com.libraryapi.service.LoanPolicyService;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Service
+@Lazy(false)
+public class LoanPolicyServiceImpl implements LoanPolicyService {
+
+	private final LoanPolicyRepository repository;
+	private final LoanPolicy defaultPolicy;
+
+	private volatile Map<String, LoanPolicy> policies = Collections.emptyMap();
+
+	public LoanPolicyServiceImpl(LoanPolicyRepository repository,
+			@Value("${application.loan-policy.loan-days:4}") int loanDays,
+			@Value("${application.loan-policy.max-renewals:2}") int maxRenewals,
+			@Value("${application.loan-policy.renewal-days:7}") int renewalDays) {
+		this.repository = repository;
+		this.defaultPolicy = LoanPolicy.builder()
+									   .loanDays(loanDays)
+									   .maxRenewals(maxRenewals)
+									   .renewalDays(renewalDays)
+									   .build();
+	}
+
+	@Override
+	public LoanPolicy getPolicy(Book book) {
+		if (book == null || book.getCategory() == null) {
+			return defaultPolicy;
+		}
+		return policies.getOrDefault(normalize(book.getCategory()), defaultPolicy);
+	}
+
+	@Override
+	public List<LoanPolicy> getAll() {
+		return new ArrayList<>(policies.values());
+	}
+
+	@Override
+	public LoanPolicy save(LoanPolicy policy) {
+		policy.setCategory(normalize(policy.getCategory()));
+		LoanPolicy saved = repository.findByCategory(policy.getCategory())
+									 .map(existing -> {
+										 policy.setId(existing.getId());
+										 return repository.save(policy);
+									 })
+									 .orElseGet(() -> repository.save(policy));
+		reload();
+		return saved;
+	}
+
+	@Override
+	@EventListener(ApplicationReadyEvent.class)
+	@Scheduled(fixedDelayString = "${application.loan-policy.reload-interval:PT1M}")
+	public void reload() {
+		Map<String, LoanPolicy> loaded = new HashMap<>();
+		repository.findAll().forEach(policy -> loaded.put(normalize(policy.getCategory()), policy));
+		if (!loaded.equals(policies)) {
+			log.info("Loaded {} loan policies", loaded.size());
+		}
+		policies = loaded;
+	}
+
+	private static String normalize(String category) {
+		return category.trim().toLowerCase(Locale.ROOT);
+	}
+
+}
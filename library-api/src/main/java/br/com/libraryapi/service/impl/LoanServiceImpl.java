@@ -3,33 +3,67 @@ package br.com.libraryapi.service.impl;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
+import java.util.OptionalLong;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 
 import br.com.libraryapi.api.dto.LoanFilterDTO;
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.event.LoanEvent;
 import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.journal.LoanJournal;
+import br.com.libraryapi.journal.LoanJournalEntry;
+import br.com.libraryapi.model.Isbn;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
 import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+import br.com.libraryapi.model.repository.specification.LoanSpecification;
+import br.com.libraryapi.schedule.IdRange;
+import br.com.libraryapi.service.LoanPolicyService;
 import br.com.libraryapi.service.LoanService;
 
 @Service
 public class LoanServiceImpl implements LoanService {
 
 	private LoanRepository repository;
+	private BookRepository bookRepository;
+	private ReservationRepository reservationRepository;
+	private ApplicationEventPublisher eventPublisher;
+	private LoanPolicyService policyService;
+	private LoanJournal journal;
+	private ChangeSequence changes;
 
-	public LoanServiceImpl(LoanRepository repository) {
+	public LoanServiceImpl(LoanRepository repository, BookRepository bookRepository,
+			ReservationRepository reservationRepository, ApplicationEventPublisher eventPublisher,
+			LoanPolicyService policyService, LoanJournal journal, ChangeSequence changes) {
 		this.repository = repository;
+		this.bookRepository = bookRepository;
+		this.reservationRepository = reservationRepository;
+		this.eventPublisher = eventPublisher;
+		this.policyService = policyService;
+		this.journal = journal;
+		this.changes = changes;
 	}
 
 	@Override
+	@Transactional
 	public Loan save(Loan loan) {
+		lockBook(loan.getBook());
 		if (repository.existsByBookAndNotReturned(loan.getBook())) {
 			throw new BusinessException("Book already loaned");
 		}
-		return repository.save(loan);
+		return open(loan);
 	}
 
 	@Override
@@ -38,13 +72,85 @@ public class LoanServiceImpl implements LoanService {
 	}
 
 	@Override
+	@Transactional
 	public Loan update(Loan loan) {
-		return repository.save(loan);
+		lockBook(loan.getBook());
+		// reabrir depois de uma entrega de reserva deixaria dois emprestimos abertos para o livro
+		if (!Boolean.TRUE.equals(loan.getReturned()) && loan.getBook() != null && loan.getBook().getId() != null
+				&& repository.existsOtherByBookIdAndNotReturned(loan.getBook().getId(), loan.getId())) {
+			throw new BusinessException("Book already loaned");
+		}
+		Loan updated = store(loan);
+		eventPublisher.publishEvent(LoanEvent.of(updated));
+		if (Boolean.TRUE.equals(updated.getReturned())) {
+			journal.append(LoanJournalEntry.returned(updated.getId(), bookId(updated)));
+		} else {
+			journal.append(LoanJournalEntry.reopened(updated));
+		}
+		if (Boolean.TRUE.equals(updated.getReturned()) && updated.getBook() != null) {
+			handOffToNextReservation(updated.getBook());
+		}
+		return updated;
+	}
+
+	@Override
+	@Transactional
+	public boolean markReturned(Long id) {
+		Optional<Book> book = bookRepository.findByLoanIdForUpdate(id);
+		if (!book.isPresent()) {
+			return false;
+		}
+		if (changes.track(sequence -> repository.markReturned(id, sequence)) > 0) {
+			eventPublisher.publishEvent(LoanEvent.returned(id, book.get().getId()));
+			journal.append(LoanJournalEntry.returned(id, book.get().getId()));
+			handOffToNextReservation(book.get());
+		}
+		return true;
+	}
+
+	@Override
+	@Transactional
+	public Loan renew(Loan loan) {
+		if (Boolean.TRUE.equals(loan.getReturned())) {
+			throw new BusinessException("Loan already returned");
+		}
+		lockBook(loan.getBook());
+		if (loan.getBook() != null
+				&& reservationRepository.existsByBookIdAndStatus(loan.getBook().getId(), Reservation.Status.WAITING)) {
+			throw new BusinessException("Book has pending reservations");
+		}
+		LoanPolicy policy = policyService.getPolicy(loan.getBook());
+		int renewals = loan.getRenewals() == null ? 0 : loan.getRenewals();
+		if (!policy.canRenew(renewals)) {
+			throw new BusinessException("Renewal limit reached");
+		}
+		LocalDate dueDate = loan.getDueDate() == null ? LocalDate.now() : loan.getDueDate();
+		loan.setDueDate(policy.renewedDueDate(dueDate));
+		loan.setRenewals(renewals + 1);
+		Loan renewed = store(loan);
+		journal.append(LoanJournalEntry.renewed(renewed));
+		return renewed;
 	}
 
 	@Override
 	public Page<Loan> find(LoanFilterDTO filterDTO, Pageable pageable) {
-		return repository.findByBookIsbnOrCustomer(filterDTO.getIsbn(), filterDTO.getCustomer(), pageable);
+		String isbn = filterDTO.getIsbn();
+		String customer = filterDTO.getCustomer();
+		if (StringUtils.hasText(isbn) && StringUtils.hasText(customer) && pageable.isPaged()) {
+			OptionalLong isbnNumber = Isbn.toNumber(isbn);
+			if (!isbnNumber.isPresent()) {
+				// um ISBN invalido nao encontra livro: resta o filtro por customer
+				return repository.findAll(LoanSpecification.byIsbnOrCustomer(null, customer), pageable);
+			}
+			// o OR entre isbn e customer varre a tabela: cada ramo e paginado no
+			// seu indice, ordenado por id
+			long number = isbnNumber.getAsLong();
+			List<Loan> page = repository.findPageByCustomerOrIsbnNumber(customer, number,
+					pageable.getOffset() + pageable.getPageSize(), pageable.getPageSize(), pageable.getOffset());
+			return PageableExecutionUtils.getPage(page, pageable,
+					() -> repository.countByCustomerOrIsbnNumber(customer, number));
+		}
+		return repository.findAll(LoanSpecification.byIsbnOrCustomer(isbn, customer), pageable);
 	}
 
 	@Override
@@ -54,9 +160,64 @@ public class LoanServiceImpl implements LoanService {
 
 	@Override
 	public List<Loan> getAllLateLoans() {
-		final Integer loanDays = 4;
-		LocalDate threeDaysAgo = LocalDate.now().minusDays(loanDays);
-		return repository.findByLoansDateLessThanAndNotReturned(threeDaysAgo);
+		return repository.findByDueDateUpToAndNotReturned(LocalDate.now());
+	}
+
+	@Override
+	public IdRange getLateLoanIdRange(LocalDate today) {
+		return repository.findLateIdRange(today);
+	}
+
+	@Override
+	public List<Loan> getLateLoans(LocalDate today, IdRange range, int limit) {
+		return repository.findLateInRange(today, range.getAfter(), range.getUpTo(), PageRequest.of(0, limit));
+	}
+
+	private void handOffToNextReservation(Book book) {
+		if (repository.existsByBookAndNotReturned(book)) {
+			return;
+		}
+		reservationRepository
+				.findFirstByBookIdAndStatusOrderByIdAsc(book.getId(), Reservation.Status.WAITING)
+				.ifPresent(reservation -> {
+					Loan loan = open(Loan.builder()
+										 .book(book)
+										 .customer(reservation.getCustomer())
+										 .email(reservation.getEmail())
+										 .build());
+					reservation.setStatus(Reservation.Status.FULFILLED);
+					reservation.setLoanId(loan.getId());
+					reservationRepository.save(reservation);
+				});
+	}
+
+	private Loan open(Loan loan) {
+		if (loan.getLoanDate() == null) {
+			loan.setLoanDate(LocalDate.now());
+		}
+		loan.setDueDate(policyService.getPolicy(loan.getBook()).dueDate(loan.getLoanDate()));
+		loan.setRenewals(0);
+		Loan saved = store(loan);
+		eventPublisher.publishEvent(LoanEvent.of(saved));
+		journal.append(LoanJournalEntry.created(saved));
+		return saved;
+	}
+
+	private Loan store(Loan loan) {
+		return changes.track(sequence -> {
+			loan.setChangeSeq(sequence);
+			return repository.save(loan);
+		});
+	}
+
+	private static Long bookId(Loan loan) {
+		return loan.getBook() == null ? null : loan.getBook().getId();
+	}
+
+	private void lockBook(Book book) {
+		if (book != null && book.getId() != null) {
+			bookRepository.findByIdForUpdate(book.getId());
+		}
 	}
 
 }
@@ -0,0 +1,59 @@
+package br.com.libraryapi.service.impl;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+import br.com.libraryapi.service.ReservationService;
+
+@Service
+public class ReservationServiceImpl implements ReservationService {
+
+	private ReservationRepository repository;
+	private BookRepository bookRepository;
+	private LoanRepository loanRepository;
+
+	public ReservationServiceImpl(ReservationRepository repository, BookRepository bookRepository,
+			LoanRepository loanRepository) {
+		this.repository = repository;
+		this.bookRepository = bookRepository;
+		this.loanRepository = loanRepository;
+	}
+
+	@Override
+	@Transactional
+	public Reservation save(Reservation reservation) {
+		bookRepository.findByIdForUpdate(reservation.getBook().getId());
+		if (!loanRepository.existsByBookAndNotReturned(reservation.getBook())) {
+			throw new BusinessException("Book is available for loan");
+		}
+		reservation.setStatus(Reservation.Status.WAITING);
+		reservation.setCreatedAt(Instant.now());
+		return repository.save(reservation);
+	}
+
+	@Override
+	public Optional<Reservation> getById(Long id) {
+		return repository.findById(id);
+	}
+
+	@Override
+	@Transactional
+	public Reservation cancel(Reservation reservation) {
+		bookRepository.findByIdForUpdate(reservation.getBook().getId());
+		Reservation current = repository.findById(reservation.getId()).orElse(reservation);
+		if (current.getStatus() != Reservation.Status.WAITING) {
+			throw new BusinessException("Reservation is no longer waiting");
+		}
+		current.setStatus(Reservation.Status.CANCELLED);
+		return repository.save(current);
+	}
+
+}
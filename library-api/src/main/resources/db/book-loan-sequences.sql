@@ -0,0 +1,19 @@
+-- Migracao de bancos existentes: ids de livro e emprestimo passam de IDENTITY
+-- para as sequencias book_seq e loan_seq (PooledSequenceGenerator, pooled-lo).
+-- INCREMENT BY deve ser igual a spring.jpa.properties.library.id.allocation_size.
+-- Aplicar uma vez, com a aplicacao parada, antes de subir a nova versao.
+
+CREATE SEQUENCE IF NOT EXISTS book_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM book) INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS loan_seq START WITH (SELECT COALESCE(MAX(id), 0) + 1 FROM loan) INCREMENT BY 50;
+
+-- A coluna id nao precisa mais gerar valores; o Hibernate sempre informa o id
+ALTER TABLE book ALTER COLUMN id DROP DEFAULT;
+ALTER TABLE loan ALTER COLUMN id DROP DEFAULT;
+
+-- MySQL (sem sequencias; o Hibernate usa uma tabela de uma linha por sequencia):
+-- CREATE TABLE book_seq (next_val BIGINT);
+-- INSERT INTO book_seq SELECT COALESCE(MAX(id), 0) + 1 FROM book;
+-- CREATE TABLE loan_seq (next_val BIGINT);
+-- INSERT INTO loan_seq SELECT COALESCE(MAX(id), 0) + 1 FROM loan;
+-- ALTER TABLE book MODIFY id BIGINT NOT NULL;
+-- ALTER TABLE loan MODIFY id BIGINT NOT NULL;
@@ -0,0 +1,16 @@
+-- Migracao de bancos existentes: coluna change_seq de livros e emprestimos para
+-- o feed /api/changes. As linhas existentes recebem sequencias unicas entre as
+-- duas tabelas (pares para livros, impares para emprestimos) e a sequencia
+-- change_seq continua a partir da maior. Aplicar uma vez, com a aplicacao parada.
+
+ALTER TABLE book ADD COLUMN change_seq BIGINT;
+ALTER TABLE loan ADD COLUMN change_seq BIGINT;
+
+UPDATE book SET change_seq = 2 * id;
+UPDATE loan SET change_seq = 2 * id + 1;
+
+CREATE INDEX idx_book_change_seq ON book (change_seq);
+CREATE INDEX idx_loan_change_seq ON loan (change_seq);
+
+CREATE SEQUENCE IF NOT EXISTS change_seq START WITH (SELECT COALESCE(MAX(s), 0) + 1 FROM
+    (SELECT MAX(change_seq) s FROM book UNION ALL SELECT MAX(change_seq) s FROM loan));
@@ -0,0 +1,13 @@
+-- Migracao de bancos existentes: coluna isbn_number com o ISBN-13 canonico dos
+-- livros, unica, no lugar do indice sobre a coluna isbn. Aplicar uma vez, com a
+-- aplicacao parada. Os valores sao preenchidos ao subir (IsbnNumberBackfillService):
+-- livros com ISBN invalido, ou que repetem o ISBN canonico de um livro de id
+-- menor, ficam sem numero e aparecem como aviso no log.
+
+ALTER TABLE book ADD COLUMN isbn_number BIGINT;
+ALTER TABLE book ADD CONSTRAINT uk_book_isbn_number UNIQUE (isbn_number);
+
+DROP INDEX IF EXISTS idx_book_isbn;
+
+-- Livros deixados sem numero (ISBN invalido ou repetido), para corrigir depois de subir:
+-- SELECT b.id, b.isbn, b.isbn_number FROM book b WHERE b.isbn_number IS NULL AND b.deleted_at IS NULL;
@@ -0,0 +1,19 @@
+-- Migracao de bancos existentes: prazo de devolucao e renovacoes dos
+-- emprestimos e categoria dos livros (politicas de emprestimo). Aplicar uma
+-- vez, com a aplicacao parada.
+
+ALTER TABLE book ADD COLUMN category VARCHAR(50);
+ALTER TABLE loan ADD COLUMN due_date DATE;
+ALTER TABLE loan ADD COLUMN renewals INT;
+
+-- Os emprestimos em aberto recebem o prazo da politica padrao: loan_date mais
+-- application.loan-policy.loan-days (4 dias; ajustar se a propriedade for
+-- diferente), a mesma regra de atraso usada antes dos prazos gravados. Os
+-- emprestimos antigos podem ter returned nulo, que tambem conta como em aberto
+UPDATE loan SET due_date = DATEADD('DAY', 4, loan_date) WHERE due_date IS NULL AND (returned IS NULL OR returned = FALSE);
+UPDATE loan SET renewals = 0 WHERE renewals IS NULL;
+
+CREATE INDEX idx_loan_due_date ON loan (due_date);
+
+-- MySQL:
+-- UPDATE loan SET due_date = DATE_ADD(loan_date, INTERVAL 4 DAY) WHERE due_date IS NULL AND (returned IS NULL OR returned = FALSE);
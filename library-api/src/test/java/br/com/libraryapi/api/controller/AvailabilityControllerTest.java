@@ -0,0 +1,139 @@
+package br.com.libraryapi.api.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import br.com.libraryapi.event.AvailabilityFeed;
+import br.com.libraryapi.index.AvailabilityIndex;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.service.BookService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = AvailabilityController.class)
+@AutoConfigureMockMvc
+public class AvailabilityControllerTest {
+
+	private static String AVAILABILITY_API = "/api/books/availability";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private AvailabilityFeed feed;
+
+	@MockBean
+	private AvailabilityIndex availabilityIndex;
+
+	@MockBean
+	private BookService bookService;
+
+	@Test
+	@DisplayName("Deve obter a disponibilidade de um livro pelo indice em memoria")
+	public void availabilityByIdTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(bookService.getExistingIds(Arrays.asList(1l))).willReturn(Arrays.asList(1l));
+		BDDMockito.given(availabilityIndex.isAvailable(1l)).willReturn(false);
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/1/availability").accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("bookId").value(1))
+		   .andExpect(jsonPath("available").value(false));
+	}
+
+	@Test
+	@DisplayName("Deve retornar 404 para a disponibilidade de um livro inexistente ou excluido")
+	public void availabilityOfUnknownBookTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(bookService.getExistingIds(Mockito.anyCollection())).willReturn(Collections.emptyList());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/999/availability").accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isNotFound());
+
+		Mockito.verifyNoInteractions(availabilityIndex);
+	}
+
+	@Test
+	@DisplayName("Deve obter a disponibilidade de varios livros")
+	public void availabilityByIdsTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(bookService.getExistingIds(Arrays.asList(1l, 2l, 3l))).willReturn(Arrays.asList(1l, 2l));
+		BDDMockito.given(availabilityIndex.isAvailable(1l)).willReturn(false);
+		BDDMockito.given(availabilityIndex.isAvailable(2l)).willReturn(true);
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(AVAILABILITY_API.concat("?ids=1,2,1,3")).accept(MediaType.APPLICATION_JSON))
+		// verificacao: o livro 3 nao existe ou foi excluido e fica de fora
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("$", hasSize(2)))
+		   .andExpect(jsonPath("[0].available").value(false))
+		   .andExpect(jsonPath("[1].bookId").value(2))
+		   .andExpect(jsonPath("[1].available").value(true));
+	}
+
+	@Test
+	@DisplayName("Deve assinar o stream de disponibilidade por id e isbn")
+	public void subscribeByIdAndIsbnTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(bookService.getBookByIsbn("9780306406157"))
+				  .willReturn(Optional.of(Book.builder().id(2l).build()));
+		BDDMockito.given(feed.subscribe(Mockito.anySet())).willReturn(new SseEmitter());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(AVAILABILITY_API.concat("/stream?bookId=1&isbn=9780306406157"))
+										  .accept(MediaType.TEXT_EVENT_STREAM))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(request().asyncStarted());
+
+		Mockito.verify(feed).subscribe(new HashSet<>(Arrays.asList(1l, 2l)));
+	}
+
+	@Test
+	@DisplayName("Deve retornar erro ao assinar um isbn inexistente")
+	public void subscribeUnknownIsbnTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(bookService.getBookByIsbn(Mockito.anyString())).willReturn(Optional.empty());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(AVAILABILITY_API.concat("/stream?isbn=9780306406157"))
+										  .accept(MediaType.TEXT_EVENT_STREAM))
+		// verificacao
+		   .andExpect(status().isBadRequest());
+
+		Mockito.verify(feed, Mockito.never()).subscribe(Mockito.anySet());
+	}
+
+}
@@ -17,6 +17,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.QueryTimeoutException;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -30,6 +31,7 @@ import org.springframework.test.web.servlet.result.MockMvcResultMatchers;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import br.com.libraryapi.api.ApiMediaType;
 import br.com.libraryapi.api.dto.BookDTO;
 import br.com.libraryapi.exception.BusinessException;
 import br.com.libraryapi.model.entity.Book;
@@ -174,13 +176,18 @@ public class BookControllerTest {
 	public void updateBookTest() throws Exception {
 		// cenario
 		Long id = 1l;
-		String json = new ObjectMapper().writeValueAsString(createNewBook());
-
-		Book updatingBook = Book.builder().id(1l).title("some title").author("some author").isbn("321").build();
-		BDDMockito.given(service.getById(id)).willReturn(Optional.of(updatingBook));
+		BookDTO dto = createNewBook();
+		dto.setCategory("Aventura");
+		String json = new ObjectMapper().writeValueAsString(dto);
 
-		Book updatedBook = Book.builder().id(1l).author("Artur").title("As aventuras").isbn("321").build();
-		BDDMockito.given(service.update(updatingBook)).willReturn(updatedBook);
+		BDDMockito.given(service.updateTitleAuthor(id, dto.getTitle(), dto.getAuthor(), "Aventura")).willReturn(true);
+		BDDMockito.given(service.getById(id)).willReturn(Optional.of(Book.builder()
+																		 .id(id)
+																		 .title(dto.getTitle())
+																		 .author(dto.getAuthor())
+																		 .isbn("9780306406157")
+																		 .category("Aventura")
+																		 .build()));
 
 		// execucao
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put(BOOK_API.concat("/" + 1)).content(json)
@@ -190,8 +197,8 @@ public class BookControllerTest {
 		mockMvc.perform(request).andExpect(status().isOk()).andExpect(MockMvcResultMatchers.jsonPath("id").value(id))
 				.andExpect(jsonPath("title").value(createNewBook().getTitle()))
 				.andExpect(jsonPath("author").value(createNewBook().getAuthor()))
-				.andExpect(jsonPath("isbn").value("321"));
-
+				.andExpect(jsonPath("isbn").value("9780306406157"))
+				.andExpect(jsonPath("category").value("Aventura"));
 	}
 
 	@Test
@@ -199,7 +206,8 @@ public class BookControllerTest {
 	public void updateInexistentBookTest() throws Exception {
 		// cenario
 		String json = new ObjectMapper().writeValueAsString(createNewBook());
-		BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+		BDDMockito.given(service.updateTitleAuthor(Mockito.anyLong(), Mockito.any(), Mockito.any(), Mockito.any()))
+				  .willReturn(false);
 
 		// execucao
 		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.put(BOOK_API.concat("/" + 1)).content(json)
@@ -238,6 +246,50 @@ public class BookControllerTest {
 
 	}
 
+	@Test
+	@DisplayName("Deve retornar 504 quando a busca for cancelada pelo prazo da requisicao")
+	public void findBooksDeadlineExceededTest() throws Exception {
+
+		// cenario
+		BDDMockito.given( service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)) )
+				  .willThrow( new QueryTimeoutException("Statement was canceled or the session timed out") );
+
+		// execucao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(BOOK_API.concat("?author=Artur"))
+				.accept(MediaType.APPLICATION_JSON);
+
+		// verificacao
+		mockMvc.perform(request).andExpect(status().isGatewayTimeout()).andExpect(jsonPath("errors", hasSize(1)))
+				.andExpect(jsonPath("errors[0]").value("Request deadline exceeded"));
+
+	}
+
+	@Test
+	@DisplayName("Deve filtrar livros na representacao compacta apenas quando solicitada")
+	public void findBooksCompactTest() throws Exception {
+
+		// cenario
+		Book book = Book.builder().id(1l)
+						.author(createNewBook().getAuthor())
+						.title(createNewBook().getTitle())
+						.isbn(createNewBook().getIsbn())
+						.build();
+
+		BDDMockito.given( service.find(Mockito.any(Book.class), Mockito.any(Pageable.class)) )
+				  .willReturn( new PageImpl<Book>( Arrays.asList(book), PageRequest.of(0, 100), 1) );
+
+		// execucao e verificacao
+		mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=100")).accept(ApiMediaType.COMPACT_JSON))
+				.andExpect(status().isOk()).andExpect(jsonPath("content", hasSize(1)))
+				.andExpect(jsonPath("content[0].category").doesNotExist())
+				.andExpect(jsonPath("totalElements").value(1)).andExpect(jsonPath("size").value(100))
+				.andExpect(jsonPath("pageable").doesNotExist());
+
+		mockMvc.perform(MockMvcRequestBuilders.get(BOOK_API.concat("?page=0&size=100")).accept(MediaType.ALL))
+				.andExpect(status().isOk()).andExpect(jsonPath("pageable.pageSize").value(100));
+
+	}
+
 	private BookDTO createNewBook() {
 		return BookDTO.builder().author("Artur").title("As aventuras").isbn("001").build();
 	}
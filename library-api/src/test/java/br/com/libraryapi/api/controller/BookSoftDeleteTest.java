@@ -0,0 +1,103 @@
+package br.com.libraryapi.api.controller;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+public class BookSoftDeleteTest {
+
+	private static final String BOOK_API = "/api/books";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private LoanService loanService;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Test
+	@DisplayName("Deve recusar a exclusao de um livro emprestado e manter o emprestimo devolvivel")
+	public void deleteLoanedBookTest() throws Exception {
+
+		// cenario
+		Book book = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("9780000000019").build());
+		Loan loan = loanService.save(Loan.builder().book(book).customer("Fulano").build());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API + "/" + book.getId()))
+		   .andExpect(status().isBadRequest())
+		   .andExpect(jsonPath("errors[0]").value("Book has an open loan"));
+		mvc.perform(MockMvcRequestBuilders.patch("/api/loans/" + loan.getId())
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content("{\"returned\":true}"))
+		   .andExpect(status().isOk());
+		mvc.perform(MockMvcRequestBuilders.delete(BOOK_API + "/" + book.getId()))
+		   .andExpect(status().isNoContent());
+
+		// verificacao
+		assertThat(loanRepository.findById(loan.getId()).get().getReturned()).isTrue();
+		assertThat(bookService.getById(book.getId())).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve retornar 404 ao atualizar um livro excluido")
+	public void updateDeletedBookTest() throws Exception {
+
+		// cenario
+		Book book = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("9780000000026").build());
+		bookService.delete(book);
+
+		// execucao e verificacao
+		mvc.perform(MockMvcRequestBuilders.put(BOOK_API + "/" + book.getId())
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content("{\"title\":\"Novo\",\"author\":\"Autor\",\"isbn\":\"9780000000026\"}"))
+		   .andExpect(status().isNotFound());
+		assertThat(bookService.updateTitleAuthor(book.getId(), "Novo", "Autor", null)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve retornar 404 para a disponibilidade de um livro excluido e omiti-lo da consulta por ids")
+	public void availabilityOfDeletedBookTest() throws Exception {
+
+		// cenario
+		Book kept = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("9780000000033").build());
+		Book deleted = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("9780000000040").build());
+		bookService.delete(deleted);
+
+		// execucao e verificacao
+		mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/" + deleted.getId() + "/availability"))
+		   .andExpect(status().isNotFound());
+		mvc.perform(MockMvcRequestBuilders.get(BOOK_API + "/availability?ids=" + kept.getId() + "," + deleted.getId()))
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("$.length()").value(1))
+		   .andExpect(jsonPath("[0].bookId").value(kept.getId()));
+	}
+
+}
@@ -0,0 +1,121 @@
+package br.com.libraryapi.api.controller;
+
+import static org.hamcrest.Matchers.hasSize;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import br.com.libraryapi.change.ChangeFeed;
+import br.com.libraryapi.change.ResyncRequiredException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.ChangeService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = ChangeController.class)
+@AutoConfigureMockMvc
+public class ChangeControllerTest {
+
+	private static String CHANGE_API = "/api/changes";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private ChangeService service;
+
+	@Test
+	@DisplayName("Deve obter os livros, emprestimos e exclusoes alterados depois de uma sequencia")
+	public void changesSinceTest() throws Exception {
+
+		// cenario
+		Book book = Book.builder().id(1l).title("Titulo").author("Autor").isbn("9780306406157").build();
+		Loan loan = Loan.builder()
+						.id(10l)
+						.book(book)
+						.customer("Fulano")
+						.dueDate(LocalDate.of(2021, 3, 15))
+						.returned(true)
+						.build();
+		BDDMockito.given(service.getChangesSince(40, 500))
+				  .willReturn(new ChangeFeed(Arrays.asList(book), Arrays.asList(2l), Arrays.asList(loan), 45, false));
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(CHANGE_API.concat("?since=40")).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("sequence").value(45))
+		   .andExpect(jsonPath("more").value(false))
+		   .andExpect(jsonPath("books", hasSize(1)))
+		   .andExpect(jsonPath("books[0].id").value(1))
+		   .andExpect(jsonPath("deletedBooks[0]").value(2))
+		   .andExpect(jsonPath("loans[0].id").value(10))
+		   .andExpect(jsonPath("loans[0].isbn").value("9780306406157"))
+		   .andExpect(jsonPath("loans[0].returned").value(true))
+		   .andExpect(jsonPath("loans[0].book").doesNotExist());
+	}
+
+	@Test
+	@DisplayName("Deve retornar bad request para um tamanho de pagina invalido")
+	public void invalidSizeTest() throws Exception {
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(CHANGE_API.concat("?since=0&size=5000")).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isBadRequest());
+
+		Mockito.verifyNoInteractions(service);
+	}
+
+	@Test
+	@DisplayName("Deve retornar gone quando as exclusoes depois da sequencia ja foram removidas")
+	public void resyncRequiredTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(service.getChangesSince(40, 500))
+				  .willThrow(new ResyncRequiredException("Deleted books after sequence 40 were already purged"));
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(CHANGE_API.concat("?since=40")).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isGone())
+		   .andExpect(jsonPath("errors", hasSize(1)));
+	}
+
+	@Test
+	@DisplayName("Deve comecar da sequencia zero quando nenhuma for informada")
+	public void defaultSinceTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(service.getChangesSince(0, 500))
+				  .willReturn(new ChangeFeed(Collections.emptyList(), Collections.emptyList(),
+						  Collections.emptyList(), 0, false));
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(CHANGE_API).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("sequence").value(0))
+		   .andExpect(jsonPath("books", hasSize(0)));
+	}
+
+}
@@ -33,6 +33,7 @@ import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import br.com.libraryapi.api.ApiMediaType;
 import br.com.libraryapi.api.dto.LoanDTO;
 import br.com.libraryapi.api.dto.LoanFilterDTO;
 import br.com.libraryapi.api.dto.ReturnedLoanDTO;
@@ -146,9 +147,7 @@ public class LoanControllerTest {
 		
 		// cenario 
 		ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(true).build();
-		Loan loan = Loan.builder().id(1l).build();
-		BDDMockito.given(loanService.getById(Mockito.anyLong()))
-				  .willReturn(Optional.of(loan));
+		BDDMockito.given(loanService.markReturned(1l)).willReturn(true);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -161,7 +160,8 @@ public class LoanControllerTest {
 			).andExpect(status().isOk());
 		
 		// verificacao
-		Mockito.verify(loanService, Mockito.times(1)).update(loan);
+		Mockito.verify(loanService, Mockito.times(1)).markReturned(1l);
+		Mockito.verify(loanService, Mockito.never()).getById(Mockito.anyLong());
 	}
 	
 	@Test
@@ -171,8 +171,8 @@ public class LoanControllerTest {
 		// cenario 
 		ReturnedLoanDTO dto = ReturnedLoanDTO.builder().returned(true).build();
 		
-		BDDMockito.given(loanService.getById(Mockito.anyLong()))
-				  .willReturn(Optional.empty());
+		BDDMockito.given(loanService.markReturned(Mockito.anyLong()))
+				  .willReturn(false);
 		
 		String json = new ObjectMapper().writeValueAsString(dto);
 		
@@ -188,6 +188,46 @@ public class LoanControllerTest {
 		
 	}
 	
+	@Test
+	@DisplayName("Deve renovar um emprestimo")
+	public void renewLoanTest() throws Exception {
+		
+		// cenario
+		Loan loan = createLoan();
+		loan.setId(1l);
+		Loan renewed = createLoan();
+		renewed.setId(1l);
+		renewed.setDueDate(LocalDate.of(2021, 3, 20));
+		renewed.setRenewals(1);
+		BDDMockito.given(loanService.getById(1l)).willReturn(Optional.of(loan));
+		BDDMockito.given(loanService.renew(loan)).willReturn(renewed);
+		
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/1/renewals"))
+										  .accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("dueDate").value("2021-03-20"))
+		   .andExpect(jsonPath("renewals").value(1));
+	}
+	
+	@Test
+	@DisplayName("Deve retornar erro ao renovar alem do limite")
+	public void renewalLimitTest() throws Exception {
+		
+		// cenario
+		Loan loan = createLoan();
+		BDDMockito.given(loanService.getById(1l)).willReturn(Optional.of(loan));
+		BDDMockito.given(loanService.renew(loan)).willThrow(new BusinessException("Renewal limit reached"));
+		
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.post(LOAN_API.concat("/1/renewals"))
+										  .accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isBadRequest())
+		   .andExpect(jsonPath("errors[0]").value("Renewal limit reached"));
+	}
+	
 	@Test
 	@DisplayName("deve filtrar emprestimos")
 	public void findLoanBooksTest() throws Exception {
@@ -218,6 +258,40 @@ public class LoanControllerTest {
 
 	}
 	
-}
+	@Test
+	@DisplayName("Deve filtrar emprestimos na representacao compacta enviando cada livro uma vez")
+	public void findLoansCompactTest() throws Exception {
 
+		// cenario
+		Book book = Book.builder().id(1l).isbn("321").title("Titulo").author("Autor").build();
+		Loan first = createLoan();
+		first.setId(1l);
+		first.setBook(book);
+		Loan second = createLoan();
+		second.setId(2l);
+		second.setBook(book);
 
+		BDDMockito.given( loanService.find(Mockito.any(LoanFilterDTO.class), Mockito.any(Pageable.class)) )
+				  .willReturn( new PageImpl<Loan>( Arrays.asList(first, second), PageRequest.of(0, 10), 2) );
+		
+		// execucao
+		MockHttpServletRequestBuilder request = MockMvcRequestBuilders.get(LOAN_API.concat("?isbn=321&page=0&size=10"))
+				.accept(ApiMediaType.COMPACT_JSON);
+		
+		// verificacao
+		mvc.perform(request).andExpect(status().isOk())
+				.andExpect(content().contentTypeCompatibleWith(ApiMediaType.COMPACT_JSON))
+				.andExpect(jsonPath("content", hasSize(2)))
+				.andExpect(jsonPath("content[0].isbn").value("321"))
+				.andExpect(jsonPath("content[0].book").doesNotExist())
+				.andExpect(jsonPath("content[0].email").doesNotExist())
+				.andExpect(jsonPath("books", hasSize(1)))
+				.andExpect(jsonPath("books[0].title").value("Titulo"))
+				.andExpect(jsonPath("totalElements").value(2))
+				.andExpect(jsonPath("size").value(10))
+				.andExpect(jsonPath("page").value(0))
+				.andExpect(jsonPath("pageable").doesNotExist());
+
+	}
+	
+}
@@ -0,0 +1,160 @@
+package br.com.libraryapi.api.controller;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+/**
+ * Mede GET /api/loans (LoanController.find) com a configuracao padrao e com o
+ * perfil perf. Executar com: mvn test -Dtest=LoanFindBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class LoanFindBenchmarkTest {
+
+	private static final String PROPERTIES = "spring.jpa.properties.hibernate.generate_statistics=true";
+	private static final int BOOKS = 500;
+	private static final int LOANS_PER_BOOK = 4;
+	private static final int PAGE_SIZE = 20;
+	private static final int THREADS = 8;
+	private static final int REQUESTS = 4_000;
+
+	@Nested
+	@ExtendWith(SpringExtension.class)
+	@ActiveProfiles("test")
+	@SpringBootTest(properties = { PROPERTIES, "logging.level.org.hibernate.SQL=warn" })
+	@AutoConfigureMockMvc
+	class DefaultSettings {
+
+		@Autowired
+		private MockMvc mvc;
+
+		@Autowired
+		private BookRepository bookRepository;
+
+		@Autowired
+		private LoanRepository loanRepository;
+
+		@Autowired
+		private EntityManagerFactory entityManagerFactory;
+
+		@Test
+		@DisplayName("Deve medir a busca de emprestimos com a configuracao padrao")
+		public void findLoansTest() throws Exception {
+			run("padrao", mvc, bookRepository, loanRepository, entityManagerFactory);
+		}
+
+	}
+
+	@Nested
+	@ExtendWith(SpringExtension.class)
+	@ActiveProfiles({ "test", "perf" })
+	@SpringBootTest(properties = { PROPERTIES, "logging.level.org.hibernate.SQL=warn" })
+	@AutoConfigureMockMvc
+	class PerfProfile {
+
+		@Autowired
+		private MockMvc mvc;
+
+		@Autowired
+		private BookRepository bookRepository;
+
+		@Autowired
+		private LoanRepository loanRepository;
+
+		@Autowired
+		private EntityManagerFactory entityManagerFactory;
+
+		@Test
+		@DisplayName("Deve medir a busca de emprestimos com o perfil perf")
+		public void findLoansTest() throws Exception {
+			run("perf", mvc, bookRepository, loanRepository, entityManagerFactory);
+		}
+
+	}
+
+	private static void run(String name, MockMvc mvc, BookRepository bookRepository, LoanRepository loanRepository,
+			EntityManagerFactory entityManagerFactory) throws Exception {
+		List<Loan> loans = new ArrayList<>();
+		for (int i = 0; i < BOOKS; i++) {
+			Book book = bookRepository.save(Book.builder().title("Titulo " + i).author("Autor").isbn("isbn-" + i).build());
+			for (int j = 0; j < LOANS_PER_BOOK; j++) {
+				loans.add(Loan.builder().book(book).customer("cliente-" + j).returned(true).build());
+			}
+		}
+		loanRepository.saveAll(loans);
+
+		int pages = BOOKS * LOANS_PER_BOOK / PAGE_SIZE;
+		measure(mvc, pages, REQUESTS);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		long start = System.nanoTime();
+		long[] latencies = measure(mvc, pages, REQUESTS);
+		long elapsed = System.nanoTime() - start;
+
+		System.out.printf("%-6s %d req/s p50=%d us p99=%d us statements/req=%.1f conexoes/req=%.1f%n", name,
+				REQUESTS * 1_000_000_000L / elapsed, percentile(latencies, 50), percentile(latencies, 99),
+				(double) statistics.getPrepareStatementCount() / REQUESTS,
+				(double) statistics.getConnectCount() / REQUESTS);
+	}
+
+	private static long[] measure(MockMvc mvc, int pages, int requests) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		try {
+			List<Future<Long>> futures = new ArrayList<>();
+			for (int i = 0; i < requests; i++) {
+				futures.add(executor.submit(() -> {
+					int page = ThreadLocalRandom.current().nextInt(pages);
+					long start = System.nanoTime();
+					mvc.perform(MockMvcRequestBuilders.get("/api/loans?page=" + page + "&size=" + PAGE_SIZE)
+													  .accept(MediaType.APPLICATION_JSON))
+					   .andExpect(status().isOk());
+					return System.nanoTime() - start;
+				}));
+			}
+			long[] latencies = new long[requests];
+			for (int i = 0; i < requests; i++) {
+				latencies[i] = futures.get(i).get();
+			}
+			Arrays.sort(latencies);
+			return latencies;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1_000;
+	}
+
+}
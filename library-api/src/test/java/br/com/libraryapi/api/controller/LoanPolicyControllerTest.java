@@ -0,0 +1,97 @@
+package br.com.libraryapi.api.controller;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.api.dto.LoanPolicyDTO;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.service.LoanPolicyService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = LoanPolicyController.class)
+@AutoConfigureMockMvc
+public class LoanPolicyControllerTest {
+
+	private static String LOAN_POLICY_API = "/api/loan-policies";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private LoanPolicyService service;
+
+	@Test
+	@DisplayName("Deve salvar a politica de uma categoria")
+	public void savePolicyTest() throws Exception {
+
+		// cenario
+		LoanPolicyDTO dto = LoanPolicyDTO.builder().category("infantil").loanDays(21).maxRenewals(1).renewalDays(7).build();
+		BDDMockito.given(service.save(Mockito.any(LoanPolicy.class)))
+				  .willReturn(LoanPolicy.builder().id(1l).category("infantil").loanDays(21).maxRenewals(1).renewalDays(7).build());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.put(LOAN_POLICY_API)
+										  .accept(MediaType.APPLICATION_JSON)
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content(new ObjectMapper().writeValueAsString(dto)))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("category").value("infantil"))
+		   .andExpect(jsonPath("loanDays").value(21));
+	}
+
+	@Test
+	@DisplayName("Deve retornar erro de validacao ao salvar politica invalida")
+	public void invalidPolicyTest() throws Exception {
+
+		// cenario
+		LoanPolicyDTO dto = LoanPolicyDTO.builder().category("infantil").build();
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.put(LOAN_POLICY_API)
+										  .accept(MediaType.APPLICATION_JSON)
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content(new ObjectMapper().writeValueAsString(dto)))
+		// verificacao
+		   .andExpect(status().isBadRequest())
+		   .andExpect(jsonPath("errors").isArray());
+
+		Mockito.verify(service, Mockito.never()).save(Mockito.any(LoanPolicy.class));
+	}
+
+	@Test
+	@DisplayName("Deve listar as politicas cadastradas")
+	public void listPoliciesTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(service.getAll())
+				  .willReturn(Arrays.asList(LoanPolicy.builder().category("infantil").loanDays(21).build()));
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(LOAN_POLICY_API).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("[0].category").value("infantil"));
+	}
+
+}
@@ -0,0 +1,74 @@
+package br.com.libraryapi.api.controller;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles({ "test", "perf" })
+@SpringBootTest
+@AutoConfigureMockMvc
+public class OpenInViewDisabledTest {
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private BookService bookService;
+
+	@Autowired
+	private LoanService loanService;
+
+	@Test
+	@DisplayName("Deve mapear o livro dos emprestimos e reservas sem open-in-view")
+	public void mapLazyBookWithoutOpenInViewTest() throws Exception {
+
+		// cenario
+		Book book = bookService.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		Loan loan = loanService.save(Loan.builder().book(book).customer("Fulano").build());
+
+		// execucao e verificacao
+		mvc.perform(MockMvcRequestBuilders.get("/api/loans?isbn=9780306406157").accept(MediaType.APPLICATION_JSON))
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("content[0].book.title").value("Titulo"));
+
+		mvc.perform(MockMvcRequestBuilders.get("/api/books/" + book.getId() + "/loans").accept(MediaType.APPLICATION_JSON))
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("content[0].book.isbn").value("9780306406157"));
+
+		mvc.perform(MockMvcRequestBuilders.post("/api/loans/" + loan.getId() + "/renewals").accept(MediaType.APPLICATION_JSON))
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("book.author").value("Autor"));
+
+		mvc.perform(MockMvcRequestBuilders.post("/api/reservations")
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content("{\"isbn\":\"9780306406157\",\"customer\":\"Ciclano\"}"))
+		   .andExpect(status().isCreated());
+
+		mvc.perform(MockMvcRequestBuilders.patch("/api/loans/" + loan.getId())
+										  .contentType(MediaType.APPLICATION_JSON)
+										  .content("{\"returned\":true}"))
+		   .andExpect(status().isOk());
+
+		mvc.perform(MockMvcRequestBuilders.get("/api/loans?customer=Ciclano").accept(MediaType.APPLICATION_JSON))
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("content[0].book.isbn").value("9780306406157"));
+	}
+
+}
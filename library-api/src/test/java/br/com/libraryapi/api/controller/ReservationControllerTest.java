@@ -0,0 +1,124 @@
+package br.com.libraryapi.api.controller;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.api.dto.ReservationDTO;
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.ReservationService;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@WebMvcTest(controllers = ReservationController.class)
+@AutoConfigureMockMvc
+public class ReservationControllerTest {
+
+	private static String RESERVATION_API = "/api/reservations";
+
+	@Autowired
+	private MockMvc mvc;
+
+	@MockBean
+	private ReservationService service;
+
+	@MockBean
+	private BookService bookService;
+
+	@Test
+	@DisplayName("Deve entrar na fila de reservas de um livro")
+	public void createReservationTest() throws Exception {
+
+		// cenario
+		Book book = Book.builder().id(1l).isbn("9780306406157").build();
+		BDDMockito.given(bookService.getBookByIsbn("9780306406157")).willReturn(Optional.of(book));
+		BDDMockito.given(service.save(Mockito.any(Reservation.class)))
+				  .willReturn(Reservation.builder().id(3l).book(book).build());
+
+		// execucao
+		mvc.perform(post(ReservationDTO.builder().isbn("9780306406157").customer("Fulano").build()))
+		// verificacao
+		   .andExpect(status().isCreated())
+		   .andExpect(content().string("3"));
+	}
+
+	@Test
+	@DisplayName("Deve retornar erro ao reservar um livro disponivel")
+	public void availableBookReservationTest() throws Exception {
+
+		// cenario
+		Book book = Book.builder().id(1l).isbn("9780306406157").build();
+		BDDMockito.given(bookService.getBookByIsbn("9780306406157")).willReturn(Optional.of(book));
+		BDDMockito.given(service.save(Mockito.any(Reservation.class)))
+				  .willThrow(new BusinessException("Book is available for loan"));
+
+		// execucao
+		mvc.perform(post(ReservationDTO.builder().isbn("9780306406157").customer("Fulano").build()))
+		// verificacao
+		   .andExpect(status().isBadRequest())
+		   .andExpect(jsonPath("errors[0]").value("Book is available for loan"));
+	}
+
+	@Test
+	@DisplayName("Deve obter o estado de uma reserva atendida")
+	public void getReservationTest() throws Exception {
+
+		// cenario
+		Book book = Book.builder().id(1l).isbn("9780306406157").build();
+		BDDMockito.given(service.getById(3l)).willReturn(Optional.of(Reservation.builder()
+				.id(3l).book(book).customer("Fulano").status(Reservation.Status.FULFILLED).loanId(7l).build()));
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.get(RESERVATION_API.concat("/3")).accept(MediaType.APPLICATION_JSON))
+		// verificacao
+		   .andExpect(status().isOk())
+		   .andExpect(jsonPath("status").value("FULFILLED"))
+		   .andExpect(jsonPath("loanId").value(7));
+	}
+
+	@Test
+	@DisplayName("Deve retornar 404 ao cancelar reserva inexistente")
+	public void cancelInexistentReservationTest() throws Exception {
+
+		// cenario
+		BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+
+		// execucao
+		mvc.perform(MockMvcRequestBuilders.delete(RESERVATION_API.concat("/3")))
+		// verificacao
+		   .andExpect(status().isNotFound());
+
+		Mockito.verify(service, Mockito.never()).cancel(Mockito.any(Reservation.class));
+	}
+
+	private MockHttpServletRequestBuilder post(ReservationDTO dto) throws Exception {
+		return MockMvcRequestBuilders.post(RESERVATION_API)
+									 .accept(MediaType.APPLICATION_JSON)
+									 .contentType(MediaType.APPLICATION_JSON)
+									 .content(new ObjectMapper().writeValueAsString(dto));
+	}
+
+}
@@ -0,0 +1,102 @@
+package br.com.libraryapi.api.dto;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.afterburner.AfterburnerModule;
+
+/**
+ * Compara bytes trafegados e tempo de serializacao de uma pagina de emprestimos
+ * no formato padrao (PageImpl) e no compacto. Executar com:
+ * mvn test -Dtest=PageSerializationBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class PageSerializationBenchmarkTest {
+
+	private static final int PAGE_SIZE = 100;
+	private static final int LOANS_PER_BOOK = 5;
+	private static final int WARMUP = 20_000;
+	private static final int ITERATIONS = 50_000;
+
+	@Test
+	@DisplayName("Deve medir bytes e tempo por pagina nas representacoes padrao e compacta")
+	public void pageSerializationTest() throws Exception {
+
+		List<LoanDTO> loans = new ArrayList<>();
+		Map<Long, BookDTO> books = new LinkedHashMap<>();
+		for (int i = 0; i < PAGE_SIZE; i++) {
+			long bookId = i / LOANS_PER_BOOK;
+			BookDTO book = books.computeIfAbsent(bookId, id -> BookDTO.builder().id(id).title("Titulo " + id)
+					.author("Autor " + id).isbn(String.format("978%010d", id)).category("ficcao").build());
+			loans.add(LoanDTO.builder().id((long) i).isbn(book.getIsbn()).customer("cliente-" + i)
+					.email("cliente-" + i + "@email.com").book(book).dueDate(LocalDate.now()).renewals(0).build());
+		}
+		Page<LoanDTO> page = new PageImpl<>(loans, PageRequest.of(0, PAGE_SIZE), 10_000);
+
+		List<LoanDTO> compactLoans = new ArrayList<>();
+		for (LoanDTO loan : loans) {
+			compactLoans.add(LoanDTO.builder().id(loan.getId()).isbn(loan.getIsbn()).customer(loan.getCustomer())
+					.email(loan.getEmail()).dueDate(loan.getDueDate()).renewals(loan.getRenewals()).build());
+		}
+		CompactPageDTO<LoanDTO> compact = CompactPageDTO.of(page, compactLoans);
+		compact.setBooks(new ArrayList<>(books.values()));
+
+		ObjectMapper plain = mapper(false);
+		ObjectMapper afterburner = mapper(true);
+		ObjectMapper compactPlain = plain.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+		ObjectMapper compactAfterburner = afterburner.copy().setSerializationInclusion(JsonInclude.Include.NON_NULL);
+
+		report("padrao", plain, page);
+		report("padrao + afterburner", afterburner, page);
+		report("compacto", compactPlain, compact);
+		report("compacto + afterburner", compactAfterburner, compact);
+	}
+
+	private static ObjectMapper mapper(boolean afterburner) {
+		Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+				.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+		if (afterburner) {
+			builder.modulesToInstall(new AfterburnerModule());
+		}
+		return builder.build();
+	}
+
+	private static void report(String name, ObjectMapper mapper, Object value) throws IOException {
+		byte[] json = mapper.writeValueAsBytes(value);
+		for (int i = 0; i < WARMUP; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			mapper.writeValueAsBytes(value);
+		}
+		long micros = (System.nanoTime() - start) / ITERATIONS / 1_000;
+		System.out.printf("%-24s bytes=%6d gzip=%5d serializacao=%d us/pagina%n", name, json.length, gzip(json), micros);
+	}
+
+	private static int gzip(byte[] json) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(json);
+		}
+		return out.size();
+	}
+
+}
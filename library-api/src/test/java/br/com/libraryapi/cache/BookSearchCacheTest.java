@@ -0,0 +1,266 @@
+package br.com.libraryapi.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import br.com.libraryapi.deadline.RequestDeadlineFilter;
+import br.com.libraryapi.model.entity.Book;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class BookSearchCacheTest {
+
+	private BookSearchCache cache;
+	private AtomicInteger searches;
+
+	@BeforeEach
+	public void setUp() {
+		cache = new BookSearchCache(100, Duration.ofMinutes(5));
+		searches = new AtomicInteger();
+	}
+
+	@Test
+	@DisplayName("Deve reaproveitar buscas com o mesmo filtro normalizado, pagina e ordenacao")
+	public void hitByNormalisedFilterTest() {
+
+		// execucao
+		search(Book.builder().title("Senhor").author("Tolkien").build(), PageRequest.of(0, 10));
+		search(Book.builder().title("SENHOR").author("tolkien").build(), PageRequest.of(0, 10));
+		search(Book.builder().title("Senhor").author("Tolkien").build(), PageRequest.of(1, 10));
+		search(Book.builder().title("Senhor").author("Tolkien").build(), PageRequest.of(0, 10, Sort.by("title")));
+		search(Book.builder().title("Senhor ").author("Tolkien").build(), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(searches.get()).isEqualTo(4);
+	}
+
+	@Test
+	@DisplayName("Deve refazer a busca apos uma alteracao no catalogo")
+	public void invalidateByGenerationTest() {
+
+		// cenario
+		Book filter = Book.builder().title("Senhor").build();
+		search(filter, PageRequest.of(0, 10));
+
+		// execucao
+		cache.invalidate();
+		search(filter, PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(searches.get()).isEqualTo(2);
+		assertThat(cache.generation()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve invalidar apenas apos o fim da transacao da alteracao")
+	public void invalidateAfterTransactionTest() {
+
+		// cenario
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+
+			// execucao
+			cache.invalidate();
+			long duringTransaction = cache.generation();
+			for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+				synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+			}
+
+			// verificacao
+			assertThat(duringTransaction).isZero();
+			assertThat(cache.generation()).isEqualTo(1);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("Deve executar uma unica busca para requisicoes identicas simultaneas")
+	public void deduplicateConcurrentMissesTest() throws Exception {
+
+		// cenario
+		int threads = 8;
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch started = new CountDownLatch(1);
+		Book filter = Book.builder().title("Senhor").build();
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		// execucao
+		List<Future<Page<Book>>> results = new ArrayList<>();
+		try {
+			for (int i = 0; i < threads; i++) {
+				results.add(executor.submit(() -> cache.get(filter, PageRequest.of(0, 10), () -> {
+					searches.incrementAndGet();
+					started.countDown();
+					await(release);
+					return page();
+				})));
+			}
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+			Thread.sleep(100);
+			release.countDown();
+			for (Future<Page<Book>> result : results) {
+				assertThat(result.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(1);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// verificacao
+		assertThat(searches.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Nao deve guardar buscas que falharam")
+	public void failedSearchNotCachedTest() {
+
+		// cenario
+		Book filter = Book.builder().title("Senhor").build();
+
+		// execucao
+		Throwable exception = catchThrowable(() -> cache.get(filter, PageRequest.of(0, 10), () -> {
+			throw new IllegalStateException("falha");
+		}));
+		search(filter, PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(exception).isInstanceOf(IllegalStateException.class);
+		assertThat(searches.get()).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve refazer a busca com o proprio prazo quando a busca compartilhada estourar um prazo menor")
+	public void waiterRetriesAfterLeaderDeadlineTest() throws Exception {
+
+		// cenario: a primeira requisicao pede 50 ms e a sua consulta e cancelada
+		Book filter = Book.builder().title("Senhor").build();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch cancel = new CountDownLatch(1);
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Page<Book>> shortRequest = executor.submit(() -> withDeadline("50", () ->
+					cache.get(filter, PageRequest.of(0, 10), () -> {
+						searches.incrementAndGet();
+						started.countDown();
+						await(cancel);
+						throw new QueryTimeoutException("cancelada");
+					})));
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// execucao: a segunda, com o prazo padrao, aguarda a mesma busca
+			Future<Page<Book>> normalRequest = executor.submit(
+					() -> withDeadline(null, () -> search(filter, PageRequest.of(0, 10))));
+			Thread.sleep(100);
+			cancel.countDown();
+
+			// verificacao
+			Throwable exception = catchThrowable(() -> shortRequest.get(5, TimeUnit.SECONDS));
+			assertThat(exception).hasCauseInstanceOf(QueryTimeoutException.class);
+			assertThat(normalRequest.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(1);
+			assertThat(searches.get()).isEqualTo(2);
+		} finally {
+			cancel.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	@DisplayName("Deve desistir de aguardar a busca compartilhada quando o proprio prazo acabar")
+	public void waiterGivesUpAtOwnDeadlineTest() throws Exception {
+
+		// cenario: a primeira requisicao, com o prazo padrao, faz uma busca lenta
+		Book filter = Book.builder().title("Senhor").build();
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<Page<Book>> slowRequest = executor.submit(() -> withDeadline(null, () ->
+					cache.get(filter, PageRequest.of(0, 10), () -> {
+						searches.incrementAndGet();
+						started.countDown();
+						await(release);
+						return page();
+					})));
+			assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// execucao: a segunda pede 100 ms
+			long start = System.nanoTime();
+			Throwable exception = catchThrowable(() -> withDeadline("100", () -> search(filter, PageRequest.of(0, 10))));
+			long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+			release.countDown();
+
+			// verificacao
+			assertThat(exception).isInstanceOf(QueryTimeoutException.class);
+			assertThat(waitedMillis).isLessThan(2000);
+			assertThat(slowRequest.get(5, TimeUnit.SECONDS).getTotalElements()).isEqualTo(1);
+			assertThat(searches.get()).isEqualTo(1);
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+	/**
+	 * Executa a busca dentro de uma requisicao com o prazo do header
+	 * X-Request-Timeout (ou o padrao de 5 segundos).
+	 */
+	private static Page<Book> withDeadline(String timeoutMillis, Supplier<Page<Book>> search) throws Exception {
+		RequestDeadlineFilter filter = new RequestDeadlineFilter(Duration.ofSeconds(5), Collections.emptyList(),
+				new ObjectMapper(), new SimpleMeterRegistry());
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+		if (timeoutMillis != null) {
+			request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, timeoutMillis);
+		}
+		AtomicReference<Page<Book>> result = new AtomicReference<>();
+		filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> result.set(search.get()));
+		return result.get();
+	}
+
+	private Page<Book> search(Book filter, PageRequest pageRequest) {
+		return cache.get(filter, pageRequest, () -> {
+			searches.incrementAndGet();
+			return page();
+		});
+	}
+
+	private static Page<Book> page() {
+		return new PageImpl<>(Collections.singletonList(Book.builder().id(1l).title("Senhor").build()),
+				PageRequest.of(0, 10), 1);
+	}
+
+	private static void await(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+}
@@ -0,0 +1,143 @@
+package br.com.libraryapi.change;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.libraryapi.model.entity.ChangeWatermark;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+public class ChangeSequenceTest {
+
+	private BookRepository bookRepository;
+	private LoanRepository loanRepository;
+	private ChangeWatermarkRepository repository;
+	private ChangeSequence changes;
+
+	@BeforeEach
+	public void setUp() {
+		bookRepository = Mockito.mock(BookRepository.class);
+		loanRepository = Mockito.mock(LoanRepository.class);
+		repository = Mockito.mock(ChangeWatermarkRepository.class);
+		Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(7l);
+		Mockito.when(loanRepository.findMaxChangeSeq()).thenReturn(12l);
+		stubSequence(repository, 12);
+		changes = new ChangeSequence(bookRepository, loanRepository, repository, "node", Duration.ofMinutes(1),
+				Clock.systemUTC());
+	}
+
+	@Test
+	@DisplayName("Deve reservar da sequencia do banco e so avancar ate a maior confirmada fora das em andamento")
+	public void trackWithoutTransactionTest() {
+
+		// execucao
+		long first = changes.track(sequence -> sequence);
+		long[] block = changes.track(3, sequences -> sequences);
+		long stableDuringWrite = changes.track(sequence -> changes.stableSequence());
+		Mockito.when(loanRepository.findMaxChangeSeq()).thenReturn(17l);
+
+		// verificacao
+		assertThat(first).isEqualTo(13);
+		assertThat(block).containsExactly(14, 15, 16);
+		assertThat(stableDuringWrite).isEqualTo(12);
+		assertThat(changes.stableSequence()).isEqualTo(17);
+	}
+
+	@Test
+	@DisplayName("Nao deve avancar a sequencia estavel alem de uma transacao em andamento")
+	public void trackInTransactionTest() {
+
+		// cenario
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+
+			// execucao
+			changes.track(sequence -> sequence);
+			long later = changes.track(sequence -> sequence);
+			Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(14l);
+			long stableBeforeCommit = changes.stableSequence();
+			TransactionSynchronizationUtils.invokeAfterCompletion(
+					TransactionSynchronizationManager.getSynchronizations(), TransactionSynchronization.STATUS_COMMITTED);
+
+			// verificacao
+			assertThat(later).isEqualTo(14);
+			assertThat(stableBeforeCommit).isEqualTo(12);
+			assertThat(changes.stableSequence()).isEqualTo(14);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("Nao deve avancar a sequencia estavel alem do publicado pelas outras instancias")
+	public void otherNodesTest() {
+
+		// cenario
+		Mockito.when(repository.findMinStableSeq(ArgumentMatchers.eq("node"), ArgumentMatchers.any()))
+			   .thenReturn(9l);
+
+		// execucao
+		long stable = changes.stableSequence();
+
+		// verificacao
+		assertThat(stable).isEqualTo(9);
+	}
+
+	@Test
+	@DisplayName("Deve publicar a sequencia estavel local sem contar as escritas em andamento")
+	public void publishTest() {
+
+		// cenario
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+			changes.track(sequence -> sequence);
+			Mockito.when(repository.findMinStableSeq(ArgumentMatchers.any(), ArgumentMatchers.any()))
+				   .thenReturn(5l);
+
+			// execucao
+			changes.publish();
+
+			// verificacao
+			Mockito.verify(repository, Mockito.times(2))
+				   .save(ArgumentMatchers.<ChangeWatermark>argThat(watermark -> watermark.getStableSeq() == 12));
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	/**
+	 * Sequencia em memoria para os testes com repositorios simulados.
+	 */
+	public static ChangeSequence createChangeSequence(BookRepository bookRepository, LoanRepository loanRepository) {
+		ChangeWatermarkRepository repository = Mockito.mock(ChangeWatermarkRepository.class);
+		stubSequence(repository, 0);
+		return new ChangeSequence(bookRepository, loanRepository, repository, "node", Duration.ofMinutes(1),
+				Clock.systemUTC());
+	}
+
+	private static void stubSequence(ChangeWatermarkRepository repository, long start) {
+		AtomicLong last = new AtomicLong(start);
+		Mockito.when(repository.findMinStableSeq(ArgumentMatchers.any(), ArgumentMatchers.any())).thenReturn(null);
+		Mockito.when(repository.nextValues(Mockito.anyInt()))
+			   .thenAnswer(invocation -> LongStream.range(0, invocation.<Integer>getArgument(0))
+												   .map(i -> last.incrementAndGet())
+												   .boxed()
+												   .collect(Collectors.toList()));
+	}
+
+}
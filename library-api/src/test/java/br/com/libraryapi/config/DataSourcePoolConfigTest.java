@@ -0,0 +1,46 @@
+package br.com.libraryapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.env.MockEnvironment;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+public class DataSourcePoolConfigTest {
+
+	@Test
+	@DisplayName("Deve dimensionar o pool pelos nucleos da maquina")
+	public void poolSizeFromCoresTest() {
+
+		// cenario
+		HikariDataSource dataSource = new HikariDataSource();
+
+		// execucao
+		DataSourcePoolConfig.hikariPoolSizer(new MockEnvironment()).postProcessAfterInitialization(dataSource, "dataSource");
+
+		// verificacao
+		int expected = Runtime.getRuntime().availableProcessors() * 2 + 1;
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(expected);
+		assertThat(dataSource.getMinimumIdle()).isEqualTo(expected);
+		assertThat(DataSourcePoolConfig.poolSize(8)).isEqualTo(17);
+	}
+
+	@Test
+	@DisplayName("Deve respeitar o tamanho de pool configurado explicitamente")
+	public void explicitPoolSizeTest() {
+
+		// cenario
+		HikariDataSource dataSource = new HikariDataSource();
+		dataSource.setMaximumPoolSize(5);
+		MockEnvironment environment = new MockEnvironment().withProperty(DataSourcePoolConfig.MAXIMUM_POOL_SIZE, "5");
+
+		// execucao
+		DataSourcePoolConfig.hikariPoolSizer(environment).postProcessAfterInitialization(dataSource, "dataSource");
+
+		// verificacao
+		assertThat(dataSource.getMaximumPoolSize()).isEqualTo(5);
+	}
+
+}
@@ -0,0 +1,68 @@
+package br.com.libraryapi.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+
+public class RequestLogSamplingFilterTest {
+
+	private RequestLogSamplingFilter filter;
+	private LoggerContext context;
+
+	@BeforeEach
+	public void setUp() {
+		context = new LoggerContext();
+		filter = new RequestLogSamplingFilter();
+		filter.setLoggerPrefix("br.com.libraryapi.api");
+		filter.setRate(10);
+	}
+
+	@Test
+	@DisplayName("Deve manter um a cada N logs INFO de cada template")
+	public void sampleInfoPerTemplateTest() {
+
+		// cenario
+		Logger logger = context.getLogger("br.com.libraryapi.api.controller.BookController");
+
+		// execucao
+		long getLogged = IntStream.range(0, 100)
+				.filter(i -> decide(logger, Level.INFO, "obtaining details for book id: {}") == FilterReply.NEUTRAL)
+				.count();
+		long deleteLogged = IntStream.range(0, 5)
+				.filter(i -> decide(logger, Level.INFO, "deleting book of id: {}") == FilterReply.NEUTRAL)
+				.count();
+
+		// verificacao
+		assertThat(getLogged).isEqualTo(10);
+		assertThat(deleteLogged).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Nao deve amostrar avisos, erros ou loggers fora dos controllers")
+	public void keepOtherLogsTest() {
+
+		// cenario
+		Logger controller = context.getLogger("br.com.libraryapi.api.controller.BookController");
+		Logger service = context.getLogger("br.com.libraryapi.service.ScheduleService");
+
+		// execucao e verificacao
+		IntStream.range(0, 20).forEach(i -> {
+			assertThat(decide(controller, Level.WARN, "warn {}")).isEqualTo(FilterReply.NEUTRAL);
+			assertThat(decide(service, Level.INFO, "info {}")).isEqualTo(FilterReply.NEUTRAL);
+		});
+	}
+
+	private FilterReply decide(Logger logger, Level level, String format) {
+		return filter.decide(null, logger, level, format, new Object[] { 1L }, null);
+	}
+
+}
@@ -0,0 +1,91 @@
+package br.com.libraryapi.config;
+
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.logging.LogLevel;
+import org.springframework.boot.logging.LoggingSystem;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.repository.BookRepository;
+
+/**
+ * Mede a latencia de GET /api/books/{id} com os logs dos controllers ligados e
+ * desligados. Executar com: mvn test -Dtest=RequestLoggingBenchmarkTest -Dbenchmark=true
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest
+@AutoConfigureMockMvc
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class RequestLoggingBenchmarkTest {
+
+	private static final String CONTROLLER_LOGGER = "br.com.libraryapi.api.controller";
+	private static final int WARMUP = 10_000;
+	private static final int REQUESTS = 20_000;
+	private static final int ROUNDS = 3;
+
+	@Autowired
+	private MockMvc mvc;
+
+	@Autowired
+	private BookRepository repository;
+
+	@Autowired
+	private LoggingSystem loggingSystem;
+
+	@Test
+	@DisplayName("Deve medir o p99 das requisicoes com e sem log")
+	public void requestLatencyWithAndWithoutLoggingTest() throws Exception {
+
+		Book book = repository.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		String url = "/api/books/" + book.getId();
+
+		measure(url, WARMUP);
+		long[] on = null;
+		long[] off = null;
+		for (int round = 0; round < ROUNDS; round++) {
+			loggingSystem.setLogLevel(CONTROLLER_LOGGER, LogLevel.OFF);
+			off = measure(url, REQUESTS);
+			loggingSystem.setLogLevel(CONTROLLER_LOGGER, LogLevel.INFO);
+			on = measure(url, REQUESTS);
+		}
+		loggingSystem.setLogLevel(CONTROLLER_LOGGER, null);
+
+		System.out.printf("logging on : p50=%d us p99=%d us p999=%d us%n",
+				percentile(on, 50), percentile(on, 99), percentile(on, 99.9));
+		System.out.printf("logging off: p50=%d us p99=%d us p999=%d us%n",
+				percentile(off, 50), percentile(off, 99), percentile(off, 99.9));
+	}
+
+	private long[] measure(String url, int requests) throws Exception {
+		long[] latencies = new long[requests];
+		for (int i = 0; i < requests; i++) {
+			long start = System.nanoTime();
+			mvc.perform(MockMvcRequestBuilders.get(url).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk());
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		return latencies;
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1_000;
+	}
+
+}
@@ -0,0 +1,108 @@
+package br.com.libraryapi.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+public class RequestDeadlineFilterTest {
+
+	private SimpleMeterRegistry meterRegistry;
+	private RequestDeadlineFilter filter;
+
+	@BeforeEach
+	public void setUp() {
+		meterRegistry = new SimpleMeterRegistry();
+		filter = new RequestDeadlineFilter(Duration.ofSeconds(30),
+				Arrays.asList("GET /api/books=PT5S", "/api/loans/**=PT10S"), new ObjectMapper(), meterRegistry);
+	}
+
+	@Test
+	@DisplayName("Deve usar o prazo do endpoint, encurtado pelo header")
+	public void endpointDeadlineTest() throws Exception {
+
+		// cenario
+		MockHttpServletRequest configured = new MockHttpServletRequest("GET", "/api/books");
+		MockHttpServletRequest shortened = new MockHttpServletRequest("GET", "/api/books");
+		shortened.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "800");
+		MockHttpServletRequest extended = new MockHttpServletRequest("GET", "/api/loans/1");
+		extended.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "60000");
+		MockHttpServletRequest otherMethod = new MockHttpServletRequest("POST", "/api/books");
+
+		// execucao
+		Duration configuredRemaining = remainingDuring(configured);
+		Duration shortenedRemaining = remainingDuring(shortened);
+		Duration extendedRemaining = remainingDuring(extended);
+		Duration otherMethodRemaining = remainingDuring(otherMethod);
+
+		// verificacao
+		assertThat(configuredRemaining).isBetween(Duration.ofSeconds(4), Duration.ofSeconds(5));
+		assertThat(shortenedRemaining).isBetween(Duration.ofMillis(1), Duration.ofMillis(800));
+		assertThat(extendedRemaining).isBetween(Duration.ofSeconds(9), Duration.ofSeconds(10));
+		assertThat(otherMethodRemaining).isBetween(Duration.ofSeconds(29), Duration.ofSeconds(30));
+		assertThat(RequestDeadline.current()).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve recusar um header de prazo invalido")
+	public void invalidHeaderTest() throws Exception {
+
+		// cenario
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/books");
+		request.addHeader(RequestDeadlineFilter.TIMEOUT_HEADER, "abc");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		// execucao
+		filter.doFilter(request, response, (req, res) -> {
+			throw new IllegalStateException("nao deveria chegar ao controller");
+		});
+
+		// verificacao
+		assertThat(response.getStatus()).isEqualTo(400);
+		assertThat(response.getContentAsString()).contains("Invalid X-Request-Timeout header");
+	}
+
+	@Test
+	@DisplayName("Deve medir as requisicoes canceladas pelo prazo, por endpoint e causa")
+	public void exceededMetricTest() throws Exception {
+
+		// cenario
+		MockHttpServletRequest exceeded = new MockHttpServletRequest("GET", "/api/books");
+		MockHttpServletRequest completed = new MockHttpServletRequest("GET", "/api/books");
+
+		// execucao
+		filter.doFilter(exceeded, new MockHttpServletResponse(),
+				(req, res) -> req.setAttribute(RequestDeadlineFilter.EXCEEDED_ATTRIBUTE, "query-cancelled"));
+		filter.doFilter(completed, new MockHttpServletResponse(), (req, res) -> { });
+
+		// verificacao
+		Timer timer = meterRegistry.find(RequestDeadlineFilter.EXCEEDED_METRIC)
+								   .tags("endpoint", "GET /api/books", "cause", "query-cancelled")
+								   .timer();
+		assertThat(timer).isNotNull();
+		assertThat(timer.count()).isEqualTo(1);
+		assertThat(meterRegistry.find(RequestDeadlineFilter.EXCEEDED_METRIC).timers()).hasSize(1);
+	}
+
+	private Duration remainingDuring(HttpServletRequest request) throws Exception {
+		AtomicReference<Duration> remaining = new AtomicReference<>();
+		filter.doFilter(request, new MockHttpServletResponse(),
+				(req, res) -> remaining.set(RequestDeadline.current().get().remaining()));
+		return remaining.get();
+	}
+
+}
@@ -0,0 +1,103 @@
+package br.com.libraryapi.deadline;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Duration;
+
+import javax.persistence.EntityManager;
+import javax.persistence.QueryTimeoutException;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionTimedOutException;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class RequestDeadlineTransactionManagerTest {
+
+	private static final String SLOW_QUERY =
+			"select sum(a.x + b.x) from system_range(1, 1000000) a, system_range(1, 1000000) b";
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private EntityManager entityManager;
+
+	@AfterEach
+	public void tearDown() {
+		RequestDeadline.clear();
+	}
+
+	@Test
+	@DisplayName("Deve usar como timeout o prazo restante arredondado para cima mais um segundo")
+	public void determineTimeoutTest() {
+
+		// cenario
+		RequestDeadlineTransactionManager manager = new RequestDeadlineTransactionManager();
+		DefaultTransactionDefinition shorter = new DefaultTransactionDefinition();
+		shorter.setTimeout(1);
+
+		// execucao
+		int withoutDeadline = manager.determineTimeout(new DefaultTransactionDefinition());
+		RequestDeadline.start(Duration.ofMillis(1500));
+		int withDeadline = manager.determineTimeout(new DefaultTransactionDefinition());
+		int withShorterTimeout = manager.determineTimeout(shorter);
+
+		// verificacao
+		assertThat(withoutDeadline).isEqualTo(TransactionDefinition.TIMEOUT_DEFAULT);
+		assertThat(withDeadline).isEqualTo(3);
+		assertThat(withShorterTimeout).isEqualTo(1);
+	}
+
+	@Test
+	@DisplayName("Deve recusar a transacao quando o prazo da requisicao ja passou")
+	public void deadlineExpiredBeforeTransactionTest() throws InterruptedException {
+
+		// cenario
+		RequestDeadline.start(Duration.ofMillis(1));
+		Thread.sleep(5);
+
+		// execucao e verificacao
+		assertThatThrownBy(() -> new TransactionTemplate(transactionManager)
+				.execute(status -> entityManager.createNativeQuery("select 1").getSingleResult()))
+			.isInstanceOf(TransactionTimedOutException.class);
+	}
+
+	@Test
+	@DisplayName("Deve cancelar a consulta que passar do prazo e manter a conexao utilizavel")
+	public void cancelSlowQueryTest() {
+
+		// cenario
+		RequestDeadline.start(Duration.ofMillis(500));
+		long started = System.nanoTime();
+
+		// execucao
+		Throwable error = null;
+		try {
+			new TransactionTemplate(transactionManager)
+				.execute(status -> entityManager.createNativeQuery(SLOW_QUERY).getSingleResult());
+		} catch (RuntimeException e) {
+			error = e;
+		}
+		Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+		RequestDeadline.clear();
+		Object afterCancel = new TransactionTemplate(transactionManager)
+				.execute(status -> entityManager.createNativeQuery("select 1").getSingleResult());
+
+		// verificacao
+		assertThat(error).isInstanceOf(QueryTimeoutException.class);
+		assertThat(elapsed).isLessThan(Duration.ofSeconds(5));
+		assertThat(afterCancel).isEqualTo(1);
+	}
+
+}
@@ -0,0 +1,128 @@
+package br.com.libraryapi.event;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class AvailabilityFeedTest {
+
+	private AvailabilityFeed feed;
+
+	@AfterEach
+	public void tearDown() {
+		feed.shutdown();
+	}
+
+	@Test
+	@DisplayName("Deve entregar apenas os eventos dos livros assinados")
+	public void filterByBookTest() throws Exception {
+
+		// cenario
+		feed = new AvailabilityFeed(16, 2, Duration.ofMinutes(1));
+		RecordingEmitter book1 = new RecordingEmitter();
+		RecordingEmitter all = new RecordingEmitter();
+		feed.subscribe(new HashSet<>(Arrays.asList(1L)), book1);
+		feed.subscribe(Collections.emptySet(), all);
+
+		// execucao
+		feed.onLoanEvent(event(LoanEvent.Type.LOANED, 1L));
+		feed.onLoanEvent(event(LoanEvent.Type.LOANED, 2L));
+		feed.onLoanEvent(event(LoanEvent.Type.RETURNED, 1L));
+
+		// verificacao
+		book1.awaitEvents(2);
+		all.awaitEvents(3);
+		assertThat(book1.events).extracting(LoanEvent::getBookId).containsExactly(1L, 1L);
+		assertThat(book1.events).extracting(LoanEvent::isAvailable).containsExactly(false, true);
+		assertThat(all.events).extracting(LoanEvent::getBookId).containsExactly(1L, 2L, 1L);
+	}
+
+	@Test
+	@DisplayName("Deve desconectar o assinante lento quando o buffer encher")
+	public void dropSlowConsumerTest() throws Exception {
+
+		// cenario
+		feed = new AvailabilityFeed(2, 2, Duration.ofMinutes(1));
+		CountDownLatch release = new CountDownLatch(1);
+		RecordingEmitter slow = new RecordingEmitter() {
+			@Override
+			public void send(SseEventBuilder builder) throws IOException {
+				super.send(builder);
+				awaitQuietly(release);
+			}
+		};
+		RecordingEmitter fast = new RecordingEmitter();
+		feed.subscribe(Collections.emptySet(), slow);
+		feed.subscribe(Collections.emptySet(), fast);
+
+		// execucao
+		for (long bookId = 1; bookId <= 5; bookId++) {
+			feed.onLoanEvent(event(LoanEvent.Type.LOANED, bookId));
+			fast.awaitEvents((int) bookId);
+		}
+		release.countDown();
+
+		// verificacao
+		assertThat(slow.completed).isTrue();
+		assertThat(feed.subscriberCount()).isEqualTo(1);
+		assertThat(fast.events).hasSize(5);
+	}
+
+	private static LoanEvent event(LoanEvent.Type type, long bookId) {
+		return new LoanEvent(type, bookId * 10, bookId, Instant.now());
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await(5, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private static class RecordingEmitter extends SseEmitter {
+
+		final List<LoanEvent> events = new CopyOnWriteArrayList<>();
+		volatile boolean completed;
+
+		@Override
+		public void send(SseEventBuilder builder) throws IOException {
+			builder.build()
+				   .stream()
+				   .map(DataWithMediaType::getData)
+				   .filter(LoanEvent.class::isInstance)
+				   .map(LoanEvent.class::cast)
+				   .forEach(events::add);
+		}
+
+		@Override
+		public synchronized void complete() {
+			completed = true;
+			super.complete();
+		}
+
+		void awaitEvents(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (events.size() < count && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+			assertThat(events).hasSizeGreaterThanOrEqualTo(count);
+		}
+
+	}
+
+}
@@ -0,0 +1,196 @@
+package br.com.libraryapi.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.grpc.proto.BookMessage;
+import br.com.libraryapi.grpc.proto.BooksGrpc;
+import br.com.libraryapi.grpc.proto.FindBooksRequest;
+import br.com.libraryapi.grpc.proto.GetBookRequest;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.stub.ServerCallStreamObserver;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "grpc.server.in-process-name=" + BookGrpcServiceTest.SERVER_NAME)
+public class BookGrpcServiceTest {
+
+	static final String SERVER_NAME = "library-api-grpc-test";
+
+	@MockBean
+	private BookService service;
+
+	@MockBean
+	private LoanService loanService;
+
+	private ManagedChannel channel;
+	private BooksGrpc.BooksBlockingStub stub;
+
+	@BeforeEach
+	public void setUp() {
+		channel = InProcessChannelBuilder.forName(SERVER_NAME).directExecutor().build();
+		stub = BooksGrpc.newBlockingStub(channel);
+	}
+
+	@AfterEach
+	public void tearDown() {
+		channel.shutdownNow();
+	}
+
+	@Test
+	@DisplayName("Deve obter um livro pelo id")
+	public void getBookTest() {
+
+		// cenario
+		BDDMockito.given(service.getById(1l))
+				  .willReturn(Optional.of(Book.builder().id(1l).title("Titulo").author("Autor").isbn("123").build()));
+
+		// execucao
+		BookMessage book = stub.getBook(GetBookRequest.newBuilder().setId(1l).build());
+
+		// verificacao
+		assertThat(book.getId()).isEqualTo(1l);
+		assertThat(book.getTitle()).isEqualTo("Titulo");
+		assertThat(book.getIsbn()).isEqualTo("123");
+		assertThat(book.getCategory()).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve retornar NOT_FOUND ao obter um livro inexistente")
+	public void bookNotFoundTest() {
+
+		// cenario
+		BDDMockito.given(service.getById(Mockito.anyLong())).willReturn(Optional.empty());
+
+		// execucao
+		StatusRuntimeException exception = catchThrowableOfType(
+				() -> stub.getBook(GetBookRequest.newBuilder().setId(1l).build()), StatusRuntimeException.class);
+
+		// verificacao
+		assertThat(exception.getStatus().getCode()).isEqualTo(Status.Code.NOT_FOUND);
+	}
+
+	@Test
+	@DisplayName("Deve retornar FAILED_PRECONDITION ao violar regra de negocio")
+	public void createBookWithDuplicatedIsbnTest() {
+
+		// cenario
+		BDDMockito.given(service.save(Mockito.any(Book.class))).willThrow(new BusinessException("ISBN já cadastrado."));
+
+		// execucao
+		StatusRuntimeException exception = catchThrowableOfType(
+				() -> stub.createBook(BookMessage.newBuilder().setTitle("Titulo").setAuthor("Autor").setIsbn("123").build()),
+				StatusRuntimeException.class);
+
+		// verificacao
+		assertThat(exception.getStatus().getCode()).isEqualTo(Status.Code.FAILED_PRECONDITION);
+		assertThat(exception.getStatus().getDescription()).isEqualTo("ISBN já cadastrado.");
+	}
+
+	@Test
+	@DisplayName("Deve enviar em stream todos os livros encontrados, pagina a pagina por chave")
+	public void findBooksStreamTest() {
+
+		// cenario
+		givenBooks(5);
+
+		// execucao
+		List<BookMessage> result = new ArrayList<>();
+		stub.findBooks(FindBooksRequest.newBuilder().setAuthor("Autor").setPageSize(2).build())
+			.forEachRemaining(result::add);
+
+		// verificacao
+		assertThat(result).extracting(BookMessage::getId).containsExactly(1l, 2l, 3l, 4l, 5l);
+		Mockito.verify(service).findAfter(Mockito.any(Book.class), Mockito.eq(0l), Mockito.eq(2));
+		Mockito.verify(service).findAfter(Mockito.any(Book.class), Mockito.eq(2l), Mockito.eq(2));
+		Mockito.verify(service).findAfter(Mockito.any(Book.class), Mockito.eq(4l), Mockito.eq(2));
+		Mockito.verify(service, Mockito.never()).find(Mockito.any(), Mockito.any());
+	}
+
+	@Test
+	@DisplayName("Deve enviar os livros somente enquanto o cliente estiver pronto para receber")
+	@SuppressWarnings("unchecked")
+	public void findBooksFlowControlTest() {
+
+		// cenario
+		givenBooks(5);
+		ServerCallStreamObserver<BookMessage> call = Mockito.mock(ServerCallStreamObserver.class);
+		BDDMockito.given(call.isReady()).willReturn(true, true, false);
+
+		// execucao
+		new BookGrpcService(service).findBooks(FindBooksRequest.newBuilder().setPageSize(2).build(), call);
+
+		// verificacao
+		ArgumentCaptor<Runnable> onReady = ArgumentCaptor.forClass(Runnable.class);
+		Mockito.verify(call).setOnReadyHandler(onReady.capture());
+		Mockito.verify(call, Mockito.times(2)).onNext(Mockito.any());
+		Mockito.verify(call, Mockito.never()).onCompleted();
+
+		BDDMockito.given(call.isReady()).willReturn(true);
+		onReady.getValue().run();
+
+		ArgumentCaptor<BookMessage> sent = ArgumentCaptor.forClass(BookMessage.class);
+		Mockito.verify(call, Mockito.times(5)).onNext(sent.capture());
+		assertThat(sent.getAllValues()).extracting(BookMessage::getId).containsExactly(1l, 2l, 3l, 4l, 5l);
+		Mockito.verify(call).onCompleted();
+	}
+
+	@Test
+	@DisplayName("Deve encerrar o stream vazio quando nenhum livro for encontrado")
+	public void findBooksEmptyStreamTest() {
+
+		// cenario
+		BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.anyLong(), Mockito.anyInt()))
+				  .willReturn(Collections.emptyList());
+
+		// execucao
+		List<BookMessage> result = new ArrayList<>();
+		stub.findBooks(FindBooksRequest.newBuilder().setTitle("nada").build()).forEachRemaining(result::add);
+
+		// verificacao
+		Mockito.verify(service).findAfter(Mockito.any(Book.class), Mockito.eq(0l),
+				Mockito.eq(BookGrpcService.DEFAULT_PAGE_SIZE));
+		assertThat(result).isEmpty();
+	}
+
+	private void givenBooks(int count) {
+		List<Book> books = new ArrayList<>();
+		for (long id = 1; id <= count; id++) {
+			books.add(Book.builder().id(id).title("Titulo " + id).author("Autor").isbn(String.valueOf(id)).build());
+		}
+		BDDMockito.given(service.findAfter(Mockito.any(Book.class), Mockito.anyLong(), Mockito.anyInt()))
+				  .willAnswer(invocation -> {
+					  long after = invocation.getArgument(1);
+					  int limit = invocation.getArgument(2);
+					  return books.stream().filter(book -> book.getId() > after).limit(limit)
+								  .collect(Collectors.toList());
+				  });
+	}
+
+}
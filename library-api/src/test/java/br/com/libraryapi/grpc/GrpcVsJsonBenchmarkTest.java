@@ -0,0 +1,153 @@
+package br.com.libraryapi.grpc;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.api.dto.BookDTO;
+import br.com.libraryapi.api.dto.LoanDTO;
+import br.com.libraryapi.grpc.proto.BooksGrpc;
+import br.com.libraryapi.grpc.proto.CheckoutSummary;
+import br.com.libraryapi.grpc.proto.CreateLoanRequest;
+import br.com.libraryapi.grpc.proto.GetBookRequest;
+import br.com.libraryapi.grpc.proto.LoansGrpc;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.service.BookService;
+import io.grpc.ManagedChannel;
+import io.grpc.netty.shaded.io.grpc.netty.NettyChannelBuilder;
+import io.grpc.stub.StreamObserver;
+
+/**
+ * Compara JSON/HTTP e gRPC (ambos via socket local) na consulta de livros e na
+ * criacao de emprestimos. Executar com:
+ * mvn test -Dtest=GrpcVsJsonBenchmarkTest -Dbenchmark=true
+ */
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+		properties = { "grpc.server.port=" + GrpcVsJsonBenchmarkTest.GRPC_PORT, "logging.level.root=warn" })
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class GrpcVsJsonBenchmarkTest {
+
+	static final int GRPC_PORT = 19090;
+
+	private static final int LOOKUPS = 10_000;
+	private static final int LOANS = 2_000;
+
+	@Autowired
+	private TestRestTemplate rest;
+
+	@Autowired
+	private BookService bookService;
+
+	@Test
+	@DisplayName("Deve medir consultas e emprestimos via JSON/HTTP e via gRPC")
+	public void jsonVersusGrpcTest() throws Exception {
+
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < LOANS * 3; i++) {
+			books.add(bookService.save(Book.builder().title("Titulo " + i).author("Autor").isbn(isbn(i)).build()));
+		}
+		long bookId = books.get(0).getId();
+
+		ManagedChannel channel = NettyChannelBuilder.forAddress("localhost", GRPC_PORT).usePlaintext().build();
+		try {
+			BooksGrpc.BooksBlockingStub bookStub = BooksGrpc.newBlockingStub(channel);
+			LoansGrpc.LoansBlockingStub loanStub = LoansGrpc.newBlockingStub(channel);
+			GetBookRequest getBook = GetBookRequest.newBuilder().setId(bookId).build();
+
+			for (int i = 0; i < LOOKUPS; i++) {
+				rest.getForObject("/api/books/{id}", BookDTO.class, bookId);
+				bookStub.getBook(getBook);
+			}
+			report("GET livro   json", measure(LOOKUPS, i -> rest.getForObject("/api/books/{id}", BookDTO.class, bookId)));
+			report("GetBook     grpc", measure(LOOKUPS, i -> bookStub.getBook(getBook)));
+
+			report("POST loan   json", measure(LOANS, i -> rest.postForObject("/api/loans",
+					LoanDTO.builder().isbn(books.get(i).getIsbn()).customer("cliente-" + i).build(), Long.class)));
+			report("CreateLoan  grpc", measure(LOANS, i -> loanStub.createLoan(loan(books.get(LOANS + i)))));
+
+			long start = System.nanoTime();
+			CompletableFuture<CheckoutSummary> summary = new CompletableFuture<>();
+			StreamObserver<CreateLoanRequest> requests = LoansGrpc.newStub(channel).bulkCheckout(
+					new StreamObserver<CheckoutSummary>() {
+
+						@Override
+						public void onNext(CheckoutSummary value) {
+							summary.complete(value);
+						}
+
+						@Override
+						public void onError(Throwable t) {
+							summary.completeExceptionally(t);
+						}
+
+						@Override
+						public void onCompleted() {
+						}
+
+					});
+			for (int i = 0; i < LOANS; i++) {
+				requests.onNext(loan(books.get(2 * LOANS + i)));
+			}
+			requests.onCompleted();
+			int created = summary.get(1, TimeUnit.MINUTES).getLoanIdsCount();
+			long elapsed = System.nanoTime() - start;
+			System.out.printf("BulkCheckout grpc  %d emprestimos em %d ms (%d us/emprestimo)%n",
+					created, elapsed / 1_000_000, elapsed / 1_000 / LOANS);
+		} finally {
+			channel.shutdownNow();
+		}
+	}
+
+	private static CreateLoanRequest loan(Book book) {
+		return CreateLoanRequest.newBuilder().setIsbn(book.getIsbn()).setCustomer("cliente").build();
+	}
+
+	private static long[] measure(int count, Call call) throws Exception {
+		long[] latencies = new long[count];
+		for (int i = 0; i < count; i++) {
+			long start = System.nanoTime();
+			call.run(i);
+			latencies[i] = System.nanoTime() - start;
+		}
+		Arrays.sort(latencies);
+		return latencies;
+	}
+
+	private static void report(String name, long[] sorted) {
+		System.out.printf("%s  p50=%d us p99=%d us media=%d us%n", name, percentile(sorted, 50),
+				percentile(sorted, 99), Arrays.stream(sorted).sum() / sorted.length / 1_000);
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		int index = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(index, 0)] / 1_000;
+	}
+
+	private static String isbn(int i) {
+		String body = String.format("978%09d", i);
+		int sum = 0;
+		for (int d = 0; d < 12; d++) {
+			sum += (body.charAt(d) - '0') * (d % 2 == 0 ? 1 : 3);
+		}
+		return body + (10 - sum % 10) % 10;
+	}
+
+	private interface Call {
+		void run(int i) throws Exception;
+	}
+
+}
@@ -0,0 +1,166 @@
+package br.com.libraryapi.grpc;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.BDDMockito;
+import org.mockito.Mockito;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.grpc.proto.CheckoutSummary;
+import br.com.libraryapi.grpc.proto.CreateLoanRequest;
+import br.com.libraryapi.grpc.proto.LoanMessage;
+import br.com.libraryapi.grpc.proto.LoansGrpc;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+import io.grpc.ManagedChannel;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.inprocess.InProcessChannelBuilder;
+import io.grpc.stub.StreamObserver;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "grpc.server.in-process-name=" + BookGrpcServiceTest.SERVER_NAME)
+public class LoanGrpcServiceTest {
+
+	@MockBean
+	private BookService bookService;
+
+	@MockBean
+	private LoanService service;
+
+	private ManagedChannel channel;
+
+	@BeforeEach
+	public void setUp() {
+		channel = InProcessChannelBuilder.forName(BookGrpcServiceTest.SERVER_NAME).directExecutor().build();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		channel.shutdownNow();
+	}
+
+	@Test
+	@DisplayName("Deve realizar um emprestimo")
+	public void createLoanTest() {
+
+		// cenario
+		Book book = Book.builder().id(1l).isbn("123").build();
+		BDDMockito.given(bookService.getBookByIsbn("123")).willReturn(Optional.of(book));
+		BDDMockito.given(service.save(Mockito.any(Loan.class))).willAnswer(invocation -> {
+			Loan loan = invocation.getArgument(0);
+			loan.setId(1l);
+			loan.setDueDate(loan.getLoanDate().plusDays(4));
+			return loan;
+		});
+
+		// execucao
+		LoanMessage loan = LoansGrpc.newBlockingStub(channel).createLoan(request("123", "Fulano"));
+
+		// verificacao
+		assertThat(loan.getId()).isEqualTo(1l);
+		assertThat(loan.getIsbn()).isEqualTo("123");
+		assertThat(loan.getCustomer()).isEqualTo("Fulano");
+		assertThat(loan.getDueDate()).isEqualTo(LocalDate.now().plusDays(4).toString());
+	}
+
+	@Test
+	@DisplayName("Deve retornar INVALID_ARGUMENT ao emprestar um livro inexistente")
+	public void invalidIsbnLoanTest() {
+
+		// cenario
+		BDDMockito.given(bookService.getBookByIsbn(Mockito.anyString())).willReturn(Optional.empty());
+
+		// execucao
+		StatusRuntimeException exception = catchThrowableOfType(
+				() -> LoansGrpc.newBlockingStub(channel).createLoan(request("123", "Fulano")),
+				StatusRuntimeException.class);
+
+		// verificacao
+		assertThat(exception.getStatus().getCode()).isEqualTo(Status.Code.INVALID_ARGUMENT);
+		assertThat(exception.getStatus().getDescription()).isEqualTo("Book not found for passed ISBN");
+		Mockito.verify(service, Mockito.never()).save(Mockito.any(Loan.class));
+	}
+
+	@Test
+	@DisplayName("Deve emprestar em lote e resumir as falhas sem desfazer os demais emprestimos")
+	public void bulkCheckoutTest() throws Exception {
+
+		// cenario
+		Book available = Book.builder().id(1l).isbn("123").build();
+		Book loaned = Book.builder().id(2l).isbn("456").build();
+		BDDMockito.given(bookService.getBookByIsbn("123")).willReturn(Optional.of(available));
+		BDDMockito.given(bookService.getBookByIsbn("456")).willReturn(Optional.of(loaned));
+		BDDMockito.given(bookService.getBookByIsbn("789")).willReturn(Optional.empty());
+		BDDMockito.given(service.save(Mockito.any(Loan.class))).willAnswer(invocation -> {
+			Loan loan = invocation.getArgument(0);
+			if (loan.getBook() == loaned) {
+				throw new BusinessException("Book already loaned");
+			}
+			loan.setId(10l);
+			return loan;
+		});
+
+		// execucao
+		CompletableFuture<CheckoutSummary> result = new CompletableFuture<>();
+		StreamObserver<CreateLoanRequest> requests = LoansGrpc.newStub(channel).bulkCheckout(
+				new StreamObserver<CheckoutSummary>() {
+
+					@Override
+					public void onNext(CheckoutSummary summary) {
+						result.complete(summary);
+					}
+
+					@Override
+					public void onError(Throwable t) {
+						result.completeExceptionally(t);
+					}
+
+					@Override
+					public void onCompleted() {
+					}
+
+				});
+		requests.onNext(request("123", "Fulano"));
+		requests.onNext(request("456", "Ciclano"));
+		requests.onNext(request("789", "Beltrano"));
+		requests.onCompleted();
+		CheckoutSummary summary = result.get(5, TimeUnit.SECONDS);
+
+		// verificacao
+		assertThat(summary.getLoanIdsList()).containsExactly(10l);
+		assertThat(summary.getFailuresList()).hasSize(2);
+		assertThat(summary.getFailures(0).getIndex()).isEqualTo(1);
+		assertThat(summary.getFailures(0).getMessage()).isEqualTo("Book already loaned");
+		assertThat(summary.getFailures(1).getIndex()).isEqualTo(2);
+		assertThat(summary.getFailures(1).getIsbn()).isEqualTo("789");
+		assertThat(summary.getFailures(1).getMessage()).isEqualTo("Book not found for passed ISBN");
+	}
+
+	private static CreateLoanRequest request(String isbn, String customer) {
+		return CreateLoanRequest.newBuilder()
+								.setIsbn(isbn)
+								.setCustomer(customer)
+								.setEmail(customer.toLowerCase() + "@email.com")
+								.build();
+	}
+
+}
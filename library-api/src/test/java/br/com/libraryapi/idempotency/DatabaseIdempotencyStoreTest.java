@@ -0,0 +1,88 @@
+package br.com.libraryapi.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.repository.IdempotencyRecordRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DatabaseIdempotencyStoreTest {
+
+	private static final Instant NOW = Instant.parse("2021-03-01T10:00:00Z");
+
+	@Autowired
+	private IdempotencyRecordRepository repository;
+
+	private DatabaseIdempotencyStore store;
+
+	@BeforeEach
+	public void setUp() {
+		store = new DatabaseIdempotencyStore(repository, Duration.ofHours(1), Duration.ofSeconds(30),
+				Clock.fixed(NOW, ZoneOffset.UTC));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAll();
+	}
+
+	@Test
+	@DisplayName("Deve reservar, concluir e repetir a resposta pela tabela")
+	public void reserveAndCompleteTest() {
+
+		// execucao
+		Optional<IdempotentResponse> reserved = store.reserve("chave-1", "fp");
+		Optional<IdempotentResponse> inFlight = store.reserve("chave-1", "fp");
+		store.complete("chave-1", 201, "application/json", "1".getBytes());
+		Optional<IdempotentResponse> replayed = store.reserve("chave-1", "fp");
+
+		// verificacao
+		assertThat(reserved).isEmpty();
+		assertThat(inFlight.get().isInFlight()).isTrue();
+		assertThat(replayed.get().getStatus()).isEqualTo(201);
+		assertThat(replayed.get().getBody()).isEqualTo("1".getBytes());
+		assertThat(replayed.get().getFingerprint()).isEqualTo("fp");
+	}
+
+	@Test
+	@DisplayName("Deve liberar a chave e remover registros expirados")
+	public void releaseAndPurgeTest() {
+
+		// cenario
+		store.reserve("chave-1", "fp");
+		store.release("chave-1");
+		store.reserve("chave-2", "fp");
+		store.complete("chave-2", 201, "application/json", "1".getBytes());
+		DatabaseIdempotencyStore later = new DatabaseIdempotencyStore(repository, Duration.ofHours(1),
+				Duration.ofSeconds(30), Clock.fixed(NOW.plus(Duration.ofHours(2)), ZoneOffset.UTC));
+
+		// execucao
+		Optional<IdempotentResponse> afterRelease = store.reserve("chave-1", "fp");
+		later.purgeExpired();
+
+		// verificacao
+		assertThat(afterRelease).isEmpty();
+		assertThat(repository.count()).isZero();
+	}
+
+}
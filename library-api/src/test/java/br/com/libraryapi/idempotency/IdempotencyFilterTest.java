@@ -0,0 +1,173 @@
+package br.com.libraryapi.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.util.StreamUtils;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+public class IdempotencyFilterTest {
+
+	private static final String LOAN_API = "/api/loans";
+	private static final String BODY = "{\"isbn\":\"9780306406157\",\"customer\":\"Fulano\"}";
+
+	private InMemoryIdempotencyStore store;
+	private IdempotencyFilter filter;
+	private AtomicInteger executions;
+	private int nextStatus;
+	private MockHttpServletRequest retryWhileRunning;
+	private MockHttpServletResponse concurrentResponse;
+
+	@BeforeEach
+	public void setUp() {
+		store = new InMemoryIdempotencyStore(100, Duration.ofHours(24), Duration.ofSeconds(30), Clock.systemUTC());
+		filter = new IdempotencyFilter(store, new ObjectMapper());
+		executions = new AtomicInteger();
+		nextStatus = HttpStatus.CREATED.value();
+	}
+
+	@Test
+	@DisplayName("Deve repetir a resposta armazenada sem executar a requisicao novamente")
+	public void replayStoredResponseTest() throws Exception {
+
+		// execucao
+		MockHttpServletResponse first = perform(post("chave-1", BODY));
+		MockHttpServletResponse retry = perform(post("chave-1", BODY));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(first.getStatus()).isEqualTo(201);
+		assertThat(first.getContentAsString()).isEqualTo("1");
+		assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getContentAsString()).isEqualTo("1");
+		assertThat(retry.getContentType()).startsWith(MediaType.APPLICATION_JSON_VALUE);
+		assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+	}
+
+	@Test
+	@DisplayName("Deve recusar a chave reutilizada com outro corpo")
+	public void keyReusedWithDifferentBodyTest() throws Exception {
+
+		// execucao
+		perform(post("chave-1", BODY));
+		MockHttpServletResponse other = perform(post("chave-1", "{\"isbn\":\"9780306406158\"}"));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(other.getStatus()).isEqualTo(422);
+		assertThat(other.getContentAsString()).contains("Idempotency-Key already used for a different request");
+	}
+
+	@Test
+	@DisplayName("Deve retornar conflito enquanto a primeira requisicao estiver em andamento")
+	public void requestInFlightTest() throws Exception {
+
+		// cenario
+		retryWhileRunning = post("chave-1", BODY);
+
+		// execucao
+		MockHttpServletResponse first = perform(post("chave-1", BODY));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(first.getStatus()).isEqualTo(201);
+		assertThat(concurrentResponse.getStatus()).isEqualTo(409);
+	}
+
+	@Test
+	@DisplayName("Deve retornar servico indisponivel quando todas as chaves estiverem em andamento")
+	public void storeFullTest() throws Exception {
+
+		// cenario
+		store = new InMemoryIdempotencyStore(1, Duration.ofHours(24), Duration.ofSeconds(30), Clock.systemUTC());
+		filter = new IdempotencyFilter(store, new ObjectMapper());
+		retryWhileRunning = post("chave-2", BODY);
+
+		// execucao
+		MockHttpServletResponse first = perform(post("chave-1", BODY));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(1);
+		assertThat(first.getStatus()).isEqualTo(201);
+		assertThat(concurrentResponse.getStatus()).isEqualTo(503);
+		assertThat(concurrentResponse.getHeader("Retry-After")).isEqualTo("1");
+	}
+
+	@Test
+	@DisplayName("Deve liberar a chave quando a requisicao falhar no servidor")
+	public void releaseKeyOnServerErrorTest() throws Exception {
+
+		// cenario
+		nextStatus = HttpStatus.SERVICE_UNAVAILABLE.value();
+		perform(post("chave-1", BODY));
+		nextStatus = HttpStatus.CREATED.value();
+
+		// execucao
+		MockHttpServletResponse retry = perform(post("chave-1", BODY));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(2);
+		assertThat(retry.getStatus()).isEqualTo(201);
+		assertThat(retry.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+	}
+
+	@Test
+	@DisplayName("Nao deve interferir em requisicoes sem Idempotency-Key")
+	public void requestWithoutKeyTest() throws Exception {
+
+		// execucao
+		perform(post(null, BODY));
+		perform(post(null, BODY));
+
+		// verificacao
+		assertThat(executions.get()).isEqualTo(2);
+		assertThat(store.size()).isZero();
+	}
+
+	private MockHttpServletRequest post(String key, String body) {
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", LOAN_API);
+		if (key != null) {
+			request.addHeader(IdempotencyFilter.IDEMPOTENCY_KEY_HEADER, key);
+		}
+		request.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		request.setContent(body.getBytes());
+		return request;
+	}
+
+	private MockHttpServletResponse perform(MockHttpServletRequest request) throws IOException, ServletException {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		FilterChain chain = (req, res) -> {
+			executions.incrementAndGet();
+			StreamUtils.copyToByteArray(req.getInputStream());
+			if (retryWhileRunning != null) {
+				MockHttpServletRequest retry = retryWhileRunning;
+				retryWhileRunning = null;
+				concurrentResponse = perform(retry);
+			}
+			HttpServletResponse httpResponse = (HttpServletResponse) res;
+			httpResponse.setStatus(nextStatus);
+			httpResponse.setContentType(MediaType.APPLICATION_JSON_VALUE);
+			httpResponse.getWriter().write("1");
+		};
+		filter.doFilter(request, response, chain);
+		return response;
+	}
+
+}
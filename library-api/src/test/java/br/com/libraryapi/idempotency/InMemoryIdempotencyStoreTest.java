@@ -0,0 +1,126 @@
+package br.com.libraryapi.idempotency;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+public class InMemoryIdempotencyStoreTest {
+
+	private static final Instant NOW = Instant.parse("2021-03-01T10:00:00Z");
+
+	private Clock clock;
+	private InMemoryIdempotencyStore store;
+
+	@BeforeEach
+	public void setUp() {
+		clock = Mockito.mock(Clock.class);
+		Mockito.when(clock.instant()).thenReturn(NOW);
+		store = new InMemoryIdempotencyStore(3, Duration.ofHours(1), Duration.ofSeconds(30), clock);
+	}
+
+	@Test
+	@DisplayName("Deve descartar as entradas mais antigas ao atingir o limite")
+	public void boundedStoreTest() {
+
+		// execucao
+		for (int i = 0; i < 5; i++) {
+			store.reserve("chave-" + i, "fp");
+			store.complete("chave-" + i, 201, "application/json", "1".getBytes());
+		}
+
+		// verificacao
+		assertThat(store.size()).isEqualTo(3);
+		assertThat(store.reserve("chave-0", "fp")).isEmpty();
+		assertThat(store.reserve("chave-4", "fp")).isPresent();
+	}
+
+	@Test
+	@DisplayName("Nao deve descartar uma reserva em andamento ao atingir o limite")
+	public void keepInFlightEldestTest() {
+
+		// cenario
+		store.reserve("em-andamento", "fp");
+		for (int i = 1; i <= 2; i++) {
+			store.reserve("chave-" + i, "fp");
+			store.complete("chave-" + i, 201, "application/json", "1".getBytes());
+		}
+
+		// execucao
+		Optional<IdempotentResponse> newKey = store.reserve("chave-3", "fp");
+
+		// verificacao
+		assertThat(newKey).isEmpty();
+		assertThat(store.size()).isEqualTo(3);
+		Optional<IdempotentResponse> inFlight = store.reserve("em-andamento", "fp");
+		assertThat(inFlight).isPresent();
+		assertThat(inFlight.get().isInFlight()).isTrue();
+		assertThat(store.reserve("chave-2", "fp")).isPresent();
+		assertThat(store.reserve("chave-1", "fp")).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve recusar uma nova chave quando todas as reservas estiverem em andamento")
+	public void storeFullOfInFlightTest() {
+
+		// cenario
+		for (int i = 0; i < 3; i++) {
+			store.reserve("chave-" + i, "fp");
+		}
+
+		// execucao
+		Throwable exception = catchThrowable(() -> store.reserve("chave-3", "fp"));
+
+		// verificacao
+		assertThat(exception).isInstanceOf(IdempotencyStoreFullException.class);
+		assertThat(store.size()).isEqualTo(3);
+		assertThat(store.reserve("chave-0", "fp").get().isInFlight()).isTrue();
+	}
+
+	@Test
+	@DisplayName("Deve expirar as respostas apos o ttl")
+	public void expireAfterTtlTest() {
+
+		// cenario
+		store.reserve("chave-1", "fp");
+		store.complete("chave-1", 201, "application/json", "1".getBytes());
+		Mockito.when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(59)));
+		Optional<IdempotentResponse> beforeTtl = store.reserve("chave-1", "fp");
+
+		// execucao
+		Mockito.when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(61)));
+		Optional<IdempotentResponse> afterTtl = store.reserve("chave-1", "fp");
+
+		// verificacao
+		assertThat(beforeTtl).isPresent();
+		assertThat(beforeTtl.get().getStatus()).isEqualTo(201);
+		assertThat(afterTtl).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve permitir retomar uma reserva abandonada")
+	public void abandonedReservationTest() {
+
+		// cenario
+		store.reserve("chave-1", "fp");
+
+		// execucao
+		Optional<IdempotentResponse> whileRunning = store.reserve("chave-1", "fp");
+		Mockito.when(clock.instant()).thenReturn(NOW.plus(Duration.ofMinutes(1)));
+		Optional<IdempotentResponse> afterTimeout = store.reserve("chave-1", "fp");
+
+		// verificacao
+		assertThat(whileRunning).isPresent();
+		assertThat(whileRunning.get().isInFlight()).isTrue();
+		assertThat(afterTimeout).isEmpty();
+	}
+
+}
@@ -0,0 +1,154 @@
+package br.com.libraryapi.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import br.com.libraryapi.event.LoanEvent;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+public class AvailabilityIndexTest {
+
+	private LoanRepository repository;
+	private AvailabilityIndex index;
+
+	@BeforeEach
+	public void setUp() {
+		repository = Mockito.mock(LoanRepository.class);
+		index = new AvailabilityIndex(repository);
+	}
+
+	@Test
+	@DisplayName("Deve consultar o banco enquanto o indice nao estiver pronto")
+	public void notReadyFallbackTest() {
+
+		// cenario
+		Mockito.when(repository.existsByBookIdAndNotReturned(1l)).thenReturn(true);
+
+		// execucao e verificacao
+		assertThat(index.isAvailable(1l)).isFalse();
+		assertThat(index.isAvailable(2l)).isTrue();
+		Mockito.verify(repository).existsByBookIdAndNotReturned(2l);
+	}
+
+	@Test
+	@DisplayName("Deve responder pela memoria apos carregar os emprestimos em aberto")
+	public void seededLookupTest() {
+
+		// cenario
+		Mockito.when(repository.streamLoanedBookIds()).thenReturn(Stream.of(1l, 3l));
+
+		// execucao
+		index.rebuild();
+
+		// verificacao
+		assertThat(index.isAvailable(1l)).isFalse();
+		assertThat(index.isAvailable(2l)).isTrue();
+		assertThat(index.isAvailable(3l)).isFalse();
+		Mockito.verify(repository, Mockito.never()).existsByBookIdAndNotReturned(Mockito.anyLong());
+	}
+
+	@Test
+	@DisplayName("Deve atualizar a disponibilidade com os eventos de emprestimo e devolucao")
+	public void applyLoanEventsTest() {
+
+		// cenario
+		Mockito.when(repository.streamLoanedBookIds()).thenReturn(Stream.of(1l));
+		index.rebuild();
+		Mockito.when(repository.existsByBookIdAndNotReturned(2l)).thenReturn(true);
+
+		// execucao
+		index.onLoanEvent(new LoanEvent(LoanEvent.Type.RETURNED, 10l, 1l, Instant.now()));
+		index.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 20l, 2l, Instant.now()));
+
+		// verificacao
+		assertThat(index.isAvailable(1l)).isTrue();
+		assertThat(index.isAvailable(2l)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve reaplicar os eventos recebidos durante a carga")
+	public void eventsDuringRebuildTest() {
+
+		// cenario
+		Mockito.when(repository.existsByBookIdAndNotReturned(2l)).thenReturn(true);
+		Mockito.when(repository.streamLoanedBookIds()).thenAnswer(invocation -> {
+			index.onLoanEvent(new LoanEvent(LoanEvent.Type.RETURNED, 10l, 1l, Instant.now()));
+			index.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 20l, 2l, Instant.now()));
+			return Stream.of(1l);
+		});
+
+		// execucao
+		index.rebuild();
+
+		// verificacao
+		assertThat(index.isAvailable(1l)).isTrue();
+		assertThat(index.isAvailable(2l)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve seguir o banco quando os eventos do mesmo livro chegarem fora de ordem")
+	public void outOfOrderEventsTest() {
+
+		// cenario
+		Mockito.when(repository.streamLoanedBookIds()).thenReturn(Stream.of(1l));
+		index.rebuild();
+		// devolucao seguida de novo emprestimo, ambos confirmados
+		Mockito.when(repository.existsByBookIdAndNotReturned(1l)).thenReturn(true);
+
+		// execucao
+		index.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 20l, 1l, Instant.now()));
+		index.onLoanEvent(new LoanEvent(LoanEvent.Type.RETURNED, 10l, 1l, Instant.now()));
+
+		// verificacao
+		assertThat(index.isAvailable(1l)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Nao deve bloquear a atualizacao de um livro enquanto outro e relido do banco")
+	public void refreshLocksPerBookTest() throws Exception {
+
+		// cenario
+		Mockito.when(repository.streamLoanedBookIds()).thenReturn(Stream.empty());
+		index.rebuild();
+		CountDownLatch reading = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		Mockito.when(repository.existsByBookIdAndNotReturned(1l)).thenAnswer(invocation -> {
+			reading.countDown();
+			release.await();
+			return true;
+		});
+		Mockito.when(repository.existsByBookIdAndNotReturned(2l)).thenReturn(true);
+		ExecutorService executor = Executors.newSingleThreadExecutor();
+		try {
+			Future<?> slow = executor.submit(
+					() -> index.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 1l, 1l, Instant.now())));
+			assertThat(reading.await(5, TimeUnit.SECONDS)).isTrue();
+
+			// execucao
+			index.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 2l, 2l, Instant.now()));
+
+			// verificacao
+			assertThat(index.isAvailable(2l)).isFalse();
+			assertThat(index.isAvailable(1l)).isTrue();
+			release.countDown();
+			slow.get(5, TimeUnit.SECONDS);
+			assertThat(index.isAvailable(1l)).isFalse();
+		} finally {
+			release.countDown();
+			executor.shutdownNow();
+		}
+	}
+
+}
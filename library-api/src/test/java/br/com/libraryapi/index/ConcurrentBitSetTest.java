@@ -0,0 +1,66 @@
+package br.com.libraryapi.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class ConcurrentBitSetTest {
+
+	@Test
+	@DisplayName("Deve marcar e desmarcar ids em blocos diferentes")
+	public void setAndClearTest() {
+
+		// cenario
+		ConcurrentBitSet bitSet = new ConcurrentBitSet();
+
+		// execucao
+		bitSet.set(1);
+		bitSet.set(70_000);
+		bitSet.set(Integer.MAX_VALUE);
+		bitSet.set(Integer.MAX_VALUE + 1L);
+		bitSet.clear(70_000);
+
+		// verificacao
+		assertThat(bitSet.get(1)).isTrue();
+		assertThat(bitSet.get(2)).isFalse();
+		assertThat(bitSet.get(70_000)).isFalse();
+		assertThat(bitSet.get(Integer.MAX_VALUE)).isTrue();
+		assertThat(bitSet.get(Integer.MAX_VALUE + 1L)).isTrue();
+		assertThat(bitSet.cardinality()).isEqualTo(3);
+	}
+
+	@Test
+	@DisplayName("Nao deve perder atualizacoes concorrentes na mesma palavra")
+	public void concurrentSetTest() throws Exception {
+
+		// cenario
+		ConcurrentBitSet bitSet = new ConcurrentBitSet();
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		List<Future<?>> futures = new ArrayList<>();
+
+		// execucao
+		for (int t = 0; t < 4; t++) {
+			int offset = t;
+			futures.add(executor.submit(() -> {
+				for (long id = offset; id < 200_000; id += 4) {
+					bitSet.set(id);
+				}
+			}));
+		}
+		for (Future<?> future : futures) {
+			future.get();
+		}
+		executor.shutdown();
+
+		// verificacao
+		assertThat(bitSet.cardinality()).isEqualTo(200_000);
+	}
+
+}
@@ -0,0 +1,164 @@
+package br.com.libraryapi.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.change.ChangeSequenceTest;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+public class IndexSnapshotTest {
+
+	@TempDir
+	Path directory;
+
+	private Path file;
+	private BookRepository bookRepository;
+	private LoanRepository loanRepository;
+
+	@BeforeEach
+	public void setUp() {
+		file = directory.resolve("indexes.snapshot");
+		bookRepository = Mockito.mock(BookRepository.class);
+		loanRepository = Mockito.mock(LoanRepository.class);
+		Mockito.when(bookRepository.findChanged(Mockito.anyLong(), Mockito.anyLong(), ArgumentMatchers.any()))
+			   .thenReturn(Collections.emptyList());
+		Mockito.when(loanRepository.findChanged(Mockito.anyLong(), Mockito.anyLong(), ArgumentMatchers.any()))
+			   .thenReturn(Collections.emptyList());
+	}
+
+	@Test
+	@DisplayName("Deve restaurar os indices do snapshot e aplicar as alteracoes posteriores")
+	public void restoreAndReconcileTest() throws IOException {
+
+		// cenario
+		Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(10l);
+		Mockito.when(bookRepository.streamAllIsbnNumbers()).thenReturn(Stream.of(9780306406157l));
+		Mockito.when(loanRepository.streamLoanedBookIds()).thenReturn(Stream.of(1l, 2l, 70000l));
+		IsbnIndex isbnIndex = isbnIndex();
+		AvailabilityIndex availabilityIndex = new AvailabilityIndex(loanRepository);
+		isbnIndex.rebuild();
+		availabilityIndex.rebuild();
+		assertThat(snapshot(isbnIndex, availabilityIndex, changes())
+				.write()).isTrue();
+
+		Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(14l);
+		Mockito.when(bookRepository.findChanged(Mockito.eq(10l), Mockito.eq(14l), ArgumentMatchers.any()))
+			   .thenReturn(Arrays.asList(
+					   Book.builder().id(5l).isbnNumber(9781861972712l).changeSeq(11l).build(),
+					   Book.builder().id(2l).deletedAt(Instant.now()).changeSeq(14l).build()));
+		Mockito.when(loanRepository.findChanged(Mockito.eq(10l), Mockito.eq(14l), ArgumentMatchers.any()))
+			   .thenReturn(Arrays.asList(
+					   Loan.builder().book(Book.builder().id(1l).build()).returned(true).changeSeq(12l).build(),
+					   Loan.builder().book(Book.builder().id(3l).build()).returned(false).changeSeq(13l).build()));
+		IsbnIndex restoredIsbns = isbnIndex();
+		AvailabilityIndex restoredAvailability = new AvailabilityIndex(loanRepository);
+
+		// execucao
+		snapshot(restoredIsbns, restoredAvailability, changes()).restore();
+		restoredIsbns.warmUp();
+		restoredAvailability.warmUp();
+
+		// verificacao
+		assertThat(restoredIsbns.mightContain(9780306406157l)).isTrue();
+		assertThat(restoredIsbns.mightContain(9781861972712l)).isTrue();
+		assertThat(restoredAvailability.isAvailable(1l)).isTrue();
+		assertThat(restoredAvailability.isAvailable(2l)).isTrue();
+		assertThat(restoredAvailability.isAvailable(3l)).isFalse();
+		assertThat(restoredAvailability.isAvailable(70000l)).isFalse();
+		Mockito.verify(bookRepository, Mockito.times(1)).streamAllIsbnNumbers();
+		Mockito.verify(loanRepository, Mockito.times(1)).streamLoanedBookIds();
+	}
+
+	@Test
+	@DisplayName("Deve ignorar um snapshot a frente do banco e reconstruir os indices")
+	public void snapshotAheadOfDatabaseTest() throws IOException {
+
+		// cenario
+		Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(10l);
+		Mockito.when(loanRepository.streamLoanedBookIds()).thenReturn(Stream.of(1l));
+		IsbnIndex isbnIndex = isbnIndex();
+		AvailabilityIndex availabilityIndex = new AvailabilityIndex(loanRepository);
+		isbnIndex.restore(new IsbnBloomFilter(1000, 0.01), filter -> {
+		});
+		availabilityIndex.rebuild();
+		snapshot(isbnIndex, availabilityIndex, changes()).write();
+
+		Mockito.when(bookRepository.findMaxChangeSeq()).thenReturn(0l);
+		AvailabilityIndex restoredAvailability = new AvailabilityIndex(loanRepository);
+
+		// execucao
+		snapshot(isbnIndex(), restoredAvailability, changes()).restore();
+
+		// verificacao
+		assertThat(restoredAvailability.isReady()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve ignorar um snapshot corrompido")
+	public void corruptedSnapshotTest() throws IOException {
+
+		// cenario
+		Mockito.when(loanRepository.streamLoanedBookIds()).thenReturn(Stream.of(1l));
+		IsbnIndex isbnIndex = isbnIndex();
+		AvailabilityIndex availabilityIndex = new AvailabilityIndex(loanRepository);
+		isbnIndex.restore(new IsbnBloomFilter(1000, 0.01), filter -> {
+		});
+		availabilityIndex.rebuild();
+		ChangeSequence changes = changes();
+		snapshot(isbnIndex, availabilityIndex, changes).write();
+		byte[] contents = Files.readAllBytes(file);
+		contents[contents.length - 1] ^= 1;
+		Files.write(file, contents);
+		IsbnIndex restoredIsbns = isbnIndex();
+
+		// execucao
+		snapshot(restoredIsbns, new AvailabilityIndex(loanRepository), changes).restore();
+
+		// verificacao
+		assertThat(restoredIsbns.isReady()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Nao deve gravar o snapshot antes de os indices estarem carregados")
+	public void notReadyTest() throws IOException {
+
+		// execucao
+		boolean written = snapshot(isbnIndex(), new AvailabilityIndex(loanRepository),
+				changes()).write();
+
+		// verificacao
+		assertThat(written).isFalse();
+		assertThat(file).doesNotExist();
+	}
+
+	private ChangeSequence changes() {
+		return ChangeSequenceTest.createChangeSequence(bookRepository, loanRepository);
+	}
+
+	private IsbnIndex isbnIndex() {
+		return new IsbnIndex(bookRepository, 1000, 0.01);
+	}
+
+	private IndexSnapshot snapshot(IsbnIndex isbnIndex, AvailabilityIndex availabilityIndex, ChangeSequence changes) {
+		return new IndexSnapshot(file, isbnIndex, availabilityIndex, bookRepository, loanRepository, changes);
+	}
+
+}
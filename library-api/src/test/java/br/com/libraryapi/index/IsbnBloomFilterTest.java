@@ -0,0 +1,66 @@
+package br.com.libraryapi.index;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IsbnBloomFilterTest {
+
+	private static final long FIRST_ISBN = 9780000000000L;
+
+	@Test
+	@DisplayName("Deve encontrar todos os ISBNs inseridos")
+	public void noFalseNegativesTest() {
+
+		// cenario
+		IsbnBloomFilter filter = new IsbnBloomFilter(10_000, 0.01);
+
+		// execucao
+		for (long i = 0; i < 10_000; i++) {
+			filter.put(FIRST_ISBN + i * 7);
+		}
+
+		// verificacao
+		for (long i = 0; i < 10_000; i++) {
+			assertThat(filter.mightContain(FIRST_ISBN + i * 7)).isTrue();
+		}
+		assertThat(filter.insertions()).isEqualTo(10_000);
+	}
+
+	@Test
+	@DisplayName("Deve manter a taxa de falsos positivos proxima da configurada")
+	public void falsePositiveRateTest() {
+
+		// cenario
+		IsbnBloomFilter filter = new IsbnBloomFilter(10_000, 0.01);
+		for (long i = 0; i < 10_000; i++) {
+			filter.put(FIRST_ISBN + i * 7);
+		}
+
+		// execucao
+		int falsePositives = 0;
+		for (long i = 0; i < 100_000; i++) {
+			if (filter.mightContain(FIRST_ISBN + i * 7 + 3)) {
+				falsePositives++;
+			}
+		}
+
+		// verificacao
+		assertThat(falsePositives / 100_000d).isLessThan(0.02);
+	}
+
+	@Test
+	@DisplayName("Deve ocupar cerca de 1,2 MB por milhao de ISBNs com 1% de falsos positivos")
+	public void memoryPerMillionTest() {
+
+		// execucao
+		IsbnBloomFilter filter = new IsbnBloomFilter(1_000_000, 0.01);
+
+		// verificacao
+		assertThat(filter.memoryBytes()).isBetween(1_190_000L, 1_210_000L);
+		assertThat(filter.hashFunctions()).isEqualTo(7);
+		assertThat(filter.mightContain(FIRST_ISBN)).isFalse();
+	}
+
+}
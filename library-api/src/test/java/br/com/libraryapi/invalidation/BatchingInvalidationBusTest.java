@@ -0,0 +1,132 @@
+package br.com.libraryapi.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Instant;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mockito;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.libraryapi.event.LoanEvent;
+
+public class BatchingInvalidationBusTest {
+
+	private InProcessInvalidationTransport.Hub hub;
+	private ApplicationEventPublisher firstEvents;
+	private ApplicationEventPublisher secondEvents;
+
+	@BeforeEach
+	public void setUp() {
+		hub = new InProcessInvalidationTransport.Hub();
+		firstEvents = Mockito.mock(ApplicationEventPublisher.class);
+		secondEvents = Mockito.mock(ApplicationEventPublisher.class);
+	}
+
+	@Test
+	@DisplayName("Deve juntar as invalidacoes repetidas num lote entregue apenas as outras instancias")
+	public void coalesceTest() {
+
+		// cenario
+		BatchingInvalidationBus first = bus("first", firstEvents, 100);
+		bus("second", secondEvents, 100);
+		first.publish(Invalidation.book(1));
+		first.publish(Invalidation.book(2));
+		first.publish(Invalidation.book(1));
+		first.onLoanEvent(new LoanEvent(LoanEvent.Type.LOANED, 10l, 1l, Instant.now()));
+		first.onLoanEvent(new LoanEvent(LoanEvent.Type.RETURNED, 10l, 1l, Instant.now()));
+
+		// execucao
+		first.flush();
+		first.flush();
+
+		// verificacao
+		List<InvalidationBatch> received = received(secondEvents);
+		assertThat(received).hasSize(1);
+		assertThat(received.get(0).getNode()).isEqualTo("first");
+		assertThat(received.get(0).getInvalidations()).containsExactly(Invalidation.book(1), Invalidation.book(2),
+				Invalidation.availability(1));
+		Mockito.verifyNoInteractions(firstEvents);
+	}
+
+	@Test
+	@DisplayName("Deve dividir as invalidacoes pendentes em lotes do tamanho maximo")
+	public void maxBatchSizeTest() {
+
+		// cenario
+		BatchingInvalidationBus first = bus("first", firstEvents, 2);
+		bus("second", secondEvents, 2);
+		for (long id = 1; id <= 5; id++) {
+			first.publish(Invalidation.book(id));
+		}
+
+		// execucao
+		first.flush();
+
+		// verificacao
+		assertThat(received(secondEvents)).extracting(batch -> batch.getInvalidations().size())
+										  .containsExactly(2, 2, 1);
+	}
+
+	@Test
+	@DisplayName("Deve enfileirar a invalidacao apenas apos o commit da transacao")
+	public void publishAfterCommitTest() {
+
+		// cenario
+		BatchingInvalidationBus first = bus("first", firstEvents, 100);
+		TransactionSynchronizationManager.initSynchronization();
+		try {
+
+			// execucao
+			first.publish(Invalidation.book(1));
+			int beforeCommit = first.pendingCount();
+			TransactionSynchronizationUtils.triggerAfterCommit();
+
+			// verificacao
+			assertThat(beforeCommit).isZero();
+			assertThat(first.pendingCount()).isEqualTo(1);
+		} finally {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	@DisplayName("Deve manter as invalidacoes pendentes quando o envio falhar")
+	public void retryFailedSendTest() {
+
+		// cenario
+		InvalidationTransport transport = Mockito.mock(InvalidationTransport.class);
+		Mockito.doThrow(new IllegalStateException("indisponivel"))
+			   .doNothing()
+			   .when(transport).send(Mockito.any(InvalidationBatch.class));
+		BatchingInvalidationBus bus = new BatchingInvalidationBus("first", transport, firstEvents, 100);
+		bus.publish(Invalidation.book(1));
+
+		// execucao
+		bus.flush();
+		int afterFailure = bus.pendingCount();
+		bus.flush();
+
+		// verificacao
+		assertThat(afterFailure).isEqualTo(1);
+		assertThat(bus.pendingCount()).isZero();
+		Mockito.verify(transport, Mockito.times(2)).send(Mockito.any(InvalidationBatch.class));
+	}
+
+	private BatchingInvalidationBus bus(String node, ApplicationEventPublisher events, int maxBatchSize) {
+		return new BatchingInvalidationBus(node, new InProcessInvalidationTransport(hub), events, maxBatchSize);
+	}
+
+	private static List<InvalidationBatch> received(ApplicationEventPublisher events) {
+		ArgumentCaptor<InvalidationBatch> batches = ArgumentCaptor.forClass(InvalidationBatch.class);
+		Mockito.verify(events, Mockito.atLeast(0)).publishEvent(batches.capture());
+		return batches.getAllValues();
+	}
+
+}
@@ -0,0 +1,119 @@
+package br.com.libraryapi.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+
+import br.com.libraryapi.LibraryApiApplication;
+import br.com.libraryapi.index.AvailabilityIndex;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.BookService;
+import br.com.libraryapi.service.LoanService;
+
+/**
+ * Duas instancias da aplicacao na mesma JVM, com o mesmo banco H2 e o
+ * transporte jdbc.
+ */
+public class InvalidationBusClusterTest {
+
+	private static final String DATABASE = "jdbc:h2:mem:invalidation-cluster;DB_CLOSE_DELAY=-1";
+
+	private ConfigurableApplicationContext first;
+	private ConfigurableApplicationContext second;
+
+	@BeforeEach
+	public void setUp() {
+		first = node("first", "create-drop");
+		second = node("second", "none");
+	}
+
+	@AfterEach
+	public void tearDown() {
+		second.close();
+		first.close();
+	}
+
+	@Test
+	@DisplayName("Deve invalidar a busca em cache de outra instancia ao alterar um livro")
+	public void searchCacheTest() throws InterruptedException {
+
+		// cenario
+		BookService firstBooks = first.getBean(BookService.class);
+		BookService secondBooks = second.getBean(BookService.class);
+		Book book = firstBooks.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		Book filter = Book.builder().author("Autor").build();
+		assertThat(secondBooks.find(filter, PageRequest.of(0, 10)).getContent()).extracting(Book::getTitle)
+																				  .containsExactly("Titulo");
+
+		// execucao
+		firstBooks.updateTitleAuthor(book.getId(), "Novo titulo", "Autor", null);
+
+		// verificacao
+		awaitUntil(() -> secondBooks.find(filter, PageRequest.of(0, 10)).getContent().get(0).getTitle()
+								   .equals("Novo titulo"));
+	}
+
+	@Test
+	@DisplayName("Deve encontrar pelo ISBN um livro cadastrado em outra instancia")
+	public void isbnIndexTest() throws InterruptedException {
+
+		// cenario
+		BookService secondBooks = second.getBean(BookService.class);
+		assertThat(secondBooks.getBookByIsbn("9781861972712")).isEmpty();
+
+		// execucao
+		first.getBean(BookService.class)
+			 .save(Book.builder().title("Titulo").author("Autor").isbn("9781861972712").build());
+
+		// verificacao
+		awaitUntil(() -> secondBooks.getBookByIsbn("9781861972712").isPresent());
+	}
+
+	@Test
+	@DisplayName("Deve atualizar a disponibilidade em outra instancia ao emprestar um livro")
+	public void availabilityTest() throws InterruptedException {
+
+		// cenario
+		Book book = first.getBean(BookService.class)
+						 .save(Book.builder().title("Titulo").author("Autor").isbn("9780131103627").build());
+		AvailabilityIndex secondAvailability = second.getBean(AvailabilityIndex.class);
+		assertThat(secondAvailability.isAvailable(book.getId())).isTrue();
+
+		// execucao
+		first.getBean(LoanService.class).save(Loan.builder().book(book).customer("Fulano").build());
+
+		// verificacao
+		awaitUntil(() -> !secondAvailability.isAvailable(book.getId()));
+	}
+
+	private static ConfigurableApplicationContext node(String name, String ddlAuto) {
+		return new SpringApplicationBuilder(LibraryApiApplication.class)
+				.profiles("test")
+				.run("--server.port=0",
+					 "--spring.datasource.url=" + DATABASE,
+					 "--spring.jpa.hibernate.ddl-auto=" + ddlAuto,
+					 "--application.invalidation-bus.transport=jdbc",
+					 "--application.invalidation-bus.node=" + name,
+					 "--application.invalidation-bus.flush-interval=PT0.05S",
+					 "--application.invalidation-bus.poll-interval=PT0.05S");
+	}
+
+	private static void awaitUntil(BooleanSupplier condition) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (!condition.getAsBoolean() && System.nanoTime() < deadline) {
+			Thread.sleep(20);
+		}
+		assertThat(condition.getAsBoolean()).isTrue();
+	}
+
+}
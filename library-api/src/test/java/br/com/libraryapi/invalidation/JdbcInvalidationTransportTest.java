@@ -0,0 +1,118 @@
+package br.com.libraryapi.invalidation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.repository.InvalidationRecordRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JdbcInvalidationTransportTest {
+
+	@Autowired
+	private InvalidationRecordRepository repository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private JdbcInvalidationTransport transport;
+	private List<InvalidationBatch> received;
+
+	@BeforeEach
+	public void setUp() {
+		transport = new JdbcInvalidationTransport(repository, Duration.ofMinutes(10), Clock.systemUTC());
+		received = new ArrayList<>();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		repository.deleteAllInBatch();
+	}
+
+	@Test
+	@DisplayName("Deve entregar os lotes gravados depois do inicio, na ordem")
+	public void sendAndPollTest() {
+
+		// cenario
+		transport.send(new InvalidationBatch("antes", Arrays.asList(Invalidation.book(9))));
+		transport.start(received::add);
+		transport.send(new InvalidationBatch("first", Arrays.asList(Invalidation.book(1),
+				Invalidation.availability(1))));
+		transport.send(new InvalidationBatch("second", Arrays.asList(Invalidation.book(2))));
+
+		// execucao
+		transport.poll();
+		transport.poll();
+
+		// verificacao
+		assertThat(received).extracting(InvalidationBatch::getNode).containsExactly("first", "second");
+		assertThat(received.get(0).getInvalidations()).containsExactly(Invalidation.book(1),
+				Invalidation.availability(1));
+	}
+
+	@Test
+	@DisplayName("Deve entregar um lote confirmado depois de outro com id maior")
+	public void lateCommitTest() {
+
+		// cenario
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		transport.start(received::add);
+		long base = repository.findMaxId();
+		insert(jdbcTemplate, base + 2, "second", "0:2");
+		transport.poll();
+		insert(jdbcTemplate, base + 1, "first", "0:1");
+
+		// execucao
+		transport.poll();
+		transport.poll();
+
+		// verificacao
+		assertThat(received).extracting(InvalidationBatch::getNode).containsExactly("second", "first");
+	}
+
+	@Test
+	@DisplayName("Deve remover os lotes mais antigos que a retencao")
+	public void purgeTest() {
+
+		// cenario
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		insert(jdbcTemplate, repository.findMaxId() + 1, "first", "0:1");
+		transport.send(new InvalidationBatch("second", Arrays.asList(Invalidation.book(2))));
+
+		// execucao
+		transport.purge();
+
+		// verificacao
+		assertThat(repository.findAll()).extracting(record -> record.getNode()).containsExactly("second");
+	}
+
+	private static void insert(JdbcTemplate jdbcTemplate, long id, String node, String payload) {
+		jdbcTemplate.update("insert into cache_invalidation (id, node, payload, created_at) values (?, ?, ?, ?)",
+				id, node, payload, Timestamp.from(Instant.now().minus(Duration.ofHours(1))));
+	}
+
+}
@@ -0,0 +1,147 @@
+package br.com.libraryapi.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class LoanProjectionTest {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Autowired
+	private ChangeWatermarkRepository changeWatermarkRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@TempDir
+	Path directory;
+
+	@AfterEach
+	public void tearDown() {
+		loanRepository.deleteAllInBatch();
+		bookRepository.deleteAllInBatch();
+		changeWatermarkRepository.deleteAllInBatch();
+	}
+
+	@Test
+	@DisplayName("Deve reconstruir a tabela de emprestimos a partir do diario, com novas sequencias de alteracao")
+	public void rebuildTest() throws IOException {
+
+		// cenario
+		Book book = bookRepository.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		Book other = bookRepository.save(Book.builder().title("Titulo").author("Autor").isbn("9781861972712").build());
+		new JdbcTemplate(dataSource).update("insert into loan (id, id_book, customer) values (1001, ?, 'Fulano')",
+				book.getId());
+
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, 4096)) {
+			Loan open = loan(1001, book);
+			Loan returned = loan(1002, other);
+			journal.append(LoanJournalEntry.created(open));
+			journal.append(LoanJournalEntry.created(returned));
+			journal.append(LoanJournalEntry.created(loan(1003, Book.builder().id(-5l).build())));
+			open.setDueDate(open.getDueDate().plusDays(7));
+			open.setRenewals(1);
+			journal.append(LoanJournalEntry.renewed(open));
+			journal.append(LoanJournalEntry.returned(1002, other.getId()));
+			journal.append(LoanJournalEntry.overdueNotified(open));
+			journal.append(LoanJournalEntry.returned(1001, book.getId()));
+			journal.append(LoanJournalEntry.rolledBack(journal.getLastSequence(), 1001));
+			ChangeSequence changes = new ChangeSequence(bookRepository, loanRepository, changeWatermarkRepository,
+					"node", Duration.ofMinutes(1), Clock.systemUTC());
+			LoanProjection projection = new LoanProjection(journal, dataSource, transactionManager, changes, false);
+
+			// execucao
+			long entries = projection.rebuild();
+
+			// verificacao
+			assertThat(entries).isEqualTo(6);
+		}
+		assertThat(loanRepository.findAll()).extracting(Loan::getId).containsExactlyInAnyOrder(1001l, 1002l);
+		Loan open = loanRepository.findById(1001l).get();
+		assertThat(open.getCustomer()).isEqualTo("Fulano");
+		assertThat(open.getDueDate()).isEqualTo(LocalDate.of(2021, 3, 22));
+		assertThat(open.getRenewals()).isEqualTo(1);
+		assertThat(open.getReturned()).isFalse();
+		assertThat(loanRepository.findById(1002l).get().getReturned()).isTrue();
+		assertThat(loanRepository.findAll()).extracting(Loan::getChangeSeq)
+											 .doesNotContainNull()
+											 .doesNotHaveDuplicates();
+	}
+
+	@Test
+	@DisplayName("Deve recusar a reconstrucao quando a tabela tiver emprestimos fora do diario")
+	public void rebuildWithLoansOutsideJournalTest() throws IOException {
+
+		// cenario: emprestimo gravado antes de o diario ser ligado
+		Book book = bookRepository.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		Loan legacy = loanRepository.save(Loan.builder().book(book).customer("Sem historico").returned(false).build());
+
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, 4096)) {
+			journal.append(LoanJournalEntry.created(loan(1001, book)));
+			ChangeSequence changes = new ChangeSequence(bookRepository, loanRepository, changeWatermarkRepository,
+					"node", Duration.ofMinutes(1), Clock.systemUTC());
+			LoanProjection projection = new LoanProjection(journal, dataSource, transactionManager, changes, false);
+
+			// execucao
+			Throwable exception = catchThrowable(projection::rebuild);
+
+			// verificacao
+			assertThat(exception).isInstanceOf(IllegalStateException.class)
+								 .hasMessageContaining("1 loans are not in the journal");
+		}
+		assertThat(loanRepository.findAll()).extracting(Loan::getId).containsExactly(legacy.getId());
+	}
+
+	private static Loan loan(long id, Book book) {
+		return Loan.builder()
+				   .id(id)
+				   .book(book)
+				   .customer("Fulano")
+				   .email("fulano@email.com")
+				   .loanDate(LocalDate.of(2021, 3, 1))
+				   .dueDate(LocalDate.of(2021, 3, 15))
+				   .renewals(0)
+				   .build();
+	}
+
+}
@@ -0,0 +1,206 @@
+package br.com.libraryapi.journal;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+
+public class MappedLoanJournalTest {
+
+	private static final int SEGMENT_SIZE = 512;
+
+	@TempDir
+	Path directory;
+
+	@Test
+	@DisplayName("Deve gravar e reler as entradas em ordem, em varios segmentos")
+	public void appendAndReplayTest() throws IOException {
+
+		// cenario
+		List<LoanJournalEntry> replayed = new ArrayList<>();
+		List<LoanJournalEntry> fromFive = new ArrayList<>();
+
+		// execucao
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, SEGMENT_SIZE)) {
+			for (long id = 1; id <= 10; id++) {
+				journal.append(LoanJournalEntry.created(loan(id)));
+			}
+			journal.append(LoanJournalEntry.returned(3, null));
+			journal.replay(1, replayed::add);
+			journal.replay(5, fromFive::add);
+
+			// verificacao
+			assertThat(journal.getSegmentCount()).isGreaterThan(1);
+			assertThat(journal.getLastSequence()).isEqualTo(11);
+		}
+		assertThat(replayed).extracting(LoanJournalEntry::getSequence).containsExactly(1l, 2l, 3l, 4l, 5l, 6l, 7l,
+				8l, 9l, 10l, 11l);
+		assertThat(fromFive).extracting(LoanJournalEntry::getSequence).startsWith(5l).hasSize(7);
+		LoanJournalEntry created = replayed.get(1);
+		assertThat(created.getType()).isEqualTo(LoanJournalEntry.Type.CREATED);
+		assertThat(created.getLoanId()).isEqualTo(2);
+		assertThat(created.getBookId()).isEqualTo(20);
+		assertThat(created.getCustomer()).isEqualTo("Fulano");
+		assertThat(created.getEmail()).isEqualTo("fulano@email.com");
+		assertThat(created.getDueDate()).isEqualTo(LocalDate.of(2021, 3, 15));
+		assertThat(created.getRenewals()).isZero();
+		LoanJournalEntry returned = replayed.get(10);
+		assertThat(returned.getType()).isEqualTo(LoanJournalEntry.Type.RETURNED);
+		assertThat(returned.getBookId()).isNull();
+		assertThat(returned.getCustomer()).isNull();
+	}
+
+	@Test
+	@DisplayName("Deve continuar a sequencia ao reabrir e ignorar um registro incompleto no final")
+	public void reopenAfterTornWriteTest() throws IOException {
+
+		// cenario
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, SEGMENT_SIZE)) {
+			journal.append(LoanJournalEntry.created(loan(1)));
+			journal.append(LoanJournalEntry.created(loan(2)));
+		}
+		Path segment;
+		try (Stream<Path> files = Files.list(directory)) {
+			segment = files.sorted().collect(Collectors.toList()).get(0);
+		}
+		int end = 2 * (JournalSegment.HEADER_SIZE + MappedLoanJournal.encode(1, LoanJournalEntry.created(loan(1))).length);
+		try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+			ByteBuffer torn = ByteBuffer.allocate(12).putInt(40).putInt(123).putInt(7);
+			torn.flip();
+			channel.write(torn, end);
+		}
+		List<LoanJournalEntry> replayed = new ArrayList<>();
+
+		// execucao
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, SEGMENT_SIZE)) {
+			journal.append(LoanJournalEntry.returned(2, 20l));
+			journal.replay(1, replayed::add);
+		}
+
+		// verificacao
+		assertThat(replayed).extracting(LoanJournalEntry::getSequence).containsExactly(1l, 2l, 3l);
+		assertThat(replayed.get(2).getType()).isEqualTo(LoanJournalEntry.Type.RETURNED);
+	}
+
+	@Test
+	@DisplayName("Deve agrupar as escritas concorrentes em menos force() do que entradas")
+	public void groupCommitTest() throws Exception {
+
+		// cenario
+		int threads = 8;
+		int perThread = 200;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, 1024 * 1024)) {
+
+			// execucao
+			List<Future<?>> futures = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				futures.add(executor.submit(() -> {
+					for (int i = 0; i < perThread; i++) {
+						journal.append(LoanJournalEntry.returned(i, 1l));
+					}
+				}));
+			}
+			for (Future<?> future : futures) {
+				future.get();
+			}
+			executor.shutdown();
+			List<Long> sequences = new ArrayList<>();
+			journal.replay(1, entry -> sequences.add(entry.getSequence()));
+
+			// verificacao
+			assertThat(sequences).hasSize(threads * perThread).doesNotHaveDuplicates().isSorted();
+			assertThat(journal.getForceCount()).isLessThan(threads * perThread);
+		}
+	}
+
+	@Test
+	@DisplayName("Deve gravar a entrada apenas antes do commit quando houver transacao")
+	public void appendBeforeCommitTest() throws IOException {
+
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, SEGMENT_SIZE)) {
+
+			// cenario
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+
+				// execucao
+				journal.append(LoanJournalEntry.created(loan(1)));
+				long beforeCommit = journal.getLastSequence();
+				TransactionSynchronizationUtils.triggerBeforeCommit(false);
+
+				// verificacao
+				assertThat(beforeCommit).isZero();
+				assertThat(journal.getLastSequence()).isEqualTo(1);
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+		}
+	}
+
+	@Test
+	@DisplayName("Deve gravar uma entrada de compensacao quando o commit falhar depois da escrita")
+	public void rollbackAfterWriteTest() throws IOException {
+
+		// cenario
+		List<LoanJournalEntry> replayed = new ArrayList<>();
+
+		try (MappedLoanJournal journal = new MappedLoanJournal(directory, SEGMENT_SIZE)) {
+			TransactionSynchronizationManager.initSynchronization();
+			try {
+
+				// execucao
+				journal.append(LoanJournalEntry.created(loan(1)));
+				TransactionSynchronizationUtils.triggerBeforeCommit(false);
+				TransactionSynchronizationUtils.invokeAfterCompletion(
+						TransactionSynchronizationManager.getSynchronizations(),
+						TransactionSynchronization.STATUS_ROLLED_BACK);
+			} finally {
+				TransactionSynchronizationManager.clearSynchronization();
+			}
+			journal.replay(1, replayed::add);
+		}
+
+		// verificacao
+		assertThat(replayed).extracting(LoanJournalEntry::getType)
+							.containsExactly(LoanJournalEntry.Type.CREATED, LoanJournalEntry.Type.ROLLED_BACK);
+		assertThat(replayed.get(1).getRolledBackSequence()).isEqualTo(1);
+		assertThat(replayed.get(1).getLoanId()).isEqualTo(1);
+	}
+
+	private static Loan loan(long id) {
+		return Loan.builder()
+				   .id(id)
+				   .book(Book.builder().id(id * 10).build())
+				   .customer("Fulano")
+				   .email("fulano@email.com")
+				   .loanDate(LocalDate.of(2021, 3, 1))
+				   .dueDate(LocalDate.of(2021, 3, 15))
+				   .renewals(0)
+				   .build();
+	}
+
+}
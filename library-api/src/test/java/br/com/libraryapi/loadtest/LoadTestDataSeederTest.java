@@ -0,0 +1,95 @@
+package br.com.libraryapi.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.model.Isbn;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+public class LoadTestDataSeederTest {
+
+	private static final int BOOKS = 200;
+	private static final int LOANS_PER_BOOK = 5;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Autowired
+	private ChangeWatermarkRepository changeWatermarkRepository;
+
+	@Test
+	@DisplayName("Deve popular o catalogo sintetico com livros buscaveis pelo ISBN e o historico de emprestimos")
+	public void seedTest() {
+
+		// cenario
+		SyntheticCatalog catalog = new SyntheticCatalog(BOOKS, 42);
+		LoadTestDataSeeder seeder = new LoadTestDataSeeder(entityManager.getEntityManager(), transactionManager,
+				changes(), BOOKS, LOANS_PER_BOOK, 0.1, 42);
+
+		// execucao
+		seeder.run(null);
+
+		// verificacao
+		assertThat(bookRepository.count()).isEqualTo(BOOKS);
+		assertThat(loanRepository.count()).isEqualTo(BOOKS * LOANS_PER_BOOK);
+		assertThat(bookRepository.findByIsbnNumber(Isbn.toNumber(catalog.isbn(123)).getAsLong()))
+			.hasValueSatisfying(book -> assertThat(book.getTitle()).isEqualTo(catalog.title(123)));
+		assertThat(entityManager.getEntityManager()
+				.createQuery("select count(distinct l.changeSeq) from Loan l", Long.class)
+				.getSingleResult()).isEqualTo(BOOKS * LOANS_PER_BOOK);
+	}
+
+	@Test
+	@DisplayName("Deve deixar no maximo um emprestimo aberto por livro, parte deles atrasada")
+	public void openLoansTest() {
+
+		// cenario
+		LoadTestDataSeeder seeder = new LoadTestDataSeeder(entityManager.getEntityManager(), transactionManager,
+				changes(), BOOKS, LOANS_PER_BOOK, 0.1, 42);
+
+		// execucao
+		seeder.run(null);
+
+		// verificacao
+		List<Long> openByBook = entityManager.getEntityManager()
+				.createQuery("select count(l) from Loan l where l.returned = false group by l.book", Long.class)
+				.getResultList();
+		assertThat(openByBook).isNotEmpty().allMatch(count -> count == 1);
+		assertThat(loanRepository.findByDueDateUpToAndNotReturned(LocalDate.now().minusDays(1))).isNotEmpty();
+	}
+
+	private ChangeSequence changes() {
+		return new ChangeSequence(bookRepository, loanRepository, changeWatermarkRepository, "node",
+				Duration.ofMinutes(1), Clock.systemUTC());
+	}
+
+}
@@ -0,0 +1,68 @@
+package br.com.libraryapi.loadtest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Random;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import br.com.libraryapi.model.Isbn;
+
+public class SyntheticCatalogTest {
+
+	@Test
+	@DisplayName("Deve gerar ISBNs validos e distintos para cada indice")
+	public void validIsbnTest() {
+
+		// cenario
+		SyntheticCatalog catalog = new SyntheticCatalog(5_000, 42);
+
+		// execucao
+		long distinct = IntStream.range(0, catalog.books()).mapToObj(catalog::isbn).distinct().count();
+
+		// verificacao
+		assertThat(distinct).isEqualTo(catalog.books());
+		assertThat(IntStream.range(0, catalog.books()).mapToObj(catalog::isbn)).allMatch(Isbn::isValid);
+	}
+
+	@Test
+	@DisplayName("Deve gerar sempre o mesmo livro para o mesmo indice e semente")
+	public void deterministicTest() {
+
+		// cenario
+		SyntheticCatalog catalog = new SyntheticCatalog(1_000, 42);
+		SyntheticCatalog sameSeed = new SyntheticCatalog(1_000, 42);
+
+		// verificacao
+		for (int i = 0; i < 1_000; i++) {
+			assertThat(catalog.title(i)).isEqualTo(sameSeed.title(i));
+			assertThat(catalog.author(i)).isEqualTo(sameSeed.author(i));
+			assertThat(catalog.category(i)).isEqualTo(sameSeed.category(i));
+		}
+	}
+
+	@Test
+	@DisplayName("Deve concentrar a procura nos livros mais populares")
+	public void popularityIsSkewedTest() {
+
+		// cenario
+		SyntheticCatalog catalog = new SyntheticCatalog(10_000, 42);
+		Random random = new Random(1);
+
+		// execucao
+		int[] hits = new int[catalog.books()];
+		for (int i = 0; i < 100_000; i++) {
+			hits[catalog.popularBook(random)]++;
+		}
+
+		// verificacao
+		int top100 = IntStream.of(hits).limit(100).sum();
+		int bottomHalf = IntStream.of(hits).skip(catalog.books() / 2).sum();
+		assertThat(hits[0]).isGreaterThan(hits[9]).isGreaterThan(hits[99]);
+		assertThat(top100).isGreaterThan(45_000);
+		assertThat(bottomHalf).isLessThan(10_000);
+	}
+
+}
@@ -0,0 +1,44 @@
+package br.com.libraryapi.model;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class IsbnTest {
+
+	@Test
+	@DisplayName("Deve normalizar ISBN-10 e ISBN-13 com ou sem hifens para o mesmo numero")
+	public void normalizeToIsbn13Test() {
+
+		// verificacao
+		assertThat(Isbn.toNumber("0-306-40615-2")).hasValue(9780306406157L);
+		assertThat(Isbn.toNumber("0306406152")).hasValue(9780306406157L);
+		assertThat(Isbn.toNumber("978-0-306-40615-7")).hasValue(9780306406157L);
+		assertThat(Isbn.toNumber("9780306406157")).hasValue(9780306406157L);
+		assertThat(Isbn.toNumber("080442957X")).hasValue(9780804429573L);
+	}
+
+	@Test
+	@DisplayName("Deve retornar vazio para valores que nao tem formato de ISBN")
+	public void notAnIsbnTest() {
+
+		// verificacao
+		assertThat(Isbn.toNumber(null)).isEmpty();
+		assertThat(Isbn.toNumber("123")).isEmpty();
+		assertThat(Isbn.toNumber("97803064061AB")).isEmpty();
+	}
+
+	@Test
+	@DisplayName("Deve rejeitar ISBNs com digito verificador ou prefixo invalidos")
+	public void invalidIsbnTest() {
+
+		// verificacao
+		assertThat(Isbn.toNumber("978-0-306-40615-8")).isEmpty();
+		assertThat(Isbn.toNumber("0-306-40615-3")).isEmpty();
+		assertThat(Isbn.toNumber("03064061X2")).isEmpty();
+		assertThat(Isbn.toNumber("9790260000438")).isEmpty();
+		assertThat(Isbn.isValid("979-10-90636-07-1")).isTrue();
+	}
+
+}
@@ -1,19 +1,27 @@
 package br.com.libraryapi.model.repository;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
 import java.util.Optional;
 
+import javax.persistence.PersistenceException;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -30,17 +38,98 @@ public class BookRepositoryTest {
 	@DisplayName("Deve retornar verdadeiro quando existir um livro na base com o ISBN informado")
 	public void returnTrueWhenIsnExists() {
 		//cenario
-		String isbn = "123";
+		String isbn = "978-0-306-40615-7";
 		Book book = createNewBook(isbn);
 		entityManager.persist(book);
 		
 		//execucao
-		boolean exists = repository.existsByIsbn(isbn);
+		boolean exists = repository.existsByIsbnNumber(9780306406157l);
 		
 		//verificacao
 		assertThat(exists).isTrue();
 	}
 
+	@Test
+	@DisplayName("Deve atualizar titulo, autor e categoria sem carregar o livro")
+	public void updateTitleAuthorTest() {
+		
+		// cenario
+		Book book = createNewBook("9780306406157");
+		entityManager.persist(book);
+		entityManager.flush();
+		entityManager.clear();
+		
+		// execucao
+		int updated = repository.updateTitleAuthor(book.getId(), "Outro titulo", "Outro autor", "Romance", 7l);
+		int inexistent = repository.updateTitleAuthor(book.getId() + 1, "Outro titulo", "Outro autor", "Romance", 8l);
+		
+		// verificacao
+		assertThat(updated).isEqualTo(1);
+		assertThat(inexistent).isZero();
+		Book found = entityManager.find(Book.class, book.getId());
+		assertThat(found.getTitle()).isEqualTo("Outro titulo");
+		assertThat(found.getAuthor()).isEqualTo("Outro autor");
+		assertThat(found.getCategory()).isEqualTo("Romance");
+		assertThat(found.getIsbn()).isEqualTo("9780306406157");
+		assertThat(found.getChangeSeq()).isEqualTo(7l);
+	}
+	
+	@Test
+	@DisplayName("Deve obter o livro de um emprestimo pelo id do emprestimo")
+	public void findByLoanIdForUpdateTest() {
+		
+		// cenario
+		Book book = createNewBook("9780306406157");
+		entityManager.persist(book);
+		Loan loan = Loan.builder().book(book).customer("Fulano").loanDate(LocalDate.now()).build();
+		entityManager.persist(loan);
+		entityManager.flush();
+		entityManager.clear();
+		
+		// execucao
+		Optional<Book> found = repository.findByLoanIdForUpdate(loan.getId());
+		Optional<Book> inexistent = repository.findByLoanIdForUpdate(loan.getId() + 1);
+		
+		// verificacao
+		assertThat(found).map(Book::getId).hasValue(book.getId());
+		assertThat(inexistent).isEmpty();
+	}
+	
+	@Test
+	@DisplayName("Deve esconder o livro excluido de todas as consultas e liberar o ISBN")
+	public void softDeleteTest() {
+		
+		// cenario
+		Book book = createNewBook("9780306406157");
+		entityManager.persist(book);
+		entityManager.flush();
+		entityManager.clear();
+		
+		// execucao
+		Instant deletedAt = Instant.now();
+		int deleted = repository.softDelete(book.getId(), deletedAt, 5l);
+		int deletedAgain = repository.softDelete(book.getId(), Instant.now(), 6l);
+		
+		// verificacao
+		assertThat(deleted).isEqualTo(1);
+		assertThat(deletedAgain).isZero();
+		assertThat(repository.findById(book.getId())).isEmpty();
+		assertThat(repository.existsByIsbnNumber(9780306406157l)).isFalse();
+		assertThat(repository.findAll()).isEmpty();
+		assertThat(repository.findDeletedIds(deletedAt.plusSeconds(1), PageRequest.of(0, 10)))
+			.containsExactly(book.getId());
+		assertThat(repository.findDeletedIds(deletedAt.minusSeconds(1), PageRequest.of(0, 10))).isEmpty();
+		assertThat(repository.findChanged(0, 10, PageRequest.of(0, 10)))
+			.singleElement()
+			.satisfies(tombstone -> {
+				assertThat(tombstone.getDeletedAt()).isNotNull();
+				assertThat(tombstone.getChangeSeq()).isEqualTo(5l);
+			});
+		
+		Book recreated = repository.saveAndFlush(createNewBook("9780306406157"));
+		assertThat(recreated.getId()).isNotEqualTo(book.getId());
+	}
+	
 	public static Book createNewBook(String isbn) {
 		return Book.builder().title("As aventuras").author("Fulano").isbn(isbn).build();
 	}
@@ -49,10 +138,10 @@ public class BookRepositoryTest {
 	@DisplayName("Deve retornar falso quando nao existir um livro na base com o ISBN informado")
 	public void returnTrueWhenIsnDoesnExists() {
 		//cenario
-		String isbn = "123";
+		Long isbnNumber = 9780306406157l;
 		
 		//execucao
-		boolean exists = repository.existsByIsbn(isbn);
+		boolean exists = repository.existsByIsbnNumber(isbnNumber);
 		
 		//verificacao
 		assertThat(exists).isFalse();
@@ -63,7 +152,7 @@ public class BookRepositoryTest {
 	public void findByIdTest() {
 		
 		// cenario
-		Book book = createNewBook("123");
+		Book book = createNewBook("9780306406157");
 		entityManager.persist(book);
 		
 		// execucao
@@ -78,7 +167,7 @@ public class BookRepositoryTest {
 	public void saveBookTest() {
 		
 		// cenario
-		Book book = createNewBook("123");
+		Book book = createNewBook("9780306406157");
 		
 		// execucao
 		Book savedBook = repository.save(book);
@@ -92,7 +181,7 @@ public class BookRepositoryTest {
 	public void deleteBookTest() {
 		
 		// cenario
-		Book book = createNewBook("123");
+		Book book = createNewBook("9780306406157");
 		entityManager.persist(book);
 		Book foundBook = entityManager.find(Book.class, book.getId());
 		
@@ -105,10 +194,57 @@ public class BookRepositoryTest {
 		assertThat(deletedBook).isNull();
 		
 	}
+
+	@Test
+	@DisplayName("Deve obter um livro pelo numero canonico do ISBN")
+	public void findByIsbnNumberTest() {
+		
+		// cenario
+		entityManager.persist(createNewBook("0-306-40615-2"));
+		
+		// execucao
+		Optional<Book> foundBook = repository.findByIsbnNumber(9780306406157l);
+		
+		// verificacao
+		assertThat(foundBook.isPresent()).isTrue();
+		assertThat(foundBook.get().getIsbn()).isEqualTo("0-306-40615-2");
+	}
 	
+	@Test
+	@DisplayName("Deve paginar por chave os livros filtrando titulo e autor sem diferenciar maiusculas")
+	public void findAfterTest() {
+		
+		// cenario
+		Book first = entityManager.persist(createNewBook("0-306-40615-2"));
+		Book second = entityManager.persist(Book.builder().title("Outras aventuras").author("Ciclano").isbn("1").build());
+		Book third = entityManager.persist(Book.builder().title("Aventuras 100%").author("Fulano").isbn("2").build());
+		entityManager.flush();
+		
+		// execucao
+		List<Book> firstPage = repository.findAfter(0, null, null, PageRequest.of(0, 2));
+		List<Book> nextPage = repository.findAfter(second.getId(), null, null, PageRequest.of(0, 2));
+		List<Book> byTitle = repository.findAfter(0, "%aventuras%", "%fulano%", PageRequest.of(0, 10));
+		List<Book> escaped = repository.findAfter(0, "%100\\%%", null, PageRequest.of(0, 10));
+		
+		// verificacao
+		assertThat(firstPage).extracting(Book::getId).containsExactly(first.getId(), second.getId());
+		assertThat(nextPage).extracting(Book::getId).containsExactly(third.getId());
+		assertThat(byTitle).extracting(Book::getId).containsExactly(first.getId(), third.getId());
+		assertThat(escaped).extracting(Book::getId).containsExactly(third.getId());
+	}
 	
-	
-	
-	
+	@Test
+	@DisplayName("Nao deve permitir dois livros com o mesmo ISBN em formatos diferentes")
+	public void uniqueIsbnNumberTest() {
+		
+		// cenario
+		entityManager.persist(createNewBook("0-306-40615-2"));
+		
+		// execucao
+		Throwable exception = catchThrowable(() -> entityManager.persistAndFlush(createNewBook("9780306406157")));
+		
+		// verificacao
+		assertThat(exception).isInstanceOf(PersistenceException.class);
+	}
 	
 }
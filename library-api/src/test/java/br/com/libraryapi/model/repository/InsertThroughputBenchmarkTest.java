@@ -0,0 +1,144 @@
+package br.com.libraryapi.model.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.persistence.EntityManagerFactory;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import br.com.libraryapi.loadtest.SyntheticCatalog;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.service.BookService;
+
+/**
+ * Mede a vazao de insercao de livros e emprestimos em lote (saveAll em
+ * transacoes de CHUNK entidades) e um a um pelo BookService, com a configuracao
+ * padrao e com o perfil perf (lotes JDBC). Executar com:
+ * mvn test -Dtest=InsertThroughputBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+public class InsertThroughputBenchmarkTest {
+
+	private static final String PROPERTIES = "spring.jpa.properties.hibernate.generate_statistics=true";
+	private static final int BOOKS = 10_000;
+	private static final int LOANS_PER_BOOK = 4;
+	private static final int CHUNK = 1_000;
+	private static final int SINGLE_SAVES = 2_000;
+
+	@Nested
+	@ExtendWith(SpringExtension.class)
+	@ActiveProfiles("test")
+	@SpringBootTest(properties = { PROPERTIES, "logging.level.org.hibernate.SQL=warn" })
+	class DefaultSettings {
+
+		@Autowired
+		private BookService bookService;
+
+		@Autowired
+		private LoanRepository loanRepository;
+
+		@Autowired
+		private BookRepository bookRepository;
+
+		@Autowired
+		private PlatformTransactionManager transactionManager;
+
+		@Autowired
+		private EntityManagerFactory entityManagerFactory;
+
+		@Test
+		@DisplayName("Deve medir a vazao de insercao com a configuracao padrao")
+		public void insertThroughputTest() {
+			run("padrao", bookService, bookRepository, loanRepository, transactionManager, entityManagerFactory);
+		}
+
+	}
+
+	@Nested
+	@ExtendWith(SpringExtension.class)
+	@ActiveProfiles({ "test", "perf" })
+	@SpringBootTest(properties = { PROPERTIES, "logging.level.org.hibernate.SQL=warn" })
+	class PerfProfile {
+
+		@Autowired
+		private BookService bookService;
+
+		@Autowired
+		private LoanRepository loanRepository;
+
+		@Autowired
+		private BookRepository bookRepository;
+
+		@Autowired
+		private PlatformTransactionManager transactionManager;
+
+		@Autowired
+		private EntityManagerFactory entityManagerFactory;
+
+		@Test
+		@DisplayName("Deve medir a vazao de insercao com o perfil perf")
+		public void insertThroughputTest() {
+			run("perf", bookService, bookRepository, loanRepository, transactionManager, entityManagerFactory);
+		}
+
+	}
+
+	private static void run(String name, BookService bookService, BookRepository bookRepository,
+			LoanRepository loanRepository, PlatformTransactionManager transactionManager,
+			EntityManagerFactory entityManagerFactory) {
+		SyntheticCatalog catalog = new SyntheticCatalog(BOOKS + SINGLE_SAVES, 42);
+		TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		long start = System.nanoTime();
+		for (int from = 0; from < BOOKS; from += CHUNK) {
+			int first = from;
+			transactionTemplate.executeWithoutResult(status -> {
+				List<Book> books = new ArrayList<>();
+				List<Loan> loans = new ArrayList<>();
+				for (int i = first; i < first + CHUNK; i++) {
+					Book book = Book.builder().title(catalog.title(i)).author(catalog.author(i)).isbn(catalog.isbn(i))
+									.build();
+					books.add(book);
+					for (int j = 0; j < LOANS_PER_BOOK; j++) {
+						loans.add(Loan.builder().book(book).customer("cliente-" + j).returned(true).build());
+					}
+				}
+				bookRepository.saveAll(books);
+				loanRepository.saveAll(loans);
+			});
+		}
+		long bulkElapsed = System.nanoTime() - start;
+		long bulkStatements = statistics.getPrepareStatementCount();
+		statistics.clear();
+
+		start = System.nanoTime();
+		for (int i = BOOKS; i < BOOKS + SINGLE_SAVES; i++) {
+			bookService.save(Book.builder().title(catalog.title(i)).author(catalog.author(i)).isbn(catalog.isbn(i))
+								 .build());
+		}
+		long singleElapsed = System.nanoTime() - start;
+
+		int rows = BOOKS * (1 + LOANS_PER_BOOK);
+		System.out.printf("%-6s lote: %d linhas/s statements=%d | um a um: %d livros/s statements/livro=%.2f%n", name,
+				rows * 1_000_000_000L / bulkElapsed, bulkStatements,
+				SINGLE_SAVES * 1_000_000_000L / singleElapsed,
+				(double) statistics.getPrepareStatementCount() / SINGLE_SAVES);
+	}
+
+}
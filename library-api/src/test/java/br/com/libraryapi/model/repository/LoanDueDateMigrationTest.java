@@ -0,0 +1,65 @@
+package br.com.libraryapi.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.Loan;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class LoanDueDateMigrationTest {
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Test
+	@DisplayName("Deve dar prazo aos emprestimos em aberto, inclusive os com returned nulo, ao migrar")
+	public void migrateDueDatesTest() {
+
+		// cenario: esquema anterior aos prazos, com emprestimos gravados sem returned
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("drop index idx_loan_due_date");
+		jdbcTemplate.execute("alter table loan drop column due_date");
+		jdbcTemplate.execute("alter table loan drop column renewals");
+		jdbcTemplate.execute("alter table book drop column category");
+		LocalDate loanDate = LocalDate.now().minusDays(10);
+		jdbcTemplate.update("insert into book (id, title, author, isbn) values (1, 'Titulo', 'Autor', '123')");
+		jdbcTemplate.update("insert into loan (id, customer, id_book, loan_date, returned) values (1, 'Fulano', 1, ?, null)", loanDate);
+		jdbcTemplate.update("insert into loan (id, customer, id_book, loan_date, returned) values (2, 'Fulano', 1, ?, false)", loanDate);
+		jdbcTemplate.update("insert into loan (id, customer, id_book, loan_date, returned) values (3, 'Fulano', 1, ?, true)", loanDate);
+
+		// execucao
+		new ResourceDatabasePopulator(new ClassPathResource("db/loan-due-date.sql")).execute(dataSource);
+		List<Loan> late = loanRepository.findByDueDateUpToAndNotReturned(LocalDate.now());
+
+		// verificacao
+		assertThat(jdbcTemplate.queryForList("select due_date from loan order by id", LocalDate.class))
+				.containsExactly(loanDate.plusDays(4), loanDate.plusDays(4), null);
+		assertThat(late).extracting(Loan::getId).containsExactlyInAnyOrder(1l, 2l);
+	}
+
+}
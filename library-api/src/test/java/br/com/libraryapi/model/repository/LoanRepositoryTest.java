@@ -5,6 +5,8 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -19,6 +21,8 @@ import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.specification.LoanSpecification;
+import br.com.libraryapi.schedule.IdRange;
 
 @ExtendWith(SpringExtension.class)
 @ActiveProfiles("test")
@@ -46,6 +50,29 @@ public class LoanRepositoryTest {
 		assertThat(exists).isTrue();
 	}
 	
+	@Test
+	@DisplayName("Deve verificar se existe outro emprestimo nao devolvido para o livro")
+	public void existsOtherByBookIdAndNotReturnedTest() {
+	
+		// cenario
+		Loan loan = createAndPersistLoan(LocalDate.now());
+		Loan other = Loan.builder()
+						 .book(loan.getBook())
+						 .customer("Ciclano")
+						 .loanDate(LocalDate.now())
+						 .returned(true)
+						 .build();
+		entityManager.persist(other);
+		
+		// execucao
+		boolean fromOther = repository.existsOtherByBookIdAndNotReturned(loan.getBook().getId(), other.getId());
+		boolean fromOpen = repository.existsOtherByBookIdAndNotReturned(loan.getBook().getId(), loan.getId());
+		
+		// verificacao
+		assertThat(fromOther).isTrue();
+		assertThat(fromOpen).isFalse();
+	}
+	
 	@Test
 	@DisplayName("Deve buscar emprestimo pelo isbn do livro ou customer")
 	public void findByBookIsbnOrCustomerTest() {
@@ -54,7 +81,8 @@ public class LoanRepositoryTest {
 		Loan loan = createAndPersistLoan(LocalDate.now());
 		
 		// execucao
-		Page<Loan> result = repository.findByBookIsbnOrCustomer("123", "Fulano", PageRequest.of(0, 10));
+		Page<Loan> result = repository.findAll(
+				LoanSpecification.byIsbnOrCustomer("978-0-306-40615-7", "Fulano"), PageRequest.of(0, 10));
 		
 		// verificacao
 		assertThat(result.getContent()).hasSize(1);
@@ -66,14 +94,14 @@ public class LoanRepositoryTest {
 	} 
 	
 	@Test
-	@DisplayName("Deve obter emprestimos cuja data de emprestimo for menor ou igual a tres dias atras e nao retornados")
-	public void findByDateLessThanAndNotReturned() {
+	@DisplayName("Deve obter emprestimos com data de devolucao vencida e nao retornados")
+	public void findByDueDateUpToAndNotReturned() {
 		
 		// cenario
 		Loan loan = createAndPersistLoan(LocalDate.now().minusDays(5));
 		
 		// execucao
-		List<Loan> result = repository.findByLoansDateLessThanAndNotReturned(LocalDate.now().minusDays(4));
+		List<Loan> result = repository.findByDueDateUpToAndNotReturned(LocalDate.now());
 		
 		// verificacao
 		assertThat(result).hasSize(1).contains(loan);
@@ -82,27 +110,114 @@ public class LoanRepositoryTest {
 	
 	@Test
 	@DisplayName("Deve retornar vazio quando nao houver emprestimos atrasados")
-	public void notfindByDateLessThanAndNotReturned() {
+	public void notFindByDueDateUpToAndNotReturned() {
 		
 		// cenario
 		createAndPersistLoan(LocalDate.now());
 		
 		// execucao
-		List<Loan> result = repository.findByLoansDateLessThanAndNotReturned(LocalDate.now().minusDays(4));
+		List<Loan> result = repository.findByDueDateUpToAndNotReturned(LocalDate.now());
 		
 		// verificacao
 		assertThat(result).isEmpty();
 		
 	}
 	
+	@Test
+	@DisplayName("Deve buscar os emprestimos atrasados por faixa de id, em ordem de id")
+	public void findLateInRangeTest() {
+		
+		// cenario
+		Loan first = createAndPersistLoan(LocalDate.now().minusDays(5));
+		Loan onTime = Loan.builder()
+						  .book(first.getBook())
+						  .customer("Ciclano")
+						  .loanDate(LocalDate.now())
+						  .dueDate(LocalDate.now().plusDays(4))
+						  .build();
+		entityManager.persist(onTime);
+		Loan last = Loan.builder()
+						.book(first.getBook())
+						.customer("Beltrano")
+						.loanDate(LocalDate.now().minusDays(6))
+						.dueDate(LocalDate.now().minusDays(2))
+						.build();
+		entityManager.persist(last);
+		
+		// execucao
+		IdRange range = repository.findLateIdRange(LocalDate.now());
+		List<Loan> result = repository.findLateInRange(LocalDate.now(), range.getAfter(), range.getUpTo(),
+				PageRequest.of(0, 10));
+		List<Loan> afterFirst = repository.findLateInRange(LocalDate.now(), first.getId(), range.getUpTo(),
+				PageRequest.of(0, 10));
+		
+		// verificacao
+		assertThat(range).isEqualTo(new IdRange(first.getId() - 1, last.getId()));
+		assertThat(result).containsExactly(first, last);
+		assertThat(afterFirst).containsExactly(last);
+		
+	}
+	
+	@Test
+	@DisplayName("Deve listar os ids dos livros com emprestimos em aberto")
+	public void streamLoanedBookIdsTest() {
+		
+		// cenario
+		Loan open = createAndPersistLoan(LocalDate.now());
+		Book returnedBook = createNewBook("9781861972712");
+		entityManager.persist(returnedBook);
+		entityManager.persist(Loan.builder()
+								  .book(returnedBook)
+								  .customer("Ciclano")
+								  .loanDate(LocalDate.now())
+								  .returned(true)
+								  .build());
+		
+		// execucao
+		List<Long> bookIds;
+		try (Stream<Long> stream = repository.streamLoanedBookIds()) {
+			bookIds = stream.collect(Collectors.toList());
+		}
+		
+		// verificacao
+		assertThat(bookIds).containsExactly(open.getBook().getId());
+		assertThat(repository.existsByBookIdAndNotReturned(open.getBook().getId())).isTrue();
+		assertThat(repository.existsByBookIdAndNotReturned(returnedBook.getId())).isFalse();
+		
+	}
+	
+	@Test
+	@DisplayName("Deve marcar como devolvido apenas o emprestimo ainda aberto e informar as linhas afetadas")
+	public void markReturnedTest() {
+		
+		// cenario
+		Loan loan = createAndPersistLoan(LocalDate.now());
+		entityManager.flush();
+		entityManager.clear();
+		
+		// execucao
+		int first = repository.markReturned(loan.getId(), 3l);
+		int second = repository.markReturned(loan.getId(), 4l);
+		int inexistent = repository.markReturned(loan.getId() + 1, 5l);
+		
+		// verificacao
+		assertThat(first).isEqualTo(1);
+		assertThat(second).isZero();
+		assertThat(inexistent).isZero();
+		assertThat(entityManager.find(Loan.class, loan.getId()).getReturned()).isTrue();
+		assertThat(entityManager.find(Loan.class, loan.getId()).getChangeSeq()).isEqualTo(3l);
+		
+	}
+	
 	public Loan createAndPersistLoan(LocalDate loanDate) {
-		Book book = createNewBook("123");
+		Book book = createNewBook("9780306406157");
 		entityManager.persist(book);
 		
 		Loan loan = Loan.builder()
 						.book(book)
 						.customer("Fulano")
 						.loanDate(loanDate)
+						.dueDate(loanDate.plusDays(4))
 						.build();
 		
 		entityManager.persist(loan);
@@ -0,0 +1,87 @@
+package br.com.libraryapi.model.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@DirtiesContext
+public class SequenceMigrationTest {
+
+	private static final int LEGACY_BOOKS = 120;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Test
+	@DisplayName("Deve continuar os ids apos os dados existentes ao migrar de IDENTITY para sequencias")
+	public void migrateIdentityToSequencesTest() {
+
+		// cenario: esquema anterior, com ids gerados pela coluna
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("drop sequence book_seq");
+		jdbcTemplate.execute("drop sequence loan_seq");
+		jdbcTemplate.execute("alter table book alter column id bigint auto_increment");
+		jdbcTemplate.execute("alter table loan alter column id bigint auto_increment");
+		for (int i = 0; i < LEGACY_BOOKS; i++) {
+			jdbcTemplate.update("insert into book (title, author, isbn) values ('Titulo', 'Autor', ?)", "isbn-" + i);
+			jdbcTemplate.update("insert into loan (customer, id_book, returned) values ('Fulano', ?, true)", i + 1);
+		}
+
+		// execucao
+		new ResourceDatabasePopulator(new ClassPathResource("db/book-loan-sequences.sql")).execute(dataSource);
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < 75; i++) {
+			books.add(BookRepositoryTest.createNewBook(String.format("978%09d", i) + checkDigit(i)));
+		}
+		books = bookRepository.saveAll(books);
+		Loan loan = loanRepository.save(Loan.builder().book(books.get(0)).customer("Ciclano").build());
+
+		// verificacao
+		List<Long> ids = books.stream().map(Book::getId).collect(Collectors.toList());
+		assertThat(ids).doesNotHaveDuplicates().allMatch(id -> id > LEGACY_BOOKS);
+		assertThat(ids.get(0)).isEqualTo(LEGACY_BOOKS + 1);
+		assertThat(loan.getId()).isEqualTo(LEGACY_BOOKS + 1);
+		assertThat(bookRepository.count()).isEqualTo(LEGACY_BOOKS + 75);
+	}
+
+	private static int checkDigit(int i) {
+		String body = String.format("978%09d", i);
+		int sum = 0;
+		for (int d = 0; d < 12; d++) {
+			sum += (body.charAt(d) - '0') * (d % 2 == 0 ? 1 : 3);
+		}
+		return (10 - sum % 10) % 10;
+	}
+
+}
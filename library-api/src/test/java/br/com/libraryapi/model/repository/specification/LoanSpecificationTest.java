@@ -0,0 +1,209 @@
+package br.com.libraryapi.model.repository.specification;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.sql.DataSource;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.repository.LoanRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+		+ "br.com.libraryapi.model.repository.specification.LoanSpecificationTest$SqlCaptor")
+public class LoanSpecificationTest {
+
+	private static final int BOOKS = 500;
+	private static final int LOANS_PER_BOOK = 4;
+
+	@Autowired
+	private LoanRepository repository;
+
+	@Autowired
+	private TestEntityManager entityManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@BeforeEach
+	public void setUp() {
+		for (int i = 0; i < BOOKS; i++) {
+			Book book = Book.builder().title("Titulo " + i).author("Autor " + i).isbn(isbn(i)).build();
+			entityManager.persist(book);
+			for (int j = 0; j < LOANS_PER_BOOK; j++) {
+				entityManager.persist(Loan.builder()
+										  .book(book)
+										  .customer("cliente-" + (i * LOANS_PER_BOOK + j))
+										  .loanDate(LocalDate.now())
+										  .dueDate(LocalDate.now().plusDays(j - 1))
+										  .build());
+			}
+		}
+		entityManager.flush();
+		entityManager.clear();
+		SqlCaptor.STATEMENTS.clear();
+	}
+
+	@Test
+	@DisplayName("Deve filtrar emprestimos apenas pelo isbn quando o customer nao for informado")
+	public void findByIsbnOnlyTest() {
+
+		// execucao
+		Page<Loan> result = repository.findAll(
+				LoanSpecification.byIsbnOrCustomer(isbn(10), null), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(result.getTotalElements()).isEqualTo(LOANS_PER_BOOK);
+		assertThat(result.getContent()).allMatch(loan -> loan.getBook().getIsbn().equals(isbn(10)));
+	}
+
+	@Test
+	@DisplayName("Deve filtrar emprestimos apenas pelo customer quando o isbn nao for informado")
+	public void findByCustomerOnlyTest() {
+
+		// execucao
+		Page<Loan> result = repository.findAll(
+				LoanSpecification.byIsbnOrCustomer(null, "cliente-7"), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(result.getTotalElements()).isEqualTo(1);
+		assertThat(result.getContent().get(0).getCustomer()).isEqualTo("cliente-7");
+	}
+
+	@Test
+	@DisplayName("Deve unir os resultados de isbn e customer quando ambos forem informados")
+	public void findByIsbnOrCustomerTest() {
+
+		// execucao
+		Page<Loan> result = repository.findAll(
+				LoanSpecification.byIsbnOrCustomer(isbn(10), "cliente-7"), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(result.getTotalElements()).isEqualTo(LOANS_PER_BOOK + 1);
+	}
+
+	@Test
+	@DisplayName("Deve paginar por id a uniao dos ramos de isbn e customer sem varrer a tabela inteira")
+	public void isbnOrCustomerUnionPageUsesIndexTest() {
+
+		// cenario: o customer do emprestimo mais antigo e os do livro 10, depois dele
+		String customer = "cliente-0";
+		long isbnNumber = Long.parseLong(isbn(10));
+
+		// execucao
+		List<Loan> first = repository.findPageByCustomerOrIsbnNumber(customer, isbnNumber, 3, 3, 0);
+		List<Loan> second = repository.findPageByCustomerOrIsbnNumber(customer, isbnNumber, 6, 3, 3);
+		long total = repository.countByCustomerOrIsbnNumber(customer, isbnNumber);
+
+		// verificacao
+		assertThat(total).isEqualTo(LOANS_PER_BOOK + 1);
+		assertThat(first).hasSize(3);
+		assertThat(first.get(0).getCustomer()).isEqualTo(customer);
+		assertThat(second).hasSize(2);
+		List<Long> ids = new ArrayList<>();
+		first.forEach(loan -> ids.add(loan.getId()));
+		second.forEach(loan -> ids.add(loan.getId()));
+		assertThat(ids).isSorted().doesNotHaveDuplicates();
+		assertThat(second).allMatch(loan -> loan.getBook().getIsbn().equals(isbn(10)));
+		assertThat(explainCapturedQueries()).isNotEmpty().noneMatch(plan -> plan.contains("tableScan"));
+	}
+
+	@Test
+	@DisplayName("Deve retornar todos os emprestimos quando nenhum filtro for informado")
+	public void findWithoutFilterTest() {
+
+		// execucao
+		Page<Loan> result = repository.findAll(
+				LoanSpecification.byIsbnOrCustomer(" ", null), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(result.getTotalElements()).isEqualTo(BOOKS * LOANS_PER_BOOK);
+	}
+
+	@Test
+	@DisplayName("Nao deve varrer a tabela inteira ao filtrar por isbn")
+	public void isbnBranchUsesIndexTest() {
+
+		// execucao
+		repository.findAll(LoanSpecification.byIsbnOrCustomer(isbn(10), null), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(explainCapturedQueries()).isNotEmpty().noneMatch(plan -> plan.contains("tableScan"));
+	}
+
+	@Test
+	@DisplayName("Nao deve varrer a tabela inteira ao filtrar por customer")
+	public void customerBranchUsesIndexTest() {
+
+		// execucao
+		repository.findAll(LoanSpecification.byIsbnOrCustomer(null, "cliente-7"), PageRequest.of(0, 10));
+
+		// verificacao
+		assertThat(explainCapturedQueries()).isNotEmpty().noneMatch(plan -> plan.contains("tableScan"));
+	}
+
+	@Test
+	@DisplayName("Deve buscar emprestimos atrasados por faixa no indice de data de devolucao")
+	public void lateLoansUseDueDateIndexTest() {
+
+		// execucao
+		List<Loan> result = repository.findByDueDateUpToAndNotReturned(LocalDate.now());
+
+		// verificacao
+		assertThat(result).hasSize(BOOKS * 2);
+		assertThat(explainCapturedQueries()).isNotEmpty().noneMatch(plan -> plan.contains("tableScan"));
+	}
+
+	private static String isbn(int i) {
+		String body = String.format("978%09d", i);
+		int sum = 0;
+		for (int d = 0; d < 12; d++) {
+			sum += (body.charAt(d) - '0') * (d % 2 == 0 ? 1 : 3);
+		}
+		return body + (10 - sum % 10) % 10;
+	}
+
+	private List<String> explainCapturedQueries() {
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		return SqlCaptor.STATEMENTS
+				.stream()
+				.filter(sql -> sql.trim().toLowerCase().startsWith("select"))
+				.map(sql -> jdbcTemplate.queryForObject("explain " + sql, String.class))
+				.collect(Collectors.toList());
+	}
+
+	public static class SqlCaptor implements StatementInspector {
+
+		private static final long serialVersionUID = 1L;
+
+		static final List<String> STATEMENTS = new ArrayList<>();
+
+		@Override
+		public String inspect(String sql) {
+			STATEMENTS.add(sql);
+			return sql;
+		}
+
+	}
+
+}
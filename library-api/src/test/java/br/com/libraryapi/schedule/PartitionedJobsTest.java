@@ -0,0 +1,164 @@
+package br.com.libraryapi.schedule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.JobPartition;
+import br.com.libraryapi.model.repository.JobLeaseRepository;
+import br.com.libraryapi.model.repository.JobPartitionRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PartitionedJobsTest {
+
+	private static final String JOB = "job";
+	private static final LocalDate RUN_DATE = LocalDate.of(2021, 3, 1);
+	private static final Instant NOW = Instant.parse("2021-03-01T00:00:00Z");
+	private static final Duration LEASE = Duration.ofMinutes(5);
+
+	@Autowired
+	private JobLeaseRepository leaseRepository;
+
+	@Autowired
+	private JobPartitionRepository partitionRepository;
+
+	@AfterEach
+	public void tearDown() {
+		partitionRepository.deleteAllInBatch();
+		leaseRepository.deleteAllInBatch();
+	}
+
+	@Test
+	@DisplayName("Deve conceder a lease a uma instancia por vez ate liberar ou expirar")
+	public void leaseTest() {
+
+		// cenario
+		JobLeases first = leases("first", NOW);
+		JobLeases second = leases("second", NOW);
+
+		// execucao
+		boolean firstAcquired = first.tryAcquire(JOB, LEASE);
+		boolean secondWhileHeld = second.tryAcquire(JOB, LEASE);
+		boolean secondAfterExpiry = leases("second", NOW.plus(LEASE).plusSeconds(1)).tryAcquire(JOB, LEASE);
+
+		// verificacao
+		assertThat(firstAcquired).isTrue();
+		assertThat(secondWhileHeld).isFalse();
+		assertThat(secondAfterExpiry).isTrue();
+	}
+
+	@Test
+	@DisplayName("Deve planejar as particoes do dia uma unica vez, cobrindo toda a faixa")
+	public void planOnceTest() {
+
+		// cenario
+		PartitionedJobs first = jobs("first", NOW);
+		PartitionedJobs second = jobs("second", NOW);
+
+		// execucao
+		boolean planned = first.plan(JOB, RUN_DATE, 3, () -> new IdRange(10, 20));
+		boolean plannedAgain = second.plan(JOB, RUN_DATE, 3, () -> new IdRange(10, 30));
+
+		// verificacao
+		assertThat(planned).isTrue();
+		assertThat(plannedAgain).isFalse();
+		assertThat(partitionRepository.findByJobAndCompletedFalseOrderByRunDateAscPartitionIndexAsc(JOB))
+			.extracting(partition -> new IdRange(partition.getAfterId(), partition.getUpToId()))
+			.containsExactly(new IdRange(10, 13), new IdRange(13, 16), new IdRange(16, 20));
+	}
+
+	@Test
+	@DisplayName("Deve processar cada id uma unica vez entre as instancias")
+	public void runPendingTest() {
+
+		// cenario
+		PartitionedJobs first = jobs("first", NOW);
+		PartitionedJobs second = jobs("second", NOW);
+		first.plan(JOB, RUN_DATE, 4, () -> new IdRange(0, 50));
+		List<Long> processed = new ArrayList<>();
+
+		// execucao
+		int firstCompleted = first.runPending(JOB, worker(processed, Long.MAX_VALUE));
+		int secondCompleted = second.runPending(JOB, worker(processed, Long.MAX_VALUE));
+
+		// verificacao
+		assertThat(firstCompleted).isEqualTo(4);
+		assertThat(secondCompleted).isZero();
+		assertThat(processed).containsExactlyElementsOf(LongStream.rangeClosed(1, 50).boxed()
+																  .collect(Collectors.toList()));
+		assertThat(partitionRepository.findAll()).allMatch(JobPartition::isCompleted);
+	}
+
+	@Test
+	@DisplayName("Deve retomar do ultimo checkpoint a particao de uma instancia que caiu")
+	public void resumeCrashedPartitionTest() {
+
+		// cenario
+		jobs("first", NOW).plan(JOB, RUN_DATE, 1, () -> new IdRange(0, 10));
+		List<Long> processed = new ArrayList<>();
+		assertThatThrownBy(() -> jobs("first", NOW).runPending(JOB, worker(processed, 6)))
+			.isInstanceOf(IllegalStateException.class);
+		List<Long> beforeCrash = new ArrayList<>(processed);
+		processed.clear();
+
+		// execucao
+		int whileLeased = jobs("second", NOW.plusSeconds(60)).runPending(JOB, worker(processed, Long.MAX_VALUE));
+		int afterExpiry = jobs("second", NOW.plus(LEASE).plusSeconds(60))
+				.runPending(JOB, worker(processed, Long.MAX_VALUE));
+
+		// verificacao
+		assertThat(beforeCrash).containsExactly(1l, 2l, 3l, 4l, 5l, 6l);
+		assertThat(whileLeased).isZero();
+		assertThat(afterExpiry).isEqualTo(1);
+		assertThat(processed).containsExactly(7l, 8l, 9l, 10l);
+	}
+
+	private JobLeases leases(String node, Instant now) {
+		return new JobLeases(leaseRepository, node, Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+	private PartitionedJobs jobs(String node, Instant now) {
+		return new PartitionedJobs(partitionRepository, leases(node, now), LEASE, Clock.fixed(now, ZoneOffset.UTC));
+	}
+
+	/**
+	 * Processa os ids em blocos de 3 e falha ao passar de crashAfter.
+	 */
+	private static PartitionedJobs.Worker worker(List<Long> processed, long crashAfter) {
+		return (runDate, range) -> {
+			long last = range.getAfter();
+			for (long id = range.getAfter() + 1; id <= Math.min(range.getAfter() + 3, range.getUpTo()); id++) {
+				if (id > crashAfter) {
+					throw new IllegalStateException("queda da instancia");
+				}
+				processed.add(id);
+				last = id;
+			}
+			return last;
+		};
+	}
+
+}
@@ -0,0 +1,156 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.PurgeWatermark;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.PurgeWatermarkRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookPurgeServiceTest {
+
+	private static final int BATCH_SIZE = 50;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Autowired
+	private PurgeWatermarkRepository purgeWatermarkRepository;
+
+	@Autowired
+	private PlatformTransactionManager transactionManager;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private BookPurgeService purgeService;
+
+	@BeforeEach
+	public void setUp() {
+		purgeService = new BookPurgeService(bookRepository, loanRepository, reservationRepository,
+				purgeWatermarkRepository, transactionManager, BATCH_SIZE, Duration.ofHours(1));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		loanRepository.deleteAllInBatch();
+		reservationRepository.deleteAllInBatch();
+		new JdbcTemplate(dataSource).update("delete from book");
+		purgeWatermarkRepository.deleteAllInBatch();
+	}
+
+	@Test
+	@DisplayName("Deve remover o livro excluido com seus emprestimos e reservas, mantendo os demais livros")
+	public void purgeDeletedBookTest() {
+
+		// cenario
+		Book deleted = bookWithLoans("9780306406157", 3 * BATCH_SIZE + 7);
+		Book kept = bookWithLoans("9781861972712", 5);
+		reservationRepository.save(Reservation.builder()
+											  .book(deleted)
+											  .customer("Ciclano")
+											  .status(Reservation.Status.WAITING)
+											  .build());
+		bookRepository.softDelete(deleted.getId(), Instant.now().minus(Duration.ofHours(2)), 9l);
+
+		// execucao
+		long purgedLoans = purgeService.purgeDeletedBooks();
+
+		// verificacao
+		assertThat(purgedLoans).isEqualTo(3 * BATCH_SIZE + 7);
+		assertThat(loanRepository.count()).isEqualTo(5);
+		assertThat(reservationRepository.count()).isZero();
+		assertThat(bookRepository.findDeletedIds(Instant.now(), PageRequest.of(0, 10))).isEmpty();
+		assertThat(new JdbcTemplate(dataSource).queryForObject("select count(*) from book", Long.class))
+			.isEqualTo(1);
+		assertThat(bookRepository.findById(kept.getId())).isPresent();
+		assertThat(purgeWatermarkRepository.findPurgedSeq(PurgeWatermark.BOOKS)).hasValue(9l);
+	}
+
+	@Test
+	@DisplayName("Deve manter o livro excluido como tombstone durante a retencao")
+	public void keepRecentTombstoneTest() {
+
+		// cenario
+		Book deleted = bookWithLoans("9780306406157", 3);
+		bookRepository.softDelete(deleted.getId(), Instant.now().minus(Duration.ofMinutes(30)), 1l);
+
+		// execucao
+		long purgedLoans = purgeService.purgeDeletedBooks();
+
+		// verificacao
+		assertThat(purgedLoans).isZero();
+		assertThat(loanRepository.count()).isEqualTo(3);
+		assertThat(bookRepository.findDeletedIds(Instant.now(), PageRequest.of(0, 10)))
+			.containsExactly(deleted.getId());
+		assertThat(purgeWatermarkRepository.findPurgedSeq(PurgeWatermark.BOOKS)).hasValue(0l);
+	}
+
+	@Test
+	@DisplayName("Nao deve fazer nada quando nao houver livros excluidos")
+	public void nothingToPurgeTest() {
+
+		// cenario
+		bookWithLoans("9780306406157", 3);
+
+		// execucao
+		long purgedLoans = purgeService.purgeDeletedBooks();
+
+		// verificacao
+		assertThat(purgedLoans).isZero();
+		assertThat(loanRepository.count()).isEqualTo(3);
+	}
+
+	private Book bookWithLoans(String isbn, int loans) {
+		Book book = bookRepository.save(Book.builder().title("Titulo").author("Autor").isbn(isbn).build());
+		List<Loan> history = new ArrayList<>();
+		for (int i = 0; i < loans; i++) {
+			history.add(Loan.builder()
+							.book(book)
+							.customer("cliente-" + i)
+							.loanDate(LocalDate.now().minusDays(i))
+							.returned(true)
+							.build());
+		}
+		loanRepository.saveAll(history);
+		return book;
+	}
+
+}
@@ -3,9 +3,12 @@ package br.com.libraryapi.service;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.times;
 
+import java.time.Duration;
+import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.BeforeEach;
@@ -14,6 +17,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Example;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
@@ -21,9 +25,15 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
+import br.com.libraryapi.cache.BookSearchCache;
+import br.com.libraryapi.change.ChangeSequenceTest;
 import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.index.IsbnIndex;
+import br.com.libraryapi.invalidation.Invalidation;
+import br.com.libraryapi.invalidation.InvalidationBus;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
 import br.com.libraryapi.service.impl.BookServiceImpl;
 
 @ExtendWith(SpringExtension.class)
@@ -35,9 +45,17 @@ public class BookServiceTest {
 	@MockBean
 	private BookRepository repository;
 	
+	private IsbnIndex isbnIndex;
+	private InvalidationBus invalidations;
+	private LoanRepository loanRepository;
+	
 	@BeforeEach
 	public void setUp() {
-		this.service = new BookServiceImpl(repository);
+		this.isbnIndex = new IsbnIndex(repository, 1000, 0.01);
+		this.invalidations = Mockito.mock(InvalidationBus.class);
+		this.loanRepository = Mockito.mock(LoanRepository.class);
+		this.service = new BookServiceImpl(repository, isbnIndex, new BookSearchCache(100, Duration.ofMinutes(5)),
+				ChangeSequenceTest.createChangeSequence(repository, loanRepository), invalidations, loanRepository);
 	}
 	
 	@Test
@@ -45,11 +63,11 @@ public class BookServiceTest {
 	public void saveBookTest() {
 		// cenario
 		Book book = createValidBook();
-		Mockito.when(repository.existsByIsbn(Mockito.anyString())).thenReturn(false);
+		Mockito.when(repository.existsByIsbnNumber(Mockito.anyLong())).thenReturn(false);
 		Mockito.when(repository.save(book))
 			.thenReturn(Book.builder()
 						.id(1l)
-						.isbn("123")
+						.isbn("9780306406157")
 						.title("As aventuras")
 						.author("Fulano")
 						.build());
@@ -59,15 +77,15 @@ public class BookServiceTest {
 		
 		// verificacao
 		assertThat(savedBook.getId()).isNotNull();
-		assertThat(savedBook.getIsbn()).isEqualTo("123");
+		assertThat(savedBook.getIsbn()).isEqualTo("9780306406157");
 		assertThat(savedBook.getTitle()).isEqualTo("As aventuras");
 		assertThat(savedBook.getAuthor()).isEqualTo("Fulano");
-		
+		assertThat(book.getChangeSeq()).isEqualTo(1l);
 		
 	}
 
 	private Book createValidBook() {
-		return Book.builder().isbn("123").author("Fulano")
+		return Book.builder().isbn("9780306406157").author("Fulano")
 					.title("As aventuras").build();
 	}
 	
@@ -76,7 +94,7 @@ public class BookServiceTest {
 	public void shoulNotSaveABookWithDuplicatedISBN() {
 		// cenario
 		Book book = createValidBook();
-		Mockito.when(repository.existsByIsbn(Mockito.anyString())).thenReturn(true);
+		Mockito.when(repository.existsByIsbnNumber(Mockito.anyLong())).thenReturn(true);
 		
 		//execucao
 		Throwable exception = Assertions.catchThrowable(() -> service.save(book)) ;
@@ -145,7 +163,28 @@ public class BookServiceTest {
 				() -> service.delete(book));
 		
 		// verificacao
-		Mockito.verify(repository, Mockito.times(1)).delete(book);
+		Mockito.verify(repository, Mockito.times(1)).softDelete(Mockito.eq(id), Mockito.any(Instant.class), Mockito.eq(1l));
+		Mockito.verify(repository, Mockito.never()).delete(book);
+		Mockito.verify(invalidations).publish(Invalidation.book(id));
+	}
+	
+	@Test
+	@DisplayName("Deve ocorrer erro ao tentar deletar um livro emprestado")
+	public void deleteLoanedBookTest() {
+		
+		// cenario
+		Book book = createValidBook();
+		book.setId(1l);
+		Mockito.when(loanRepository.existsByBookIdAndNotReturned(1l)).thenReturn(true);
+		
+		// execucao
+		Throwable exception = Assertions.catchThrowable(() -> service.delete(book));
+		
+		// verificacao
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book has an open loan");
+		Mockito.verify(repository).findByIdForUpdate(1l);
+		Mockito.verify(repository, Mockito.never()).softDelete(Mockito.any(), Mockito.any(), Mockito.anyLong());
+		Mockito.verifyNoInteractions(invalidations);
 	}
 	
 	@Test
@@ -161,7 +200,7 @@ public class BookServiceTest {
 								() -> service.delete(book));
 		
 		// verificacao
-		Mockito.verify(repository, Mockito.never()).delete(book);
+		Mockito.verify(repository, Mockito.never()).softDelete(Mockito.any(), Mockito.any(), Mockito.anyLong());
 	}
 	
 	@Test
@@ -186,7 +225,49 @@ public class BookServiceTest {
 		assertThat(book.getIsbn()).isEqualTo(updatedBook.getIsbn());
 		assertThat(book.getTitle()).isEqualTo(updatedBook.getTitle());
 		assertThat(book.getAuthor()).isEqualTo(updatedBook.getAuthor());
+		Mockito.verify(invalidations).publish(Invalidation.book(id));
+	
+	}
 	
+	@Test
+	@DisplayName("Deve atualizar titulo, autor e categoria de um livro com um unico update")
+	public void updateTitleAuthorTest() {
+		
+		// cenario
+		Mockito.when(repository.updateTitleAuthor(Mockito.eq(1l), Mockito.eq("Titulo"), Mockito.eq("Autor"),
+				Mockito.eq("Romance"), Mockito.anyLong())).thenReturn(1);
+		Mockito.when(repository.updateTitleAuthor(Mockito.eq(2l), Mockito.eq("Titulo"), Mockito.eq("Autor"),
+				Mockito.eq("Romance"), Mockito.anyLong())).thenReturn(0);
+		
+		// execucao
+		boolean updated = service.updateTitleAuthor(1l, "Titulo", "Autor", "Romance");
+		boolean inexistent = service.updateTitleAuthor(2l, "Titulo", "Autor", "Romance");
+		
+		// verificacao
+		assertThat(updated).isTrue();
+		assertThat(inexistent).isFalse();
+		Mockito.verify(repository, Mockito.never()).findById(Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).saveAndFlush(Mockito.any(Book.class));
+	}
+	
+	@Test
+	@DisplayName("Deve descartar as buscas em cache ao atualizar um livro pelo update direto")
+	public void updateTitleAuthorInvalidatesCacheTest() {
+		
+		// cenario
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		Mockito.when(repository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
+			   .thenReturn(new PageImpl<Book>(new ArrayList<Book>(), pageRequest, 0));
+		Mockito.when(repository.updateTitleAuthor(Mockito.eq(1l), Mockito.eq("Titulo"), Mockito.eq("Autor"),
+				Mockito.isNull(), Mockito.anyLong())).thenReturn(1);
+		
+		// execucao
+		service.find(Book.builder().title("Titulo").build(), pageRequest);
+		service.updateTitleAuthor(1l, "Titulo", "Autor", null);
+		service.find(Book.builder().title("Titulo").build(), pageRequest);
+		
+		// verificacao
+		Mockito.verify(repository, times(2)).findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class));
 	}
 	
 	@Test
@@ -232,13 +313,37 @@ public class BookServiceTest {
 		
 	}
 	
+	@SuppressWarnings("unchecked")
+	@Test
+	@DisplayName("Deve reaproveitar a busca em cache ate o livro ser alterado")
+	public void findBookCachedUntilMutationTest() {
+		
+		// cenario
+		Book book = createValidBook();
+		book.setId(1l);
+		PageRequest pageRequest = PageRequest.of(0, 10);
+		Mockito.when(repository.findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class)))
+			   .thenReturn(new PageImpl<Book>(new ArrayList<Book>(), pageRequest, 0));
+		Mockito.when(repository.save(book)).thenReturn(book);
+		
+		// execucao
+		service.find(Book.builder().title("Senhor").build(), pageRequest);
+		service.find(Book.builder().title("SENHOR").build(), pageRequest);
+		service.save(book);
+		service.find(Book.builder().title("senhor").build(), pageRequest);
+		
+		// verificacao
+		Mockito.verify(repository, times(2)).findAll(Mockito.any(Example.class), Mockito.any(PageRequest.class));
+		
+	}
+	
 	@Test
 	@DisplayName("Deve obter um livro pelo ISBN")
 	public void getBookByIsbnTest() {
 		
 		// cenario
-		String isbn = "1230";
-		Mockito.when(repository.findByIsbn(isbn))
+		String isbn = "978-0-306-40615-7";
+		Mockito.when(repository.findByIsbnNumber(9780306406157l))
 			   .thenReturn(Optional.of(
 					   Book.builder().id(1l).isbn(isbn).build()));
 		
@@ -249,7 +354,92 @@ public class BookServiceTest {
 		assertThat(book.isPresent()).isTrue();
 		assertThat(book.get().getId()).isEqualTo(1l);
 		assertThat(book.get().getIsbn()).isEqualTo(isbn);
-		Mockito.verify(repository, times(1)).findByIsbn(isbn);
+		Mockito.verify(repository, times(1)).findByIsbnNumber(9780306406157l);
+	}
+	
+	@Test
+	@DisplayName("Nao deve consultar a base ao buscar um ISBN ausente do indice")
+	public void getBookByIsbnMissingFromIndexTest() {
+		
+		// cenario
+		Mockito.when(repository.streamAllIsbnNumbers()).thenReturn(Stream.of(9780804429573l));
+		isbnIndex.rebuild();
+		
+		// execucao
+		Optional<Book> book = service.getBookByIsbn("9780306406157");
+		
+		// verificacao
+		assertThat(book.isPresent()).isFalse();
+		Mockito.verify(repository, Mockito.never()).findByIsbnNumber(Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Nao deve verificar duplicidade na base ao salvar um ISBN ausente do indice")
+	public void saveBookMissingFromIndexTest() {
+		
+		// cenario
+		Mockito.when(repository.streamAllIsbnNumbers()).thenReturn(Stream.empty());
+		isbnIndex.rebuild();
+		Book book = Book.builder().id(1l).isbn("9780306406157").author("Fulano").title("As aventuras").build();
+		Mockito.when(repository.save(book)).thenReturn(book);
+		
+		// execucao
+		service.save(book);
+		
+		// verificacao
+		Mockito.verify(repository, Mockito.never()).existsByIsbnNumber(Mockito.anyLong());
+		assertThat(isbnIndex.mightContain(9780306406157l)).isTrue();
+	}
+	
+	@Test
+	@DisplayName("Deve lancar erro de negocio ao tentar salvar um livro com ISBN invalido")
+	public void shouldNotSaveABookWithInvalidIsbn() {
+		// cenario
+		Book book = createValidBook();
+		book.setIsbn("978-0-306-40615-8");
+		
+		//execucao
+		Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+		
+		// verificacoes
+		assertThat(exception)
+			.isInstanceOf(BusinessException.class)
+			.hasMessage("ISBN inválido.");
+		Mockito.verify(repository, Mockito.never()).save(book);
+	}
+	
+	@Test
+	@DisplayName("Deve detectar ISBN duplicado cadastrado em outro formato")
+	public void shouldDetectDuplicatedIsbnInAnotherFormat() {
+		// cenario
+		Book book = createValidBook();
+		book.setIsbn("0-306-40615-2");
+		Mockito.when(repository.existsByIsbnNumber(9780306406157l)).thenReturn(true);
+		
+		//execucao
+		Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+		
+		// verificacoes
+		assertThat(exception)
+			.isInstanceOf(BusinessException.class)
+			.hasMessage("ISBN já cadastrado.");
+	}
+	
+	@Test
+	@DisplayName("Deve converter violacao de unicidade do ISBN em erro de negocio")
+	public void shouldTranslateUniqueIsbnViolation() {
+		// cenario
+		Book book = createValidBook();
+		Mockito.when(repository.existsByIsbnNumber(Mockito.anyLong())).thenReturn(false);
+		Mockito.when(repository.save(book)).thenThrow(new DataIntegrityViolationException("uk_book_isbn_number"));
+		
+		//execucao
+		Throwable exception = Assertions.catchThrowable(() -> service.save(book));
+		
+		// verificacoes
+		assertThat(exception)
+			.isInstanceOf(BusinessException.class)
+			.hasMessage("ISBN já cadastrado.");
 	}
 	
 }
@@ -0,0 +1,188 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.change.ChangeFeed;
+import br.com.libraryapi.change.ChangeSequence;
+import br.com.libraryapi.change.ResyncRequiredException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.PurgeWatermark;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.ChangeWatermarkRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.PurgeWatermarkRepository;
+import br.com.libraryapi.service.impl.ChangeServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class ChangeServiceTest {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Autowired
+	private ChangeWatermarkRepository changeWatermarkRepository;
+
+	@Autowired
+	private PurgeWatermarkRepository purgeWatermarkRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	private ChangeSequence changes;
+
+	private ChangeService service;
+
+	private Book kept;
+
+	private Book deleted;
+
+	private Loan loan;
+
+	@BeforeEach
+	public void setUp() {
+		changes = new ChangeSequence(bookRepository, loanRepository, changeWatermarkRepository, "node",
+				Duration.ofMinutes(1), Clock.systemUTC());
+		new JdbcTemplate(dataSource).execute("alter sequence change_seq restart with 1");
+		service = new ChangeServiceImpl(bookRepository, loanRepository, purgeWatermarkRepository, changes);
+
+		// livro (1), livro (2), emprestimo (3), exclusao do livro 2 (4), devolucao (5)
+		kept = save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		deleted = save(Book.builder().title("Titulo").author("Autor").isbn("9781861972712").build());
+		loan = changes.track(sequence -> loanRepository.save(Loan.builder()
+																  .book(kept)
+																  .customer("Fulano")
+																  .loanDate(LocalDate.now())
+																  .returned(false)
+																  .changeSeq(sequence)
+																  .build()));
+		changes.track(sequence -> bookRepository.softDelete(deleted.getId(), Instant.now(), sequence));
+		changes.track(sequence -> loanRepository.markReturned(loan.getId(), sequence));
+	}
+
+	@AfterEach
+	public void tearDown() {
+		loanRepository.deleteAllInBatch();
+		new JdbcTemplate(dataSource).update("delete from book");
+		changeWatermarkRepository.deleteAllInBatch();
+		purgeWatermarkRepository.deleteAllInBatch();
+	}
+
+	@Test
+	@DisplayName("Deve obter o estado atual do que mudou, com os livros excluidos como tombstones")
+	public void changesSinceTest() {
+
+		// execucao
+		ChangeFeed all = service.getChangesSince(0, 10);
+		ChangeFeed afterBook = service.getChangesSince(1, 10);
+		ChangeFeed upToDate = service.getChangesSince(all.getSequence(), 10);
+
+		// verificacao
+		assertThat(all.getBooks()).extracting(Book::getId).containsExactly(kept.getId());
+		assertThat(all.getDeletedBookIds()).containsExactly(deleted.getId());
+		assertThat(all.getLoans()).singleElement().satisfies(changed -> {
+			assertThat(changed.getReturned()).isTrue();
+			assertThat(changed.getBook().getIsbn()).isEqualTo("9780306406157");
+		});
+		assertThat(all.getSequence()).isEqualTo(5);
+		assertThat(all.isMore()).isFalse();
+		assertThat(afterBook.getBooks()).isEmpty();
+		assertThat(afterBook.getDeletedBookIds()).containsExactly(deleted.getId());
+		assertThat(upToDate.getBooks()).isEmpty();
+		assertThat(upToDate.getLoans()).isEmpty();
+		assertThat(upToDate.getSequence()).isEqualTo(5);
+		assertThat(upToDate.isMore()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve pedir nova sincronizacao quando exclusoes depois da sequencia ja foram removidas")
+	public void resyncRequiredTest() {
+
+		// cenario
+		purgeWatermarkRepository.save(PurgeWatermark.builder().name(PurgeWatermark.BOOKS).purgedSeq(4).build());
+
+		// execucao
+		Throwable behind = catchThrowable(() -> service.getChangesSince(3, 10));
+		ChangeFeed fromZero = service.getChangesSince(0, 10);
+		ChangeFeed caughtUp = service.getChangesSince(4, 10);
+
+		// verificacao
+		assertThat(behind).isInstanceOf(ResyncRequiredException.class);
+		assertThat(fromZero.getSequence()).isEqualTo(5);
+		assertThat(caughtUp.getLoans()).extracting(Loan::getId).containsExactly(loan.getId());
+	}
+
+	@Test
+	@DisplayName("Deve paginar pela sequencia intercalando livros e emprestimos")
+	public void pagedChangesTest() {
+
+		// execucao
+		ChangeFeed first = service.getChangesSince(0, 1);
+		ChangeFeed second = service.getChangesSince(first.getSequence(), 1);
+		ChangeFeed third = service.getChangesSince(second.getSequence(), 1);
+		ChangeFeed last = service.getChangesSince(third.getSequence(), 1);
+
+		// verificacao
+		assertThat(first.getBooks()).extracting(Book::getId).containsExactly(kept.getId());
+		assertThat(first.getSequence()).isEqualTo(1);
+		assertThat(first.isMore()).isTrue();
+		assertThat(second.getDeletedBookIds()).containsExactly(deleted.getId());
+		assertThat(second.getSequence()).isEqualTo(4);
+		assertThat(third.getLoans()).extracting(Loan::getId).containsExactly(loan.getId());
+		assertThat(third.getSequence()).isEqualTo(5);
+		assertThat(last.getBooks()).isEmpty();
+		assertThat(last.getLoans()).isEmpty();
+		assertThat(last.isMore()).isFalse();
+	}
+
+	@Test
+	@DisplayName("Nao deve entregar alteracoes alem de uma escrita ainda em andamento")
+	public void inFlightChangeTest() {
+
+		// execucao
+		ChangeFeed duringWrite = changes.track(sequence -> {
+			changes.track(later -> bookRepository.updateTitleAuthor(kept.getId(), "Outro", "Autor", null, later));
+			return service.getChangesSince(5, 10);
+		});
+
+		// verificacao
+		assertThat(duringWrite.getBooks()).isEmpty();
+		assertThat(duringWrite.getSequence()).isEqualTo(5);
+		assertThat(service.getChangesSince(5, 10).getBooks()).extracting(Book::getTitle).containsExactly("Outro");
+	}
+
+	private Book save(Book book) {
+		return changes.track(sequence -> {
+			book.setChangeSeq(sequence);
+			return bookRepository.save(book);
+		});
+	}
+
+}
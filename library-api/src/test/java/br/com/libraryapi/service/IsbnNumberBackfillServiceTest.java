@@ -0,0 +1,62 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import br.com.libraryapi.model.repository.BookRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class IsbnNumberBackfillServiceTest {
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private DataSource dataSource;
+
+	@AfterEach
+	public void tearDown() {
+		new JdbcTemplate(dataSource).update("delete from book");
+	}
+
+	@Test
+	@DisplayName("Deve preencher o ISBN canonico dos livros antigos, deixando sem numero os invalidos e os repetidos")
+	public void backfillTest() {
+
+		// cenario
+		JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+		String insert = "insert into book (id, title, author, isbn) values (?, 'Titulo', 'Autor', ?)";
+		jdbcTemplate.update(insert, 9001, "0-306-40615-2");
+		jdbcTemplate.update(insert, 9002, "123");
+		jdbcTemplate.update(insert, 9003, "978-1-86197-271-2");
+		jdbcTemplate.update(insert, 9004, "1861972717");
+
+		// execucao
+		long filled = new IsbnNumberBackfillService(bookRepository).backfill();
+
+		// verificacao
+		assertThat(filled).isEqualTo(2);
+		assertThat(bookRepository.findById(9001l).get().getIsbnNumber()).isEqualTo(9780306406157l);
+		assertThat(bookRepository.findById(9002l).get().getIsbnNumber()).isNull();
+		assertThat(bookRepository.findById(9003l).get().getIsbnNumber()).isEqualTo(9781861972712l);
+		assertThat(bookRepository.findById(9004l).get().getIsbnNumber()).isNull();
+		assertThat(new IsbnNumberBackfillService(bookRepository).backfill()).isZero();
+	}
+
+}
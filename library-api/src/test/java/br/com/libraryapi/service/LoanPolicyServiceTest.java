@@ -0,0 +1,91 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.model.repository.LoanPolicyRepository;
+import br.com.libraryapi.service.impl.LoanPolicyServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class LoanPolicyServiceTest {
+
+	private LoanPolicyService service;
+
+	@MockBean
+	private LoanPolicyRepository repository;
+
+	@BeforeEach
+	public void setUp() {
+		this.service = new LoanPolicyServiceImpl(repository, 4, 2, 7);
+	}
+
+	@Test
+	@DisplayName("Deve usar a politica padrao para livros sem categoria cadastrada")
+	public void defaultPolicyTest() {
+
+		// cenario
+		service.reload();
+
+		// execucao
+		LoanPolicy policy = service.getPolicy(Book.builder().category("Revistas").build());
+
+		// verificacao
+		assertThat(policy.getLoanDays()).isEqualTo(4);
+		assertThat(policy.dueDate(LocalDate.of(2021, 3, 1))).isEqualTo(LocalDate.of(2021, 3, 5));
+	}
+
+	@Test
+	@DisplayName("Deve usar a politica da categoria do livro apos recarregar")
+	public void categoryPolicyTest() {
+
+		// cenario
+		LoanPolicy reference = LoanPolicy.builder().category("referencia").loanDays(1).maxRenewals(0).renewalDays(1).build();
+		Mockito.when(repository.findAll()).thenReturn(Arrays.asList(reference));
+		Book book = Book.builder().category(" Referencia ").build();
+		LoanPolicy beforeReload = service.getPolicy(book);
+
+		// execucao
+		service.reload();
+
+		// verificacao
+		assertThat(beforeReload.getLoanDays()).isEqualTo(4);
+		assertThat(service.getPolicy(book)).isEqualTo(reference);
+		assertThat(service.getPolicy(book).canRenew(0)).isFalse();
+	}
+
+	@Test
+	@DisplayName("Deve substituir a politica existente da categoria ao salvar")
+	public void savePolicyTest() {
+
+		// cenario
+		LoanPolicy existing = LoanPolicy.builder().id(1l).category("infantil").loanDays(7).build();
+		LoanPolicy policy = LoanPolicy.builder().category("Infantil").loanDays(21).maxRenewals(1).renewalDays(7).build();
+		Mockito.when(repository.findByCategory("infantil")).thenReturn(Optional.of(existing));
+		Mockito.when(repository.save(policy)).thenReturn(policy);
+		Mockito.when(repository.findAll()).thenReturn(Arrays.asList(policy));
+
+		// execucao
+		service.save(policy);
+
+		// verificacao
+		assertThat(policy.getId()).isEqualTo(1l);
+		assertThat(policy.getCategory()).isEqualTo("infantil");
+		assertThat(service.getPolicy(Book.builder().category("INFANTIL").build()).getLoanDays()).isEqualTo(21);
+	}
+
+}
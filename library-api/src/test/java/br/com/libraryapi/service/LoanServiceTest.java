@@ -14,19 +14,31 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 
 import br.com.libraryapi.api.dto.LoanFilterDTO;
+import br.com.libraryapi.change.ChangeSequenceTest;
+import br.com.libraryapi.event.LoanEvent;
 import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.journal.LoanJournal;
+import br.com.libraryapi.journal.LoanJournalEntry;
 import br.com.libraryapi.model.entity.Book;
 import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.LoanPolicy;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
 import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
 import br.com.libraryapi.service.impl.LoanServiceImpl;
 
 @ExtendWith(SpringExtension.class)
@@ -38,9 +50,27 @@ public class LoanServiceTest {
 	@MockBean
 	private LoanRepository repository;
 	
+	@MockBean
+	private BookRepository bookRepository;
+	
+	@MockBean
+	private ReservationRepository reservationRepository;
+	
+	@MockBean
+	private LoanPolicyService policyService;
+	
+	private ApplicationEventPublisher eventPublisher;
+	
+	private LoanJournal journal;
+	
 	@BeforeEach
 	public void setUp() {
-		this.service = new LoanServiceImpl(repository);
+		this.eventPublisher = Mockito.mock(ApplicationEventPublisher.class);
+		this.journal = Mockito.mock(LoanJournal.class);
+		this.service = new LoanServiceImpl(repository, bookRepository, reservationRepository, eventPublisher,
+				policyService, journal, ChangeSequenceTest.createChangeSequence(bookRepository, repository));
+		Mockito.when(policyService.getPolicy(Mockito.any()))
+			   .thenReturn(LoanPolicy.builder().loanDays(14).maxRenewals(1).renewalDays(7).build());
 	}
 
 	@Test
@@ -69,10 +99,25 @@ public class LoanServiceTest {
 		Loan loan = service.save(savingLoan);
 		
 		// verificacao
+		assertThat(savingLoan.getDueDate()).isEqualTo(LocalDate.now().plusDays(14));
+		assertThat(savingLoan.getRenewals()).isZero();
+		assertThat(savingLoan.getChangeSeq()).isEqualTo(1l);
 		assertThat(loan.getId()).isEqualTo(savedLoan.getId());
 		assertThat(loan.getLoanDate()).isEqualTo(savedLoan.getLoanDate());
 		assertThat(loan.getCustomer()).isEqualTo(savedLoan.getCustomer());
 		assertThat(loan.getBook().getId()).isEqualTo(savedLoan.getBook().getId());
+		
+		ArgumentCaptor<LoanEvent> event = ArgumentCaptor.forClass(LoanEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertThat(event.getValue().getType()).isEqualTo(LoanEvent.Type.LOANED);
+		assertThat(event.getValue().getBookId()).isEqualTo(1l);
+		assertThat(event.getValue().getLoanId()).isEqualTo(1l);
+		
+		ArgumentCaptor<LoanJournalEntry> entry = ArgumentCaptor.forClass(LoanJournalEntry.class);
+		verify(journal).append(entry.capture());
+		assertThat(entry.getValue().getType()).isEqualTo(LoanJournalEntry.Type.CREATED);
+		assertThat(entry.getValue().getLoanId()).isEqualTo(1l);
+		assertThat(entry.getValue().getCustomer()).isEqualTo(customer);
 	}
 	
 	@Test
@@ -99,6 +144,7 @@ public class LoanServiceTest {
 							 .hasMessage("Book already loaned");
 		
 		verify(repository, never()).save(savingLoan);
+		verify(eventPublisher, never()).publishEvent(Mockito.any(Object.class));
 	}
 	
 	@Test
@@ -145,6 +191,217 @@ public class LoanServiceTest {
 		assertThat(updatedLoan.getReturned()).isTrue();
 		verify(repository).save(loan);
 		
+		ArgumentCaptor<LoanEvent> event = ArgumentCaptor.forClass(LoanEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertThat(event.getValue().getType()).isEqualTo(LoanEvent.Type.RETURNED);
+		assertThat(event.getValue().isAvailable()).isTrue();
+		
+	}
+	
+	@Test
+	@DisplayName("Deve ocorrer erro ao reabrir um emprestimo cujo livro ja foi emprestado a outro cliente")
+	public void reopenLoanOfLoanedBookTest() {
+		
+		// cenario
+		Loan loan = createLoan();
+		loan.setId(1l);
+		loan.setReturned(false);
+		Mockito.when(repository.existsOtherByBookIdAndNotReturned(loan.getBook().getId(), 1l)).thenReturn(true);
+		
+		// execucao
+		Throwable exception = catchThrowable(() -> service.update(loan));
+		
+		// verificacao
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book already loaned");
+		verify(bookRepository).findByIdForUpdate(loan.getBook().getId());
+		verify(repository, Mockito.never()).save(loan);
+		Mockito.verifyNoInteractions(eventPublisher);
+	}
+	
+	@Test
+	@DisplayName("Deve marcar um emprestimo como devolvido com um unico update")
+	public void markReturnedTest() {
+		
+		// cenario
+		Book book = Book.builder().id(1l).build();
+		Mockito.when(bookRepository.findByLoanIdForUpdate(10l)).thenReturn(Optional.of(book));
+		Mockito.when(repository.markReturned(Mockito.eq(10l), Mockito.anyLong())).thenReturn(1);
+		Mockito.when(repository.existsByBookAndNotReturned(book)).thenReturn(false);
+		
+		// execucao
+		boolean found = service.markReturned(10l);
+		
+		// verificacao
+		assertThat(found).isTrue();
+		verify(repository, never()).findById(Mockito.anyLong());
+		verify(repository, never()).save(Mockito.any(Loan.class));
+		
+		ArgumentCaptor<LoanEvent> event = ArgumentCaptor.forClass(LoanEvent.class);
+		verify(eventPublisher).publishEvent(event.capture());
+		assertThat(event.getValue().getType()).isEqualTo(LoanEvent.Type.RETURNED);
+		assertThat(event.getValue().getLoanId()).isEqualTo(10l);
+		assertThat(event.getValue().getBookId()).isEqualTo(1l);
+		ArgumentCaptor<LoanJournalEntry> entry = ArgumentCaptor.forClass(LoanJournalEntry.class);
+		verify(journal).append(entry.capture());
+		assertThat(entry.getValue().getType()).isEqualTo(LoanJournalEntry.Type.RETURNED);
+		assertThat(entry.getValue().getLoanId()).isEqualTo(10l);
+		verify(reservationRepository).findFirstByBookIdAndStatusOrderByIdAsc(1l, Reservation.Status.WAITING);
+	}
+	
+	@Test
+	@DisplayName("Nao deve publicar evento nem entregar reserva ao devolver de novo um emprestimo ja devolvido")
+	public void markReturnedTwiceTest() {
+		
+		// cenario
+		Mockito.when(bookRepository.findByLoanIdForUpdate(10l)).thenReturn(Optional.of(Book.builder().id(1l).build()));
+		Mockito.when(repository.markReturned(Mockito.eq(10l), Mockito.anyLong())).thenReturn(0);
+		
+		// execucao
+		boolean found = service.markReturned(10l);
+		
+		// verificacao
+		assertThat(found).isTrue();
+		verify(eventPublisher, never()).publishEvent(Mockito.any());
+		verify(journal, never()).append(Mockito.any());
+		verify(reservationRepository, never()).findFirstByBookIdAndStatusOrderByIdAsc(Mockito.anyLong(), Mockito.any());
+	}
+	
+	@Test
+	@DisplayName("Deve informar quando o emprestimo a devolver nao existir")
+	public void markReturnedInexistentLoanTest() {
+		
+		// cenario
+		Mockito.when(bookRepository.findByLoanIdForUpdate(10l)).thenReturn(Optional.empty());
+		
+		// execucao
+		boolean found = service.markReturned(10l);
+		
+		// verificacao
+		assertThat(found).isFalse();
+		verify(repository, never()).markReturned(Mockito.anyLong(), Mockito.anyLong());
+	}
+	
+	@Test
+	@DisplayName("Deve renovar um emprestimo estendendo a data de devolucao")
+	public void renewLoanTest() {
+		
+		// cenario
+		Loan loan = createLoan();
+		loan.setDueDate(LocalDate.now().plusDays(2));
+		loan.setRenewals(0);
+		Mockito.when(repository.save(loan)).thenReturn(loan);
+		
+		// execucao
+		Loan renewed = service.renew(loan);
+		
+		// verificacao
+		assertThat(renewed.getDueDate()).isEqualTo(LocalDate.now().plusDays(9));
+		assertThat(renewed.getRenewals()).isEqualTo(1);
+		verify(repository).save(loan);
+		
+		ArgumentCaptor<LoanJournalEntry> entry = ArgumentCaptor.forClass(LoanJournalEntry.class);
+		verify(journal).append(entry.capture());
+		assertThat(entry.getValue().getType()).isEqualTo(LoanJournalEntry.Type.RENEWED);
+		assertThat(entry.getValue().getDueDate()).isEqualTo(LocalDate.now().plusDays(9));
+		assertThat(entry.getValue().getRenewals()).isEqualTo(1);
+	}
+	
+	@Test
+	@DisplayName("Deve entregar o livro devolvido ao proximo da fila de reservas")
+	public void returnHandsOffToNextReservationTest() {
+		
+		// cenario
+		Loan loan = createLoan();
+		loan.setId(1l);
+		loan.setReturned(true);
+		Reservation reservation = Reservation.builder()
+											 .id(5l)
+											 .book(loan.getBook())
+											 .customer("Ciclano")
+											 .email("ciclano@email.com")
+											 .status(Reservation.Status.WAITING)
+											 .build();
+		Mockito.when(repository.save(Mockito.any(Loan.class))).thenAnswer(invocation -> {
+			Loan saved = invocation.getArgument(0);
+			if (saved.getId() == 0) {
+				saved.setId(2l);
+			}
+			return saved;
+		});
+		Mockito.when(repository.existsByBookAndNotReturned(loan.getBook())).thenReturn(false);
+		Mockito.when(reservationRepository
+						.findFirstByBookIdAndStatusOrderByIdAsc(1l, Reservation.Status.WAITING))
+			   .thenReturn(Optional.of(reservation));
+		
+		// execucao
+		service.update(loan);
+		
+		// verificacao
+		verify(bookRepository).findByIdForUpdate(1l);
+		assertThat(reservation.getStatus()).isEqualTo(Reservation.Status.FULFILLED);
+		assertThat(reservation.getLoanId()).isEqualTo(2l);
+		
+		ArgumentCaptor<LoanEvent> events = ArgumentCaptor.forClass(LoanEvent.class);
+		verify(eventPublisher, Mockito.times(2)).publishEvent(events.capture());
+		assertThat(events.getAllValues()).extracting(LoanEvent::getType)
+										 .containsExactly(LoanEvent.Type.RETURNED, LoanEvent.Type.LOANED);
+		
+		ArgumentCaptor<Loan> loans = ArgumentCaptor.forClass(Loan.class);
+		verify(repository, Mockito.times(2)).save(loans.capture());
+		Loan handedOff = loans.getAllValues().get(1);
+		assertThat(handedOff.getCustomer()).isEqualTo("Ciclano");
+		assertThat(handedOff.getEmail()).isEqualTo("ciclano@email.com");
+		assertThat(handedOff.getDueDate()).isEqualTo(LocalDate.now().plusDays(14));
+	}
+	
+	@Test
+	@DisplayName("Deve lancar erro de negocio ao renovar livro com reservas pendentes")
+	public void renewWithPendingReservationsTest() {
+		
+		// cenario
+		Loan loan = createLoan();
+		Mockito.when(reservationRepository.existsByBookIdAndStatus(1l, Reservation.Status.WAITING)).thenReturn(true);
+		
+		// execucao
+		Throwable exception = catchThrowable(() -> service.renew(loan));
+		
+		// verificacao
+		assertThat(exception).isInstanceOf(BusinessException.class)
+							 .hasMessage("Book has pending reservations");
+		verify(repository, never()).save(loan);
+	}
+	
+	@Test
+	@DisplayName("Deve lancar erro de negocio ao exceder o limite de renovacoes")
+	public void renewalLimitTest() {
+		
+		// cenario
+		Loan loan = createLoan();
+		loan.setDueDate(LocalDate.now().plusDays(2));
+		loan.setRenewals(1);
+		
+		// execucao
+		Throwable exception = catchThrowable(() -> service.renew(loan));
+		
+		// verificacao
+		assertThat(exception).isInstanceOf(BusinessException.class)
+							 .hasMessage("Renewal limit reached");
+		verify(repository, never()).save(loan);
+	}
+	
+	@Test
+	@DisplayName("Deve obter emprestimos atrasados pela data de devolucao")
+	public void getAllLateLoansTest() {
+		
+		// cenario
+		List<Loan> lateLoans = Arrays.asList(createLoan());
+		Mockito.when(repository.findByDueDateUpToAndNotReturned(LocalDate.now())).thenReturn(lateLoans);
+		
+		// execucao
+		List<Loan> result = service.getAllLateLoans();
+		
+		// verificacao
+		assertThat(result).isEqualTo(lateLoans);
 	}
 	
 	@Test
@@ -167,9 +424,8 @@ public class LoanServiceTest {
 		Page<Loan> page = new PageImpl<Loan>(lista, pageRequest, lista.size());
 		
 		Mockito.when(repository
-					.findByBookIsbnOrCustomer(
-							Mockito.anyString(),
-							Mockito.anyString(),
+					.findAll(
+							Mockito.<Specification<Loan>>any(),
 							Mockito.any(PageRequest.class)))
 			   		.thenReturn(page);
 
@@ -181,8 +437,31 @@ public class LoanServiceTest {
 		assertThat(result.getContent()).isEqualTo(lista);
 		assertThat(result.getPageable().getPageNumber()).isEqualTo(0);
 		assertThat(result.getPageable().getPageSize()).isEqualTo(10);
+		Mockito.verify(repository, Mockito.never()).findPageByCustomerOrIsbnNumber(
+				Mockito.anyString(), Mockito.anyLong(), Mockito.anyLong(), Mockito.anyInt(), Mockito.anyLong());
 		
 	}
+
+	@Test
+	@DisplayName("Deve paginar cada indice pela uniao quando isbn e customer forem informados")
+	public void findLoanByIsbnOrCustomerTest() {
+
+		// cenario
+		LoanFilterDTO loanFilterDTO = LoanFilterDTO.builder().customer("Fulano").isbn("978-0-306-40615-7").build();
+		Loan loan = createLoan();
+		loan.setId(1l);
+		Mockito.when(repository.findPageByCustomerOrIsbnNumber("Fulano", 9780306406157l, 30, 10, 20))
+			   .thenReturn(Arrays.asList(loan));
+
+		// execucao
+		Page<Loan> result = service.find(loanFilterDTO, PageRequest.of(2, 10));
+
+		// verificacao: a pagina incompleta da o total sem contar
+		assertThat(result.getContent()).containsExactly(loan);
+		assertThat(result.getTotalElements()).isEqualTo(21);
+		Mockito.verify(repository, Mockito.never()).countByCustomerOrIsbnNumber(Mockito.anyString(), Mockito.anyLong());
+		Mockito.verify(repository, Mockito.never()).findAll(Mockito.<Specification<Loan>>any(), Mockito.any(Pageable.class));
+	}
 	
 	public static Loan createLoan() {
 		Book book = Book.builder().id(1l).build();
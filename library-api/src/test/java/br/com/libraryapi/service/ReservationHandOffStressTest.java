@@ -0,0 +1,166 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Loan;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:reservation-stress;DB_CLOSE_DELAY=-1;LOCK_TIMEOUT=10000")
+public class ReservationHandOffStressTest {
+
+	private static final int RESERVATIONS = 20;
+	private static final int CONCURRENT_RETURNS = 4;
+	private static final int BOOKS = 50;
+
+	@Autowired
+	private LoanService loanService;
+
+	@Autowired
+	private ReservationService reservationService;
+
+	@Autowired
+	private BookRepository bookRepository;
+
+	@Autowired
+	private LoanRepository loanRepository;
+
+	@Autowired
+	private ReservationRepository reservationRepository;
+
+	@Test
+	@DisplayName("Deve entregar o livro a cada reserva exatamente uma vez, na ordem da fila, sob devolucoes concorrentes")
+	public void concurrentReturnsHandOffInQueueOrderTest() throws Exception {
+
+		// cenario
+		Book book = bookRepository.save(Book.builder().title("Titulo").author("Autor").isbn("9780306406157").build());
+		loanService.save(Loan.builder().book(book).customer("primeiro").build());
+
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_RETURNS * 2);
+		try {
+			List<Callable<Object>> reservations = new ArrayList<>();
+			for (int i = 0; i < RESERVATIONS; i++) {
+				String customer = "cliente-" + i;
+				reservations.add(() -> reservationService.save(
+						Reservation.builder().book(book).customer(customer).build()));
+			}
+			runTogether(executor, reservations);
+
+			// execucao
+			for (int round = 0; round < RESERVATIONS; round++) {
+				Loan open = openLoans(book).get(0);
+				List<Callable<Object>> returns = new ArrayList<>();
+				for (int i = 0; i < CONCURRENT_RETURNS; i++) {
+					returns.add(() -> loanService.markReturned(open.getId()));
+				}
+				runTogether(executor, returns);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// verificacao
+		List<Reservation> queue = reservationRepository.findAll()
+													   .stream()
+													   .sorted(Comparator.comparing(Reservation::getId))
+													   .collect(Collectors.toList());
+		assertThat(queue).hasSize(RESERVATIONS)
+						 .allMatch(reservation -> reservation.getStatus() == Reservation.Status.FULFILLED);
+		assertThat(queue).extracting(Reservation::getLoanId).doesNotHaveDuplicates();
+
+		List<Loan> loans = loanRepository.findByBook(book, Pageable.unpaged())
+										 .stream()
+										 .sorted(Comparator.comparing(Loan::getId))
+										 .collect(Collectors.toList());
+		assertThat(loans).hasSize(RESERVATIONS + 1);
+		assertThat(loans.subList(1, loans.size())).extracting(Loan::getCustomer)
+												  .containsExactlyElementsOf(queue.stream()
+														  .map(Reservation::getCustomer)
+														  .collect(Collectors.toList()));
+		assertThat(openLoans(book)).hasSize(1)
+								   .allMatch(loan -> loan.getCustomer().equals(queue.get(RESERVATIONS - 1).getCustomer()));
+	}
+
+	@Test
+	@DisplayName("Deve emprestar um livro disponivel a apenas um cliente sob emprestimos concorrentes")
+	public void concurrentLoansOfAvailableBookTest() throws Exception {
+
+		// cenario
+		List<Book> books = new ArrayList<>();
+		for (int i = 0; i < BOOKS; i++) {
+			books.add(bookRepository.save(Book.builder().title("Titulo " + i).author("Autor").build()));
+		}
+
+		// execucao
+		ExecutorService executor = Executors.newFixedThreadPool(CONCURRENT_RETURNS * 2);
+		try {
+			for (Book book : books) {
+				List<Callable<Object>> loans = new ArrayList<>();
+				for (int i = 0; i < CONCURRENT_RETURNS * 2; i++) {
+					String customer = "balcao-" + i;
+					loans.add(() -> {
+						try {
+							return loanService.save(Loan.builder().book(book).customer(customer).build());
+						} catch (BusinessException e) {
+							return e;
+						}
+					});
+				}
+				runTogether(executor, loans);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		// verificacao
+		assertThat(books).allMatch(book -> openLoans(book).size() == 1);
+	}
+
+	private List<Loan> openLoans(Book book) {
+		return loanRepository.findByBook(book, Pageable.unpaged())
+							 .stream()
+							 .filter(loan -> !Boolean.TRUE.equals(loan.getReturned()))
+							 .collect(Collectors.toList());
+	}
+
+	private static void runTogether(ExecutorService executor, List<Callable<Object>> tasks) throws Exception {
+		CountDownLatch start = new CountDownLatch(1);
+		List<Future<Object>> futures = new ArrayList<>();
+		for (Callable<Object> task : tasks) {
+			futures.add(executor.submit(() -> {
+				start.await();
+				return task.call();
+			}));
+		}
+		start.countDown();
+		for (Future<Object> future : futures) {
+			future.get();
+		}
+	}
+
+}
@@ -0,0 +1,104 @@
+package br.com.libraryapi.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.catchThrowable;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mockito;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+
+import br.com.libraryapi.exception.BusinessException;
+import br.com.libraryapi.model.entity.Book;
+import br.com.libraryapi.model.entity.Reservation;
+import br.com.libraryapi.model.repository.BookRepository;
+import br.com.libraryapi.model.repository.LoanRepository;
+import br.com.libraryapi.model.repository.ReservationRepository;
+import br.com.libraryapi.service.impl.ReservationServiceImpl;
+
+@ExtendWith(SpringExtension.class)
+@ActiveProfiles("test")
+public class ReservationServiceTest {
+
+	private ReservationService service;
+
+	@MockBean
+	private ReservationRepository repository;
+
+	@MockBean
+	private BookRepository bookRepository;
+
+	@MockBean
+	private LoanRepository loanRepository;
+
+	@BeforeEach
+	public void setUp() {
+		this.service = new ReservationServiceImpl(repository, bookRepository, loanRepository);
+	}
+
+	@Test
+	@DisplayName("Deve entrar na fila de reservas de um livro emprestado")
+	public void saveReservationTest() {
+
+		// cenario
+		Book book = Book.builder().id(1l).build();
+		Reservation reservation = Reservation.builder().book(book).customer("Fulano").build();
+		Mockito.when(loanRepository.existsByBookAndNotReturned(book)).thenReturn(true);
+		Mockito.when(repository.save(reservation)).thenReturn(reservation);
+
+		// execucao
+		Reservation saved = service.save(reservation);
+
+		// verificacao
+		verify(bookRepository).findByIdForUpdate(1l);
+		assertThat(saved.getStatus()).isEqualTo(Reservation.Status.WAITING);
+		assertThat(saved.getCreatedAt()).isNotNull();
+	}
+
+	@Test
+	@DisplayName("Deve lancar erro de negocio ao reservar um livro disponivel")
+	public void availableBookReservationTest() {
+
+		// cenario
+		Book book = Book.builder().id(1l).build();
+		Reservation reservation = Reservation.builder().book(book).customer("Fulano").build();
+		Mockito.when(loanRepository.existsByBookAndNotReturned(book)).thenReturn(false);
+
+		// execucao
+		Throwable exception = catchThrowable(() -> service.save(reservation));
+
+		// verificacao
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Book is available for loan");
+		verify(repository, never()).save(reservation);
+	}
+
+	@Test
+	@DisplayName("Deve cancelar apenas reservas em espera")
+	public void cancelReservationTest() {
+
+		// cenario
+		Book book = Book.builder().id(1l).build();
+		Reservation waiting = Reservation.builder().id(1l).book(book).status(Reservation.Status.WAITING).build();
+		Reservation fulfilled = Reservation.builder().id(2l).book(book).status(Reservation.Status.FULFILLED).build();
+		Mockito.when(repository.findById(1l)).thenReturn(Optional.of(waiting));
+		Mockito.when(repository.findById(2l)).thenReturn(Optional.of(fulfilled));
+		Mockito.when(repository.save(waiting)).thenReturn(waiting);
+
+		// execucao
+		Reservation cancelled = service.cancel(waiting);
+		Throwable exception = catchThrowable(() -> service.cancel(fulfilled));
+
+		// verificacao
+		assertThat(cancelled.getStatus()).isEqualTo(Reservation.Status.CANCELLED);
+		assertThat(exception).isInstanceOf(BusinessException.class).hasMessage("Reservation is no longer waiting");
+	}
+
+}